@@ -0,0 +1,32 @@
+package com.crablet.command.web;
+
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+
+/**
+ * One line of the NDJSON batch endpoint's response: the outcome of the command on line
+ * {@code index} (zero-based, blank lines not counted) of the request body.
+ * <p>
+ * {@code status} is {@code CREATED}, {@code IDEMPOTENT} (with a {@code reason}) or {@code FAILED}
+ * (with the problem {@code type} and {@code detail} the single-command endpoint would return).
+ */
+public record CommandApiBatchItemResponse(
+        int index,
+        String status,
+        @Nullable String reason,
+        @Nullable URI type,
+        @Nullable String detail
+) {
+    public static CommandApiBatchItemResponse created(int index) {
+        return new CommandApiBatchItemResponse(index, "CREATED", null, null, null);
+    }
+
+    public static CommandApiBatchItemResponse idempotent(int index, @Nullable String reason) {
+        return new CommandApiBatchItemResponse(index, "IDEMPOTENT", reason, null, null);
+    }
+
+    public static CommandApiBatchItemResponse failed(int index, URI type, @Nullable String detail) {
+        return new CommandApiBatchItemResponse(index, "FAILED", null, type, detail);
+    }
+}
@@ -23,6 +23,11 @@ public class CommandApiProperties {
      */
     private String correlationHeaderName = "X-Correlation-Id";
 
+    /**
+     * Lines of the NDJSON batch endpoint executed and answered together; at least 1.
+     */
+    private int batchChunkSize = 100;
+
     public String getBasePath() {
         return basePath;
     }
@@ -48,4 +53,15 @@ public class CommandApiProperties {
             this.correlationHeaderName = correlationHeaderName;
         }
     }
+
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize < 1) {
+            throw new IllegalArgumentException("batchChunkSize must be at least 1");
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
 }
@@ -60,7 +60,11 @@ class CommandApiCorrelationFilter extends OncePerRequestFilter {
         if (!contextPath.isEmpty() && requestPath.startsWith(contextPath)) {
             requestPath = requestPath.substring(contextPath.length());
         }
-        return normalizePath(properties.getBasePath()).equals(normalizePath(requestPath));
+        String basePath = normalizePath(properties.getBasePath());
+        String path = normalizePath(requestPath);
+        return path.equals(basePath)
+                || path.equals(basePath + CommandApiRestController.ASYNC_SUFFIX)
+                || path.equals(basePath + CommandApiRestController.BATCH_SUFFIX);
     }
 
     private static String normalizePath(String path) {
@@ -3,6 +3,7 @@ package com.crablet.command.web.internal;
 import com.crablet.command.InvalidCommandException;
 import com.crablet.eventstore.ConcurrencyException;
 import com.crablet.eventstore.DCBViolation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +11,8 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Exception mapping for the generic REST command API.
  * Scoped to {@link CommandApiRestController} so it does not interfere with the
@@ -66,6 +69,18 @@ class CommandApiExceptionHandler {
                 .body(problem);
     }
 
+    /**
+     * The async queue is full: the command was not run, so the client may retry it as is.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    ResponseEntity<ProblemDetail> handleOverloaded(RejectedExecutionException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        problem.setType(CommandApiProblemTypes.OVERLOADED);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+
     @ExceptionHandler(Exception.class)
     ResponseEntity<ProblemDetail> handleUnexpected(Exception e) {
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected command API error");
@@ -14,9 +14,11 @@ import org.springdoc.core.customizers.OpenApiCustomizer;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
- * Replaces the generic {@code POST /api/commands} request body schema with a {@code oneOf}
+ * Replaces the generic {@code POST /api/commands} (and {@code POST /api/commands/async}) request
+ * body schema with a {@code oneOf}
  * composed schema built from the exposed command classes, enabling Swagger UI to render
  * a per-command-type dropdown with the correct field forms.
  * <p>
@@ -39,8 +41,11 @@ class CommandApiOpenApiCustomizer implements OpenApiCustomizer {
             return;
         }
 
-        var pathItem = openApi.getPaths().get(basePath);
-        if (pathItem == null || pathItem.getPost() == null) {
+        var pathItems = Stream.of(basePath, basePath + CommandApiRestController.ASYNC_SUFFIX)
+                .map(openApi.getPaths()::get)
+                .filter(pathItem -> pathItem != null && pathItem.getPost() != null)
+                .toList();
+        if (pathItems.isEmpty()) {
             return;
         }
 
@@ -72,10 +77,12 @@ class CommandApiOpenApiCustomizer implements OpenApiCustomizer {
                 .oneOf(oneOfList)
                 .discriminator(new Discriminator().propertyName("commandType").mapping(mapping));
 
-        pathItem.getPost().requestBody(
-                new RequestBody()
-                        .required(true)
-                        .content(new Content()
-                                .addMediaType("application/json", new MediaType().schema(requestBodySchema))));
+        for (var pathItem : pathItems) {
+            pathItem.getPost().requestBody(
+                    new RequestBody()
+                            .required(true)
+                            .content(new Content()
+                                    .addMediaType("application/json", new MediaType().schema(requestBodySchema))));
+        }
     }
 }
@@ -1,6 +1,10 @@
 package com.crablet.command.web.internal;
 
+import com.crablet.command.InvalidCommandException;
+import com.crablet.eventstore.ConcurrencyException;
+
 import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Stable problem type identifiers for the generic command API.
@@ -12,8 +16,23 @@ final class CommandApiProblemTypes {
     static final URI COMMAND_NOT_EXPOSED = URI.create("urn:crablet:problem:command-api:command-not-exposed");
     static final URI INVALID_COMMAND = URI.create("urn:crablet:problem:command-api:invalid-command");
     static final URI DCB_CONCURRENCY = URI.create("urn:crablet:problem:command-api:dcb-concurrency");
+    static final URI OVERLOADED = URI.create("urn:crablet:problem:command-api:overloaded");
     static final URI UNEXPECTED_ERROR = URI.create("urn:crablet:problem:command-api:unexpected-error");
 
     private CommandApiProblemTypes() {
     }
+
+    /**
+     * Problem type {@link CommandApiExceptionHandler} uses for {@code e}.
+     */
+    static URI forException(Throwable e) {
+        return switch (e) {
+            case CommandApiBadRequestException _ -> BAD_REQUEST;
+            case CommandNotExposedException _ -> COMMAND_NOT_EXPOSED;
+            case InvalidCommandException _, IllegalArgumentException _ -> INVALID_COMMAND;
+            case ConcurrencyException _ -> DCB_CONCURRENCY;
+            case RejectedExecutionException _ -> OVERLOADED;
+            default -> UNEXPECTED_ERROR;
+        };
+    }
 }
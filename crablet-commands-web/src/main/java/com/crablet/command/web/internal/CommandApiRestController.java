@@ -1,13 +1,19 @@
 package com.crablet.command.web.internal;
 
+import com.crablet.command.BatchItemResult;
+import com.crablet.command.BatchOptions;
 import com.crablet.command.CommandExecutionOptions;
 import com.crablet.command.CommandExecutor;
 import com.crablet.command.ExecutionResult;
+import com.crablet.command.web.CommandApiBatchItemResponse;
 import com.crablet.command.web.CommandApiExposedCommandsResponse;
+import com.crablet.command.web.CommandApiProperties;
 import com.crablet.command.web.CommandApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.jspecify.annotations.Nullable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,9 +24,21 @@ import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.node.ObjectNode;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Generic REST adapter that routes JSON command payloads to the {@link CommandExecutor}.
@@ -31,21 +49,38 @@ import java.util.UUID;
  * Every request must include a {@code commandType} field identifying the target command.
  * Only commands listed in a {@link com.crablet.command.web.CommandApiExposedCommands} bean
  * are reachable; all others return {@code 404 Not Found}.
+ * <p>
+ * {@code POST {base-path}/async} accepts the same payloads but runs the command through
+ * {@link CommandExecutor#executeAsync}, releasing the servlet thread for the decide/append cycle.
+ * <p>
+ * {@code POST {base-path}/batch} takes one payload per line ({@code application/x-ndjson}) and
+ * streams one {@link CommandApiBatchItemResponse} line back per command. Lines are read and
+ * executed through {@link CommandExecutor#executeBatch} in chunks of
+ * {@code crablet.commands.api.batch-chunk-size}, so neither side is held in memory whole.
  */
 @RestController
 class CommandApiRestController {
 
+    /** Path of the async endpoint, relative to the base path. */
+    static final String ASYNC_SUFFIX = "/async";
+
+    /** Path of the NDJSON batch endpoint, relative to the base path. */
+    static final String BATCH_SUFFIX = "/batch";
+
     private final CommandExecutor commandExecutor;
     private final ExposedCommandTypeRegistry exposedCommands;
     private final ObjectMapper objectMapper;
+    private final int batchChunkSize;
 
     CommandApiRestController(
             CommandExecutor commandExecutor,
             ExposedCommandTypeRegistry exposedCommands,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            CommandApiProperties properties) {
         this.commandExecutor = commandExecutor;
         this.exposedCommands = exposedCommands;
         this.objectMapper = objectMapper;
+        this.batchChunkSize = properties.getBatchChunkSize();
     }
 
     @GetMapping("${crablet.commands.api.base-path:/api/commands}")
@@ -60,6 +95,129 @@ class CommandApiRestController {
 
     @PostMapping("${crablet.commands.api.base-path:/api/commands}")
     ResponseEntity<CommandApiResponse> executeCommand(@RequestBody JsonNode body, HttpServletRequest request) {
+        Object command = parseCommand(body);
+        UUID corrId = correlationId(request);
+        ExecutionResult result = corrId != null
+                ? commandExecutor.execute(command, CommandExecutionOptions.builder().correlationId(corrId).build())
+                : commandExecutor.execute(command);
+        return toResponse(result);
+    }
+
+    @PostMapping("${crablet.commands.api.base-path:/api/commands}" + ASYNC_SUFFIX)
+    CompletableFuture<ResponseEntity<CommandApiResponse>> executeCommandAsync(
+            @RequestBody JsonNode body, HttpServletRequest request) {
+        Object command = parseCommand(body);
+        UUID corrId = correlationId(request);
+        CommandExecutionOptions options = corrId != null
+                ? CommandExecutionOptions.builder().correlationId(corrId).build()
+                : CommandExecutionOptions.defaults();
+        return commandExecutor.executeAsync(command, options).thenApply(CommandApiRestController::toResponse);
+    }
+
+    @PostMapping(
+            path = "${crablet.commands.api.base-path:/api/commands}" + BATCH_SUFFIX,
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    void executeBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BatchOptions.Builder builder = BatchOptions.builder().chunkSize(batchChunkSize);
+        UUID corrId = correlationId(request);
+        if (corrId != null) {
+            builder.correlationId(corrId);
+        }
+        BatchOptions options = builder.build();
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+
+        List<BatchLine> chunk = new ArrayList<>(batchChunkSize);
+        int index = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parseLine(index++, line));
+            if (chunk.size() == batchChunkSize) {
+                writeChunk(chunk, options, writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, options, writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * A request line: the parsed command, or the response for a line that did not parse.
+     */
+    private record BatchLine(int index, @Nullable Object command, @Nullable CommandApiBatchItemResponse rejected) {
+    }
+
+    private BatchLine parseLine(int index, String line) {
+        try {
+            return new BatchLine(index, parseCommand(objectMapper.readTree(line)), null);
+        } catch (JacksonException e) {
+            return new BatchLine(index, null, CommandApiBatchItemResponse.failed(
+                    index, CommandApiProblemTypes.MALFORMED_JSON, "Malformed JSON line"));
+        } catch (RuntimeException e) {
+            return new BatchLine(index, null, failed(index, e));
+        }
+    }
+
+    /**
+     * Execute the parsed commands of {@code chunk} as one batch and write a response line per
+     * request line, in request order.
+     */
+    private void writeChunk(List<BatchLine> chunk, BatchOptions options, Writer writer) throws IOException {
+        List<Object> commands = new ArrayList<>(chunk.size());
+        for (BatchLine line : chunk) {
+            Object command = line.command();
+            if (command != null) {
+                commands.add(command);
+            }
+        }
+        Iterator<BatchItemResult> executed = commands.isEmpty()
+                ? List.<BatchItemResult>of().iterator()
+                : commandExecutor.executeBatch(commands, options).iterator();
+        for (BatchLine line : chunk) {
+            CommandApiBatchItemResponse item = line.rejected();
+            if (item == null) {
+                item = toItemResponse(line.index(), executed.next());
+            }
+            writer.write(objectMapper.writeValueAsString(item));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static CommandApiBatchItemResponse toItemResponse(int index, BatchItemResult result) {
+        RuntimeException failure = result.failure();
+        if (failure != null) {
+            return failed(index, failure);
+        }
+        ExecutionResult executionResult = Objects.requireNonNull(result.result());
+        return executionResult.wasCreated()
+                ? CommandApiBatchItemResponse.created(index)
+                : CommandApiBatchItemResponse.idempotent(index, executionResult.reason());
+    }
+
+    /**
+     * Response line for a failed command, typed and worded as {@link CommandApiExceptionHandler}
+     * would answer it on the single-command endpoint.
+     */
+    private static CommandApiBatchItemResponse failed(int index, RuntimeException e) {
+        URI type = CommandApiProblemTypes.forException(e);
+        String detail = type.equals(CommandApiProblemTypes.UNEXPECTED_ERROR)
+                ? "Unexpected command API error"
+                : e.getMessage();
+        return CommandApiBatchItemResponse.failed(index, type, detail);
+    }
+
+    private Object parseCommand(JsonNode body) {
         if (!(body instanceof ObjectNode objectNode)) {
             throw new CommandApiBadRequestException("Command payload must be a JSON object");
         }
@@ -78,17 +236,14 @@ class CommandApiRestController {
             throw new CommandApiBadRequestException("Unknown commandType: " + commandType);
         }
 
-        Object command;
         try {
-            command = objectMapper.treeToValue(objectNode, commandClass);
+            return objectMapper.treeToValue(objectNode, commandClass);
         } catch (JacksonException | IllegalArgumentException e) {
             throw new CommandApiBadRequestException("Invalid payload for commandType: " + commandType);
         }
+    }
 
-        UUID corrId = correlationId(request);
-        ExecutionResult result = corrId != null
-                ? commandExecutor.execute(command, CommandExecutionOptions.builder().correlationId(corrId).build())
-                : commandExecutor.execute(command);
+    private static ResponseEntity<CommandApiResponse> toResponse(ExecutionResult result) {
         if (result.wasCreated()) {
             return ResponseEntity.status(HttpStatus.CREATED).body(CommandApiResponse.created());
         }
@@ -46,8 +46,9 @@ public class CommandWebAutoConfiguration {
     public CommandApiRestController commandApiRestController(
             CommandExecutor commandExecutor,
             ExposedCommandTypeRegistry exposedCommands,
-            ObjectMapper objectMapper) {
-        return new CommandApiRestController(commandExecutor, exposedCommands, objectMapper);
+            ObjectMapper objectMapper,
+            CommandApiProperties properties) {
+        return new CommandApiRestController(commandExecutor, exposedCommands, objectMapper, properties);
     }
 
     @Bean
@@ -0,0 +1,108 @@
+package com.crablet.command.web;
+
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.Query;
+import com.crablet.examples.wallet.commands.OpenWalletCommand;
+import com.crablet.test.AbstractPostgresEventStoreTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = {TestApplication.class, CommandApiAsyncE2ETest.CommandApiTestConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.profiles.active=test",
+                "crablet.commands.api.correlation-header-enabled=true"
+        }
+)
+@DisplayName("Command API Async Endpoint E2E Tests")
+class CommandApiAsyncE2ETest extends AbstractPostgresEventStoreTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("Should execute command asynchronously and store the correlation ID on events")
+    void shouldExecuteCommandAsynchronously() throws Exception {
+        UUID correlationId = UUID.randomUUID();
+        HttpResponse<String> response = postJson(openWallet("wallet-async-1"), correlationId);
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(response.headers().firstValue("X-Correlation-Id")).contains(correlationId.toString());
+        assertThat(response.body()).contains("CREATED");
+
+        List<StoredEvent> events = eventRepository.query(
+                Query.forEventAndTag("WalletOpened", "wallet_id", "wallet-async-1"), null);
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().correlationId()).isEqualTo(correlationId);
+    }
+
+    @Test
+    @DisplayName("Should return conflict for duplicate open wallet command")
+    void shouldReturnConflictForDuplicate() throws Exception {
+        HttpResponse<String> first = postJson(openWallet("wallet-async-2"), UUID.randomUUID());
+        HttpResponse<String> second = postJson(openWallet("wallet-async-2"), UUID.randomUUID());
+
+        assertThat(first.statusCode()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(second.statusCode()).isEqualTo(HttpStatus.CONFLICT.value());
+        assertThat(second.body()).contains("urn:crablet:problem:command-api:dcb-concurrency");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown command type")
+    void shouldRejectUnknownCommandType() throws Exception {
+        HttpResponse<String> response = postJson("""
+                {"commandType": "does_not_exist"}
+                """, UUID.randomUUID());
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.body()).contains("urn:crablet:problem:command-api:bad-request");
+    }
+
+    private static String openWallet(String walletId) {
+        return """
+                {
+                  "commandType": "open_wallet",
+                  "walletId": "%s",
+                  "owner": "Alice",
+                  "initialBalance": 100
+                }
+                """.formatted(walletId);
+    }
+
+    private HttpResponse<String> postJson(String json, UUID correlationId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/commands/async"))
+                .header("Content-Type", "application/json")
+                .header("X-Correlation-Id", correlationId.toString())
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @TestConfiguration
+    static class CommandApiTestConfig {
+        @Bean
+        CommandApiExposedCommands commandApiExposedCommands() {
+            return CommandApiExposedCommands.of(OpenWalletCommand.class);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crablet.command.web;
+
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.Query;
+import com.crablet.examples.wallet.commands.OpenWalletCommand;
+import com.crablet.test.AbstractPostgresEventStoreTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = {TestApplication.class, CommandApiBatchE2ETest.CommandApiTestConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.profiles.active=test",
+                "crablet.commands.api.correlation-header-enabled=true",
+                "crablet.commands.api.batch-chunk-size=2"
+        }
+)
+@DisplayName("Command API NDJSON Batch Endpoint E2E Tests")
+class CommandApiBatchE2ETest extends AbstractPostgresEventStoreTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("Should stream one result line per command line, in order")
+    void shouldStreamResultPerLine() throws Exception {
+        UUID correlationId = UUID.randomUUID();
+        String body = String.join("\n",
+                openWallet("wallet-batch-1"),
+                "{\"commandType\": ",
+                openWallet("wallet-batch-2"),
+                "",
+                openWallet("wallet-batch-1"),
+                "{\"commandType\": \"does_not_exist\"}") + "\n";
+
+        HttpResponse<String> response = postNdjson(body, correlationId);
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith("application/x-ndjson"));
+        List<CommandApiBatchItemResponse> items = response.body().lines()
+                .map(line -> objectMapper.readValue(line, CommandApiBatchItemResponse.class))
+                .toList();
+        assertThat(items).extracting(CommandApiBatchItemResponse::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(items).extracting(CommandApiBatchItemResponse::status)
+                .containsExactly("CREATED", "FAILED", "CREATED", "FAILED", "FAILED");
+        assertThat(items).extracting(item -> String.valueOf(item.type())).containsExactly(
+                "null",
+                "urn:crablet:problem:command-api:malformed-json",
+                "null",
+                "urn:crablet:problem:command-api:dcb-concurrency",
+                "urn:crablet:problem:command-api:bad-request");
+
+        List<StoredEvent> events = eventRepository.query(
+                Query.forEventAndTag("WalletOpened", "wallet_id", "wallet-batch-2"), null);
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().correlationId()).isEqualTo(correlationId);
+    }
+
+    @Test
+    @DisplayName("Should return an empty stream for an empty body")
+    void shouldHandleEmptyBody() throws Exception {
+        HttpResponse<String> response = postNdjson("", UUID.randomUUID());
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.body()).isEmpty();
+    }
+
+    private static String openWallet(String walletId) {
+        return "{\"commandType\": \"open_wallet\", \"walletId\": \"%s\", \"owner\": \"Alice\", \"initialBalance\": 100}"
+                .formatted(walletId);
+    }
+
+    private HttpResponse<String> postNdjson(String ndjson, UUID correlationId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/commands/batch"))
+                .header("Content-Type", "application/x-ndjson")
+                .header("X-Correlation-Id", correlationId.toString())
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @TestConfiguration
+    static class CommandApiTestConfig {
+        @Bean
+        CommandApiExposedCommands commandApiExposedCommands() {
+            return CommandApiExposedCommands.of(OpenWalletCommand.class);
+        }
+    }
+}
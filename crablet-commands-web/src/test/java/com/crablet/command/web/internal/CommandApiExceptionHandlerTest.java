@@ -4,12 +4,14 @@ import com.crablet.eventstore.ConcurrencyException;
 import com.crablet.eventstore.DCBErrorCode;
 import com.crablet.eventstore.DCBViolation;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,4 +35,14 @@ class CommandApiExceptionHandlerTest {
                 .containsEntry("matchingEventsCount", 1);
         assertThat(properties.get("hint")).asString().isNotBlank();
     }
+
+    @Test
+    void rejectedAsyncCommandIsServiceUnavailableWithRetryAfter() {
+        ResponseEntity<ProblemDetail> response =
+                handler.handleOverloaded(new RejectedExecutionException("Async command queue is full"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(Objects.requireNonNull(response.getBody()).getType()).isEqualTo(CommandApiProblemTypes.OVERLOADED);
+    }
 }
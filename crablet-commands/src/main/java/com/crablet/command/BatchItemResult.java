@@ -0,0 +1,40 @@
+package com.crablet.command;
+
+import com.crablet.eventstore.Stable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Outcome of one command of a batch.
+ * <p>
+ * Exactly one of {@code result} and {@code failure} is set: the {@link ExecutionResult} the
+ * command would have returned from {@link CommandExecutor#execute(Object)}, or the exception it
+ * would have thrown. A failed command does not affect the others.
+ *
+ * @param index   position of the command in the submitted list
+ * @param result  the execution result, or {@code null} if the command failed
+ * @param failure the exception, or {@code null} if the command succeeded
+ */
+@Stable
+public record BatchItemResult(int index, @Nullable ExecutionResult result, @Nullable RuntimeException failure) {
+
+    public BatchItemResult {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must not be negative");
+        }
+        if ((result == null) == (failure == null)) {
+            throw new IllegalArgumentException("exactly one of result and failure must be set");
+        }
+    }
+
+    public static BatchItemResult succeeded(int index, ExecutionResult result) {
+        return new BatchItemResult(index, result, null);
+    }
+
+    public static BatchItemResult failed(int index, RuntimeException failure) {
+        return new BatchItemResult(index, null, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,83 @@
+package com.crablet.command;
+
+import com.crablet.eventstore.Stable;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Options for {@link CommandExecutor#executeBatch(java.util.List, BatchOptions)}.
+ *
+ * <p>Consecutive commutative decisions share one transaction, up to {@code chunkSize} commands;
+ * every other command runs in its own, in order. A correlation ID is stored on the
+ * events of every command in the batch, and a retry policy applies to the commands that run on
+ * their own.
+ *
+ * <pre>{@code
+ * executor.executeBatch(commands, BatchOptions.builder()
+ *         .chunkSize(500)
+ *         .correlationId(importId)
+ *         .build());
+ * }</pre>
+ *
+ * @param chunkSize     commands per shared transaction
+ * @param correlationId correlation ID for all events of the batch, or {@code null} for none
+ * @param retryPolicy   retry policy for commands that run on their own, or {@code null} for the
+ *                      executor's configured one
+ */
+@Stable
+public record BatchOptions(
+        int chunkSize,
+        @Nullable UUID correlationId,
+        @Nullable CommandRetryPolicy retryPolicy
+) {
+    /** Commands per shared transaction when none is set. */
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+
+    public BatchOptions {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+    }
+
+    public static BatchOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Options for the commands of the batch that run on their own.
+     */
+    public CommandExecutionOptions itemOptions() {
+        return new CommandExecutionOptions(correlationId, null, retryPolicy);
+    }
+
+    public static final class Builder {
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private @Nullable UUID correlationId;
+        private @Nullable CommandRetryPolicy retryPolicy;
+
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public Builder correlationId(UUID correlationId) {
+            this.correlationId = Objects.requireNonNull(correlationId, "correlationId must not be null");
+            return this;
+        }
+
+        public Builder retryPolicy(CommandRetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null");
+            return this;
+        }
+
+        public BatchOptions build() {
+            return new BatchOptions(chunkSize, correlationId, retryPolicy);
+        }
+    }
+}
@@ -9,9 +9,9 @@ import java.util.UUID;
 /**
  * Options for controlling command execution behaviour beyond the defaults.
  *
- * <p>Use {@link #builder()} to set only the values you need — both fields are independently
+ * <p>Use {@link #builder()} to set only the values you need — all fields are independently
  * optional. Absence of a field means "use the default": no correlation context, no
- * client-supplied command ID.
+ * client-supplied command ID, and the executor's configured {@link CommandRetryPolicy}.
  *
  * <pre>{@code
  * // correlation only
@@ -34,8 +34,13 @@ import java.util.UUID;
 @Stable
 public record CommandExecutionOptions(
         @Nullable UUID correlationId,
-        @Nullable UUID commandId
+        @Nullable UUID commandId,
+        @Nullable CommandRetryPolicy retryPolicy
 ) {
+    public CommandExecutionOptions(@Nullable UUID correlationId, @Nullable UUID commandId) {
+        this(correlationId, commandId, null);
+    }
+
     public static CommandExecutionOptions defaults() {
         return builder().build();
     }
@@ -47,6 +52,7 @@ public record CommandExecutionOptions(
     public static final class Builder {
         private @Nullable UUID correlationId;
         private @Nullable UUID commandId;
+        private @Nullable CommandRetryPolicy retryPolicy;
 
         public Builder correlationId(UUID correlationId) {
             this.correlationId = Objects.requireNonNull(correlationId, "correlationId must not be null");
@@ -58,8 +64,16 @@ public record CommandExecutionOptions(
             return this;
         }
 
+        /**
+         * Retry policy for DCB conflicts of this command, in place of the executor's configured one.
+         */
+        public Builder retryPolicy(CommandRetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null");
+            return this;
+        }
+
         public CommandExecutionOptions build() {
-            return new CommandExecutionOptions(correlationId, commandId);
+            return new CommandExecutionOptions(correlationId, commandId, retryPolicy);
         }
     }
 }
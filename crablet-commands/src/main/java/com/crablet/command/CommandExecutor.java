@@ -2,6 +2,10 @@ package com.crablet.command;
 
 import com.crablet.eventstore.Stable;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for executing commands and generating events within a single transaction.
  * <p>
@@ -55,4 +59,87 @@ public interface CommandExecutor {
      * @return ExecutionResult indicating whether the operation was new or idempotent
      */
     <T> ExecutionResult execute(T command, CommandExecutionOptions options);
+
+    /**
+     * Execute a command asynchronously.
+     * Equivalent to {@code executeAsync(command, CommandExecutionOptions.defaults())}.
+     *
+     * @param <T> the command type (inferred from parameter)
+     * @param command the command to execute
+     * @return a future completed with the ExecutionResult, or exceptionally with the exception
+     *         {@link #execute(Object)} would have thrown
+     */
+    default <T> CompletableFuture<ExecutionResult> executeAsync(T command) {
+        return executeAsync(command, CommandExecutionOptions.defaults());
+    }
+
+    /**
+     * Execute a command asynchronously with explicit options.
+     *
+     * <p>The default implementation runs {@link #execute(Object, CommandExecutionOptions)} on
+     * the calling thread and returns a completed future. The built-in executor instead runs the
+     * command on a virtual thread, with at most as many commands in flight as the write pool has
+     * connections, so callers do not hold a platform thread for the decide/append cycle.
+     * {@link com.crablet.eventstore.CorrelationContext} bindings of the caller carry over to
+     * the command.
+     *
+     * @param <T>     the command type (inferred from parameter)
+     * @param command the command to execute
+     * @param options execution options built via {@link CommandExecutionOptions#builder()}
+     * @return a future completed with the ExecutionResult, or exceptionally with the exception
+     *         {@link #execute(Object, CommandExecutionOptions)} would have thrown
+     */
+    default <T> CompletableFuture<ExecutionResult> executeAsync(T command, CommandExecutionOptions options) {
+        try {
+            return CompletableFuture.completedFuture(execute(command, options));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Execute a list of commands.
+     * Equivalent to {@code executeBatch(commands, BatchOptions.defaults())}.
+     *
+     * @param commands the commands to execute, in order
+     * @return one result per command, in the order of {@code commands}
+     */
+    default List<BatchItemResult> executeBatch(List<?> commands) {
+        return executeBatch(commands, BatchOptions.defaults());
+    }
+
+    /**
+     * Execute a list of commands, with one result per command.
+     *
+     * <p>The default implementation runs every command through
+     * {@link #execute(Object, CommandExecutionOptions)} in its own transaction. The built-in
+     * executor instead runs consecutive commutative commands, up to a chunk at a time, in one
+     * transaction, appending each decision before deciding the next. Commands with any other
+     * decision, and all commands of a run whose shared transaction fails, run on their own, where
+     * DCB conflicts are retried under the retry policy in effect. Either way commands take effect in
+     * order, as if executed one by one. A failing command never fails the batch: its exception is
+     * returned in its {@link BatchItemResult}.
+     *
+     * @param commands the commands to execute, in order
+     * @param options  batch options built via {@link BatchOptions#builder()}
+     * @return one result per command, in the order of {@code commands}
+     */
+    default List<BatchItemResult> executeBatch(List<?> commands, BatchOptions options) {
+        if (commands == null) {
+            throw new IllegalArgumentException("commands must not be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("options must not be null");
+        }
+        CommandExecutionOptions itemOptions = options.itemOptions();
+        List<BatchItemResult> results = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                results.add(BatchItemResult.succeeded(i, execute(commands.get(i), itemOptions)));
+            } catch (RuntimeException e) {
+                results.add(BatchItemResult.failed(i, e));
+            }
+        }
+        return results;
+    }
 }
@@ -2,6 +2,8 @@ package com.crablet.command;
 
 import com.crablet.eventstore.EventStore;
 import com.crablet.eventstore.Stable;
+import com.crablet.eventstore.query.Query;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Generic interface for type-safe command handling.
@@ -30,4 +32,20 @@ public interface CommandHandler<T> {
      * @return the command decision describing how the events should be appended
      */
     CommandDecision handle(EventStore eventStore, T command);
+
+    /**
+     * Query whose commands should queue together, known from the command alone.
+     * <p>
+     * With command striping enabled ({@code crablet.commands.striping.enabled=true}), commands
+     * declaring the same query queue in the JVM before they borrow a connection, instead of all
+     * projecting and then blocking on the same advisory lock in {@code append_events_if}. Return
+     * the decision model, or a coarser query such as the course of a course subscription, for hot
+     * decision models only.
+     *
+     * @param command The command about to be handled
+     * @return the query, or {@code null} (the default) to run the command unqueued
+     */
+    default @Nullable Query concurrencyScope(T command) {
+        return null;
+    }
 }
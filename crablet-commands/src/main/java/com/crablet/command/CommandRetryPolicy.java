@@ -0,0 +1,79 @@
+package com.crablet.command;
+
+import com.crablet.eventstore.Stable;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Server-side retry of commands whose append lost a DCB race.
+ *
+ * <p>When an append fails with {@link com.crablet.eventstore.DCBErrorCode#DCB_VIOLATION}, the
+ * executor rolls back, waits, and runs the handler again in a fresh transaction, so it decides
+ * against the events that won the race. {@code IDEMPOTENCY_VIOLATION} and {@code GUARD_VIOLATION}
+ * are never retried: the first means the work is already done, the second that the lifecycle
+ * state the command depends on has changed.
+ *
+ * <p>Waits use decorrelated jitter: each delay is drawn uniformly between {@code baseDelay} and
+ * three times the previous delay, capped at {@code maxDelay}. Retries also draw on the
+ * executor-wide retry budget ({@code crablet.commands.retry.budget-ratio}), so a hot decision
+ * model cannot multiply the load on the database.
+ *
+ * <pre>{@code
+ * executor.execute(cmd, CommandExecutionOptions.builder()
+ *         .retryPolicy(CommandRetryPolicy.of(3, Duration.ofMillis(5), Duration.ofMillis(200)))
+ *         .build());
+ * }</pre>
+ *
+ * @param maxAttempts total attempts including the first; {@code 1} disables retries
+ * @param baseDelay   lower bound of every wait
+ * @param maxDelay    upper bound of every wait
+ */
+@Stable
+public record CommandRetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    private static final CommandRetryPolicy NONE = new CommandRetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    public CommandRetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (baseDelay == null || baseDelay.isNegative()) {
+            throw new IllegalArgumentException("baseDelay must not be null or negative");
+        }
+        if (maxDelay == null || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("maxDelay must not be null or less than baseDelay");
+        }
+    }
+
+    /**
+     * Policy that never retries; conflicts surface as {@link com.crablet.eventstore.ConcurrencyException}.
+     */
+    public static CommandRetryPolicy none() {
+        return NONE;
+    }
+
+    public static CommandRetryPolicy of(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        return new CommandRetryPolicy(maxAttempts, baseDelay, maxDelay);
+    }
+
+    /**
+     * Whether this policy allows any retry.
+     */
+    public boolean retries() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * Next wait under decorrelated jitter, given the previous one ({@code baseDelay} before the
+     * first retry).
+     */
+    public Duration nextDelay(Duration previous) {
+        long base = baseDelay.toNanos();
+        long upper = Math.min(maxDelay.toNanos(), Math.max(base, previous.toNanos()) * 3);
+        if (upper <= base) {
+            return Duration.ofNanos(Math.min(base, maxDelay.toNanos()));
+        }
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(base, upper + 1));
+    }
+}
@@ -1,19 +1,32 @@
 package com.crablet.command.config;
 
 import com.crablet.command.CommandExecutor;
-import com.crablet.command.CommandExecutors;
 import com.crablet.command.CommandHandler;
+import com.crablet.command.internal.AsyncCommandProperties;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
+import com.crablet.command.internal.CommandRetryProperties;
+import com.crablet.command.internal.CommandStripes;
+import com.crablet.command.internal.CommandStripingProperties;
+import com.crablet.command.internal.DecisionModelCache;
+import com.crablet.command.internal.DecisionModelCacheProperties;
 import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.EventStore;
 import com.crablet.eventstore.EventStoreConfig;
 import com.crablet.eventstore.Internal;
+import com.crablet.eventstore.WriteDataSource;
 import com.crablet.eventstore.config.EventStoreAutoConfiguration;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import tools.jackson.databind.ObjectMapper;
 
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -25,11 +38,27 @@ import java.util.List;
  * Registers a {@link CommandExecutor} that auto-discovers all {@link CommandHandler} beans
  * in the application context. Handlers annotated with {@code @Component} are picked up automatically.
  * <p>
+ * When {@code crablet.commands.decision-cache.enabled=true}, handler projections are served
+ * through an in-JVM {@link DecisionModelCache}.
+ * <p>
+ * {@link CommandExecutor#executeAsync} runs at most {@code crablet.commands.async.max-concurrency}
+ * commands at once, by default as many as the {@link WriteDataSource} pool has connections, and
+ * rejects commands once {@code crablet.commands.async.max-queued} more are waiting.
+ * <p>
+ * When {@code crablet.commands.retry.max-attempts} is above 1, appends that lose a DCB race are
+ * retried with a re-run handler, within a shared retry budget.
+ * <p>
+ * When {@code crablet.commands.striping.enabled=true}, commands on the same decision model queue
+ * on in-JVM {@link CommandStripes} before they borrow a connection.
+ * <p>
  * <strong>Overriding:</strong> declare your own {@link CommandExecutor} bean to bypass
  * this auto-configuration.
  */
 @Internal
 @AutoConfiguration(after = EventStoreAutoConfiguration.class)
+@EnableConfigurationProperties({
+        DecisionModelCacheProperties.class, AsyncCommandProperties.class, CommandRetryProperties.class,
+        CommandStripingProperties.class})
 public class CommandAutoConfiguration {
 
     @Bean
@@ -40,7 +69,41 @@ public class CommandAutoConfiguration {
             EventStoreConfig config,
             ClockProvider clock,
             ObjectMapper objectMapper,
-            ApplicationEventPublisher eventPublisher) {
-        return CommandExecutors.create(eventStore, commandHandlers, config, clock, objectMapper, eventPublisher);
+            ApplicationEventPublisher eventPublisher,
+            DecisionModelCacheProperties decisionCacheProperties,
+            AsyncCommandProperties asyncProperties,
+            CommandRetryProperties retryProperties,
+            CommandStripingProperties stripingProperties,
+            ObjectProvider<WriteDataSource> writeDataSource) {
+        DecisionModelCache cache = decisionCacheProperties.isEnabled()
+                ? new DecisionModelCache(decisionCacheProperties.getMaxEntries())
+                : null;
+        int maxAsyncConcurrency = asyncProperties.getMaxConcurrency() > 0
+                ? asyncProperties.getMaxConcurrency()
+                : writePoolSize(writeDataSource.getIfAvailable());
+        CommandStripes stripes = stripingProperties.isEnabled()
+                ? new CommandStripes(stripingProperties.getStripes(), eventPublisher)
+                : null;
+        return new CommandExecutorImpl(
+                eventStore, commandHandlers, config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.builder()
+                        .decisionModelCache(cache)
+                        .maxAsyncConcurrency(maxAsyncConcurrency)
+                        .maxAsyncQueued(asyncProperties.getMaxQueued())
+                        .retryPolicy(retryProperties.toPolicy())
+                        .retryBudget(retryProperties.toBudget())
+                        .commandStripes(stripes)
+                        .build());
+    }
+
+    private static int writePoolSize(@Nullable WriteDataSource writeDataSource) {
+        try {
+            if (writeDataSource != null && writeDataSource.dataSource().isWrapperFor(HikariDataSource.class)) {
+                return writeDataSource.dataSource().unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // Not unwrappable: fall back to the default
+        }
+        return CommandExecutorOptions.DEFAULT_MAX_ASYNC_CONCURRENCY;
     }
 }
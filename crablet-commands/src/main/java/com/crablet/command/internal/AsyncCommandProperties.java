@@ -0,0 +1,42 @@
+package com.crablet.command.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for {@code CommandExecutor.executeAsync}.
+ * <p>
+ * Async commands run on virtual threads; at most {@code maxConcurrency} of them decide and
+ * append at once, and up to {@code maxQueued} more wait on their virtual thread without holding a
+ * connection. Commands beyond that are rejected.
+ */
+@ConfigurationProperties(prefix = "crablet.commands.async")
+public class AsyncCommandProperties {
+
+    /**
+     * Maximum number of async commands in flight.
+     * Default: 0 (the maximum pool size of the write datasource, or 10 if it is not a HikariCP pool)
+     */
+    private int maxConcurrency = 0;
+
+    /**
+     * Maximum number of async commands waiting for one of the {@code maxConcurrency} slots.
+     * Default: 1000
+     */
+    private int maxQueued = CommandExecutorOptions.DEFAULT_MAX_ASYNC_QUEUED;
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+}
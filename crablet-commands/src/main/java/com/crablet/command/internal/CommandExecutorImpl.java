@@ -1,18 +1,26 @@
 package com.crablet.command.internal;
 
+import com.crablet.command.BatchItemResult;
+import com.crablet.command.BatchOptions;
 import com.crablet.command.CommandDecision;
 import com.crablet.command.CommandExecutionOptions;
 import com.crablet.command.CommandExecutor;
 import com.crablet.command.CommandHandler;
+import com.crablet.command.CommandRetryPolicy;
 import com.crablet.command.DiscoveredCommandRegistry;
 import com.crablet.command.ExecutionResult;
+import com.crablet.command.IdempotencyKey;
+import com.crablet.command.IdempotentCommandHandler;
 import com.crablet.command.InvalidCommandException;
+import com.crablet.command.NonCommutativeCommandHandler;
 import com.crablet.command.OnDuplicate;
+import com.crablet.command.metrics.CommandAttemptsMetric;
 import com.crablet.command.metrics.CommandFailureMetric;
 import com.crablet.command.metrics.CommandStartedMetric;
 import com.crablet.command.metrics.CommandSuccessMetric;
 import com.crablet.command.metrics.IdempotentOperationMetric;
 import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendConditionBuilder;
 import com.crablet.eventstore.AppendEvent;
 import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.CommandAuditStore;
@@ -23,6 +31,7 @@ import com.crablet.eventstore.DCBViolation;
 import com.crablet.eventstore.EventStore;
 import com.crablet.eventstore.EventStoreConfig;
 import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.internal.CommandAppendAware;
 import com.crablet.eventstore.query.Query;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -34,11 +43,19 @@ import tools.jackson.databind.ObjectMapper;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Default implementation of CommandExecutor.
@@ -76,6 +93,7 @@ public class CommandExecutorImpl implements CommandExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(CommandExecutorImpl.class);
     private static final ScopedValue<UUID> COMMAND_ID = ScopedValue.newInstance();
+    private static final ScopedValue<CommandRetryPolicy> RETRY_POLICY = ScopedValue.newInstance();
 
     private final EventStore eventStore;
     private final Map<String, CommandHandler<?>> handlers;
@@ -83,6 +101,15 @@ public class CommandExecutorImpl implements CommandExecutor {
     private final ClockProvider clock;
     private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final @Nullable DecisionModelCache decisionModelCache;
+    private final Semaphore asyncPermits;
+    private final Semaphore asyncAdmission;
+    private final int maxAsyncQueued;
+    private final CommandRetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final @Nullable CommandStripes commandStripes;
+    private final Executor asyncExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("crablet-command-", 0).factory());
 
     /**
      * Creates a new CommandExecutorImpl.
@@ -100,6 +127,28 @@ public class CommandExecutorImpl implements CommandExecutor {
                               EventStoreConfig config, ClockProvider clock,
                               ObjectMapper objectMapper,
                               ApplicationEventPublisher eventPublisher) {
+        this(eventStore, commandHandlers, config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.defaults());
+    }
+
+    /**
+     * Creates a new CommandExecutorImpl with optional collaborators and limits: a decision-model
+     * cache, the async concurrency bound, DCB conflict retries and command striping.
+     *
+     * @param eventStore the event store for persisting events
+     * @param commandHandlers list of command handlers (auto-discovered by Spring)
+     * @param config event store configuration
+     * @param clock clock provider for timestamps
+     * @param objectMapper Jackson object mapper for JSON serialization
+     * @param eventPublisher event publisher for metrics (required)
+     * @param options optional collaborators and limits; {@link CommandExecutorOptions#defaults()}
+     *                for none
+     */
+    public CommandExecutorImpl(EventStore eventStore, List<CommandHandler<?>> commandHandlers,
+                              EventStoreConfig config, ClockProvider clock,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              CommandExecutorOptions options) {
         if (eventStore == null) {
             throw new IllegalArgumentException("eventStore must not be null");
         }
@@ -118,17 +167,41 @@ public class CommandExecutorImpl implements CommandExecutor {
         if (eventPublisher == null) {
             throw new IllegalArgumentException("eventPublisher must not be null");
         }
+        if (options == null) {
+            throw new IllegalArgumentException("options must not be null");
+        }
+        @Nullable DecisionModelCache decisionModelCache = options.decisionModelCache();
+        CommandRetryPolicy retryPolicy = options.retryPolicy();
+        @Nullable CommandStripes commandStripes = options.commandStripes();
         this.eventStore = eventStore;
         this.config = config;
         this.clock = clock;
         this.objectMapper = objectMapper;
         this.eventPublisher = eventPublisher;
+        this.decisionModelCache = decisionModelCache;
+        // Fair, so queued commands run in arrival order
+        this.asyncPermits = new Semaphore(options.maxAsyncConcurrency(), true);
+        this.maxAsyncQueued = options.maxAsyncQueued();
+        this.asyncAdmission = new Semaphore(
+                (int) Math.min((long) options.maxAsyncConcurrency() + options.maxAsyncQueued(), Integer.MAX_VALUE));
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = options.retryBudget();
+        this.commandStripes = commandStripes;
 
         this.handlers = DiscoveredCommandRegistry.fromHandlers(commandHandlers).handlersByType();
 
         // Log EventStore configuration at startup
         log.info("EventStore - Command persistence: {}", config.isPersistCommands() ? "ENABLED" : "DISABLED");
         log.info("EventStore - Transaction isolation: {}", config.getTransactionIsolation());
+        if (decisionModelCache != null) {
+            log.info("CommandExecutor - Decision-model cache: ENABLED");
+        }
+        if (retryPolicy.retries()) {
+            log.info("CommandExecutor - DCB conflict retry: up to {} attempts", retryPolicy.maxAttempts());
+        }
+        if (commandStripes != null) {
+            log.info("CommandExecutor - Command striping: ENABLED");
+        }
 
         // Log handler registration
         if (handlers.isEmpty()) {
@@ -146,86 +219,305 @@ public class CommandExecutorImpl implements CommandExecutor {
 
     @Override
     public <T> ExecutionResult execute(T command, CommandExecutionOptions options) {
-        UUID correlationId = options.correlationId();
-        UUID commandId = options.commandId();
-        AtomicReference<ExecutionResult> result = new AtomicReference<>();
-        if (correlationId == null && commandId == null) {
-            return execute(command);
-        }
-        if (correlationId == null) {
-            ScopedValue.where(COMMAND_ID, commandId)
-                       .run(() -> result.set(execute(command)));
-            return result.get();
-        }
-        if (commandId == null) {
-            ScopedValue.where(CorrelationContext.CORRELATION_ID, correlationId)
-                       .run(() -> result.set(execute(command)));
-            return result.get();
-        }
-        ScopedValue.where(CorrelationContext.CORRELATION_ID, correlationId)
-                   .where(COMMAND_ID, commandId)
-                   .run(() -> result.set(execute(command)));
+        ScopedValue.@Nullable Carrier carrier = bind(null, CorrelationContext.CORRELATION_ID, options.correlationId());
+        carrier = bind(carrier, COMMAND_ID, options.commandId());
+        carrier = bind(carrier, RETRY_POLICY, options.retryPolicy());
+        return runBound(carrier, () -> execute(command));
+    }
+
+    /**
+     * Add {@code key = value} to {@code carrier}; unchanged when {@code value} is null.
+     */
+    private static <V> ScopedValue.@Nullable Carrier bind(
+            ScopedValue.@Nullable Carrier carrier, ScopedValue<V> key, @Nullable V value) {
+        if (value == null) {
+            return carrier;
+        }
+        return carrier != null ? carrier.where(key, value) : ScopedValue.where(key, value);
+    }
+
+    /**
+     * Run {@code work} with the bindings of {@code carrier}, or directly when there are none.
+     */
+    private static <R> R runBound(ScopedValue.@Nullable Carrier carrier, Supplier<R> work) {
+        if (carrier == null) {
+            return work.get();
+        }
+        AtomicReference<R> result = new AtomicReference<>();
+        carrier.run(() -> result.set(work.get()));
         return result.get();
     }
 
+    /**
+     * Runs the command on a new virtual thread once one of {@code maxAsyncConcurrency} permits is
+     * free. The caller's correlation and causation IDs are rebound on that thread; a correlation
+     * ID in {@code options} still takes precedence.
+     * <p>
+     * At most {@code maxAsyncQueued} commands wait for a permit. Beyond that the returned future
+     * fails at once with a {@link RejectedExecutionException}, and a command whose future is
+     * cancelled while it waits is not run.
+     */
     @Override
-    public <T> ExecutionResult execute(T command, CommandHandler<T> handler) {
-        // Validate command
-        if (command == null) {
-            throw new InvalidCommandException("Command cannot be null", "NULL_COMMAND");
+    public <T> CompletableFuture<ExecutionResult> executeAsync(T command, CommandExecutionOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("options must not be null");
         }
-        if (handler == null) {
-            throw new InvalidCommandException("Handler cannot be null", "NULL_HANDLER");
+        if (!asyncAdmission.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Async command queue is full: " + maxAsyncQueued + " commands are waiting"));
         }
+        @Nullable UUID correlationId = CorrelationContext.correlationId();
+        @Nullable Long causationId = CorrelationContext.causationId();
+        CompletableFuture<ExecutionResult> future = new CompletableFuture<>();
+        asyncExecutor.execute(() -> runAdmitted(future,
+                () -> inContext(correlationId, causationId, () -> execute(command, options))));
+        return future;
+    }
 
-        // Extract command type and optionally serialize for storage
-        final String commandJson;
-        String commandType;
+    /**
+     * Run admitted async work once a permit is free, unless its future was cancelled meanwhile.
+     * The future completes only after both permits are released, so a caller that has seen the
+     * result can submit again right away.
+     */
+    private void runAdmitted(CompletableFuture<ExecutionResult> future, Supplier<ExecutionResult> work) {
+        @Nullable ExecutionResult result = null;
+        @Nullable Throwable failure = null;
+        asyncPermits.acquireUninterruptibly();
         try {
-            if (config.isPersistCommands()) {
-                // If persistence enabled: serialize to string and extract type (reuse string later)
-                String json = objectMapper.writeValueAsString(command);
-                commandJson = json; // Assign to final variable
-                JsonNode jsonNode = objectMapper.readTree(json);
-                JsonNode commandTypeNode = jsonNode.get("commandType");
-                if (commandTypeNode == null || !commandTypeNode.isTextual()) {
-                    throw new InvalidCommandException(
-                        "Command type property 'commandType' not found or invalid in JSON for class: " + command.getClass().getName(),
-                        command
-                    );
+            if (!future.isDone()) {
+                result = work.get();
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            asyncPermits.release();
+            asyncAdmission.release();
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else if (result != null) {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * Run {@code work} with the given correlation context bound, as captured on another thread.
+     */
+    private static <R> R inContext(@Nullable UUID correlationId, @Nullable Long causationId, Supplier<R> work) {
+        ScopedValue.@Nullable Carrier carrier = bind(null, CorrelationContext.CORRELATION_ID, correlationId);
+        return runBound(bind(carrier, CorrelationContext.CAUSATION_ID, causationId), work);
+    }
+
+    /**
+     * Runs the commands in order. Consecutive commands whose decisions are commutative without
+     * an idempotency key, or NoOp, are decided and appended one after the other in one
+     * transaction, up to {@code chunkSize} at a time, so each handler sees the events of the
+     * commands before it. The first command that cannot be shared ends the run: the decisions
+     * before it are committed, it runs on its own through
+     * {@link #execute(Object, CommandExecutionOptions)}, and the next run starts after it. A
+     * command whose handler throws also ends the run, with its failure recorded rather than
+     * handled again. Commands of {@link NonCommutativeCommandHandler}s and
+     * {@link IdempotentCommandHandler}s are never decided in a shared transaction.
+     */
+    @Override
+    public List<BatchItemResult> executeBatch(List<?> commands, BatchOptions options) {
+        if (commands == null) {
+            throw new IllegalArgumentException("commands must not be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("options must not be null");
+        }
+        CommandExecutionOptions itemOptions = options.itemOptions();
+        BatchItemResult[] results = new BatchItemResult[commands.size()];
+        int next = 0;
+        while (next < commands.size()) {
+            int to = (int) Math.min((long) next + options.chunkSize(), commands.size());
+            int applied = shareable(commands.get(next))
+                    ? executeShared(commands, next, to, options.correlationId(), results)
+                    : next;
+            if (applied < 0) {
+                // Nothing of the run was committed: run its commands on their own
+                for (int i = next; i < to; i++) {
+                    results[i] = executeIsolated(i, commands.get(i), itemOptions);
                 }
-                commandType = commandTypeNode.asText();
+                next = to;
+            } else if (applied < to) {
+                if (results[applied] == null) {
+                    // Its decision cannot be shared; a rejected command already has its result
+                    results[applied] = executeIsolated(applied, commands.get(applied), itemOptions);
+                }
+                next = applied + 1;
             } else {
-                // If persistence disabled: use lightweight valueToTree() - no string serialization
-                commandJson = null; // Not needed when persistence disabled
-                JsonNode jsonNode = objectMapper.valueToTree(command);
-                JsonNode commandTypeNode = jsonNode.get("commandType");
-                if (commandTypeNode == null || !commandTypeNode.isTextual()) {
-                    throw new InvalidCommandException(
-                        "Command type property 'commandType' not found or invalid in JSON for class: " + command.getClass().getName(),
-                        command
-                    );
+                next = to;
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * A batched command whose decision is applied by the shared transaction.
+     */
+    private record SharedCommand(int index, String commandType, @Nullable String commandJson,
+                                 List<AppendEvent> events, ExecutionResult result, String operationType) {
+    }
+
+    /**
+     * A batched command rejected inside the shared transaction; {@code commandType} is
+     * {@code null} if the command could not be serialized.
+     */
+    private record RejectedCommand(int index, @Nullable String commandType, RuntimeException failure) {
+    }
+
+    /**
+     * Decide and append the commands from {@code from} in one transaction until one cannot be
+     * shared, one is rejected or {@code to} is reached, recording their results.
+     *
+     * @return index of the first command not applied, {@code to} if all were, or {@code -1} if
+     *         the shared transaction failed. A rejected command ends the run with its failure
+     *         recorded in {@code results}.
+     */
+    private int executeShared(List<?> commands, int from, int to, @Nullable UUID correlationId,
+                              BatchItemResult[] results) {
+        Instant startTime = clock.now();
+        List<SharedCommand> shared = new ArrayList<>();
+        AtomicReference<@Nullable RejectedCommand> rejected = new AtomicReference<>();
+        Function<EventStore, Integer> transaction = txStore -> {
+            shared.clear();
+            rejected.set(null);
+            EventStore handlerStore = decisionModelCache != null ? decisionModelCache.view(txStore) : txStore;
+            for (int i = from; i < to && (i == from || shareable(commands.get(i))); i++) {
+                Object command = commands.get(i);
+                @Nullable String commandType = null;
+                @Nullable SharedCommand decided;
+                try {
+                    SerializedCommand serialized = serialize(command);
+                    commandType = serialized.commandType();
+                    decided = decideShared(i, command, serialized, handlerStore);
+                } catch (RuntimeException e) {
+                    rejected.set(new RejectedCommand(i, commandType, e));
+                    break;
                 }
-                commandType = commandTypeNode.asText();
+                if (decided == null) {
+                    break;
+                }
+                // Appended before the next command is decided, so its handler sees these events
+                if (!decided.events().isEmpty()) {
+                    txStore.appendCommutative(decided.events());
+                }
+                shared.add(decided);
             }
 
-            if (commandType == null || commandType.isEmpty()) {
-                throw new InvalidCommandException(
-                    "Command type is null or empty for class: " + command.getClass().getName(),
-                    command
-                );
+            if (txStore instanceof CommandAuditStore auditStore) {
+                for (SharedCommand c : shared) {
+                    String json = c.commandJson();
+                    if (json != null && !c.events().isEmpty()) {
+                        auditStore.storeCommand(json, c.commandType(), startTime);
+                    }
+                }
             }
-        } catch (InvalidCommandException e) {
-            log.debug("Failed to extract command type: {}", e.getMessage());
-            eventPublisher.publishEvent(new CommandFailureMetric("unknown", "validation"));
-            throw e;
-        } catch (JacksonException e) {
-            throw new InvalidCommandException(
-                "Failed to serialize/extract command type: " + command.getClass().getName(),
-                command,
-                e
-            );
+            return shared.size();
+        };
+        try {
+            runBound(bind(null, CorrelationContext.CORRELATION_ID, correlationId),
+                    () -> eventStore.executeInTransaction(transaction));
+        } catch (RuntimeException e) {
+            log.debug("Shared batch transaction failed, executing {} commands individually", to - from, e);
+            return -1;
+        }
+
+        Duration duration = Duration.between(startTime, clock.now());
+        for (SharedCommand c : shared) {
+            eventPublisher.publishEvent(new CommandStartedMetric(c.commandType(), startTime));
+            eventPublisher.publishEvent(new CommandSuccessMetric(c.commandType(), duration, c.operationType()));
+            if (c.result().wasIdempotent()) {
+                eventPublisher.publishEvent(new IdempotentOperationMetric(c.commandType()));
+            }
+            results[c.index()] = BatchItemResult.succeeded(c.index(), c.result());
         }
+        @Nullable RejectedCommand failed = rejected.get();
+        if (failed != null) {
+            @Nullable String failedType = failed.commandType();
+            if (failedType != null) {
+                eventPublisher.publishEvent(new CommandStartedMetric(failedType, startTime));
+                eventPublisher.publishEvent(new CommandFailureMetric(failedType, failureKind(failed.failure())));
+            }
+            results[failed.index()] = BatchItemResult.failed(failed.index(), failed.failure());
+            return failed.index();
+        }
+        return from + shared.size();
+    }
+
+    /**
+     * Failure metric kind of an exception, as {@link #execute(Object, CommandHandler)} reports it.
+     */
+    private static String failureKind(RuntimeException e) {
+        return switch (e) {
+            case ConcurrencyException _ -> "concurrency";
+            case InvalidCommandException _ -> "validation";
+            default -> "runtime";
+        };
+    }
+
+    /**
+     * Whether the handler of a batched command may return a decision the shared transaction can
+     * apply. Handlers typed for non-commutative or idempotent decisions never do, so their
+     * commands are not decided twice.
+     */
+    private boolean shareable(Object command) {
+        try {
+            CommandHandler<Object> handler = getHandlerForCommand(command);
+            return !(handler instanceof NonCommutativeCommandHandler<?>)
+                    && !(handler instanceof IdempotentCommandHandler<?>);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run the handler of a batched command inside the shared transaction.
+     *
+     * @return the decision if the shared transaction can apply it, or {@code null} if the command
+     *         must run on its own
+     * @throws RuntimeException if the command is rejected
+     */
+    private @Nullable SharedCommand decideShared(int index, Object command, SerializedCommand serialized,
+                                                 EventStore handlerStore) {
+        CommandHandler<Object> handler = getHandlerForCommand(command);
+        CommandDecision decision = handler.handle(handlerStore, command);
+        validateCommandDecision(decision, command);
+        return switch (decision) {
+            case CommandDecision.Commutative c when c.idempotencyKey() == null -> new SharedCommand(
+                    index, serialized.commandType(), serialized.commandJson(), c.events(),
+                    ExecutionResult.created(), "commutative");
+            case CommandDecision.NoOp n -> new SharedCommand(
+                    index, serialized.commandType(), serialized.commandJson(), List.of(),
+                    handleIdempotentResult(n.reason(), serialized.commandType()), "no_op");
+            default -> null;
+        };
+    }
+
+    private BatchItemResult executeIsolated(int index, Object command, CommandExecutionOptions options) {
+        try {
+            return BatchItemResult.succeeded(index, execute(command, options));
+        } catch (RuntimeException e) {
+            return BatchItemResult.failed(index, e);
+        }
+    }
+
+    @Override
+    public <T> ExecutionResult execute(T command, CommandHandler<T> handler) {
+        // Validate command
+        if (command == null) {
+            throw new InvalidCommandException("Command cannot be null", "NULL_COMMAND");
+        }
+        if (handler == null) {
+            throw new InvalidCommandException("Handler cannot be null", "NULL_HANDLER");
+        }
+
+        // Extract command type and optionally serialize for storage
+        SerializedCommand serialized = serialize(command);
+        @Nullable String commandJson = serialized.commandJson();
+        String commandType = serialized.commandType();
 
         @Nullable UUID commandId = COMMAND_ID.isBound() ? COMMAND_ID.get() : null;
         if (commandId != null && !config.isPersistCommands()) {
@@ -240,9 +532,10 @@ public class CommandExecutorImpl implements CommandExecutor {
         eventPublisher.publishEvent(new CommandStartedMetric(commandType, startTime));
 
         AtomicReference<String> operationType = new AtomicReference<>("unknown");
+        AtomicReference<Query> lastDecisionModel = new AtomicReference<>();
 
         try {
-            ExecutionResult executionResult = eventStore.executeInTransaction(txStore -> {
+            Function<EventStore, ExecutionResult> transaction = txStore -> {
                 // Pre-handler command-level idempotency check.
                 // Inserts the command record using pg_current_xact_id() so the same
                 // transaction_id is shared with any subsequent event append.
@@ -258,7 +551,8 @@ public class CommandExecutorImpl implements CommandExecutor {
 
                 // Handle command and generate events
                 // Type-safe invocation: handler is CommandHandler<T>, command is T
-                CommandDecision result = handler.handle(txStore, command);
+                EventStore handlerStore = decisionModelCache != null ? decisionModelCache.view(txStore) : txStore;
+                CommandDecision result = handler.handle(handlerStore, command);
 
                 // Validate command result
                 validateCommandDecision(result, command);
@@ -269,16 +563,28 @@ public class CommandExecutorImpl implements CommandExecutor {
                     return handleIdempotentResult(e.reason(), commandType);
                 }
 
+                // Audit record for the non-idempotent path (commandId == null), written along with
+                // the append when the store can do both at once. When commandId is non-null, the
+                // record was already written pre-handler.
+                @Nullable CommandAudit audit = commandId == null && commandJson != null
+                        && txStore instanceof CommandAppendAware aware
+                        ? new CommandAudit(aware, commandJson, commandType, startTime)
+                        : null;
+
                 // Append events using the appropriate Crablet semantic method
                 @Nullable String transactionId;
                 try {
                     transactionId = switch (result) {
                         case CommandDecision.Commutative c -> {
                             operationType.set("commutative");
-                            yield c.idempotencyKey() != null
-                                    ? txStore.appendIdempotent(c.events(), c.idempotencyKey().eventType(),
-                                            c.idempotencyKey().tagKey(), c.idempotencyKey().tagValue())
-                                    : txStore.appendCommutative(c.events());
+                            IdempotencyKey key = c.idempotencyKey();
+                            yield key != null
+                                    ? append(audit, c.events(),
+                                            AppendCondition.idempotent(key.eventType(), key.tagKey(), key.tagValue()),
+                                            () -> txStore.appendIdempotent(c.events(), key.eventType(),
+                                                    key.tagKey(), key.tagValue()))
+                                    : append(audit, c.events(), AppendCondition.empty(),
+                                            () -> txStore.appendCommutative(c.events()));
                         }
                         case CommandDecision.CommutativeGuarded cg -> {
                             operationType.set("commutative_guarded");
@@ -298,7 +604,8 @@ public class CommandExecutorImpl implements CommandExecutor {
                             AppendCondition condition =
                                     AppendCondition.of(cg.guardPosition(), cg.guardQuery(), idempotencyQuery);
                             try {
-                                yield txStore.appendConditional(cg.events(), condition);
+                                yield append(audit, cg.events(), condition,
+                                        () -> txStore.appendConditional(cg.events(), condition));
                             } catch (ConcurrencyException guardEx) {
                                 // Relabel a genuine guard (lifecycle) conflict as GUARD_VIOLATION,
                                 // preserving the existing external error-code contract
@@ -318,11 +625,16 @@ public class CommandExecutorImpl implements CommandExecutor {
                         }
                         case CommandDecision.NonCommutative nc -> {
                             operationType.set("non_commutative");
-                            yield txStore.appendNonCommutative(nc.events(), nc.decisionModel(), nc.streamPosition());
+                            lastDecisionModel.set(nc.decisionModel());
+                            yield append(audit, nc.events(),
+                                    AppendConditionBuilder.of(nc.decisionModel(), nc.streamPosition()).build(),
+                                    () -> txStore.appendNonCommutative(nc.events(), nc.decisionModel(), nc.streamPosition()));
                         }
                         case CommandDecision.Idempotent i -> {
                             operationType.set("idempotent");
-                            yield txStore.appendIdempotent(i.events(), i.eventType(), i.tagKey(), i.tagValue());
+                            yield append(audit, i.events(),
+                                    AppendCondition.idempotent(i.eventType(), i.tagKey(), i.tagValue()),
+                                    () -> txStore.appendIdempotent(i.events(), i.eventType(), i.tagKey(), i.tagValue()));
                         }
                         case CommandDecision.NoOp e ->
                             throw new IllegalStateException("unreachable: empty case handled above");
@@ -332,9 +644,8 @@ public class CommandExecutorImpl implements CommandExecutor {
                     return handleConcurrencyException(e, commandType, command, result);
                 }
 
-                // Store command for audit (non-idempotent path: commandId == null).
-                // When commandId is non-null, the record was already written pre-handler.
-                if (commandId == null && commandJson != null
+                // Store command for audit unless the append already wrote it
+                if (commandId == null && commandJson != null && audit == null
                         && txStore instanceof CommandAuditStore auditStore) {
                     auditStore.storeCommand(commandJson, commandType, startTime);
                 }
@@ -342,7 +653,16 @@ public class CommandExecutorImpl implements CommandExecutor {
                 // Return success result
                 log.debug("Transaction committed successfully for command: {}", commandType);
                 return ExecutionResult.created();
-            });
+            };
+            // A declared decision model holds its stripe across all attempts; otherwise only the
+            // retries of a conflicting decision model queue on its stripe, one attempt at a time
+            @Nullable Query declaredScope = commandStripes != null ? handler.concurrencyScope(command) : null;
+            @Nullable String declaredKey = declaredScope != null ? CommandStripes.key(declaredScope) : null;
+            ExecutionResult executionResult = striped(declaredKey, () -> executeWithRetry(commandType, () -> {
+                @Nullable Query conflicted = declaredKey == null ? lastDecisionModel.get() : null;
+                return striped(conflicted != null ? CommandStripes.key(conflicted) : null,
+                        () -> eventStore.executeInTransaction(transaction));
+            }));
 
             // Calculate duration and publish success metrics
             Duration duration = Duration.between(startTime, clock.now());
@@ -373,6 +693,144 @@ public class CommandExecutorImpl implements CommandExecutor {
         }
     }
 
+    /**
+     * Command type and, when commands are persisted, JSON of a command.
+     */
+    private record SerializedCommand(String commandType, @Nullable String commandJson) {
+    }
+
+    /**
+     * Extract the command type and optionally serialize the command for storage.
+     */
+    private SerializedCommand serialize(Object command) {
+        @Nullable String commandJson;
+        String commandType;
+        try {
+            if (config.isPersistCommands()) {
+                // If persistence enabled: serialize to string and extract type (reuse string later)
+                commandJson = objectMapper.writeValueAsString(command);
+                JsonNode jsonNode = objectMapper.readTree(commandJson);
+                JsonNode commandTypeNode = jsonNode.get("commandType");
+                if (commandTypeNode == null || !commandTypeNode.isTextual()) {
+                    throw new InvalidCommandException(
+                        "Command type property 'commandType' not found or invalid in JSON for class: " + command.getClass().getName(),
+                        command
+                    );
+                }
+                commandType = commandTypeNode.asText();
+            } else {
+                // If persistence disabled: use lightweight valueToTree() - no string serialization
+                commandJson = null; // Not needed when persistence disabled
+                JsonNode jsonNode = objectMapper.valueToTree(command);
+                JsonNode commandTypeNode = jsonNode.get("commandType");
+                if (commandTypeNode == null || !commandTypeNode.isTextual()) {
+                    throw new InvalidCommandException(
+                        "Command type property 'commandType' not found or invalid in JSON for class: " + command.getClass().getName(),
+                        command
+                    );
+                }
+                commandType = commandTypeNode.asText();
+            }
+
+            if (commandType == null || commandType.isEmpty()) {
+                throw new InvalidCommandException(
+                    "Command type is null or empty for class: " + command.getClass().getName(),
+                    command
+                );
+            }
+            return new SerializedCommand(commandType, commandJson);
+        } catch (InvalidCommandException e) {
+            log.debug("Failed to extract command type: {}", e.getMessage());
+            eventPublisher.publishEvent(new CommandFailureMetric("unknown", "validation"));
+            throw e;
+        } catch (JacksonException e) {
+            throw new InvalidCommandException(
+                "Failed to serialize/extract command type: " + command.getClass().getName(),
+                command,
+                e
+            );
+        }
+    }
+
+    /**
+     * Run {@code attempt} until it succeeds or fails with anything but a retryable DCB conflict,
+     * within the attempts of the retry policy in effect and the shared retry budget. Each attempt
+     * is a fresh transaction, so the handler re-projects the decision model that changed.
+     */
+    private ExecutionResult executeWithRetry(String commandType, Supplier<ExecutionResult> attempt) {
+        CommandRetryPolicy policy = RETRY_POLICY.isBound() ? RETRY_POLICY.get() : retryPolicy;
+        if (!policy.retries()) {
+            return attempt.get();
+        }
+        retryBudget.deposit();
+        Duration delay = policy.baseDelay();
+        for (int attempts = 1; ; attempts++) {
+            try {
+                ExecutionResult result = attempt.get();
+                eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "succeeded"));
+                return result;
+            } catch (ConcurrencyException e) {
+                DCBViolation violation = e.violation;
+                if (violation == null || violation.errorCode() != DCBErrorCode.DCB_VIOLATION) {
+                    eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "failed"));
+                    throw e;
+                }
+                if (attempts >= policy.maxAttempts()) {
+                    eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "exhausted"));
+                    throw e;
+                }
+                if (!retryBudget.tryWithdraw()) {
+                    eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "budget_exhausted"));
+                    throw e;
+                }
+                delay = policy.nextDelay(delay);
+                log.debug("DCB conflict for command: {} (attempt {}), retrying in {}", commandType, attempts, delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "failed"));
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                eventPublisher.publishEvent(new CommandAttemptsMetric(commandType, attempts, "failed"));
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Run {@code work} holding the stripe of {@code key}, or directly when striping is off or
+     * there is no key.
+     */
+    private <R> R striped(@Nullable String key, Supplier<R> work) {
+        if (key == null || commandStripes == null) {
+            return work.get();
+        }
+        try (CommandStripes.Stripe ignored = commandStripes.acquire(key)) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Command audit record to write along with the append.
+     */
+    private record CommandAudit(CommandAppendAware store, String commandJson, String commandType, Instant occurredAt) {
+    }
+
+    /**
+     * Append through {@code plain}, or with {@code audit} through one
+     * {@link CommandAppendAware#appendWithCommand} call under the equivalent {@code condition}.
+     */
+    private static String append(@Nullable CommandAudit audit, List<AppendEvent> events,
+                                 AppendCondition condition, Supplier<String> plain) {
+        if (audit == null) {
+            return plain.get();
+        }
+        return audit.store().appendWithCommand(
+                events, condition, audit.commandJson(), audit.commandType(), audit.occurredAt());
+    }
+
     /**
      * Get the appropriate handler for a command based on its type.
      * <p>
@@ -0,0 +1,118 @@
+package com.crablet.command.internal;
+
+import com.crablet.command.CommandRetryPolicy;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Optional collaborators and limits of {@link CommandExecutorImpl}. Everything left unset keeps
+ * the plain executor: no decision-model cache, no retries and no striping.
+ *
+ * <pre>{@code
+ * new CommandExecutorImpl(eventStore, handlers, config, clock, objectMapper, eventPublisher,
+ *         CommandExecutorOptions.builder()
+ *                 .decisionModelCache(new DecisionModelCache(10_000))
+ *                 .retryPolicy(CommandRetryPolicy.of(5, Duration.ofMillis(10), Duration.ofMillis(200)))
+ *                 .build());
+ * }</pre>
+ *
+ * @param decisionModelCache  cache applied to the transaction-scoped store handed to handlers, or
+ *                            {@code null} to replay every decision model in full
+ * @param maxAsyncConcurrency async commands in flight at once; further ones wait on their virtual
+ *                            thread. Size it to the write pool so waiting happens here rather than
+ *                            in the pool.
+ * @param maxAsyncQueued      async commands waiting for one of those slots; further ones are
+ *                            rejected with a {@link java.util.concurrent.RejectedExecutionException}
+ * @param retryPolicy         retry policy for commands whose options do not set one
+ * @param retryBudget         budget shared by the retries of all commands
+ * @param commandStripes      stripes for commands with a declared decision model and for retries
+ *                            of conflicting ones, or {@code null} to leave all queueing to
+ *                            PostgreSQL
+ */
+public record CommandExecutorOptions(
+        @Nullable DecisionModelCache decisionModelCache,
+        int maxAsyncConcurrency,
+        int maxAsyncQueued,
+        CommandRetryPolicy retryPolicy,
+        RetryBudget retryBudget,
+        @Nullable CommandStripes commandStripes
+) {
+    /**
+     * Async commands in flight when none is configured: HikariCP's default maximum pool size.
+     */
+    public static final int DEFAULT_MAX_ASYNC_CONCURRENCY = 10;
+
+    /**
+     * Async commands waiting for a slot when none is configured.
+     */
+    public static final int DEFAULT_MAX_ASYNC_QUEUED = 1_000;
+
+    public CommandExecutorOptions {
+        if (maxAsyncConcurrency <= 0) {
+            throw new IllegalArgumentException("maxAsyncConcurrency must be positive");
+        }
+        if (maxAsyncQueued < 0) {
+            throw new IllegalArgumentException("maxAsyncQueued must not be negative");
+        }
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("retryPolicy must not be null");
+        }
+        if (retryBudget == null) {
+            throw new IllegalArgumentException("retryBudget must not be null");
+        }
+    }
+
+    public static CommandExecutorOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private @Nullable DecisionModelCache decisionModelCache;
+        private int maxAsyncConcurrency = DEFAULT_MAX_ASYNC_CONCURRENCY;
+        private int maxAsyncQueued = DEFAULT_MAX_ASYNC_QUEUED;
+        private CommandRetryPolicy retryPolicy = CommandRetryPolicy.none();
+        private RetryBudget retryBudget = RetryBudget.unlimited();
+        private @Nullable CommandStripes commandStripes;
+
+        public Builder decisionModelCache(@Nullable DecisionModelCache decisionModelCache) {
+            this.decisionModelCache = decisionModelCache;
+            return this;
+        }
+
+        public Builder maxAsyncConcurrency(int maxAsyncConcurrency) {
+            this.maxAsyncConcurrency = maxAsyncConcurrency;
+            return this;
+        }
+
+        public Builder maxAsyncQueued(int maxAsyncQueued) {
+            this.maxAsyncQueued = maxAsyncQueued;
+            return this;
+        }
+
+        public Builder retryPolicy(CommandRetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null");
+            return this;
+        }
+
+        public Builder retryBudget(RetryBudget retryBudget) {
+            this.retryBudget = Objects.requireNonNull(retryBudget, "retryBudget must not be null");
+            return this;
+        }
+
+        public Builder commandStripes(@Nullable CommandStripes commandStripes) {
+            this.commandStripes = commandStripes;
+            return this;
+        }
+
+        public CommandExecutorOptions build() {
+            return new CommandExecutorOptions(
+                    decisionModelCache, maxAsyncConcurrency, maxAsyncQueued, retryPolicy, retryBudget,
+                    commandStripes);
+        }
+    }
+}
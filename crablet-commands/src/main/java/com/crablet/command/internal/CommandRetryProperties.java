@@ -0,0 +1,97 @@
+package com.crablet.command.internal;
+
+import com.crablet.command.CommandRetryPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for retrying commands whose append lost a DCB race.
+ * <p>
+ * Only {@code DCB_VIOLATION} conflicts are retried, each in a fresh transaction that re-runs
+ * the handler. Commands can override the policy through {@code CommandExecutionOptions}; the
+ * retry budget is shared by all of them. Disabled by default ({@code max-attempts=1}).
+ */
+@ConfigurationProperties(prefix = "crablet.commands.retry")
+public class CommandRetryProperties {
+
+    /**
+     * Total attempts per command, including the first.
+     * Default: 1 (conflicts surface as ConcurrencyException)
+     */
+    private int maxAttempts = 1;
+
+    /**
+     * Lower bound of the decorrelated-jitter wait between attempts, in milliseconds.
+     */
+    private long baseDelayMs = 10;
+
+    /**
+     * Upper bound of the decorrelated-jitter wait between attempts, in milliseconds.
+     */
+    private long maxDelayMs = 200;
+
+    /**
+     * Retries earned per executed command; 0.2 allows one retry per five commands.
+     */
+    private double budgetRatio = 0.2;
+
+    /**
+     * Retries that can be saved up, and the budget a freshly started executor begins with.
+     */
+    private int budgetCapacity = 100;
+
+    /**
+     * The configured policy.
+     */
+    public CommandRetryPolicy toPolicy() {
+        return CommandRetryPolicy.of(maxAttempts, Duration.ofMillis(baseDelayMs), Duration.ofMillis(maxDelayMs));
+    }
+
+    /**
+     * A new budget with the configured ratio and capacity.
+     */
+    public RetryBudget toBudget() {
+        return new RetryBudget(budgetRatio, budgetCapacity);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    public void setBaseDelayMs(long baseDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    public void setBudgetCapacity(int budgetCapacity) {
+        this.budgetCapacity = budgetCapacity;
+    }
+}
@@ -0,0 +1,93 @@
+package com.crablet.command.internal;
+
+import com.crablet.command.metrics.CommandStripeMetric;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of fair locks that queue commands on the same decision model inside the JVM.
+ * <p>
+ * A decision model maps to its stripe through the same key {@code append_events_if} hashes for
+ * its advisory lock, so commands that would block on each other in PostgreSQL wait here instead,
+ * before they borrow a connection and project. Unrelated decision models may share a stripe;
+ * that only costs some parallelism, since the database check still decides every append.
+ */
+public final class CommandStripes {
+
+    private final ReentrantLock[] locks;
+    private final AtomicInteger[] queueDepths;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param stripes        number of locks; more stripes mean fewer unrelated commands sharing one
+     * @param eventPublisher event publisher for stripe metrics
+     */
+    public CommandStripes(int stripes, ApplicationEventPublisher eventPublisher) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        if (eventPublisher == null) {
+            throw new IllegalArgumentException("eventPublisher must not be null");
+        }
+        this.locks = new ReentrantLock[stripes];
+        this.queueDepths = new AtomicInteger[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock(true);
+            queueDepths[i] = new AtomicInteger();
+        }
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Concurrency key of a decision model, as built by {@code append_events_if}: its distinct
+     * event types and {@code key=value} tags, prefixed, sorted and comma-joined.
+     *
+     * @return the key, or {@code null} when the query has no types or tags to lock on
+     */
+    public static @Nullable String key(Query decisionModel) {
+        TreeSet<String> parts = new TreeSet<>();
+        for (QueryItem item : decisionModel.items()) {
+            item.eventTypes().forEach(type -> parts.add("concurrency_type:" + type));
+            item.tags().forEach(tag -> parts.add("concurrency_tag:" + tag.key() + "=" + tag.value()));
+        }
+        return parts.isEmpty() ? null : String.join(",", parts);
+    }
+
+    /**
+     * Block until the stripe of {@code key} is free, then hold it until the returned handle is closed.
+     */
+    public Stripe acquire(String key) {
+        int index = Math.floorMod(key.hashCode(), locks.length);
+        int queueDepth = queueDepths[index].getAndIncrement();
+        long waitStart = System.nanoTime();
+        locks[index].lock();
+        eventPublisher.publishEvent(new CommandStripeMetric(
+                Integer.toString(index), queueDepth, Duration.ofNanos(System.nanoTime() - waitStart)));
+        return new Stripe(index);
+    }
+
+    /**
+     * A held stripe; closing it lets the next queued command through.
+     */
+    public final class Stripe implements AutoCloseable {
+
+        private final int index;
+
+        private Stripe(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void close() {
+            locks[index].unlock();
+            queueDepths[index].decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.crablet.command.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for queueing commands on the same decision model inside the JVM.
+ * <p>
+ * Commands whose handler declares a decision model, and retries of commands that lost a DCB
+ * race, wait on one of {@code stripes} fair locks before borrowing a connection, instead of
+ * blocking on the advisory lock of {@code append_events_if} while holding one. Only helps when
+ * a single instance receives most of the traffic for a hot decision model.
+ */
+@ConfigurationProperties(prefix = "crablet.commands.striping")
+public class CommandStripingProperties {
+
+    /**
+     * Enable command striping.
+     * Default: false (contention is resolved by PostgreSQL alone)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of stripes decision models are hashed onto.
+     */
+    private int stripes = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+}
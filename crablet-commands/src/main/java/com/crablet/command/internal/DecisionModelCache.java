@@ -0,0 +1,298 @@
+package com.crablet.command.internal;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.internal.TransactionConnectionAware;
+import com.crablet.eventstore.internal.TransactionCursorAware;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-JVM cache of decision-model projections used by {@link CommandExecutorImpl}.
+ * <p>
+ * Entries are keyed by (query, projector ids, state type) and hold the projected state together
+ * with the {@code (transaction_id, position)} cursor of the last event folded into it. A cached
+ * entry is never returned as-is: every use runs the projection again for the events after the
+ * cursor, as the pollers read them, seeded with the cached state, so the handler always sees the
+ * same state a full replay would produce and the returned {@link ProjectionResult#streamPosition()}
+ * keeps {@code appendNonCommutative} checks exact. The saving is the replay of the prefix, not the
+ * round trip. A position alone would not do: a transaction with a higher id can commit after the
+ * fill while holding a lower position, such as a commutative deposit that takes no lock.
+ * <p>
+ * An entry is stored or advanced only when
+ * <ul>
+ *   <li>the projection started from {@link StreamPosition#zero()}, and</li>
+ *   <li>the last event's transaction is below {@code pg_snapshot_xmin(pg_current_snapshot())}
+ *       read on the command's own connection before the projection — the safe horizon pollers
+ *       and DCB checks use. Every transaction ordered before the cursor had then ended and was
+ *       folded, and the command's own uncommitted appends are never cached.</li>
+ * </ul>
+ * Cached states are shared between threads and must be immutable. Projectors whose id is the
+ * default id of an anonymous or lambda class are never cached, since such ids do not identify the
+ * projection logic. Eviction is least-recently-used once {@code maxEntries} is reached.
+ */
+public final class DecisionModelCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionModelCache.class);
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * @param maxEntries maximum number of cached decision models
+     */
+    public DecisionModelCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > DecisionModelCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Wrap the transaction-scoped store handed to a command handler. Returns {@code tx}
+     * unchanged when it cannot read the safe horizon on its own connection or resume from a
+     * {@code (transaction_id, position)} cursor.
+     */
+    public EventStore view(EventStore tx) {
+        return tx instanceof TransactionConnectionAware aware && tx instanceof TransactionCursorAware cursor
+                ? new CachingView(tx, aware, cursor)
+                : tx;
+    }
+
+    /**
+     * @return the number of cached decision models
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop all cached decision models.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private synchronized @Nullable Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Entry current = entries.get(key);
+        if (current == null || TransactionCursorAware.compare(current.position(), entry.position()) < 0) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Key(Query query, String projectorIds, Class<?> stateType) {
+    }
+
+    private record Entry(Object state, StreamPosition position) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ProjectionResult<T> project(
+            EventStore tx,
+            TransactionConnectionAware connection,
+            TransactionCursorAware cursor,
+            Query query,
+            StreamPosition after,
+            Class<T> stateType,
+            List<StateProjector<T>> projectors) {
+        @Nullable Key key = keyFor(query, after, stateType, projectors);
+        if (key == null) {
+            return tx.project(query, after, stateType, projectors);
+        }
+
+        // Read before the projection, so every transaction below it is visible to the projection
+        String horizon = connection.safeHorizon();
+        @Nullable Entry cached = get(key);
+        List<StateProjector<T>> effective = new ArrayList<>(projectors.size() + 1);
+        if (cached != null) {
+            T state = (T) cached.state();
+            for (StateProjector<T> projector : projectors) {
+                effective.add(new SeededProjector<>(projector, state));
+            }
+        } else {
+            effective.addAll(projectors);
+        }
+        EventCounter<T> counter = new EventCounter<>(effective.get(0));
+        effective.add(counter);
+
+        ProjectionResult<T> result = cached != null
+                ? cursor.projectAfterCursor(query, cached.position(), stateType, effective)
+                : tx.project(query, after, stateType, effective);
+        StreamPosition last = result.streamPosition();
+        if (counter.count == 0 || last == null) {
+            return result;
+        }
+        @Nullable String transactionId = last.transactionId();
+        if (transactionId != null && TransactionCursorAware.isBelow(transactionId, horizon)) {
+            put(key, new Entry(result.state(), last));
+        } else {
+            log.debug("Decision model for {} not cached: position {} is above the safe horizon",
+                    key.projectorIds(), last.position());
+        }
+        return result;
+    }
+
+    private static <T> @Nullable Key keyFor(
+            Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+        // A latest-N query cannot be extended by a delta read
+        if (after.position() != 0 || query.latest() != 0 || projectors.isEmpty()) {
+            return null;
+        }
+        for (StateProjector<T> projector : projectors) {
+            if (!hasStableId(projector)) {
+                return null;
+            }
+        }
+        String projectorIds = projectors.stream()
+                .map(StateProjector::getId)
+                .collect(Collectors.joining(","));
+        return new Key(query, projectorIds, stateType);
+    }
+
+    private static boolean hasStableId(StateProjector<?> projector) {
+        Class<?> type = projector.getClass();
+        boolean generated = type.isAnonymousClass() || type.isHidden() || type.isSynthetic();
+        return !(generated && projector.getId().equals(type.getSimpleName()));
+    }
+
+    /**
+     * Projector that starts from cached state instead of the projector's initial state.
+     */
+    private record SeededProjector<T>(StateProjector<T> projector, T cachedState) implements StateProjector<T> {
+
+        @Override
+        public String getId() {
+            return projector.getId();
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return projector.getEventTypes();
+        }
+
+        @Override
+        public T getInitialState() {
+            return cachedState;
+        }
+
+        @Override
+        public T transition(T currentState, StoredEvent event, EventDeserializer deserializer) {
+            return projector.transition(currentState, event, deserializer);
+        }
+    }
+
+    /**
+     * Pass-through projector that counts the events folded by a projection. An empty
+     * {@link #getEventTypes()} means it sees every event the query returns, and since it is never
+     * done the fold reads every event up to the returned position.
+     */
+    private static final class EventCounter<T> implements StateProjector<T> {
+
+        private final StateProjector<T> first;
+        private int count;
+
+        private EventCounter(StateProjector<T> first) {
+            this.first = first;
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return List.of();
+        }
+
+        @Override
+        public T getInitialState() {
+            return first.getInitialState();
+        }
+
+        @Override
+        public T transition(T currentState, StoredEvent event, EventDeserializer deserializer) {
+            count++;
+            return currentState;
+        }
+    }
+
+    /**
+     * Transaction-scoped view that serves projections through the cache and forwards everything
+     * else to the transaction-scoped store.
+     */
+    private final class CachingView implements EventStore {
+
+        private final EventStore tx;
+        private final TransactionConnectionAware connection;
+        private final TransactionCursorAware cursor;
+
+        private CachingView(EventStore tx, TransactionConnectionAware connection, TransactionCursorAware cursor) {
+            this.tx = tx;
+            this.connection = connection;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public String appendCommutative(List<AppendEvent> events) {
+            return tx.appendCommutative(events);
+        }
+
+        @Override
+        public String appendNonCommutative(
+                List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
+            return tx.appendNonCommutative(events, decisionModel, streamPosition);
+        }
+
+        @Override
+        public String appendConditional(List<AppendEvent> events, AppendCondition condition) {
+            return tx.appendConditional(events, condition);
+        }
+
+        @Override
+        public String appendIdempotent(List<AppendEvent> events, String eventType, String tagKey, String tagValue) {
+            return tx.appendIdempotent(events, eventType, tagKey, tagValue);
+        }
+
+        @Override
+        public String appendIdempotent(List<AppendEvent> events, Query idempotencyQuery) {
+            return tx.appendIdempotent(events, idempotencyQuery);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> project(
+                Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+            return DecisionModelCache.this.project(tx, connection, cursor, query, after, stateType, projectors);
+        }
+
+        @Override
+        public boolean exists(Query query) {
+            return tx.exists(query);
+        }
+
+        @Override
+        public <T> T executeInTransaction(Function<EventStore, T> operation) {
+            return tx.executeInTransaction(operation);
+        }
+    }
+}
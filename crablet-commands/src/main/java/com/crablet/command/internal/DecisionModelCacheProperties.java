@@ -0,0 +1,41 @@
+package com.crablet.command.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-JVM decision-model cache.
+ * <p>
+ * When enabled, projections made by command handlers start from the cached state of the same
+ * decision model and read only the events appended since. Cached states are shared between
+ * threads, so enable this only when decision-model states are immutable. Disabled by default.
+ */
+@ConfigurationProperties(prefix = "crablet.commands.decision-cache")
+public class DecisionModelCacheProperties {
+
+    /**
+     * Whether the decision-model cache is enabled.
+     * Default: false (every handler projection replays the full history)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached decision models; the least recently used is evicted beyond it.
+     */
+    private int maxEntries = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
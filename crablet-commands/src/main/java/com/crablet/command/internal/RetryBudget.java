@@ -0,0 +1,62 @@
+package com.crablet.command.internal;
+
+/**
+ * Token bucket that caps DCB conflict retries to a fraction of executed commands.
+ * <p>
+ * Every command that may retry deposits {@code ratio} tokens, and every retry withdraws one.
+ * The bucket holds at most {@code capacity} tokens and starts full, so a freshly started
+ * executor can retry straight away. Under sustained contention retries stay below
+ * {@code ratio} times the command rate instead of multiplying it.
+ */
+public final class RetryBudget {
+
+    private final double ratio;
+    private final double capacity;
+    private double tokens;
+
+    /**
+     * @param ratio    tokens deposited per command; {@code 0.2} allows one retry per five commands
+     * @param capacity maximum tokens held, and the initial balance
+     */
+    public RetryBudget(double ratio, int capacity) {
+        if (ratio < 0 || Double.isNaN(ratio)) {
+            throw new IllegalArgumentException("ratio must not be negative");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.ratio = ratio;
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    /**
+     * Budget that never limits retries.
+     */
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Credit one executed command.
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(capacity, tokens + ratio);
+    }
+
+    /**
+     * Take the token for one retry.
+     *
+     * @return {@code false} if the budget is spent and the conflict should surface instead
+     */
+    public synchronized boolean tryWithdraw() {
+        if (capacity == Integer.MAX_VALUE) {
+            return true;
+        }
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.crablet.command.metrics;
+
+import com.crablet.eventstore.metrics.MetricEvent;
+
+/**
+ * Metric event published when a command that may retry DCB conflicts finishes.
+ * <p>
+ * Published by CommandExecutorImpl once per command whose retry policy allows more than one
+ * attempt. A high attempt count for a command type points at a hot decision model.
+ */
+public record CommandAttemptsMetric(String commandType, int attempts, String outcome) implements MetricEvent {
+    /**
+     * Create a metric event for the attempts a command took.
+     *
+     * @param commandType The command type name (must not be null or empty)
+     * @param attempts Attempts made, including the first (must be positive)
+     * @param outcome How the last attempt ended: "succeeded", "failed", "exhausted" (no attempts
+     *                left) or "budget_exhausted" (retry budget spent) (must not be null or empty)
+     */
+    public CommandAttemptsMetric {
+        if (commandType == null || commandType.isEmpty()) {
+            throw new IllegalArgumentException("Command type cannot be null or empty");
+        }
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Attempts must be positive");
+        }
+        if (outcome == null || outcome.isEmpty()) {
+            throw new IllegalArgumentException("Outcome cannot be null or empty");
+        }
+    }
+}
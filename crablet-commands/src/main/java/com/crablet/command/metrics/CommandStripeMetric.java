@@ -0,0 +1,33 @@
+package com.crablet.command.metrics;
+
+import com.crablet.eventstore.metrics.MetricEvent;
+
+import java.time.Duration;
+
+/**
+ * Metric event published when a command acquires its stripe.
+ * <p>
+ * Published by CommandExecutorImpl when command striping is enabled. A growing queue depth or
+ * wait time on one stripe points at a hot decision model.
+ */
+public record CommandStripeMetric(String stripe, int queueDepth, Duration waitTime) implements MetricEvent {
+    /**
+     * Create a metric event for one stripe acquisition.
+     *
+     * @param stripe The stripe index (must not be null or empty)
+     * @param queueDepth Commands holding or waiting for the stripe when this one arrived
+     *                   (must not be negative)
+     * @param waitTime Time spent waiting for the stripe (must not be null)
+     */
+    public CommandStripeMetric {
+        if (stripe == null || stripe.isEmpty()) {
+            throw new IllegalArgumentException("Stripe cannot be null or empty");
+        }
+        if (queueDepth < 0) {
+            throw new IllegalArgumentException("Queue depth cannot be negative");
+        }
+        if (waitTime == null) {
+            throw new IllegalArgumentException("Wait time cannot be null");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.crablet.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class BatchOptionsTest {
+
+    @Test
+    void defaultsUseDefaultChunkSizeAndNoCorrelation() {
+        BatchOptions options = BatchOptions.defaults();
+
+        assertThat(options.chunkSize()).isEqualTo(BatchOptions.DEFAULT_CHUNK_SIZE);
+        assertThat(options.correlationId()).isNull();
+        assertThat(options.retryPolicy()).isNull();
+    }
+
+    @Test
+    void itemOptionsCarryCorrelationAndRetryPolicyButNoCommandId() {
+        UUID correlationId = UUID.randomUUID();
+        CommandRetryPolicy policy = CommandRetryPolicy.of(3, Duration.ofMillis(5), Duration.ofMillis(50));
+
+        CommandExecutionOptions itemOptions = BatchOptions.builder()
+                .correlationId(correlationId)
+                .retryPolicy(policy)
+                .build()
+                .itemOptions();
+
+        assertThat(itemOptions.correlationId()).isEqualTo(correlationId);
+        assertThat(itemOptions.retryPolicy()).isEqualTo(policy);
+        assertThat(itemOptions.commandId()).isNull();
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BatchOptions.builder().chunkSize(0).build())
+                .withMessage("chunkSize must be at least 1");
+    }
+
+    @Test
+    void itemResultHoldsExactlyOneOfResultAndFailure() {
+        assertThat(BatchItemResult.succeeded(0, ExecutionResult.created()).isSuccess()).isTrue();
+        assertThat(BatchItemResult.failed(1, new IllegalStateException("boom")).isSuccess()).isFalse();
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BatchItemResult(0, null, null))
+                .withMessage("exactly one of result and failure must be set");
+    }
+}
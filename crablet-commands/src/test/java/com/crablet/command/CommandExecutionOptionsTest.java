@@ -2,6 +2,7 @@ package com.crablet.command;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -15,6 +16,18 @@ class CommandExecutionOptionsTest {
 
         assertThat(options.correlationId()).isNull();
         assertThat(options.commandId()).isNull();
+        assertThat(options.retryPolicy()).isNull();
+    }
+
+    @Test
+    void builderStoresRetryPolicy() {
+        CommandRetryPolicy policy = CommandRetryPolicy.of(3, Duration.ofMillis(5), Duration.ofMillis(50));
+
+        CommandExecutionOptions options = CommandExecutionOptions.builder()
+                .retryPolicy(policy)
+                .build();
+
+        assertThat(options.retryPolicy()).isEqualTo(policy);
     }
 
     @Test
@@ -40,5 +53,8 @@ class CommandExecutionOptionsTest {
         assertThatNullPointerException()
                 .isThrownBy(() -> CommandExecutionOptions.builder().commandId(null))
                 .withMessage("commandId must not be null");
+        assertThatNullPointerException()
+                .isThrownBy(() -> CommandExecutionOptions.builder().retryPolicy(null))
+                .withMessage("retryPolicy must not be null");
     }
 }
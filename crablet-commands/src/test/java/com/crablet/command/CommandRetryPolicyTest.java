@@ -0,0 +1,56 @@
+package com.crablet.command;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandRetryPolicy Unit Tests")
+class CommandRetryPolicyTest {
+
+    @Test
+    @DisplayName("none should allow a single attempt")
+    void none_ShouldAllowSingleAttempt() {
+        assertThat(CommandRetryPolicy.none().maxAttempts()).isEqualTo(1);
+        assertThat(CommandRetryPolicy.none().retries()).isFalse();
+    }
+
+    @Test
+    @DisplayName("nextDelay should stay between base delay and max delay")
+    void nextDelay_ShouldStayWithinBounds() {
+        CommandRetryPolicy policy = CommandRetryPolicy.of(5, Duration.ofMillis(10), Duration.ofMillis(100));
+
+        Duration delay = policy.baseDelay();
+        for (int i = 0; i < 1_000; i++) {
+            Duration next = policy.nextDelay(delay);
+            assertThat(next).isBetween(Duration.ofMillis(10), Duration.ofMillis(100));
+            assertThat(next).isLessThanOrEqualTo(delay.multipliedBy(3));
+            delay = next;
+        }
+    }
+
+    @Test
+    @DisplayName("nextDelay should return the base delay when base and max delay are equal")
+    void nextDelay_WithEqualBounds_ShouldReturnBaseDelay() {
+        CommandRetryPolicy policy = CommandRetryPolicy.of(3, Duration.ofMillis(20), Duration.ofMillis(20));
+
+        assertThat(policy.nextDelay(Duration.ofMillis(20))).isEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    @DisplayName("constructor should reject invalid values")
+    void constructor_ShouldRejectInvalidValues() {
+        assertThatThrownBy(() -> CommandRetryPolicy.of(0, Duration.ZERO, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxAttempts must be at least 1");
+        assertThatThrownBy(() -> CommandRetryPolicy.of(3, Duration.ofMillis(-1), Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("baseDelay");
+        assertThatThrownBy(() -> CommandRetryPolicy.of(3, Duration.ofMillis(10), Duration.ofMillis(5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxDelay");
+    }
+}
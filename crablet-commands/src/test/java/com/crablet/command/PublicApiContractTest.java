@@ -5,6 +5,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -19,6 +21,24 @@ class PublicApiContractTest {
         assertThat(executeMethod(Object.class, CommandExecutionOptions.class).getReturnType()).isEqualTo(ExecutionResult.class);
     }
 
+    @Test
+    @DisplayName("CommandExecutor executeAsync overloads should return CompletableFuture")
+    void commandExecutorExecuteAsyncOverloads_ShouldReturnCompletableFuture() throws NoSuchMethodException {
+        assertThat(CommandExecutor.class.getMethod("executeAsync", Object.class).getReturnType())
+                .isEqualTo(CompletableFuture.class);
+        assertThat(CommandExecutor.class.getMethod("executeAsync", Object.class, CommandExecutionOptions.class)
+                .getReturnType()).isEqualTo(CompletableFuture.class);
+    }
+
+    @Test
+    @DisplayName("CommandExecutor executeBatch overloads should return a list")
+    void commandExecutorExecuteBatchOverloads_ShouldReturnList() throws NoSuchMethodException {
+        assertThat(CommandExecutor.class.getMethod("executeBatch", List.class).getReturnType())
+                .isEqualTo(List.class);
+        assertThat(CommandExecutor.class.getMethod("executeBatch", List.class, BatchOptions.class)
+                .getReturnType()).isEqualTo(List.class);
+    }
+
     @Test
     @DisplayName("CommutativeCommandHandler decide should return CommutativeDecision")
     void commutativeCommandHandlerDecide_ShouldReturnCommutativeDecision() throws NoSuchMethodException {
@@ -0,0 +1,193 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandExecutionOptions;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.ExecutionResult;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.CorrelationContext;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.Query;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandExecutorImpl executeAsync tests")
+class CommandExecutorImplAsyncTest extends AbstractCommandTest {
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("runs the command on a virtual thread with the caller's correlation ID")
+    void runsOnVirtualThreadWithCallerCorrelation() {
+        AsyncHandler handler = new AsyncHandler();
+        CommandExecutorImpl executor = executor(handler, 4);
+        UUID correlationId = UUID.randomUUID();
+
+        List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
+        ScopedValue.where(CorrelationContext.CORRELATION_ID, correlationId)
+                   .run(() -> futures.add(executor.executeAsync(new TestCommand("test_command", "async-1"))));
+
+        assertThat(futures.getFirst().join().wasCreated()).isTrue();
+        assertThat(handler.virtual.get()).isTrue();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT correlation_id FROM crablet_events WHERE type = 'async_event'", UUID.class))
+                .isEqualTo(correlationId);
+    }
+
+    @Test
+    @DisplayName("options correlation ID takes precedence over the caller's")
+    void optionsCorrelationTakesPrecedence() {
+        CommandExecutorImpl executor = executor(new AsyncHandler(), 4);
+        UUID optionsCorrelationId = UUID.randomUUID();
+
+        List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
+        ScopedValue.where(CorrelationContext.CORRELATION_ID, UUID.randomUUID())
+                   .run(() -> futures.add(executor.executeAsync(
+                           new TestCommand("test_command", "async-2"),
+                           CommandExecutionOptions.builder().correlationId(optionsCorrelationId).build())));
+
+        futures.getFirst().join();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT correlation_id FROM crablet_events WHERE type = 'async_event'", UUID.class))
+                .isEqualTo(optionsCorrelationId);
+    }
+
+    @Test
+    @DisplayName("runs no more commands at once than maxAsyncConcurrency")
+    void boundsConcurrency() {
+        AsyncHandler handler = new AsyncHandler();
+        CommandExecutorImpl executor = executor(handler, 2);
+
+        List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            futures.add(executor.executeAsync(new TestCommand("test_command", "async-bound-" + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(handler.maxInFlight.get()).isBetween(1, 2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM crablet_events WHERE type = 'async_event'", Integer.class)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("completes exceptionally with the exception execute() would throw")
+    void completesExceptionally() {
+        AsyncHandler handler = new AsyncHandler();
+        CommandExecutorImpl executor = executor(handler, 4);
+        TestCommand command = new TestCommand("test_command", "async-3");
+        handler.stale.set(true);
+        executor.executeAsync(command).join();
+
+        assertThatThrownBy(() -> executor.executeAsync(command).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ConcurrencyException.class);
+    }
+
+    @Test
+    @DisplayName("rejects commands beyond maxAsyncQueued and skips cancelled queued ones")
+    void boundsQueue() {
+        AsyncHandler handler = new AsyncHandler();
+        handler.gate = new CountDownLatch(1);
+        CommandExecutorImpl executor = new CommandExecutorImpl(
+                eventStore, List.of(handler), config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.builder().maxAsyncConcurrency(1).maxAsyncQueued(1).build());
+
+        CompletableFuture<ExecutionResult> running = executor.executeAsync(new TestCommand("test_command", "async-q-1"));
+        CompletableFuture<ExecutionResult> queued = executor.executeAsync(new TestCommand("test_command", "async-q-2"));
+        CompletableFuture<ExecutionResult> rejected = executor.executeAsync(new TestCommand("test_command", "async-q-3"));
+
+        assertThatThrownBy(rejected::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        queued.cancel(false);
+        handler.gate.countDown();
+        running.join();
+        // Queued behind the cancelled command, so it runs only after that one was skipped
+        executor.executeAsync(new TestCommand("test_command", "async-q-4")).join();
+
+        assertThat(handler.calls.get()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT tags[1] FROM crablet_events WHERE type = 'async_event' ORDER BY position", String.class))
+                .containsExactly("entityid=async-q-1", "entityid=async-q-4");
+    }
+
+    private CommandExecutorImpl executor(CommandHandler<TestCommand> handler, int maxAsyncConcurrency) {
+        return new CommandExecutorImpl(
+                eventStore, List.of(handler), config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.builder().maxAsyncConcurrency(maxAsyncConcurrency).build());
+    }
+
+    /**
+     * Appends one event per command, recording the thread kind and the commands in flight.
+     * With {@code stale} set, decides against an empty decision model so a repeat conflicts;
+     * with a {@code gate}, waits for it before deciding.
+     */
+    static class AsyncHandler implements CommandHandler<TestCommand> {
+
+        final AtomicBoolean virtual = new AtomicBoolean();
+        final AtomicBoolean stale = new AtomicBoolean();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        volatile @Nullable CountDownLatch gate;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        @Override
+        public CommandDecision handle(EventStore eventStore, TestCommand command) {
+            virtual.set(Thread.currentThread().isVirtual());
+            calls.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                CountDownLatch latch = gate;
+                if (latch != null) {
+                    latch.await();
+                }
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            AppendEvent event = AppendEvent.builder("async_event").tag("entityId", command.entityId()).data("{}").build();
+            if (stale.get()) {
+                return CommandDecision.NonCommutative.of(
+                        event, Query.forEventAndTag("async_event", "entityId", command.entityId()), StreamPosition.zero());
+            }
+            return CommandDecision.Commutative.of(event);
+        }
+    }
+}
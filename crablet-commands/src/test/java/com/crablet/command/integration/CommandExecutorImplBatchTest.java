@@ -0,0 +1,199 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.BatchItemResult;
+import com.crablet.command.BatchOptions;
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.InvalidCommandException;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CommandExecutorImpl batch execution tests")
+class CommandExecutorImplBatchTest extends AbstractCommandTest {
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private CommandExecutorImpl executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new CommandExecutorImpl(
+                eventStore, List.of(new TestCommandHandler()), config, clock, objectMapper, eventPublisher);
+        // "commutative-*" appends freely, "reject-*" is invalid, "stale-*" decides against a
+        // decision model that has already changed
+        TestCommandHandler.setHandlerLogic(cmd -> {
+            AppendEvent event = AppendEvent.builder("batch_event").tag("entityId", cmd.entityId()).data("{}").build();
+            if (cmd.entityId().startsWith("reject-")) {
+                throw new InvalidCommandException("rejected", cmd);
+            }
+            if (cmd.entityId().startsWith("stale-")) {
+                return CommandDecision.NonCommutative.of(event,
+                        Query.forEventAndTag("batch_event", "entityId", cmd.entityId()), StreamPosition.zero());
+            }
+            return CommandDecision.Commutative.of(event);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestCommandHandler.clearHandlerLogic();
+    }
+
+    @Test
+    @DisplayName("appends the commutative decisions of a chunk in one transaction")
+    void sharesOneTransaction() {
+        List<BatchItemResult> results = executor.executeBatch(
+                List.of(command("commutative-1"), command("commutative-2"), command("commutative-3")));
+
+        assertThat(results).extracting(BatchItemResult::index).containsExactly(0, 1, 2);
+        assertThat(results).allSatisfy(r -> assertThat(r.isSuccess()).isTrue());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT transaction_id) FROM crablet_events", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("runs one transaction per chunk")
+    void chunksBatch() {
+        executor.executeBatch(
+                List.of(command("commutative-1"), command("commutative-2"), command("commutative-3")),
+                BatchOptions.builder().chunkSize(2).build());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT transaction_id) FROM crablet_events", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("isolates failing commands without failing the others")
+    void isolatesFailures() {
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("batch_event").tag("entityId", "stale-1").data("{}").build()));
+
+        List<BatchItemResult> results = executor.executeBatch(List.of(
+                command("commutative-1"), command("reject-1"), command("stale-1"), command("commutative-2")));
+
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).failure()).isInstanceOf(InvalidCommandException.class);
+        assertThat(results.get(2).failure()).isInstanceOf(ConcurrencyException.class);
+        assertThat(results.get(3).isSuccess()).isTrue();
+        // The seeded event and the two commutative ones
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("applies mixed commutative and non-commutative commands in order")
+    void keepsOrder() {
+        // "deposit-*" appends freely; "withdraw-*" needs an earlier deposit
+        Query deposits = Query.forEventAndTag("deposit_event", "wallet", "w1");
+        TestCommandHandler.setHandlerLogic(cmd -> {
+            if (cmd.entityId().startsWith("deposit-")) {
+                return CommandDecision.Commutative.of(
+                        AppendEvent.builder("deposit_event").tag("wallet", "w1").data("{}").build());
+            }
+            if (!eventStore.exists(deposits)) {
+                throw new InvalidCommandException("insufficient funds", cmd);
+            }
+            return CommandDecision.NonCommutative.of(
+                    AppendEvent.builder("withdraw_event").tag("wallet", "w1").data("{}").build(),
+                    deposits, eventStore.project(deposits, StateProjector.exists()).streamPosition());
+        });
+
+        List<BatchItemResult> results = executor.executeBatch(List.of(
+                command("withdraw-1"), command("deposit-1"), command("withdraw-2"), command("deposit-2")));
+
+        assertThat(results.get(0).failure()).isInstanceOf(InvalidCommandException.class);
+        assertThat(results.get(1).isSuccess()).isTrue();
+        assertThat(results.get(2).isSuccess()).isTrue();
+        assertThat(results.get(3).isSuccess()).isTrue();
+        assertThat(jdbcTemplate.queryForList("SELECT type FROM crablet_events ORDER BY position", String.class))
+                .containsExactly("deposit_event", "withdraw_event", "deposit_event");
+    }
+
+    @Test
+    @DisplayName("lets each shared handler see the commands before it and decides rejected ones once")
+    void sharesEarlierDecisions() {
+        DepositHandler handler = new DepositHandler();
+        CommandExecutorImpl sharing = new CommandExecutorImpl(
+                eventStore, List.of(handler), config, clock, objectMapper, eventPublisher);
+
+        List<BatchItemResult> results = sharing.executeBatch(List.of(
+                command("deposit-1"), command("check-1"), command("reject-1"), command("deposit-2")));
+
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).result().wasIdempotent()).isTrue();
+        assertThat(results.get(2).failure()).isInstanceOf(InvalidCommandException.class);
+        assertThat(results.get(3).isSuccess()).isTrue();
+        assertThat(handler.rejections.get()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("stores the batch correlation ID on every event")
+    void storesCorrelationId() {
+        UUID correlationId = UUID.randomUUID();
+
+        executor.executeBatch(List.of(command("commutative-1"), command("stale-2")),
+                BatchOptions.builder().correlationId(correlationId).build());
+
+        assertThat(jdbcTemplate.queryForList("SELECT correlation_id FROM crablet_events", UUID.class))
+                .containsExactly(correlationId, correlationId);
+    }
+
+    /**
+     * Deposits to one wallet through the store it is handed. "check-*" is a NoOp once a deposit
+     * is visible, "reject-*" is invalid.
+     */
+    static class DepositHandler implements CommandHandler<TestCommand> {
+
+        private static final Query DEPOSITS = Query.forEventAndTag("deposit_event", "wallet", "w1");
+
+        final AtomicInteger rejections = new AtomicInteger();
+
+        @Override
+        public CommandDecision handle(EventStore eventStore, TestCommand command) {
+            if (command.entityId().startsWith("reject-")) {
+                rejections.incrementAndGet();
+                throw new InvalidCommandException("rejected", command);
+            }
+            if (command.entityId().startsWith("check-") && eventStore.exists(DEPOSITS)) {
+                return new CommandDecision.NoOp("already deposited");
+            }
+            return CommandDecision.Commutative.of(
+                    AppendEvent.builder("deposit_event").tag("wallet", "w1").data("{}").build());
+        }
+    }
+
+    private static TestCommand command(String entityId) {
+        return new TestCommand("test_command", entityId);
+    }
+}
@@ -4,6 +4,7 @@ import com.crablet.command.CommandDecision;
 import com.crablet.command.CommandHandler;
 import com.crablet.command.InvalidCommandException;
 import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
 import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.EventStore;
 import com.crablet.eventstore.EventStoreConfig;
@@ -160,4 +161,18 @@ class CommandExecutorImplConstructorTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("eventPublisher must not be null");
     }
+
+    @Test
+    @DisplayName("Constructor with non-positive maxAsyncConcurrency should throw IllegalArgumentException")
+    void constructor_WithNonPositiveMaxAsyncConcurrency_ShouldThrowIllegalArgumentException() {
+        // Given
+        List<CommandHandler<?>> handlers = List.of(new TestCommandHandler());
+
+        // When & Then
+        assertThatThrownBy(() -> new CommandExecutorImpl(
+                eventStore, handlers, config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.builder().maxAsyncConcurrency(0).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxAsyncConcurrency must be positive");
+    }
 }
@@ -0,0 +1,189 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
+import com.crablet.command.internal.DecisionModelCache;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandExecutorImpl decision-model cache tests")
+class CommandExecutorImplDecisionModelCacheTest extends AbstractCommandTest {
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private DecisionModelCache cache;
+    private CommandExecutorImpl cachingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DecisionModelCache(16);
+        cachingExecutor = new CommandExecutorImpl(
+                eventStore, List.of(), config, clock, objectMapper, eventPublisher,
+                CommandExecutorOptions.builder().decisionModelCache(cache).build());
+    }
+
+    @Test
+    @DisplayName("caches the decision model and catches up on every execution")
+    void cachesAndCatchesUp() {
+        CountingHandler handler = new CountingHandler();
+        TestCommand command = new TestCommand("test_command", "cache-1");
+
+        cachingExecutor.execute(command, handler);
+        cachingExecutor.execute(command, handler);
+        cachingExecutor.execute(command, handler);
+
+        assertThat(handler.observed).containsExactly(0, 1, 2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("folds events appended outside the executor into the cached state")
+    void foldsExternalAppends() {
+        CountingHandler handler = new CountingHandler();
+        TestCommand command = new TestCommand("test_command", "cache-2");
+        cachingExecutor.execute(command, handler);
+        cachingExecutor.execute(command, handler);
+
+        eventStore.appendCommutative(List.of(tally("cache-2"), tally("cache-2")));
+        cachingExecutor.execute(command, handler);
+
+        assertThat(handler.observed).containsExactly(0, 1, 4);
+        ProjectionResult<Integer> replayed = eventStore.project(query("cache-2"), new CountProjector());
+        assertThat(replayed.state()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("never caches a state that includes the command's own rolled-back appends")
+    void ignoresRolledBackAppends() {
+        TestCommand command = new TestCommand("test_command", "cache-3");
+        cachingExecutor.execute(command, new CountingHandler());
+        cachingExecutor.execute(command, new CountingHandler());
+
+        CommandHandler<TestCommand> failing = (store, cmd) -> {
+            store.appendCommutative(List.of(tally(cmd.entityId())));
+            store.project(query(cmd.entityId()), new CountProjector());
+            throw new IllegalStateException("rollback");
+        };
+        assertThatThrownBy(() -> cachingExecutor.execute(command, failing))
+                .isInstanceOf(IllegalStateException.class);
+
+        CountingHandler handler = new CountingHandler();
+        cachingExecutor.execute(command, handler);
+        assertThat(handler.observed).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("folds a later transaction that commits below the cached position")
+    void foldsLowerPositionCommittedAfterFill() throws Exception {
+        CountingHandler handler = new CountingHandler();
+        TestCommand command = new TestCommand("test_command", "cache-4");
+        // A position drawn before the fill, written by a transaction that starts after it
+        Long position = jdbcTemplate.queryForObject(
+                "SELECT nextval(pg_get_serial_sequence('crablet_events', 'position'))", Long.class);
+        cachingExecutor.execute(command, handler);
+        cachingExecutor.execute(command, handler);
+
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        try (Connection late = dataSource.getConnection()) {
+            late.setAutoCommit(false);
+            try (PreparedStatement stmt = late.prepareStatement("""
+                    INSERT INTO crablet_events (type, tags, data, transaction_id, position)
+                    VALUES ('tally_event', ARRAY['entityid=cache-4'], '{}', pg_current_xact_id(), ?)
+                    """)) {
+                stmt.setLong(1, Objects.requireNonNull(position));
+                stmt.executeUpdate();
+            }
+            // Caches a cursor above the uncommitted row's position but below its transaction id
+            cachingExecutor.execute(command, handler);
+            late.commit();
+        }
+        cachingExecutor.execute(command, handler);
+
+        assertThat(handler.observed).containsExactly(0, 1, 2, 4);
+        ProjectionResult<Integer> replayed = eventStore.project(query("cache-4"), new CountProjector());
+        assertThat(replayed.state()).isEqualTo(5);
+    }
+
+    private static Query query(String entityId) {
+        return Query.forEventAndTag("tally_event", "entityId", entityId);
+    }
+
+    private static AppendEvent tally(String entityId) {
+        return AppendEvent.builder("tally_event").tag("entityId", entityId).data("{}").build();
+    }
+
+    /**
+     * Records the count each execution decided on and appends one more event.
+     */
+    static final class CountingHandler implements CommandHandler<TestCommand> {
+
+        private final List<Integer> observed = new ArrayList<>();
+
+        @Override
+        public CommandDecision handle(EventStore eventStore, TestCommand command) {
+            Query decisionModel = query(command.entityId());
+            ProjectionResult<Integer> result = eventStore.project(decisionModel, new CountProjector());
+            observed.add(result.state());
+            return new CommandDecision.NonCommutative(
+                    List.of(tally(command.entityId())), decisionModel, result.streamPosition());
+        }
+    }
+
+    static final class CountProjector implements StateProjector<Integer> {
+
+        @Override
+        public String getId() {
+            return "tally-count";
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return List.of("tally_event");
+        }
+
+        @Override
+        public Integer getInitialState() {
+            return 0;
+        }
+
+        @Override
+        public Integer transition(Integer currentState, StoredEvent event, EventDeserializer deserializer) {
+            return currentState + 1;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.ExecutionResult;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandExecutorImpl fused command writes tests")
+class CommandExecutorImplFusedWritesTest extends AbstractCommandTest {
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private CommandExecutorImpl fusedExecutor;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        EventStoreConfig config = new EventStoreConfig();
+        config.setFusedCommandWrites(true);
+        EventStore fusedStore = new EventStoreImpl(dataSource, dataSource, objectMapper, config, clock, eventPublisher);
+        fusedExecutor = new CommandExecutorImpl(fusedStore, List.of(), config, clock, objectMapper, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("writes the audit record in the transaction of the append")
+    void writesAuditWithAppend() {
+        ExecutionResult result = fusedExecutor.execute(new TestCommand("test_command", "fused-1"), nonCommutative());
+
+        assertThat(result.wasCreated()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM crablet_commands c
+                JOIN crablet_events e ON e.transaction_id = c.transaction_id
+                WHERE c.type = 'test_command' AND e.type = 'fused_event'
+                """, Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("writes no audit record when the decision model changed")
+    void writesNoAuditOnConflict() {
+        TestCommand command = new TestCommand("test_command", "fused-2");
+        CommandHandler<TestCommand> stale = (store, cmd) -> CommandDecision.NonCommutative.of(
+                event(cmd.entityId()), query(cmd.entityId()), StreamPosition.zero());
+        fusedExecutor.execute(command, stale);
+
+        assertThatThrownBy(() -> fusedExecutor.execute(command, stale))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_commands", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("returns the duplicate as idempotent and writes no second audit record")
+    void writesNoAuditOnDuplicate() {
+        TestCommand command = new TestCommand("test_command", "fused-3");
+        CommandHandler<TestCommand> idempotent = (store, cmd) -> CommandDecision.Idempotent.of(
+                event(cmd.entityId()), "fused_event", "entityId", cmd.entityId());
+
+        assertThat(fusedExecutor.execute(command, idempotent).wasCreated()).isTrue();
+        assertThat(fusedExecutor.execute(command, idempotent).wasIdempotent()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_commands", Integer.class)).isEqualTo(1);
+    }
+
+    private static CommandHandler<TestCommand> nonCommutative() {
+        return (store, cmd) -> {
+            Query decisionModel = query(cmd.entityId());
+            StreamPosition position = store.project(decisionModel, StateProjector.exists()).streamPosition();
+            return CommandDecision.NonCommutative.of(event(cmd.entityId()), decisionModel, position);
+        };
+    }
+
+    private static Query query(String entityId) {
+        return Query.forEventAndTag("fused_event", "entityId", entityId);
+    }
+
+    private static AppendEvent event(String entityId) {
+        return AppendEvent.builder("fused_event").tag("entityId", entityId).data("{}").build();
+    }
+}
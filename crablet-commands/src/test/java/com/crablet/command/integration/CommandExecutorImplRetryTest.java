@@ -0,0 +1,173 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandExecutionOptions;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.CommandRetryPolicy;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
+import com.crablet.command.internal.RetryBudget;
+import com.crablet.command.metrics.CommandAttemptsMetric;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.DCBErrorCode;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandExecutorImpl DCB conflict retry tests")
+class CommandExecutorImplRetryTest extends AbstractCommandTest {
+
+    private static final CommandRetryPolicy THREE_ATTEMPTS =
+            CommandRetryPolicy.of(3, Duration.ofMillis(1), Duration.ofMillis(5));
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private final ApplicationEventPublisher recordingPublisher = published::add;
+
+    @BeforeEach
+    void seedDecisionModel() {
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("retry_event").tag("entityId", "retry-1").data("{}").build(),
+                AppendEvent.builder("retry_lifecycle").tag("entityId", "retry-1").data("{}").build()));
+    }
+
+    @Test
+    @DisplayName("re-runs the handler after a DCB conflict and succeeds")
+    void retriesDcbConflict() {
+        StaleOnceHandler handler = new StaleOnceHandler(1);
+
+        boolean created = executor(THREE_ATTEMPTS, RetryBudget.unlimited())
+                .execute(new TestCommand("test_command", "retry-1"), handler).wasCreated();
+
+        assertThat(created).isTrue();
+        assertThat(handler.invocations.get()).isEqualTo(2);
+        assertThat(attempts()).containsExactly(new CommandAttemptsMetric("test_command", 2, "succeeded"));
+    }
+
+    @Test
+    @DisplayName("surfaces the conflict once the attempts are exhausted")
+    void exhaustsAttempts() {
+        StaleOnceHandler handler = new StaleOnceHandler(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> executor(THREE_ATTEMPTS, RetryBudget.unlimited())
+                .execute(new TestCommand("test_command", "retry-1"), handler))
+                .isInstanceOf(ConcurrencyException.class)
+                .satisfies(e -> assertThat(Objects.requireNonNull(((ConcurrencyException) e).violation).errorCode())
+                        .isEqualTo(DCBErrorCode.DCB_VIOLATION));
+        assertThat(handler.invocations.get()).isEqualTo(3);
+        assertThat(attempts()).containsExactly(new CommandAttemptsMetric("test_command", 3, "exhausted"));
+    }
+
+    @Test
+    @DisplayName("does not retry once the retry budget is spent")
+    void respectsRetryBudget() {
+        StaleOnceHandler handler = new StaleOnceHandler(1);
+
+        assertThatThrownBy(() -> executor(THREE_ATTEMPTS, new RetryBudget(0.2, 0))
+                .execute(new TestCommand("test_command", "retry-1"), handler))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(handler.invocations.get()).isEqualTo(1);
+        assertThat(attempts()).containsExactly(new CommandAttemptsMetric("test_command", 1, "budget_exhausted"));
+    }
+
+    @Test
+    @DisplayName("does not retry guard violations")
+    void doesNotRetryGuardViolation() {
+        AtomicInteger invocations = new AtomicInteger();
+        CommandHandler<TestCommand> guarded = (store, cmd) -> {
+            invocations.incrementAndGet();
+            return CommandDecision.CommutativeGuarded.withLifecycleGuard(
+                    AppendEvent.builder("retry_event").tag("entityId", cmd.entityId()).data("{}").build(),
+                    Query.forEventAndTag("retry_lifecycle", "entityId", cmd.entityId()),
+                    StreamPosition.zero());
+        };
+
+        assertThatThrownBy(() -> executor(THREE_ATTEMPTS, RetryBudget.unlimited())
+                .execute(new TestCommand("test_command", "retry-1"), guarded))
+                .isInstanceOf(ConcurrencyException.class)
+                .satisfies(e -> assertThat(Objects.requireNonNull(((ConcurrencyException) e).violation).errorCode())
+                        .isEqualTo(DCBErrorCode.GUARD_VIOLATION));
+        assertThat(invocations.get()).isEqualTo(1);
+        assertThat(attempts()).containsExactly(new CommandAttemptsMetric("test_command", 1, "failed"));
+    }
+
+    @Test
+    @DisplayName("uses the retry policy of the execution options over the executor's")
+    void optionsPolicyOverridesExecutorPolicy() {
+        StaleOnceHandler handler = new StaleOnceHandler(1);
+        CommandExecutorImpl executor = new CommandExecutorImpl(
+                eventStore, List.of(handler), config, clock, objectMapper, recordingPublisher,
+                CommandExecutorOptions.defaults());
+
+        boolean created = executor.execute(new TestCommand("test_command", "retry-1"),
+                CommandExecutionOptions.builder().retryPolicy(THREE_ATTEMPTS).build()).wasCreated();
+
+        assertThat(created).isTrue();
+        assertThat(handler.invocations.get()).isEqualTo(2);
+    }
+
+    private CommandExecutorImpl executor(CommandRetryPolicy policy, RetryBudget budget) {
+        return new CommandExecutorImpl(
+                eventStore, List.of(), config, clock, objectMapper, recordingPublisher,
+                CommandExecutorOptions.builder().retryPolicy(policy).retryBudget(budget).build());
+    }
+
+    private List<CommandAttemptsMetric> attempts() {
+        return published.stream()
+                .filter(CommandAttemptsMetric.class::isInstance)
+                .map(CommandAttemptsMetric.class::cast)
+                .toList();
+    }
+
+    /**
+     * Decides against an empty decision model for its first {@code staleInvocations} calls, which
+     * conflicts with the seeded event, and against the projected position afterwards.
+     */
+    static class StaleOnceHandler implements CommandHandler<TestCommand> {
+
+        final AtomicInteger invocations = new AtomicInteger();
+        private final int staleInvocations;
+
+        StaleOnceHandler(int staleInvocations) {
+            this.staleInvocations = staleInvocations;
+        }
+
+        @Override
+        public CommandDecision handle(EventStore eventStore, TestCommand command) {
+            Query decisionModel = Query.forEventAndTag("retry_event", "entityId", command.entityId());
+            StreamPosition position = invocations.incrementAndGet() <= staleInvocations
+                    ? StreamPosition.zero()
+                    : eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+            return CommandDecision.NonCommutative.of(
+                    AppendEvent.builder("retry_event").tag("entityId", command.entityId()).data("{}").build(),
+                    decisionModel, position);
+        }
+    }
+}
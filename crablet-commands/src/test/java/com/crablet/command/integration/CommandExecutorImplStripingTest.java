@@ -0,0 +1,117 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.CommandRetryPolicy;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.command.internal.CommandExecutorOptions;
+import com.crablet.command.internal.CommandStripes;
+import com.crablet.command.metrics.CommandStripeMetric;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CommandExecutorImpl command striping tests")
+class CommandExecutorImplStripingTest extends AbstractCommandTest {
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private final ApplicationEventPublisher recordingPublisher = published::add;
+
+    @Test
+    @DisplayName("serializes commands declaring the same decision model so none conflicts")
+    void serializesDeclaredDecisionModel() {
+        CommandExecutorImpl executor = executor(CommandRetryPolicy.none());
+        DeclaredScopeHandler handler = new DeclaredScopeHandler();
+
+        List<CompletableFuture<Boolean>> results = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> executor
+                        .execute(new TestCommand("test_command", "striped-1"), handler).wasCreated()))
+                .toList();
+
+        assertThat(results).allSatisfy(result -> assertThat(result.join()).isTrue());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class)).isEqualTo(8);
+        assertThat(stripeMetrics()).hasSize(8);
+    }
+
+    @Test
+    @DisplayName("queues only the retries of a command without a declared decision model")
+    void stripesRetriesOfConflictingDecisionModel() {
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("retry_event").tag("entityId", "retry-1").data("{}").build()));
+        CommandExecutorImplRetryTest.StaleOnceHandler handler = new CommandExecutorImplRetryTest.StaleOnceHandler(1);
+
+        boolean created = executor(CommandRetryPolicy.of(3, Duration.ofMillis(1), Duration.ofMillis(5)))
+                .execute(new TestCommand("test_command", "retry-1"), handler).wasCreated();
+
+        assertThat(created).isTrue();
+        assertThat(handler.invocations.get()).isEqualTo(2);
+        assertThat(stripeMetrics()).hasSize(1);
+    }
+
+    private CommandExecutorImpl executor(CommandRetryPolicy policy) {
+        return new CommandExecutorImpl(
+                eventStore, List.of(), config, clock, objectMapper, recordingPublisher,
+                CommandExecutorOptions.builder()
+                        .retryPolicy(policy)
+                        .commandStripes(new CommandStripes(16, recordingPublisher))
+                        .build());
+    }
+
+    private List<CommandStripeMetric> stripeMetrics() {
+        return published.stream()
+                .filter(CommandStripeMetric.class::isInstance)
+                .map(CommandStripeMetric.class::cast)
+                .toList();
+    }
+
+    /**
+     * Appends against a freshly projected decision model, which it also declares for striping.
+     */
+    static class DeclaredScopeHandler implements CommandHandler<TestCommand> {
+
+        private static Query decisionModel(String entityId) {
+            return Query.forEventAndTag("striped_event", "entityId", entityId);
+        }
+
+        @Override
+        public CommandDecision handle(EventStore eventStore, TestCommand command) {
+            Query decisionModel = decisionModel(command.entityId());
+            StreamPosition position = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+            return CommandDecision.NonCommutative.of(
+                    AppendEvent.builder("striped_event").tag("entityId", command.entityId()).data("{}").build(),
+                    decisionModel, position);
+        }
+
+        @Override
+        public @Nullable Query concurrencyScope(TestCommand command) {
+            return decisionModel(command.entityId());
+        }
+    }
+}
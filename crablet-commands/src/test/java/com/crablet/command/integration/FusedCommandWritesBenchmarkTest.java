@@ -0,0 +1,105 @@
+package com.crablet.command.integration;
+
+import com.crablet.command.CommandDecision;
+import com.crablet.command.CommandExecutor;
+import com.crablet.command.CommandHandler;
+import com.crablet.command.internal.CommandExecutorImpl;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: execute() of an audited non-commutative command with and without fused command
+ * writes.
+ *
+ * Without them a command costs project, append, audit insert and commit, plus setting the
+ * isolation unless the pool's default already matches. With them the append and audit insert are
+ * one call.
+ * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ * Output: P50 and P99 of execute() for both modes and the P50 difference per command.
+ */
+@org.junit.jupiter.api.Tag("benchmark")
+@DisplayName("fused command writes benchmark")
+class FusedCommandWritesBenchmarkTest extends AbstractCommandTest {
+
+    private static final int SAMPLE_COUNT = 2_000;
+    private static final int WARMUP_COUNT = 200;
+    private static final int ENTITIES = 100;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("P50/P99 of execute() with separate vs fused command writes")
+    void executeWithAndWithoutFusedWrites() {
+        long[] separate = measure(executor(false), "separate");
+        long[] fused = measure(executor(true), "fused");
+
+        System.out.printf("[benchmark] execute() separate writes (%d samples): P50=%dus P99=%dus%n",
+                SAMPLE_COUNT, separate[0], separate[1]);
+        System.out.printf("[benchmark] execute() fused writes (%d samples): P50=%dus P99=%dus%n",
+                SAMPLE_COUNT, fused[0], fused[1]);
+        System.out.printf("[benchmark] time saved per command at P50: %dus%n", separate[0] - fused[0]);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_commands", Integer.class))
+                .isEqualTo(2 * (WARMUP_COUNT + SAMPLE_COUNT));
+        assertThat(fused[1]).as("P99 fused execute() should complete within 1s").isLessThan(1_000_000);
+    }
+
+    private CommandExecutor executor(boolean fusedCommandWrites) {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        EventStoreConfig config = new EventStoreConfig();
+        config.setFusedCommandWrites(fusedCommandWrites);
+        return new CommandExecutorImpl(
+                new EventStoreImpl(dataSource, dataSource, objectMapper, config, clock, eventPublisher),
+                List.of(), config, clock, objectMapper, eventPublisher);
+    }
+
+    private long[] measure(CommandExecutor executor, String mode) {
+        CommandHandler<TestCommand> handler = (store, cmd) -> {
+            Query decisionModel = Query.forEventAndTag("benchmark_event", "entityId", cmd.entityId());
+            StreamPosition position = store.project(decisionModel, StateProjector.exists()).streamPosition();
+            AppendEvent event = AppendEvent.builder("benchmark_event").tag("entityId", cmd.entityId()).data("{}").build();
+            return CommandDecision.NonCommutative.of(event, decisionModel, position);
+        };
+
+        List<Long> samples = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < WARMUP_COUNT + SAMPLE_COUNT; i++) {
+            TestCommand command = new TestCommand("test_command", mode + "-" + (i % ENTITIES));
+            long start = System.nanoTime();
+            executor.execute(command, handler);
+            if (i >= WARMUP_COUNT) {
+                samples.add(System.nanoTime() - start);
+            }
+        }
+
+        Collections.sort(samples);
+        return new long[] {
+            samples.get(SAMPLE_COUNT / 2) / 1_000,
+            samples.get((int) (SAMPLE_COUNT * 0.99)) / 1_000
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.crablet.command.internal;
+
+import com.crablet.command.metrics.CommandStripeMetric;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandStripes Unit Tests")
+class CommandStripesTest {
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private final ApplicationEventPublisher recordingPublisher = published::add;
+
+    @Test
+    @DisplayName("derives the append_events_if key: distinct, prefixed and sorted")
+    void derivesAppendEventsIfKey() {
+        Query decisionModel = Query.of(List.of(
+                QueryItem.of(List.of("StudentSubscribed", "CourseDefined"), List.of(new Tag("course_id", "c1"))),
+                QueryItem.of(List.of("CourseDefined"), List.of(new Tag("course_id", "c1")))));
+
+        assertThat(CommandStripes.key(decisionModel)).isEqualTo(
+                "concurrency_tag:course_id=c1,concurrency_type:CourseDefined,concurrency_type:StudentSubscribed");
+    }
+
+    @Test
+    @DisplayName("has no key for a query without types or tags")
+    void noKeyForEmptyQuery() {
+        assertThat(CommandStripes.key(Query.empty())).isNull();
+    }
+
+    @Test
+    @DisplayName("queues a second holder of the same key until the first releases")
+    void queuesSameKey() throws Exception {
+        CommandStripes stripes = new CommandStripes(4, recordingPublisher);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        CompletableFuture<Void> second;
+        try (CommandStripes.Stripe ignored = stripes.acquire("k")) {
+            second = CompletableFuture.runAsync(() -> {
+                try (CommandStripes.Stripe queued = stripes.acquire("k")) {
+                    acquired.countDown();
+                }
+            });
+            assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        }
+        second.get(5, TimeUnit.SECONDS);
+
+        assertThat(published).hasSize(2);
+        CommandStripeMetric waited = (CommandStripeMetric) published.get(1);
+        assertThat(waited.queueDepth()).isEqualTo(1);
+        assertThat(waited.waitTime()).isPositive();
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive stripe count")
+    void rejectsNonPositiveStripes() {
+        assertThatThrownBy(() -> new CommandStripes(0, recordingPublisher))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("stripes must be positive");
+    }
+}
@@ -0,0 +1,47 @@
+package com.crablet.command.internal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RetryBudget Unit Tests")
+class RetryBudgetTest {
+
+    @Test
+    @DisplayName("starts full and refuses retries once spent")
+    void startsFullAndRefusesOnceSpent() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    @DisplayName("earns one retry per 1/ratio commands, up to capacity")
+    void earnsRetriesUpToCapacity() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+        budget.tryWithdraw();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        budget.deposit();
+        budget.deposit();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    @DisplayName("unlimited never refuses")
+    void unlimitedNeverRefuses() {
+        RetryBudget budget = RetryBudget.unlimited();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(budget.tryWithdraw()).isTrue();
+        }
+    }
+}
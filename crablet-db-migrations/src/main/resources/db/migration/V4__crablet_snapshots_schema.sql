@@ -0,0 +1,30 @@
+-- Crablet decision-model snapshot schema.
+--
+-- crablet_snapshots holds the latest folded state of a decision-model projection so
+-- that EventStore.project() only has to replay events after the snapshot position.
+-- A snapshot is derived data: deleting any or all rows is always safe, the next
+-- projection simply replays from the beginning.
+--
+-- The key is (query fingerprint, projector id, state schema version). Bumping the
+-- schema version of a projector's state orphans its old rows instead of reading them.
+
+CREATE TABLE crablet_snapshots
+(
+    query_fingerprint TEXT                     NOT NULL,
+    projector_id      TEXT                     NOT NULL,
+    schema_version    INT                      NOT NULL,
+    position          BIGINT                   NOT NULL,
+    transaction_id    xid8                     NOT NULL,
+    occurred_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    state             JSONB                    NOT NULL,
+    created_at        TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_crablet_snapshots PRIMARY KEY (query_fingerprint, projector_id, schema_version),
+    CONSTRAINT chk_crablet_snapshots_position CHECK (position > 0)
+);
+
+COMMENT ON TABLE crablet_snapshots IS
+    'Latest decision-model snapshot per (query fingerprint, projector id, state schema version). Derived data; safe to truncate.';
+
+COMMENT ON COLUMN crablet_snapshots.position IS
+    'Position of the last crablet_events row folded into state; projection resumes strictly after it.';
@@ -0,0 +1,172 @@
+-- Crablet event-log partitioning (opt-in).
+--
+-- This migration only installs functions; it does not change any table. Calling
+--
+--   SELECT crablet_partition_events(10000000);
+--
+-- once, from an application migration or a maintenance session, converts crablet_events and
+-- crablet_event_tags into tables partitioned by RANGE (position) with the given partition
+-- size. The existing tables are attached as the first partition (crablet_events_p0,
+-- crablet_event_tags_p0) without copying rows, so the conversion costs one validation scan of
+-- each table and of the foreign keys, under an ACCESS EXCLUSIVE lock: run it in a maintenance
+-- window.
+--
+-- After the conversion every index on the two tables is local to its partition, including
+-- idx_crablet_events_tags_gin: appends only touch the newest partition, so older partitions
+-- stop changing and are frozen once by vacuum. Queries with a position bound
+-- (position > ?, as every poller fetch and every DCB check has) skip older partitions at
+-- executor start-up.
+--
+-- Partitions are created ahead of the position sequence by crablet_create_event_partitions().
+-- There is no default partition: that function must run regularly, either through
+-- crablet.eventstore.partitioning.enabled=true or an external scheduler such as pg_cron.
+
+CREATE TABLE crablet_event_partitioning
+(
+    singleton            BOOLEAN NOT NULL DEFAULT TRUE PRIMARY KEY,
+    partition_size       BIGINT  NOT NULL,
+    next_partition_start BIGINT  NOT NULL,
+
+    CONSTRAINT chk_crablet_event_partitioning_singleton CHECK (singleton),
+    CONSTRAINT chk_crablet_event_partitioning_size CHECK (partition_size > 0)
+);
+
+CREATE OR REPLACE FUNCTION crablet_create_event_partitions(
+    p_partitions_ahead INT DEFAULT 2
+) RETURNS INT AS
+$$
+DECLARE
+    v_size    BIGINT;
+    v_next    BIGINT;
+    v_target  BIGINT;
+    v_created INT := 0;
+BEGIN
+    SELECT partition_size, next_partition_start
+    INTO v_size, v_next
+    FROM crablet_event_partitioning
+    FOR UPDATE;
+
+    IF NOT FOUND THEN
+        RETURN 0;
+    END IF;
+
+    v_target := COALESCE(pg_sequence_last_value('crablet_events_position_seq'), 0)
+                + GREATEST(p_partitions_ahead, 1)::BIGINT * v_size;
+
+    WHILE v_next <= v_target LOOP
+        -- Attach instead of CREATE TABLE ... PARTITION OF: ATTACH only takes
+        -- SHARE UPDATE EXCLUSIVE on the parent, so appends are not blocked.
+        EXECUTE format('CREATE TABLE %I (LIKE crablet_events INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                       'crablet_events_p' || v_next);
+        EXECUTE format('ALTER TABLE crablet_events ATTACH PARTITION %I FOR VALUES FROM (%s) TO (%s)',
+                       'crablet_events_p' || v_next, v_next, v_next + v_size);
+
+        EXECUTE format('CREATE TABLE %I (LIKE crablet_event_tags INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                       'crablet_event_tags_p' || v_next);
+        EXECUTE format('ALTER TABLE crablet_event_tags ATTACH PARTITION %I FOR VALUES FROM (%s) TO (%s)',
+                       'crablet_event_tags_p' || v_next, v_next, v_next + v_size);
+
+        v_next := v_next + v_size;
+        v_created := v_created + 1;
+    END LOOP;
+
+    UPDATE crablet_event_partitioning SET next_partition_start = v_next;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION crablet_partition_events(
+    p_partition_size   BIGINT DEFAULT 10000000,
+    p_partitions_ahead INT    DEFAULT 2
+) RETURNS VOID AS
+$$
+DECLARE
+    v_boundary BIGINT;
+    v_index    RECORD;
+BEGIN
+    IF p_partition_size IS NULL OR p_partition_size < 1 THEN
+        RAISE EXCEPTION 'partition size must be positive, got %', p_partition_size;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM crablet_event_partitioning) THEN
+        RAISE NOTICE 'crablet_events is already partitioned';
+        RETURN;
+    END IF;
+
+    LOCK TABLE crablet_events, crablet_event_tags, crablet_idempotency_keys IN ACCESS EXCLUSIVE MODE;
+
+    -- The existing rows become partition p0, which covers every position issued so far
+    SELECT (GREATEST(COALESCE(max(position), 0),
+                     COALESCE(pg_sequence_last_value('crablet_events_position_seq'), 0))
+            / p_partition_size + 1) * p_partition_size
+    INTO v_boundary
+    FROM crablet_events;
+
+    ALTER TABLE crablet_event_tags DROP CONSTRAINT fk_crablet_event_tags_position;
+    ALTER TABLE crablet_idempotency_keys DROP CONSTRAINT fk_crablet_idempotency_keys_position;
+
+    -- Free the index names for the partitioned parents
+    FOR v_index IN
+        SELECT c.relname
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid IN ('crablet_events'::regclass, 'crablet_event_tags'::regclass)
+    LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', v_index.relname, left(v_index.relname, 60) || '_p0');
+    END LOOP;
+
+    ALTER TABLE crablet_events RENAME TO crablet_events_p0;
+    ALTER TABLE crablet_event_tags RENAME TO crablet_event_tags_p0;
+
+    CREATE TABLE crablet_events
+        (LIKE crablet_events_p0 INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS)
+        PARTITION BY RANGE (position);
+    ALTER TABLE crablet_events ADD CONSTRAINT crablet_events_pkey PRIMARY KEY (position);
+    ALTER SEQUENCE crablet_events_position_seq OWNED BY crablet_events.position;
+
+    CREATE INDEX idx_crablet_events_transaction_position_btree ON crablet_events (transaction_id, position);
+    CREATE INDEX idx_crablet_events_type_position ON crablet_events (type, position);
+    CREATE INDEX idx_crablet_events_tags_gin ON crablet_events USING GIN (tags);
+    CREATE INDEX idx_crablet_events_correlation_id ON crablet_events (correlation_id)
+        WHERE correlation_id IS NOT NULL;
+
+    CREATE TABLE crablet_event_tags
+        (LIKE crablet_event_tags_p0 INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS)
+        PARTITION BY RANGE (position);
+    ALTER TABLE crablet_event_tags ADD CONSTRAINT crablet_event_tags_pkey PRIMARY KEY (key, value, position);
+
+    CREATE INDEX idx_crablet_event_tags_position ON crablet_event_tags (position);
+    CREATE INDEX idx_crablet_event_tags_key_position ON crablet_event_tags (key, position);
+
+    -- A CHECK constraint matching the bound lets ATTACH skip its own validation scan;
+    -- the existing indexes are adopted as the partitions' local indexes.
+    EXECUTE format('ALTER TABLE crablet_events_p0 ADD CONSTRAINT chk_crablet_events_p0_range CHECK (position < %s)', v_boundary);
+    EXECUTE format('ALTER TABLE crablet_events ATTACH PARTITION crablet_events_p0 FOR VALUES FROM (MINVALUE) TO (%s)', v_boundary);
+    ALTER TABLE crablet_events_p0 DROP CONSTRAINT chk_crablet_events_p0_range;
+
+    EXECUTE format('ALTER TABLE crablet_event_tags_p0 ADD CONSTRAINT chk_crablet_event_tags_p0_range CHECK (position < %s)', v_boundary);
+    EXECUTE format('ALTER TABLE crablet_event_tags ATTACH PARTITION crablet_event_tags_p0 FOR VALUES FROM (MINVALUE) TO (%s)', v_boundary);
+    ALTER TABLE crablet_event_tags_p0 DROP CONSTRAINT chk_crablet_event_tags_p0_range;
+
+    ALTER TABLE crablet_event_tags
+        ADD CONSTRAINT fk_crablet_event_tags_position
+        FOREIGN KEY (position) REFERENCES crablet_events(position) ON DELETE CASCADE;
+    ALTER TABLE crablet_idempotency_keys
+        ADD CONSTRAINT fk_crablet_idempotency_keys_position
+        FOREIGN KEY (position) REFERENCES crablet_events(position) ON DELETE CASCADE;
+
+    INSERT INTO crablet_event_partitioning (partition_size, next_partition_start)
+    VALUES (p_partition_size, v_boundary);
+
+    PERFORM crablet_create_event_partitions(p_partitions_ahead);
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE crablet_event_partitioning IS
+    'Single row present once crablet_partition_events() has partitioned crablet_events and crablet_event_tags by position.';
+
+COMMENT ON FUNCTION crablet_create_event_partitions(INT) IS
+    'Attach crablet_events / crablet_event_tags partitions until the given number of partitions exist beyond the position sequence. Returns the number of partitions created; 0 when the log is not partitioned.';
+
+COMMENT ON FUNCTION crablet_partition_events(BIGINT, INT) IS
+    'Opt-in, one-off conversion of crablet_events and crablet_event_tags into tables range-partitioned by position. The existing tables become partition p0 without copying rows.';
@@ -0,0 +1,92 @@
+-- Crablet cold-tier event archive.
+--
+-- Closed position ranges of crablet_events can be exported into checksummed segment files
+-- outside the database (see com.crablet.eventstore.archive.EventArchiver). Every exported
+-- range is registered in crablet_archive_segments. Ranges are contiguous and start at the
+-- lowest position ever archived, so MAX(to_position) is the archive watermark: every event
+-- below it is read from a segment file, every event at or above it from crablet_events.
+--
+-- Registering a segment does not remove anything. Its rows stay in crablet_events until
+-- crablet_detach_archived_events() runs for the range, which the archiver does only after a
+-- grace period long enough for every reader to have picked up the new watermark.
+--
+-- Nothing in this migration changes existing behaviour: without registered segments the
+-- watermark is zero and every read goes to crablet_events.
+
+CREATE TABLE crablet_archive_segments
+(
+    from_position BIGINT                   NOT NULL,
+    to_position   BIGINT                   NOT NULL,
+    event_count   BIGINT                   NOT NULL,
+    file_name     TEXT                     NOT NULL,
+    checksum      BIGINT                   NOT NULL,
+    archived_at   TIMESTAMP WITH TIME ZONE NOT NULL,
+    detached_at   TIMESTAMP WITH TIME ZONE,
+
+    CONSTRAINT pk_crablet_archive_segments PRIMARY KEY (from_position),
+    CONSTRAINT uq_crablet_archive_segments_to UNIQUE (to_position),
+    CONSTRAINT chk_crablet_archive_segments_range CHECK (to_position > from_position),
+    CONSTRAINT chk_crablet_archive_segments_count CHECK (event_count >= 0)
+);
+
+CREATE INDEX idx_crablet_archive_segments_pending
+    ON crablet_archive_segments (archived_at)
+    WHERE detached_at IS NULL;
+
+-- Removes the archived range [p_from, p_to) from the database.
+--
+-- On a partitioned log (V7) every partition whose upper bound is at or below p_to holds only
+-- archived rows, because every position below p_from was archived before: such partitions are
+-- detached and dropped whole, tags first so the foreign key check finds no referencing rows.
+-- Rows of partially covered partitions, and every row of an unpartitioned log, are deleted.
+-- Idempotency claims of the range are kept with a NULL position, so a replay of an archived
+-- idempotent append is still rejected as a duplicate.
+CREATE OR REPLACE FUNCTION crablet_detach_archived_events(
+    p_from BIGINT,
+    p_to   BIGINT
+) RETURNS VOID AS
+$$
+DECLARE
+    v_partition RECORD;
+BEGIN
+    IF p_to <= p_from THEN
+        RAISE EXCEPTION 'Invalid archive range [%, %)', p_from, p_to;
+    END IF;
+
+    UPDATE crablet_idempotency_keys SET position = NULL WHERE position >= p_from AND position < p_to;
+
+    FOR v_partition IN
+        SELECT c.oid::regclass AS partition_name, i.inhparent::regclass AS parent_name
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent IN ('crablet_event_tags'::regclass, 'crablet_events'::regclass)
+          AND substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''?(-?[0-9]+)''?\)')::BIGINT <= p_to
+        ORDER BY i.inhparent = 'crablet_events'::regclass, c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %s DETACH PARTITION %s',
+                       v_partition.parent_name, v_partition.partition_name);
+        EXECUTE format('DROP TABLE %s', v_partition.partition_name);
+    END LOOP;
+
+    DELETE FROM crablet_event_tags WHERE position >= p_from AND position < p_to;
+    DELETE FROM crablet_events WHERE position >= p_from AND position < p_to;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE crablet_archive_segments IS
+    'Position ranges of crablet_events exported to segment files. MAX(to_position) is the archive watermark.';
+
+COMMENT ON COLUMN crablet_archive_segments.to_position IS
+    'Exclusive upper bound of the archived range; the next segment starts here.';
+
+COMMENT ON COLUMN crablet_archive_segments.checksum IS
+    'CRC32C of the segment file, stored in its last eight bytes and verified whenever it is opened.';
+
+COMMENT ON COLUMN crablet_archive_segments.detached_at IS
+    'When the range was removed from crablet_events; NULL while the rows are still present.';
+
+COMMENT ON FUNCTION crablet_detach_archived_events(BIGINT, BIGINT) IS
+    'Removes an archived position range from crablet_events and crablet_event_tags, dropping fully covered partitions. Idempotency claims of the range are kept with a NULL position.';
+
+COMMENT ON COLUMN crablet_idempotency_keys.position IS
+    'Position of the last event appended by the claiming call. NULL while the claiming transaction is in flight, and once the event has been archived and detached.';
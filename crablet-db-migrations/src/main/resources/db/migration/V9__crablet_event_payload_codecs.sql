@@ -0,0 +1,298 @@
+-- Crablet event payload codecs.
+--
+-- crablet_events.payload_codec records the codec each row's data was written with, so rows of
+-- several codecs can share the table while the application changes its write codec:
+--
+--   0  json          JSON text (the only codec a JSONB data column holds)
+--   1  json-deflate  DEFLATE-compressed JSON text
+--   2  smile         Jackson Smile
+--   3  cbor          CBOR
+--   64 and above     application codecs
+--
+-- data stays JSONB until the application calls crablet_use_binary_payloads(), which converts
+-- it to BYTEA in place. Existing rows keep codec 0 and their JSON text. Converting rewrites
+-- crablet_events under an ACCESS EXCLUSIVE lock, so run it in a maintenance window, and switch
+-- crablet.eventstore.payloads.storage to bytea in the same deployment.
+--
+-- append_events_batch and append_events_if take p_data as ANYARRAY so the same functions
+-- insert jsonb[] into a JSONB column and bytea[] into a BYTEA one, and take the codec of the
+-- appended payloads as p_payload_codec. Calls with the previous argument lists keep working.
+
+ALTER TABLE crablet_events ADD COLUMN payload_codec SMALLINT NOT NULL DEFAULT 0;
+
+DROP FUNCTION append_events_if(TEXT[], TEXT[], JSONB[], TEXT[], TEXT[], BIGINT, TEXT[], TEXT[], TIMESTAMP WITH TIME ZONE, UUID, BIGINT, TEXT, TEXT);
+DROP FUNCTION append_events_batch(TEXT[], TEXT[], JSONB[], TIMESTAMP WITH TIME ZONE, UUID, BIGINT);
+
+CREATE FUNCTION append_events_batch(
+    p_types          TEXT[],
+    p_tags           TEXT[],
+    p_data           ANYARRAY,
+    p_occurred_at    TIMESTAMP WITH TIME ZONE,
+    p_correlation_id UUID     DEFAULT NULL,
+    p_causation_id   BIGINT   DEFAULT NULL,
+    p_payload_codec  SMALLINT DEFAULT 0
+) RETURNS VOID AS
+$$
+BEGIN
+    WITH inserted AS (
+        INSERT INTO crablet_events (type, tags, data, payload_codec, transaction_id, occurred_at,
+                            correlation_id, causation_id)
+        SELECT t.type,
+               t.tag_string::TEXT[],
+               t.data,
+               COALESCE(p_payload_codec, 0),
+               pg_current_xact_id(),
+               p_occurred_at,
+               p_correlation_id,
+               p_causation_id
+        FROM UNNEST($1, $2, $3) AS t(type, tag_string, data)
+        RETURNING position, type, tags
+    ),
+    tag_rows AS (
+        INSERT INTO crablet_event_tags (position, key, value)
+        SELECT i.position,
+               split_part(tag, '=', 1)                      AS key,
+               substring(tag FROM position('=' IN tag) + 1) AS value
+        FROM inserted i,
+             LATERAL unnest(i.tags) AS tag
+        WHERE tag LIKE '%=%'
+    )
+    -- Rows are upserted in key order so concurrent appends touching the same boundaries
+    -- lock them in the same order
+    INSERT INTO crablet_consistency_boundaries (shape_id, tag, last_position, last_transaction_id)
+    SELECT s.shape_id, tag, MAX(i.position), pg_current_xact_id()
+    FROM inserted i
+    JOIN crablet_consistency_boundary_shapes s ON i.type = ANY(s.event_types)
+    CROSS JOIN LATERAL unnest(i.tags) AS tag
+    WHERE split_part(tag, '=', 1) = ANY(s.tag_keys)
+    GROUP BY s.shape_id, tag
+    ORDER BY s.shape_id, tag
+    ON CONFLICT (shape_id, tag) DO UPDATE
+    SET last_position       = EXCLUDED.last_position,
+        last_transaction_id = EXCLUDED.last_transaction_id
+    WHERE crablet_consistency_boundaries.last_position < EXCLUDED.last_position;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION append_events_if(
+    p_types                 TEXT[],
+    p_tags                  TEXT[],
+    p_data                  ANYARRAY,
+    p_event_types           TEXT[]                   DEFAULT NULL,
+    p_condition_tags        TEXT[]                   DEFAULT NULL,
+    p_after_cursor_position BIGINT                   DEFAULT NULL,
+    p_idempotency_types     TEXT[]                   DEFAULT NULL,
+    p_idempotency_tags      TEXT[]                   DEFAULT NULL,
+    p_occurred_at           TIMESTAMP WITH TIME ZONE DEFAULT NULL,
+    p_correlation_id        UUID                     DEFAULT NULL,
+    p_causation_id          BIGINT                   DEFAULT NULL,
+    p_notify_channel        TEXT                     DEFAULT NULL,
+    p_notify_payload        TEXT                     DEFAULT NULL,
+    p_payload_codec         SMALLINT                 DEFAULT 0
+) RETURNS JSONB AS
+$$
+DECLARE
+    v_has_duplicate         BOOLEAN := FALSE;
+    v_has_conflict          BOOLEAN;
+    v_boundary_conflict     BOOLEAN;
+    v_idempotency_lock_key  BIGINT;
+    v_concurrency_lock_key  BIGINT;
+    v_key_type              TEXT;
+    v_key_name              TEXT;
+    v_key_value             TEXT;
+    v_claimed_rows          INT := 0;
+    v_existing_position     BIGINT;
+BEGIN
+    IF COALESCE(cardinality(p_idempotency_types), 0) = 1
+       AND COALESCE(cardinality(p_idempotency_tags), 0) = 1
+       AND position('=' IN p_idempotency_tags[1]) > 0 THEN
+        -- Single (type, key=value) idempotency key: claim it. A concurrent claimer of the
+        -- same key waits on the primary key until this transaction ends, then sees the row.
+        v_key_type  := p_idempotency_types[1];
+        v_key_name  := split_part(p_idempotency_tags[1], '=', 1);
+        v_key_value := substring(p_idempotency_tags[1] FROM position('=' IN p_idempotency_tags[1]) + 1);
+
+        INSERT INTO crablet_idempotency_keys (type, key, value)
+        VALUES (v_key_type, v_key_name, v_key_value)
+        ON CONFLICT DO NOTHING;
+        GET DIAGNOSTICS v_claimed_rows = ROW_COUNT;
+
+        IF v_claimed_rows = 0 THEN
+            v_has_duplicate := TRUE;
+        ELSE
+            -- New claim: events appended without a claim (appendCommutative, bulk import,
+            -- rows pruned by retention, history before V6) are found through the
+            -- crablet_event_tags primary key instead of a GIN scan.
+            SELECT t.position INTO v_existing_position
+            FROM crablet_event_tags t
+            JOIN crablet_events e ON e.position = t.position
+            WHERE t.key = v_key_name
+              AND t.value = v_key_value
+              AND e.type = v_key_type
+            LIMIT 1;
+
+            IF v_existing_position IS NOT NULL THEN
+                v_has_duplicate := TRUE;
+                UPDATE crablet_idempotency_keys
+                SET position = v_existing_position
+                WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+            END IF;
+        END IF;
+    ELSIF p_idempotency_types IS NOT NULL OR p_idempotency_tags IS NOT NULL THEN
+        v_idempotency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'type:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'tag:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_idempotency_lock_key);
+
+        v_has_duplicate := EXISTS (
+            SELECT 1 FROM crablet_events e
+            WHERE (p_idempotency_types IS NULL OR e.type = ANY(p_idempotency_types))
+              AND (p_idempotency_tags IS NULL OR e.tags @> p_idempotency_tags)
+            LIMIT 1
+        );
+    END IF;
+
+    IF v_has_duplicate THEN
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'duplicate operation detected',
+            'error_code', 'IDEMPOTENCY_VIOLATION'
+        );
+    END IF;
+
+    -- See V1: serialize check-then-insert per decision model.
+    IF p_event_types IS NOT NULL OR p_condition_tags IS NOT NULL THEN
+        v_concurrency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'concurrency_type:' || item.value
+                    FROM unnest(COALESCE(p_event_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'concurrency_tag:' || item.value
+                    FROM unnest(COALESCE(p_condition_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_concurrency_lock_key);
+    END IF;
+
+    -- Declared consistency boundaries answer most conflict checks with primary-key reads
+    IF cardinality(p_event_types) > 0
+       AND cardinality(p_condition_tags) > 0
+       AND p_after_cursor_position IS NOT NULL THEN
+        v_boundary_conflict := consistency_boundary_conflict(
+            p_event_types, p_condition_tags, p_after_cursor_position);
+    END IF;
+
+    SELECT
+        CASE
+            WHEN v_boundary_conflict IS NOT NULL THEN
+                v_boundary_conflict
+            WHEN p_event_types IS NULL AND p_condition_tags IS NULL AND p_after_cursor_position IS NULL THEN
+                FALSE
+            ELSE
+                EXISTS (
+                    SELECT 1 FROM crablet_events e
+                    WHERE (p_event_types IS NULL OR e.type = ANY(p_event_types))
+                      AND (p_condition_tags IS NULL OR e.tags @> p_condition_tags)
+                      AND (p_after_cursor_position IS NULL OR e.position > p_after_cursor_position)
+                      AND e.transaction_id < pg_snapshot_xmin(pg_current_snapshot())
+                    LIMIT 1
+                )
+        END
+    INTO v_has_conflict;
+
+    IF v_has_conflict THEN
+        -- The function returns instead of raising, so release the claim explicitly
+        IF v_claimed_rows > 0 THEN
+            DELETE FROM crablet_idempotency_keys
+            WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+        END IF;
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'append condition violated',
+            'error_code', 'DCB_VIOLATION'
+        );
+    END IF;
+
+    PERFORM append_events_batch(
+        p_types,
+        p_tags,
+        p_data,
+        COALESCE(p_occurred_at, CURRENT_TIMESTAMP),
+        p_correlation_id,
+        p_causation_id,
+        p_payload_codec
+    );
+
+    IF v_claimed_rows > 0 THEN
+        UPDATE crablet_idempotency_keys
+        SET position = (
+            SELECT max(e.position) FROM crablet_events e
+            WHERE e.transaction_id = pg_current_xact_id()
+        )
+        WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+    END IF;
+
+    IF p_notify_channel IS NOT NULL THEN
+        BEGIN
+            PERFORM pg_notify(p_notify_channel, COALESCE(p_notify_payload, '*'));
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'pg_notify failed on channel %: %', p_notify_channel, SQLERRM;
+        END;
+    END IF;
+
+    RETURN jsonb_build_object(
+        'success',        true,
+        'message',        'events appended successfully',
+        'events_count',   array_length(p_types, 1),
+        'transaction_id', pg_current_xact_id()::TEXT
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION crablet_use_binary_payloads() RETURNS BOOLEAN AS
+$$
+BEGIN
+    IF (SELECT atttypid FROM pg_attribute
+        WHERE attrelid = 'crablet_events'::regclass AND attname = 'data') = 'bytea'::regtype THEN
+        RETURN FALSE;
+    END IF;
+    -- JSONB keeps no original text; rows are stored as its canonical rendering
+    ALTER TABLE crablet_events ALTER COLUMN data TYPE BYTEA USING convert_to(data::TEXT, 'UTF8');
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON COLUMN crablet_events.payload_codec IS
+    'Codec the data column was written with: 0 json, 1 json-deflate, 2 smile, 3 cbor, 64 and above application codecs.';
+
+COMMENT ON FUNCTION append_events_batch(TEXT[], TEXT[], ANYARRAY, TIMESTAMP WITH TIME ZONE, UUID, BIGINT, SMALLINT) IS
+    'Insert events with application-controlled timestamps and maintain derived crablet_event_tags and crablet_consistency_boundaries rows. '
+    'p_data is jsonb[] or bytea[] matching the type of crablet_events.data.';
+
+COMMENT ON FUNCTION append_events_if(TEXT[], TEXT[], ANYARRAY, TEXT[], TEXT[], BIGINT, TEXT[], TEXT[], TIMESTAMP WITH TIME ZONE, UUID, BIGINT, TEXT, TEXT, SMALLINT) IS
+    'Conditionally insert events using DCB conflict checks over canonical crablet_events.tags '
+    'and optionally notify append listeners on commit. Single (type, key=value) idempotency keys '
+    'are claimed in crablet_idempotency_keys, whose primary key serializes racing callers; other '
+    'idempotency queries and decision-model conditions serialize check-then-insert with '
+    'distinctly namespaced pg_advisory_xact_lock calls keyed via hashtextextended(). Declared '
+    'consistency boundaries answer conflict checks before the event scan. p_data is jsonb[] or '
+    'bytea[] matching the type of crablet_events.data.';
+
+COMMENT ON FUNCTION crablet_use_binary_payloads() IS
+    'Convert crablet_events.data from JSONB to BYTEA in place; existing rows keep payload_codec 0. Returns FALSE when already converted.';
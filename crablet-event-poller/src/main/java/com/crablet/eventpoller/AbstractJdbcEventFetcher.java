@@ -1,27 +1,24 @@
 package com.crablet.eventpoller;
 
 import com.crablet.eventstore.StoredEvent;
-import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.internal.StoredEventRowMapper;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
-import java.nio.charset.StandardCharsets;
-import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Abstract base class for JDBC-backed {@link EventFetcher} implementations.
  * <p>
- * Provides the shared boilerplate — connection setup, SQL execution, ResultSet mapping,
- * tag parsing, and error handling. Subclasses implement only {@link #buildSqlFilter(Object)}
+ * Provides the shared boilerplate — connection setup, SQL execution, ResultSet mapping
+ * (through {@link StoredEventRowMapper}), and error handling. Subclasses implement only {@link #buildSqlFilter(Object)}
  * to express their subscription criteria as a SQL WHERE fragment.
  *
  * @param <I> Processor identifier type
@@ -52,15 +49,14 @@ public abstract class AbstractJdbcEventFetcher<I> implements EventFetcher<I> {
         }
 
         String sql = """
-            SELECT type, tags, data, transaction_id, position, occurred_at,
-                   correlation_id, causation_id
+            SELECT %s
             FROM crablet_events
             WHERE position > ?
               AND %s
               AND (%s)
             ORDER BY position ASC
             LIMIT ?
-            """.formatted(SAFE_TRANSACTION_HORIZON, sqlFilter);
+            """.formatted(StoredEventRowMapper.COLUMNS, SAFE_TRANSACTION_HORIZON, sqlFilter);
 
         try (Connection connection = readDataSource.getConnection()) {
             connection.setReadOnly(true);
@@ -73,17 +69,9 @@ public abstract class AbstractJdbcEventFetcher<I> implements EventFetcher<I> {
 
                 List<StoredEvent> events = new ArrayList<>();
                 try (ResultSet rs = stmt.executeQuery()) {
+                    StoredEventRowMapper mapper = StoredEventRowMapper.shared();
                     while (rs.next()) {
-                        events.add(new StoredEvent(
-                            rs.getString("type"),
-                            parseTagsFromArray(rs.getArray("tags")),
-                            rs.getString("data").getBytes(StandardCharsets.UTF_8),
-                            rs.getString("transaction_id"),
-                            rs.getLong("position"),
-                            rs.getTimestamp("occurred_at").toInstant(),
-                            rs.getObject("correlation_id", UUID.class),
-                            (Long) rs.getObject("causation_id")
-                        ));
+                        events.add(mapper.mapRow(rs, events.size()));
                     }
                 }
 
@@ -110,19 +98,4 @@ public abstract class AbstractJdbcEventFetcher<I> implements EventFetcher<I> {
      * @return SQL condition string, or {@code null} to skip
      */
     protected abstract @Nullable String buildSqlFilter(I processorId);
-
-    private List<Tag> parseTagsFromArray(Array array) throws SQLException {
-        if (array == null) {
-            return List.of();
-        }
-        String[] tagStrings = (String[]) array.getArray();
-        List<Tag> tags = new ArrayList<>();
-        for (String tagStr : tagStrings) {
-            int equalsIndex = tagStr.indexOf('=');
-            if (equalsIndex > 0) {
-                tags.add(new Tag(tagStr.substring(0, equalsIndex), tagStr.substring(equalsIndex + 1)));
-            }
-        }
-        return tags;
-    }
 }
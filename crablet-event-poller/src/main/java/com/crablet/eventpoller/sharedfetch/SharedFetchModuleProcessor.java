@@ -13,7 +13,7 @@ import com.crablet.eventpoller.progress.ProgressTracker;
 import com.crablet.eventpoller.wakeup.ProcessorWakeupSource;
 import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.StoredEvent;
-import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.internal.StoredEventRowMapper;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.jspecify.annotations.Nullable;
@@ -26,8 +26,6 @@ import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 
 import javax.sql.DataSource;
-import java.nio.charset.StandardCharsets;
-import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -38,7 +36,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -437,13 +434,13 @@ public class SharedFetchModuleProcessor<C extends ProcessorConfig<I>, I>
 
     private List<StoredEvent> fetchPositionOnly(long afterPosition, int limit) {
         String sql = """
-                SELECT type, tags, data, transaction_id, position, occurred_at, correlation_id, causation_id
+                SELECT %s
                 FROM crablet_events
                 WHERE position > ?
                   AND %s
                 ORDER BY position ASC
                 LIMIT ?
-                """.formatted(SAFE_TRANSACTION_HORIZON);
+                """.formatted(StoredEventRowMapper.COLUMNS, SAFE_TRANSACTION_HORIZON);
         try (Connection conn = readDataSource.getConnection()) {
             conn.setReadOnly(true);
             conn.setAutoCommit(false);
@@ -463,13 +460,13 @@ public class SharedFetchModuleProcessor<C extends ProcessorConfig<I>, I>
 
     private List<StoredEvent> fetchPositionOnlyBounded(long afterPosition, long upToPosition, int limit) {
         String sql = """
-                SELECT type, tags, data, transaction_id, position, occurred_at, correlation_id, causation_id
+                SELECT %s
                 FROM crablet_events
                 WHERE position > ? AND position <= ?
                   AND %s
                 ORDER BY position ASC
                 LIMIT ?
-                """.formatted(SAFE_TRANSACTION_HORIZON);
+                """.formatted(StoredEventRowMapper.COLUMNS, SAFE_TRANSACTION_HORIZON);
         try (Connection conn = readDataSource.getConnection()) {
             conn.setReadOnly(true);
             conn.setAutoCommit(false);
@@ -491,35 +488,15 @@ public class SharedFetchModuleProcessor<C extends ProcessorConfig<I>, I>
     private List<StoredEvent> executeAndMap(Connection conn, PreparedStatement stmt) throws SQLException {
         List<StoredEvent> events = new ArrayList<>();
         try (ResultSet rs = stmt.executeQuery()) {
+            StoredEventRowMapper mapper = StoredEventRowMapper.shared();
             while (rs.next()) {
-                events.add(new StoredEvent(
-                        rs.getString("type"),
-                        parseTagsFromArray(rs.getArray("tags")),
-                        rs.getString("data").getBytes(StandardCharsets.UTF_8),
-                        rs.getString("transaction_id"),
-                        rs.getLong("position"),
-                        rs.getTimestamp("occurred_at").toInstant(),
-                        rs.getObject("correlation_id", UUID.class),
-                        (Long) rs.getObject("causation_id")));
+                events.add(mapper.mapRow(rs, events.size()));
             }
         }
         conn.commit();
         return events;
     }
 
-    private List<Tag> parseTagsFromArray(Array array) throws SQLException {
-        if (array == null) return List.of();
-        String[] tagStrings = (String[]) array.getArray();
-        List<Tag> tags = new ArrayList<>();
-        for (String tagStr : tagStrings) {
-            int equalsIndex = tagStr.indexOf('=');
-            if (equalsIndex > 0) {
-                tags.add(new Tag(tagStr.substring(0, equalsIndex), tagStr.substring(equalsIndex + 1)));
-            }
-        }
-        return tags;
-    }
-
     private void requestImmediatePoll() {
         if (shuttingDown) return;
         if (!cycleRunning.get()) {
@@ -0,0 +1,101 @@
+package com.crablet.eventstore.reactive;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking counterpart of {@link com.crablet.eventstore.EventStore}.
+ * <p>
+ * Appends, projections and existence checks complete a {@link CompletionStage} instead of
+ * blocking the caller, so a gateway fanning out to many decision models holds no thread per
+ * in-flight query. Appends go through the same {@code append_events_if} function and queries use
+ * the same {@link Query} model as the blocking store, so both can share one database.
+ * <p>
+ * Argument errors are thrown by the call itself; database errors, {@link
+ * com.crablet.eventstore.ConcurrencyException} included, complete the stage exceptionally.
+ */
+public interface ReactiveEventStore {
+
+    /**
+     * Append events where order does not matter. See
+     * {@link com.crablet.eventstore.EventStore#appendCommutative(List)}.
+     *
+     * @return stage completed with the transaction ID of the append
+     */
+    CompletionStage<String> appendCommutative(List<AppendEvent> events);
+
+    /**
+     * Append events guarded by a decision model and the stream position it was projected at. See
+     * {@link com.crablet.eventstore.EventStore#appendNonCommutative(List, Query, StreamPosition)}.
+     *
+     * @return stage completed with the transaction ID, or exceptionally with a
+     *         {@link com.crablet.eventstore.ConcurrencyException} if the model changed
+     */
+    CompletionStage<String> appendNonCommutative(
+            List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition);
+
+    /**
+     * Append events unless an event of {@code eventType} with the given tag exists.
+     */
+    CompletionStage<String> appendIdempotent(
+            List<AppendEvent> events, String eventType, String tagKey, String tagValue);
+
+    /**
+     * Append events unless an event matching {@code idempotencyQuery} exists.
+     */
+    CompletionStage<String> appendIdempotent(List<AppendEvent> events, Query idempotencyQuery);
+
+    /**
+     * Append events under a full append condition. Expert escape hatch, as on the blocking store.
+     */
+    CompletionStage<String> appendConditional(List<AppendEvent> events, AppendCondition condition);
+
+    /**
+     * Project state from events matching the query, together with the stream position of the
+     * last matching event. Rows are fetched in batches of
+     * {@link com.crablet.eventstore.EventStoreConfig#getFetchSize()} and the read stops once every
+     * projector is done.
+     *
+     * @param query      The query to filter events
+     * @param after      StreamPosition to project events after (use StreamPosition.zero() for all events)
+     * @param projectors List of projectors to apply to events
+     */
+    <T> CompletionStage<ProjectionResult<T>> project(
+            Query query, StreamPosition after, List<StateProjector<T>> projectors);
+
+    /**
+     * Convenience overload for single-projector use.
+     */
+    default <T> CompletionStage<ProjectionResult<T>> project(
+            Query query, StreamPosition after, StateProjector<T> projector) {
+        return project(query, after, List.of(projector));
+    }
+
+    /**
+     * Convenience overload that projects from {@link StreamPosition#zero()} with a single projector.
+     */
+    default <T> CompletionStage<ProjectionResult<T>> project(Query query, StateProjector<T> projector) {
+        return project(query, StreamPosition.zero(), projector);
+    }
+
+    /**
+     * Stream the events matching {@code query} after {@code after}, in stream order. Nothing is
+     * read until subscription; rows are then fetched as the subscriber requests them, and
+     * cancelling the subscription closes the cursor and releases the connection.
+     */
+    Flow.Publisher<StoredEvent> events(Query query, StreamPosition after);
+
+    /**
+     * @return stage completed with {@code true} if at least one event matching {@code query} exists
+     */
+    CompletionStage<Boolean> exists(Query query);
+}
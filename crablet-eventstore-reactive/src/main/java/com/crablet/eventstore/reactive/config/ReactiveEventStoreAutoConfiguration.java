@@ -0,0 +1,53 @@
+package com.crablet.eventstore.reactive.config;
+
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.Internal;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import com.crablet.eventstore.config.EventStoreAutoConfiguration;
+import com.crablet.eventstore.internal.EventStoreNotificationProperties;
+import com.crablet.eventstore.reactive.ReactiveEventStore;
+import com.crablet.eventstore.reactive.internal.ReactiveEventStoreImpl;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Auto-configuration for the reactive EventStore.
+ * <p>
+ * Provides a {@link ReactiveEventStore} over the application's R2DBC {@link ConnectionFactory},
+ * normally the pool Spring Boot builds from {@code spring.r2dbc.*}. It shares the
+ * {@link EventStoreConfig}, {@link ClockProvider}, payload codecs and {@code pg_notify} channel
+ * of the blocking {@code EventStore}.
+ */
+@Internal
+@AutoConfiguration(
+        after = EventStoreAutoConfiguration.class,
+        afterName = "org.springframework.boot.r2dbc.autoconfigure.R2dbcAutoConfiguration")
+@ConditionalOnBean(ConnectionFactory.class)
+public class ReactiveEventStoreAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveEventStore reactiveEventStore(
+            ConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            EventStoreConfig config,
+            ClockProvider clock,
+            ApplicationEventPublisher eventPublisher,
+            EventStoreNotificationProperties notificationProperties,
+            EventPayloadCodecs eventPayloadCodecs) {
+        return new ReactiveEventStoreImpl(
+                connectionFactory,
+                objectMapper,
+                config,
+                clock,
+                eventPublisher,
+                notificationProperties.getChannel(),
+                eventPayloadCodecs);
+    }
+}
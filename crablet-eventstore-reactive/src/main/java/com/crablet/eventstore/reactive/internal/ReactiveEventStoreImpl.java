@@ -0,0 +1,664 @@
+package com.crablet.eventstore.reactive.internal;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendConditionBuilder;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.CorrelationContext;
+import com.crablet.eventstore.DCBErrorCode;
+import com.crablet.eventstore.DCBViolation;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import com.crablet.eventstore.internal.PostgresNotifyPayload;
+import com.crablet.eventstore.internal.QuerySqlBuilder;
+import com.crablet.eventstore.internal.QuerySqlBuilderImpl;
+import com.crablet.eventstore.internal.StoredEventRowMapper;
+import com.crablet.eventstore.metrics.ConcurrencyViolationMetric;
+import com.crablet.eventstore.metrics.EventTypeMetric;
+import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.query.CachingEventDeserializer;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.MemoizingEventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.reactive.ReactiveEventStore;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * {@link ReactiveEventStore} over an R2DBC {@link ConnectionFactory}, normally an
+ * {@code r2dbc-pool} in front of {@code r2dbc-postgresql}.
+ * <p>
+ * Appends call {@code append_events_if} with the same arguments as
+ * {@link com.crablet.eventstore.internal.EventStoreImpl}; queries use the same
+ * {@link QuerySqlBuilderImpl} where clauses, with the JDBC {@code ?} placeholders renumbered to
+ * PostgreSQL's {@code $n}. Reads run in a read-only transaction so the driver can fetch through a
+ * portal in batches of {@link EventStoreConfig#getFetchSize()}, on demand.
+ * <p>
+ * Archived events, SQL-folded aggregates and group commit are features of the blocking store
+ * only: projections here fold every matching row of {@code crablet_events} in memory. Since the
+ * events of a duplicate may have been detached into the archive, idempotent appends are refused
+ * once any archive segment is registered.
+ */
+public class ReactiveEventStoreImpl implements ReactiveEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveEventStoreImpl.class);
+
+    private static final String APPEND_EVENTS_IF_SQL =
+        "SELECT append_events_if($1::text[], $2::text[], $3::%s[], $4::text[], $5::text[], $6, $7::text[], $8::text[], $9::TIMESTAMP WITH TIME ZONE, $10::uuid, $11, $12::text, $13::text, $14::smallint)";
+
+    private static final String ARCHIVE_REGISTERED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM crablet_archive_segments)";
+
+    private static final String SELECT_EVENTS_SQL =
+        "SELECT type, tags::text AS tags, data, payload_codec, transaction_id::text AS transaction_id, position, occurred_at, correlation_id, causation_id FROM crablet_events";
+
+    /**
+     * Decodes types and tags with the blocking store's dictionary.
+     */
+    private static final StoredEventRowMapper ROW_MAPPER = StoredEventRowMapper.shared();
+
+    private static final String SELECT_NEWEST_POSITION_SQL =
+        "SELECT transaction_id::text AS transaction_id, position, occurred_at FROM crablet_events";
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * Read-only transaction for projections and streams, as {@code setReadOnly(true)} on JDBC.
+     */
+    private static final TransactionDefinition READ_ONLY = new TransactionDefinition() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> @Nullable T getAttribute(Option<T> option) {
+            return TransactionDefinition.READ_ONLY.equals(option) ? (T) Boolean.TRUE : null;
+        }
+    };
+
+    private final ConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final EventStoreConfig config;
+    private final ClockProvider clock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final @Nullable String notifyChannel;
+    private final EventPayloadCodecs payloadCodecs;
+    private final QuerySqlBuilder sqlBuilder;
+    private final EventDeserializer eventDeserializer;
+    private final String appendEventsIfSql;
+
+    /**
+     * Creates a new ReactiveEventStoreImpl writing JSON payloads without {@code pg_notify}.
+     *
+     * @param connectionFactory R2DBC connection factory, normally pooled
+     * @param objectMapper Jackson object mapper for JSON serialization
+     * @param config event store configuration
+     * @param clock clock provider for timestamps
+     * @param eventPublisher event publisher for metrics (required)
+     */
+    public ReactiveEventStoreImpl(
+            ConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            EventStoreConfig config,
+            ClockProvider clock,
+            ApplicationEventPublisher eventPublisher) {
+        this(connectionFactory, objectMapper, config, clock, eventPublisher, null, null);
+    }
+
+    /**
+     * Creates a new ReactiveEventStoreImpl.
+     *
+     * @param notifyChannel {@code pg_notify} channel for appends, as on the blocking store;
+     *                      {@code null} disables notification
+     * @param payloadCodecs storage mode and write codec of {@code crablet_events.data};
+     *                      {@code null} writes JSON into a {@code JSONB} column
+     */
+    public ReactiveEventStoreImpl(
+            ConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            EventStoreConfig config,
+            ClockProvider clock,
+            ApplicationEventPublisher eventPublisher,
+            @Nullable String notifyChannel,
+            @Nullable EventPayloadCodecs payloadCodecs) {
+        if (connectionFactory == null) {
+            throw new IllegalArgumentException("connectionFactory must not be null");
+        }
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("ObjectMapper must not be null");
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("EventStoreConfig must not be null");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("ClockProvider must not be null");
+        }
+        if (eventPublisher == null) {
+            throw new IllegalArgumentException("eventPublisher must not be null");
+        }
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.clock = clock;
+        this.eventPublisher = eventPublisher;
+        this.notifyChannel = notifyChannel;
+        this.payloadCodecs = payloadCodecs != null ? payloadCodecs : EventPayloadCodecs.defaults();
+        this.sqlBuilder = new QuerySqlBuilderImpl();
+        this.eventDeserializer = new CachingEventDeserializer(objectMapper);
+        this.appendEventsIfSql = APPEND_EVENTS_IF_SQL.formatted(this.payloadCodecs.binaryStorage() ? "bytea" : "jsonb");
+    }
+
+    @Override
+    public CompletionStage<String> appendCommutative(List<AppendEvent> events) {
+        return appendIf(events, AppendCondition.empty());
+    }
+
+    @Override
+    public CompletionStage<String> appendNonCommutative(
+            List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
+        return appendIf(events, AppendConditionBuilder.of(decisionModel, streamPosition).build());
+    }
+
+    @Override
+    public CompletionStage<String> appendIdempotent(
+            List<AppendEvent> events, String eventType, String tagKey, String tagValue) {
+        return appendIf(events, AppendCondition.idempotent(eventType, tagKey, tagValue));
+    }
+
+    @Override
+    public CompletionStage<String> appendIdempotent(List<AppendEvent> events, Query idempotencyQuery) {
+        return appendIf(events, AppendCondition.idempotent(idempotencyQuery));
+    }
+
+    @Override
+    public CompletionStage<String> appendConditional(List<AppendEvent> events, AppendCondition condition) {
+        return appendIf(events, condition);
+    }
+
+    private CompletionStage<String> appendIf(List<AppendEvent> events, AppendCondition condition) {
+        if (events == null || events.isEmpty()) {
+            throw new IllegalArgumentException("Cannot append empty events list");
+        }
+        if (condition == null) {
+            throw new IllegalArgumentException("condition must not be null");
+        }
+        // Bound on the caller's thread: payload errors surface there, and the correlation
+        // context is a scoped value that the driver's threads do not see
+        Object[] arguments = appendArguments(events, condition);
+
+        return Mono.usingWhen(
+                        connectionFactory.create(),
+                        connection -> refuseIdempotentAfterArchive(connection, condition)
+                                .then(Mono.defer(() -> Mono.from(bind(connection.createStatement(appendEventsIfSql), arguments).execute())))
+                                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Json.class))))
+                                .map(json -> parseAppendResult(json.asString())),
+                        Connection::close)
+                .onErrorMap(R2dbcException.class, ReactiveEventStoreImpl::handleR2dbcException)
+                .doOnError(ConcurrencyException.class, e -> eventPublisher.publishEvent(new ConcurrencyViolationMetric()))
+                .doOnSuccess(transactionId -> publishAppendMetrics(events))
+                .toFuture();
+    }
+
+    /**
+     * Fail idempotent appends once the archive has a segment. {@code append_events_if} only checks
+     * {@code crablet_events} and the kept idempotency claims, so a duplicate of a detached event
+     * without a claim would be appended; the blocking store checks the archive files as well.
+     * Segments are detached only after a grace period, so none can be detached between this
+     * check and the append.
+     */
+    private Mono<Void> refuseIdempotentAfterArchive(Connection connection, AppendCondition condition) {
+        if (condition.idempotencyQuery().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.from(connection.createStatement(ARCHIVE_REGISTERED_SQL).execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> Boolean.TRUE.equals(row.get(0, Boolean.class)))))
+                .flatMap(archived -> archived
+                        ? Mono.<Void>error(new EventStoreException(
+                                "Idempotent appends are not supported by the reactive event store once events are archived; use the blocking EventStore"))
+                        : Mono.<Void>empty());
+    }
+
+    /**
+     * Arguments of {@code append_events_if} in parameter order, as the blocking store binds them.
+     * Binary payloads travel as {@code bytea} hex text and are cast by the statement.
+     */
+    private Object[] appendArguments(List<AppendEvent> events, AppendCondition condition) {
+        String[] types = events.stream().map(AppendEvent::type).toArray(String[]::new);
+        String[] tagArrays = events.stream().map(event -> tagsArray(event.tags())).toArray(String[]::new);
+        String[] payloads = new String[events.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            Object eventData = events.get(i).eventData();
+            if (payloadCodecs.binaryStorage()) {
+                payloads[i] = "\\x" + HEX.formatHex(payloadCodecs.encode(serializeEventData(eventData)));
+            } else {
+                payloads[i] = eventData instanceof String json
+                        ? json
+                        : new String(serializeEventData(eventData), StandardCharsets.UTF_8);
+            }
+        }
+
+        String[] concurrencyTypes = condition.concurrencyQuery().items().stream()
+                .flatMap(item -> item.eventTypes().stream())
+                .distinct()
+                .toArray(String[]::new);
+        String[] concurrencyTags = condition.concurrencyQuery().items().stream()
+                .flatMap(item -> item.tags().stream())
+                .map(tag -> tag.key() + "=" + tag.value())
+                .distinct()
+                .toArray(String[]::new);
+        String[] idempotencyTypes = condition.idempotencyQuery().items().stream()
+                .flatMap(item -> item.eventTypes().stream())
+                .distinct()
+                .toArray(String[]::new);
+        String[] idempotencyTags = condition.idempotencyQuery().items().stream()
+                .flatMap(item -> item.tags().stream())
+                .map(tag -> tag.key() + "=" + tag.value())
+                .distinct()
+                .sorted()  // Ensure deterministic order for consistent hash
+                .toArray(String[]::new);
+
+        // No concurrency check: pass NULLs so append_events_if skips the decision-model lock
+        boolean concurrencyCheck = concurrencyTypes.length > 0 || concurrencyTags.length > 0;
+        String notifyPayload = notifyChannel != null ? notifyPayload(events) : null;
+        return new Object[] {
+            types,
+            tagArrays,
+            payloads,
+            concurrencyCheck ? concurrencyTypes : NullArgument.TEXT_ARRAY,
+            concurrencyCheck ? concurrencyTags : NullArgument.TEXT_ARRAY,
+            concurrencyCheck ? (Object) condition.afterPosition().position() : NullArgument.BIGINT,
+            idempotencyTypes.length > 0 ? idempotencyTypes : NullArgument.TEXT_ARRAY,
+            idempotencyTags.length > 0 ? idempotencyTags : NullArgument.TEXT_ARRAY,
+            clock.now().atOffset(ZoneOffset.UTC),
+            nullable(CorrelationContext.correlationId(), NullArgument.UUID),
+            nullable(CorrelationContext.causationId(), NullArgument.BIGINT),
+            nullable(notifyChannel, NullArgument.TEXT),
+            nullable(notifyPayload, NullArgument.TEXT),
+            payloadCodecs.writeCodec().id()
+        };
+    }
+
+    @Override
+    public <T> CompletionStage<ProjectionResult<T>> project(
+            Query query, StreamPosition after, List<StateProjector<T>> projectors) {
+        if (query == null) {
+            throw new IllegalArgumentException("query must not be null");
+        }
+        if (after == null) {
+            throw new IllegalArgumentException("after must not be null");
+        }
+        if (projectors == null || projectors.isEmpty()) {
+            throw new IllegalArgumentException("Projectors must not be empty");
+        }
+        return readOnly(connection -> Mono.defer(() -> project(connection, query, after, projectors)))
+                .single()
+                .onErrorMap(R2dbcException.class, e -> new EventStoreException("Failed to project state", e))
+                .toFuture();
+    }
+
+    private <T> Mono<ProjectionResult<T>> project(
+            Connection connection, Query query, StreamPosition after, List<StateProjector<T>> projectors) {
+        // Projectors sharing an event class parse each event once
+        EventDeserializer deserializer = projectors.size() > 1
+                ? new MemoizingEventDeserializer(this.eventDeserializer)
+                : this.eventDeserializer;
+        Fold<T> fold = new Fold<>(projectors, deserializer, after);
+
+        if (query.latest() > 0) {
+            // Newest rows first with a LIMIT, folded in ascending order
+            return select(connection, query, after, " ORDER BY transaction_id DESC, position DESC LIMIT " + query.latest())
+                    .collectList()
+                    .map(newestFirst -> {
+                        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                            if (fold.apply(newestFirst.get(i))) {
+                                break;
+                            }
+                        }
+                        StreamPosition last = newestFirst.isEmpty() ? after : streamPositionOf(newestFirst.get(0));
+                        return ProjectionResult.of(fold.state, last);
+                    });
+        }
+        return select(connection, query, after, " ORDER BY transaction_id, position ASC")
+                .takeUntil(fold::apply)
+                .then(Mono.defer(() -> fold.done
+                        // The cursor was closed early; the position must still cover every matching event
+                        ? newestPosition(connection, query, after).defaultIfEmpty(fold.lastStreamPosition)
+                        : Mono.just(fold.lastStreamPosition)))
+                .map(last -> ProjectionResult.of(fold.state, last));
+    }
+
+    @Override
+    public Flow.Publisher<StoredEvent> events(Query query, StreamPosition after) {
+        if (query == null) {
+            throw new IllegalArgumentException("query must not be null");
+        }
+        if (after == null) {
+            throw new IllegalArgumentException("after must not be null");
+        }
+        Flux<StoredEvent> events = readOnly(connection -> select(connection, query, after, " ORDER BY transaction_id, position ASC"))
+                .onErrorMap(R2dbcException.class, e -> new EventStoreException("Failed to read events", e));
+        return JdkFlowAdapter.publisherToFlowPublisher(events);
+    }
+
+    @Override
+    public CompletionStage<Boolean> exists(Query query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query must not be null");
+        }
+        List<Object> params = new ArrayList<>();
+        String whereClause = sqlBuilder.buildWhereClause(query, null, params);
+        StringBuilder sql = new StringBuilder("SELECT EXISTS(SELECT 1 FROM crablet_events");
+        if (!whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+        sql.append(") AS result");
+        String statement = numberPlaceholders(sql.toString());
+
+        return Mono.usingWhen(
+                        connectionFactory.create(),
+                        connection -> Mono.from(bind(connection.createStatement(statement), params.toArray()).execute())
+                                .flatMap(result -> Mono.from(result.map((row, metadata) -> Boolean.TRUE.equals(row.get("result", Boolean.class))))),
+                        Connection::close)
+                .defaultIfEmpty(false)
+                .onErrorMap(R2dbcException.class, e -> new EventStoreException("Failed to check event existence", e))
+                .toFuture();
+    }
+
+    /**
+     * Run {@code work} in a read-only transaction on its own connection. The transaction is
+     * committed on completion and rolled back on error or cancellation, then the connection closes.
+     */
+    private <T> Flux<T> readOnly(Function<Connection, Publisher<T>> work) {
+        return Flux.usingWhen(
+                connectionFactory.create(),
+                connection -> Flux.usingWhen(
+                        Mono.from(connection.beginTransaction(READ_ONLY)).thenReturn(connection),
+                        work,
+                        Connection::commitTransaction,
+                        (tx, e) -> tx.rollbackTransaction(),
+                        Connection::rollbackTransaction),
+                Connection::close);
+    }
+
+    private Flux<StoredEvent> select(Connection connection, Query query, StreamPosition after, String orderBy) {
+        List<Object> params = new ArrayList<>();
+        String whereClause = sqlBuilder.buildWhereClause(query, after, params);
+        StringBuilder sql = new StringBuilder(SELECT_EVENTS_SQL);
+        if (!whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+        sql.append(orderBy);
+
+        Statement statement = bind(connection.createStatement(numberPlaceholders(sql.toString())), params.toArray())
+                .fetchSize(config.getFetchSize());
+        return Flux.from(statement.execute()).concatMap(result -> result.map(this::toStoredEvent));
+    }
+
+    /**
+     * Position of the newest event matching {@code query}, after a fold stopped early.
+     */
+    private Mono<StreamPosition> newestPosition(Connection connection, Query query, StreamPosition after) {
+        List<Object> params = new ArrayList<>();
+        String whereClause = sqlBuilder.buildWhereClause(query, after, params);
+        StringBuilder sql = new StringBuilder(SELECT_NEWEST_POSITION_SQL);
+        if (!whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+        sql.append(" ORDER BY transaction_id DESC, position DESC LIMIT 1");
+
+        return Mono.from(bind(connection.createStatement(numberPlaceholders(sql.toString())), params.toArray()).execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> StreamPosition.of(
+                        require(row.get("position", Long.class)),
+                        require(row.get("occurred_at", Instant.class)),
+                        require(row.get("transaction_id", String.class))))));
+    }
+
+    private StoredEvent toStoredEvent(Row row, RowMetadata metadata) {
+        byte[] stored = payloadCodecs.binaryStorage()
+                ? require(row.get("data", byte[].class))
+                : require(row.get("data", Json.class)).asArray();
+        return new StoredEvent(
+                ROW_MAPPER.type(require(row.get("type", String.class))),
+                ROW_MAPPER.tags(require(row.get("tags", String.class))),
+                EventPayloadCodecs.decode(require(row.get("payload_codec", Short.class)), stored),
+                require(row.get("transaction_id", String.class)),
+                require(row.get("position", Long.class)),
+                require(row.get("occurred_at", Instant.class)),
+                row.get("correlation_id", UUID.class),
+                row.get("causation_id", Long.class));
+    }
+
+    private static Statement bind(Statement statement, Object[] arguments) {
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof NullArgument nullArgument) {
+                statement.bindNull(i, nullArgument.type);
+            } else {
+                statement.bind(i, arguments[i]);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Rewrite the JDBC {@code ?} placeholders of a {@link QuerySqlBuilder} clause as PostgreSQL's
+     * {@code $1, $2, ...}. The generated clauses contain no other question marks.
+     */
+    static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 8);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /**
+     * Serialize event data to UTF-8 JSON. A {@code String} or {@code byte[]} is assumed to be JSON
+     * already, as on the blocking store.
+     */
+    private byte[] serializeEventData(Object eventData) {
+        if (eventData instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (eventData instanceof String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.writerFor(eventData.getClass()).writeValueAsBytes(eventData);
+        } catch (JacksonException e) {
+            throw new EventStoreException("Failed to serialize event data: " + eventData.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Parse the JSON result of {@code append_events_if} into the transaction ID.
+     *
+     * @throws ConcurrencyException if the append condition was violated
+     */
+    private String parseAppendResult(String jsonResult) {
+        Map<String, Object> result;
+        try {
+            result = objectMapper.readValue(jsonResult,
+                new tools.jackson.core.type.TypeReference<Map<String, Object>>() {});
+        } catch (JacksonException e) {
+            throw new EventStoreException("Failed to parse JSONB result: " + jsonResult, e);
+        }
+
+        if (!(result.get("success") instanceof Boolean success) || !success) {
+            Object rawErrorCode = result.get("error_code");
+            DCBErrorCode errorCode = DCBErrorCode.DCB_VIOLATION;
+            if (rawErrorCode instanceof String value && !value.isBlank()) {
+                try {
+                    errorCode = DCBErrorCode.valueOf(value);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unrecognized error_code from append_events_if: {}", value);
+                }
+            }
+            String message = result.get("message") instanceof String value ? value : "append condition violated";
+            int matchingEventsCount = result.get("matching_events_count") instanceof Number count ? count.intValue() : 0;
+            throw new ConcurrencyException("AppendCondition violated: " + message,
+                    new DCBViolation(errorCode, message, matchingEventsCount));
+        }
+
+        if (!(result.get("transaction_id") instanceof String transactionId)) {
+            throw new EventStoreException("PostgreSQL function did not return transaction_id");
+        }
+        return transactionId;
+    }
+
+    /**
+     * Map a driver error the way the blocking store maps a {@code SQLException}.
+     */
+    private static RuntimeException handleR2dbcException(R2dbcException e) {
+        String sqlState = e.getSqlState();
+        if ("P0001".equals(sqlState)) {
+            return new ConcurrencyException("PostgreSQL function error: " + e.getMessage());
+        }
+        if (sqlState != null && sqlState.startsWith("P")) {
+            return new EventStoreException("PostgreSQL procedural error (" + sqlState + "): " + e.getMessage(), e);
+        }
+        return new EventStoreException("Failed to append events with condition", e);
+    }
+
+    private void publishAppendMetrics(List<AppendEvent> events) {
+        eventPublisher.publishEvent(new EventsAppendedMetric(events.size()));
+        for (AppendEvent event : events) {
+            eventPublisher.publishEvent(new EventTypeMetric(event.type()));
+        }
+    }
+
+    private static String notifyPayload(List<AppendEvent> events) {
+        Set<String> eventTypes = new HashSet<>();
+        Set<String> tagKeys = new HashSet<>();
+        for (AppendEvent event : events) {
+            eventTypes.add(event.type());
+            for (Tag tag : event.tags()) {
+                tagKeys.add(tag.key());
+            }
+        }
+        return PostgresNotifyPayload.encodePayload(eventTypes, tagKeys);
+    }
+
+    private static String tagsArray(List<Tag> tags) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Tag tag : tags) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(tag.key()).append('=').append(tag.value());
+        }
+        return sb.append('}').toString();
+    }
+
+    private static StreamPosition streamPositionOf(StoredEvent event) {
+        return StreamPosition.of(event.position(), event.occurredAt(), event.transactionId());
+    }
+
+    private static Object nullable(@Nullable Object value, NullArgument ifNull) {
+        return value != null ? value : ifNull;
+    }
+
+    private static <T> T require(@Nullable T value) {
+        if (value == null) {
+            throw new EventStoreException("Unexpected NULL in a non-null crablet_events column");
+        }
+        return value;
+    }
+
+    /**
+     * A SQL NULL argument; R2DBC binds NULL with the Java type it stands for.
+     */
+    private enum NullArgument {
+        TEXT(String.class),
+        TEXT_ARRAY(String[].class),
+        BIGINT(Long.class),
+        UUID(java.util.UUID.class);
+
+        private final Class<?> type;
+
+        NullArgument(Class<?> type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * Fold state of one projection. Rows arrive one at a time, so no synchronization is needed.
+     */
+    private static final class Fold<T> {
+        private final List<StateProjector<T>> projectors;
+        private final EventDeserializer deserializer;
+        private T state;
+        private StreamPosition lastStreamPosition;
+        private boolean done;
+
+        private Fold(List<StateProjector<T>> projectors, EventDeserializer deserializer, StreamPosition after) {
+            this.projectors = projectors;
+            this.deserializer = deserializer;
+            this.state = projectors.get(0).getInitialState();
+            this.lastStreamPosition = after;
+        }
+
+        /**
+         * Fold {@code event} into the state.
+         *
+         * @return whether every projector is done, so no further event can change the state
+         */
+        private boolean apply(StoredEvent event) {
+            for (StateProjector<T> projector : projectors) {
+                List<String> eventTypes = projector.getEventTypes();
+                if (eventTypes.isEmpty() || eventTypes.contains(event.type())) {
+                    state = projector.transition(state, event, deserializer);
+                }
+            }
+            lastStreamPosition = streamPositionOf(event);
+            done = true;
+            for (StateProjector<T> projector : projectors) {
+                if (!projector.isDone(state)) {
+                    done = false;
+                    break;
+                }
+            }
+            return done;
+        }
+    }
+}
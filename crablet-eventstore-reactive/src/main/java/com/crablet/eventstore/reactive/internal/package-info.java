@@ -0,0 +1,10 @@
+/**
+ * Internal implementation classes — not part of the public API.
+ * Subject to change without notice; do not use in application code.
+ */
+@Internal
+@NullMarked
+package com.crablet.eventstore.reactive.internal;
+
+import com.crablet.eventstore.Internal;
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,13 @@
+/**
+ * Non-blocking counterpart of the Crablet EventStore over R2DBC PostgreSQL.
+ * <p>
+ * {@link com.crablet.eventstore.reactive.ReactiveEventStore} appends through the same
+ * {@code append_events_if} function and reads with the same
+ * {@link com.crablet.eventstore.query.Query} model as {@link com.crablet.eventstore.EventStore},
+ * returning {@link java.util.concurrent.CompletionStage}s and streaming events as a
+ * {@link java.util.concurrent.Flow.Publisher} with backpressure.
+ */
+@NullMarked
+package com.crablet.eventstore.reactive;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,197 @@
+package com.crablet.eventstore.reactive;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.DCBErrorCode;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.reactive.internal.ReactiveEventStoreImpl;
+import com.crablet.test.AbstractPostgresEventStoreTest;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Reactive event store integration tests")
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.profiles.active=test")
+class ReactiveEventStoreIntegrationTest extends AbstractPostgresEventStoreTest {
+
+    private static final Query WALLET_1 = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private EventStoreConfig config;
+
+    private ReactiveEventStore reactiveStore;
+
+    @BeforeEach
+    void createReactiveStore() {
+        PostgreSQLContainer<?> postgres = getPostgresContainer();
+        PostgresqlConnectionFactory connectionFactory = new PostgresqlConnectionFactory(
+                PostgresqlConnectionConfiguration.builder()
+                        .host(postgres.getHost())
+                        .port(postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                        .database(postgres.getDatabaseName())
+                        .username(postgres.getUsername())
+                        .password(postgres.getPassword())
+                        .build());
+        reactiveStore = new ReactiveEventStoreImpl(connectionFactory, objectMapper, config, clock, event -> { });
+    }
+
+    @Test
+    @DisplayName("projects reactive and blocking appends alike")
+    void projectsAppendedEvents() {
+        await(reactiveStore.appendCommutative(List.of(deposit("w1", 10))));
+        eventStore.appendCommutative(List.of(deposit("w1", 20)));
+        await(reactiveStore.appendCommutative(List.of(deposit("w2", 30))));
+
+        ProjectionResult<Integer> reactive = await(reactiveStore.project(WALLET_1, new CountingProjector()));
+        ProjectionResult<Integer> blocking = eventStore.project(WALLET_1, new CountingProjector());
+
+        assertThat(reactive.state()).isEqualTo(2);
+        assertThat(reactive.streamPosition().position()).isEqualTo(blocking.streamPosition().position());
+        assertThat(await(reactiveStore.exists(WALLET_1))).isTrue();
+        assertThat(await(reactiveStore.exists(Query.forEventAndTag("DepositMade", "wallet_id", "w3")))).isFalse();
+    }
+
+    @Test
+    @DisplayName("rejects a non-commutative append after the decision model changed")
+    void rejectsStaleDecisionModel() {
+        ProjectionResult<Integer> model = await(reactiveStore.project(WALLET_1, new CountingProjector()));
+        await(reactiveStore.appendNonCommutative(List.of(deposit("w1", 10)), WALLET_1, model.streamPosition()));
+
+        assertThatThrownBy(() -> await(reactiveStore.appendNonCommutative(
+                        List.of(deposit("w1", 20)), WALLET_1, model.streamPosition())))
+                .isInstanceOf(ConcurrencyException.class)
+                .satisfies(e -> assertThat(Objects.requireNonNull(((ConcurrencyException) e).violation).errorCode())
+                        .isEqualTo(DCBErrorCode.DCB_VIOLATION));
+        assertThat(eventStore.project(WALLET_1, new CountingProjector()).state()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("rejects an idempotent append whose event already exists")
+    void rejectsDuplicateIdempotentAppend() {
+        AppendEvent opened = AppendEvent.of("WalletOpened", "wallet_id", "w1", "{}");
+        await(reactiveStore.appendIdempotent(List.of(opened), "WalletOpened", "wallet_id", "w1"));
+
+        assertThatThrownBy(() -> await(reactiveStore.appendIdempotent(List.of(opened), "WalletOpened", "wallet_id", "w1")))
+                .isInstanceOf(ConcurrencyException.class);
+    }
+
+    @Test
+    @DisplayName("refuses idempotent appends once an archive segment is registered")
+    void refusesIdempotentAppendWithArchive() {
+        jdbcTemplate.update("""
+                INSERT INTO crablet_archive_segments (from_position, to_position, event_count, file_name, checksum, archived_at)
+                VALUES (1, 2, 1, 'segment-1', 0, now())""");
+        AppendEvent opened = AppendEvent.of("WalletOpened", "wallet_id", "w1", "{}");
+
+        assertThatThrownBy(() -> await(reactiveStore.appendIdempotent(List.of(opened), "WalletOpened", "wallet_id", "w1")))
+                .isInstanceOf(EventStoreException.class)
+                .hasMessageContaining("archived");
+        await(reactiveStore.appendCommutative(List.of(deposit("w1", 10))));
+    }
+
+    @Test
+    @DisplayName("streams events only as fast as the subscriber requests them")
+    void streamsWithBackpressure() throws InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            await(reactiveStore.appendCommutative(List.of(deposit("w1", i))));
+        }
+
+        List<StoredEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch firstTwo = new CountDownLatch(2);
+        reactiveStore.events(WALLET_1, StreamPosition.zero()).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(StoredEvent event) {
+                received.add(event);
+                firstTwo.countDown();
+                if (received.size() == 2) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertThat(firstTwo.await(10, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(Duration.ofMillis(200));
+        assertThat(received).extracting(StoredEvent::position).containsExactly(1L, 2L);
+    }
+
+    private static AppendEvent deposit(String walletId, int amount) {
+        return AppendEvent.of("DepositMade", "wallet_id", walletId, "{\"amount\":" + amount + "}");
+    }
+
+    private static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class CountingProjector implements StateProjector<Integer> {
+        @Override
+        public List<String> getEventTypes() {
+            return List.of("DepositMade");
+        }
+
+        @Override
+        public Integer getInitialState() {
+            return 0;
+        }
+
+        @Override
+        public Integer transition(Integer currentState, StoredEvent event, EventDeserializer deserializer) {
+            return currentState + 1;
+        }
+    }
+}
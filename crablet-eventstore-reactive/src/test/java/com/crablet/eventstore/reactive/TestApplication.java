@@ -0,0 +1,16 @@
+package com.crablet.eventstore.reactive;
+
+import com.crablet.test.config.CrabletFlywayConfiguration;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+@SpringBootApplication
+@Import(CrabletFlywayConfiguration.class)
+public class TestApplication {
+
+    @Bean
+    public tools.jackson.databind.ObjectMapper objectMapper() {
+        return tools.jackson.databind.json.JsonMapper.builder().build();
+    }
+}
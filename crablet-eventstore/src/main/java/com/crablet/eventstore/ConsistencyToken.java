@@ -0,0 +1,70 @@
+package com.crablet.eventstore;
+
+/**
+ * A point in the primary's write-ahead log, as a byte offset. A replica that has replayed the WAL
+ * up to this point sees every transaction committed before the token was taken.
+ * <p>
+ * Obtained from {@link EventStore#lastCommitToken()} after appending, and passed to
+ * {@link EventStore#readAtLeast(ConsistencyToken)}, possibly by another application instance: the
+ * text form from {@link #toString()} is PostgreSQL's {@code pg_lsn} notation and round-trips
+ * through {@link #parse(String)}.
+ */
+public record ConsistencyToken(long lsn) {
+
+    /**
+     * No requirement; any replica may serve the read.
+     */
+    public static final ConsistencyToken NONE = new ConsistencyToken(0L);
+
+    public ConsistencyToken {
+        if (lsn < 0) {
+            throw new IllegalArgumentException("lsn cannot be negative");
+        }
+    }
+
+    /**
+     * Parse PostgreSQL's {@code pg_lsn} notation, two hexadecimal halves separated by a slash
+     * (e.g. {@code 16/B374D848}).
+     *
+     * @throws IllegalArgumentException if {@code text} is not in that notation
+     */
+    public static ConsistencyToken parse(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("text must not be null");
+        }
+        int slash = text.indexOf('/');
+        if (slash <= 0 || slash == text.length() - 1 || slash > 8 || text.length() - slash - 1 > 8) {
+            throw new IllegalArgumentException("Not a pg_lsn: " + text);
+        }
+        try {
+            long high = Long.parseLong(text, 0, slash, 16);
+            long low = Long.parseLong(text, slash + 1, text.length(), 16);
+            return new ConsistencyToken((high << 32) | low);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a pg_lsn: " + text, e);
+        }
+    }
+
+    public boolean isNone() {
+        return lsn == 0L;
+    }
+
+    /**
+     * @return whether a replica that replayed up to {@code replayedLsn} satisfies this token
+     */
+    public boolean isReachedBy(long replayedLsn) {
+        return replayedLsn >= lsn;
+    }
+
+    /**
+     * @return the later of the two tokens, for requests that must see several writes
+     */
+    public ConsistencyToken max(ConsistencyToken other) {
+        return other.lsn > lsn ? other : this;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
@@ -1,10 +1,14 @@
 package com.crablet.eventstore;
 
+import com.crablet.eventstore.query.ProjectionRequest;
 import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.ProjectionResults;
 import com.crablet.eventstore.query.Query;
 import com.crablet.eventstore.query.StateProjector;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 
@@ -186,6 +190,67 @@ public interface EventStore {
         return project(query, StreamPosition.zero(), (Class<T>) Object.class, projectors);
     }
 
+    /**
+     * Run several independent projections against one snapshot, for command handlers whose
+     * decision needs more than one model.
+     * <p>
+     * The production implementation reads all requests with a single {@code UNION ALL} statement
+     * in one read-only transaction, instead of one connection, transaction and statement per
+     * {@code project()} call. The {@code default} implementation calls {@code project()} per request.
+     *
+     * @param requests The projections to run (must not be empty)
+     * @return One result per request, each with the stream position of its own last event
+     * @throws IllegalArgumentException if the requests list is empty
+     */
+    @SuppressWarnings("unchecked")
+    default ProjectionResults projectAll(List<ProjectionRequest<?>> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("requests must not be empty");
+        }
+        List<ProjectionResult<?>> results = new ArrayList<>(requests.size());
+        for (ProjectionRequest<?> request : requests) {
+            ProjectionRequest<Object> r = (ProjectionRequest<Object>) request;
+            results.add(project(r.query(), r.after(), Object.class, r.projectors()));
+        }
+        return new ProjectionResults(requests, results);
+    }
+
+    /**
+     * Project one state per value of {@code groupByTagKey} in a single pass over the events
+     * matching {@code query}, instead of one {@code project()} call per entity.
+     * <p>
+     * Every event is folded into the group of each {@code groupByTagKey} tag it carries; events
+     * without that tag are skipped. Each result's stream position is that of the last event folded
+     * into its group, so it can feed {@code appendNonCommutative} for a decision model that is
+     * {@code query} restricted to the group's tag.
+     *
+     * @param query         The query to filter events, typically by event types only
+     * @param groupByTagKey Tag key whose values identify the groups (e.g. {@code "wallet_id"})
+     * @param projector     The projector applied to each group
+     * @return Projection result per tag value, in order of each group's first event
+     */
+    default <T> Map<String, ProjectionResult<T>> projectGrouped(
+            Query query, String groupByTagKey, StateProjector<T> projector) {
+        return projectGrouped(query, StreamPosition.zero(), groupByTagKey, projector, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Grouped projection after a stream position with a bound on the number of groups held in
+     * memory.
+     *
+     * @param query         The query to filter events
+     * @param after         StreamPosition to project events after (use StreamPosition.zero() for all events)
+     * @param groupByTagKey Tag key whose values identify the groups
+     * @param projector     The projector applied to each group
+     * @param maxGroups     Maximum number of groups; the projection fails with
+     *                      {@link EventStoreException} when the events name more
+     * @return Projection result per tag value, in order of each group's first event
+     */
+    default <T> Map<String, ProjectionResult<T>> projectGrouped(
+            Query query, StreamPosition after, String groupByTagKey, StateProjector<T> projector, int maxGroups) {
+        return GroupedProjection.project(this, query, after, groupByTagKey, projector, maxGroups);
+    }
+
     /**
      * Returns {@code true} if at least one event matching {@code query} exists.
      * <p>
@@ -200,6 +265,36 @@ public interface EventStore {
         return project(query, StreamPosition.zero(), StateProjector.exists()).state();
     }
 
+    /**
+     * Token covering every append this instance has committed so far, to hand to
+     * {@link #readAtLeast(ConsistencyToken)} here or on another instance.
+     * <p>
+     * The production implementation only tracks commits while reads go to a replica, at the cost
+     * of one {@code pg_current_wal_lsn()} query per committed append. The {@code default}
+     * implementation, and the production one without replicas, return {@link ConsistencyToken#NONE}.
+     */
+    default ConsistencyToken lastCommitToken() {
+        return ConsistencyToken.NONE;
+    }
+
+    /**
+     * View whose {@code project}, {@code projectAll} and {@code exists} calls see at least the
+     * writes covered by {@code token}. Appends and transactions are unchanged.
+     * <p>
+     * With a read replica, the production implementation reads from the replica once it has
+     * replayed up to the token, and from the primary if it has not within
+     * {@code crablet.eventstore.read-replicas.consistency-wait}. The {@code default}
+     * implementation returns {@code this}, for stores that always read their own writes.
+     *
+     * @param token token from {@link #lastCommitToken()}
+     */
+    default EventStore readAtLeast(ConsistencyToken token) {
+        if (token == null) {
+            throw new IllegalArgumentException("token must not be null");
+        }
+        return this;
+    }
+
     /**
      * Execute operations within a single transaction.
      * EventStore manages connection lifecycle internally.
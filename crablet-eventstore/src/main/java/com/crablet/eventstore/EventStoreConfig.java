@@ -1,5 +1,6 @@
 package com.crablet.eventstore;
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -25,6 +26,8 @@ public class EventStoreConfig {
     private boolean persistCommands = true;
     private String transactionIsolation = "READ_COMMITTED";
     private int fetchSize = 1000;
+    private @Nullable Integer prepareThreshold;
+    private boolean fusedCommandWrites = false;
 
     public boolean isPersistCommands() {
         return persistCommands;
@@ -49,4 +52,30 @@ public class EventStoreConfig {
     public void setFetchSize(int fetchSize) {
         this.fetchSize = fetchSize;
     }
+
+    /**
+     * Executions of a read statement text, per connection, after which pgjdbc switches to a named
+     * server-side prepared statement. {@code 1} prepares on first use; {@code 0} never prepares,
+     * as needed behind poolers that do not support prepared statements. {@code null}, the default,
+     * keeps the driver's own setting ({@code prepareThreshold} of the JDBC URL, 5 unless set there).
+     */
+    public @Nullable Integer getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(@Nullable Integer prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    /**
+     * Whether a command's append and its audit record are written in one
+     * {@code append_events_with_command} call (V10 migration), saving a round trip.
+     */
+    public boolean isFusedCommandWrites() {
+        return fusedCommandWrites;
+    }
+
+    public void setFusedCommandWrites(boolean fusedCommandWrites) {
+        this.fusedCommandWrites = fusedCommandWrites;
+    }
 }
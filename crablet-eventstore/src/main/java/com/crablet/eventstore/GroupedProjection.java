@@ -0,0 +1,91 @@
+package com.crablet.eventstore;
+
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds one ordered projection into a state per value of a tag key; backs
+ * {@link EventStore#projectGrouped(Query, StreamPosition, String, StateProjector, int)}.
+ */
+final class GroupedProjection {
+
+    private GroupedProjection() {
+    }
+
+    /**
+     * State and last folded event of one group. Mutated in place: the grouping projector's state
+     * never leaves this class.
+     */
+    private static final class Group<T> {
+        private T state;
+        private StreamPosition streamPosition = StreamPosition.zero();
+
+        private Group(T state) {
+            this.state = state;
+        }
+    }
+
+    static <T> Map<String, ProjectionResult<T>> project(
+            EventStore eventStore, Query query, StreamPosition after,
+            String groupByTagKey, StateProjector<T> projector, int maxGroups) {
+        if (groupByTagKey == null || groupByTagKey.isBlank()) {
+            throw new IllegalArgumentException("groupByTagKey must not be blank");
+        }
+        if (projector == null) {
+            throw new IllegalArgumentException("projector must not be null");
+        }
+        if (maxGroups < 1) {
+            throw new IllegalArgumentException("maxGroups must be at least 1");
+        }
+
+        // Anonymous on purpose: its state is mutable, and DecisionModelCache never caches
+        // projectors whose id is the default id of an anonymous class
+        StateProjector<Map<String, Group<T>>> grouping = new StateProjector<>() {
+            @Override
+            public List<String> getEventTypes() {
+                return projector.getEventTypes();
+            }
+
+            @Override
+            public Map<String, Group<T>> getInitialState() {
+                return new LinkedHashMap<>();
+            }
+
+            @Override
+            public Map<String, Group<T>> transition(
+                    Map<String, Group<T>> groups, StoredEvent event, EventDeserializer deserializer) {
+                for (Tag tag : event.tags()) {
+                    String value = tag.value();
+                    if (value == null || !groupByTagKey.equals(tag.key())) {
+                        continue;
+                    }
+                    @Nullable Group<T> group = groups.get(value);
+                    if (group == null) {
+                        if (groups.size() >= maxGroups) {
+                            throw new EventStoreException("Grouped projection by " + groupByTagKey
+                                    + " exceeds " + maxGroups + " groups; narrow the query or raise maxGroups");
+                        }
+                        group = new Group<>(projector.getInitialState());
+                        groups.put(value, group);
+                    }
+                    group.state = projector.transition(group.state, event, deserializer);
+                    group.streamPosition = StreamPosition.of(event.position(), event.occurredAt(), event.transactionId());
+                }
+                return groups;
+            }
+        };
+
+        Map<String, Group<T>> groups = eventStore.project(query, after, grouping).state();
+        Map<String, ProjectionResult<T>> results = new LinkedHashMap<>(groups.size() * 4 / 3 + 1);
+        groups.forEach((value, group) -> results.put(value, ProjectionResult.of(group.state, group.streamPosition)));
+        return Collections.unmodifiableMap(results);
+    }
+}
@@ -0,0 +1,465 @@
+package com.crablet.eventstore.archive;
+
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only, memory-mapped view of one archive segment file.
+ * <p>
+ * A segment holds every event of one closed position range {@code [fromPosition, toPosition)} in
+ * {@code (transaction_id, position)} order, the order {@code EventStore.project} folds in. Event
+ * types and raw tag strings are stored once in a sorted dictionary, and every dictionary entry
+ * lists the ordinals of the events carrying it, so a query only decodes events that match.
+ * Opening a segment verifies the CRC32C stored in its last eight bytes.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ * header      magic (8) | version (4) | reserved (4)
+ * records     position (8) | transaction id (8) | occurred-at micros (8) | flags (1)
+ *             | [correlation id (16)] | [causation id (8)] | type entry (4) | tag count (4)
+ *             | tag entries (4 each) | data length (4) | data
+ * offsets     record offset (8) per event
+ * dictionary  entry offset (8) per entry | entry ids sorted by (kind, bytes) (4 each)
+ *             | entries: kind (1) | length (4) | UTF-8 bytes
+ * postings    posting offset (8) per entry | postings: count (4) | ordinals (4 each)
+ * trailer     event count (4) | entry count (4) | from (8) | to (8) | offsets (8)
+ *             | dictionary (8) | postings (8) | magic (8)
+ * checksum    CRC32C of everything before it (8)
+ * </pre>
+ * Instances are safe for concurrent reads. {@link #close()} unmaps the file; reads after that
+ * fail with {@link IllegalStateException}.
+ */
+public final class ArchiveSegment implements AutoCloseable {
+
+    static final long MAGIC = 0x4352_4142_5345_4731L; // "CRABSEG1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int TRAILER_SIZE = 56;
+    static final int CHECKSUM_SIZE = 8;
+
+    static final byte KIND_TYPE = 0;
+    static final byte KIND_TAG = 1;
+
+    static final byte HAS_CORRELATION_ID = 1;
+    static final byte HAS_CAUSATION_ID = 2;
+
+    private static final ValueLayout.OfLong LONG =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT =
+            ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private static final int CHECKSUM_CHUNK = 1 << 26;
+
+    private final Path file;
+    private final Arena arena;
+    private final MemorySegment data;
+    private final int eventCount;
+    private final int entryCount;
+    private final long fromPosition;
+    private final long toPosition;
+    private final long offsetsOffset;
+    private final long dictionaryOffset;
+    private final long postingsOffset;
+    private final long checksum;
+
+    private ArchiveSegment(Path file, Arena arena, MemorySegment data) {
+        this.file = file;
+        this.arena = arena;
+        this.data = data;
+
+        long size = data.byteSize();
+        if (size < HEADER_SIZE + TRAILER_SIZE + CHECKSUM_SIZE
+                || data.get(LONG, 0) != MAGIC
+                || data.get(LONG, size - CHECKSUM_SIZE - 8) != MAGIC) {
+            throw new EventStoreException("Not an archive segment: " + file);
+        }
+        if (data.get(INT, 8) != VERSION) {
+            throw new EventStoreException("Unsupported archive segment version " + data.get(INT, 8) + ": " + file);
+        }
+        this.checksum = data.get(LONG, size - CHECKSUM_SIZE);
+        long actual = crc32c(data, size - CHECKSUM_SIZE);
+        if (actual != checksum) {
+            throw new EventStoreException("Archive segment checksum mismatch: " + file);
+        }
+
+        long trailer = size - CHECKSUM_SIZE - TRAILER_SIZE;
+        this.eventCount = data.get(INT, trailer);
+        this.entryCount = data.get(INT, trailer + 4);
+        this.fromPosition = data.get(LONG, trailer + 8);
+        this.toPosition = data.get(LONG, trailer + 16);
+        this.offsetsOffset = data.get(LONG, trailer + 24);
+        this.dictionaryOffset = data.get(LONG, trailer + 32);
+        this.postingsOffset = data.get(LONG, trailer + 40);
+    }
+
+    /**
+     * Map a segment file and verify its checksum.
+     *
+     * @param file segment file written by {@link EventArchiver}
+     * @return the opened segment; the caller must close it
+     * @throws EventStoreException if the file cannot be read, is not a segment or is corrupt
+     */
+    public static ArchiveSegment open(Path file) {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new ArchiveSegment(file, arena, mapped);
+        } catch (IOException e) {
+            arena.close();
+            throw new EventStoreException("Failed to open archive segment " + file, e);
+        } catch (RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return inclusive lower bound of the archived position range
+     */
+    public long fromPosition() {
+        return fromPosition;
+    }
+
+    /**
+     * @return exclusive upper bound of the archived position range
+     */
+    public long toPosition() {
+        return toPosition;
+    }
+
+    public int eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return CRC32C of the file contents before the checksum itself
+     */
+    public long checksum() {
+        return checksum;
+    }
+
+    /**
+     * Events matching {@code query} with a position above {@code afterPosition}, in
+     * {@code (transaction_id, position)} order. Matching mirrors the SQL filter of
+     * {@code EventStore.project}: query items are OR-ed, types within an item are OR-ed and tags
+     * within an item must all be present.
+     */
+    public Iterator<StoredEvent> events(Query query, long afterPosition) {
+        if (afterPosition >= toPosition - 1) {
+            return Collections.emptyIterator();
+        }
+        return new MatchIterator(matching(query), afterPosition);
+    }
+
+    /**
+     * @return whether any event in this segment matches {@code query}
+     */
+    public boolean exists(Query query) {
+        return !matching(query).isEmpty();
+    }
+
+    /**
+     * Unmap the file.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Digest of every decoded event, comparable with {@link ArchiveSegmentWriter#contentDigest()}
+     * to prove the file reads back exactly what was exported.
+     */
+    long contentDigest() {
+        Digest digest = new Digest();
+        for (int ordinal = 0; ordinal < eventCount; ordinal++) {
+            RawEvent record = read(ordinal);
+            digest.add(record.position(), record.transactionId(), record.occurredAtMicros(),
+                    record.correlationId(), record.causationId(), record.type(), record.tags(), record.data());
+        }
+        return digest.value();
+    }
+
+    private BitSet matching(Query query) {
+        BitSet result = new BitSet(eventCount);
+        boolean filtered = false;
+        for (QueryItem item : query.items()) {
+            if (item.eventTypes().isEmpty() && item.tags().isEmpty()) {
+                continue;
+            }
+            filtered = true;
+            @Nullable BitSet itemMatches = null;
+            if (!item.eventTypes().isEmpty()) {
+                itemMatches = new BitSet(eventCount);
+                for (String type : item.eventTypes()) {
+                    itemMatches.or(postings(KIND_TYPE, type));
+                }
+            }
+            for (Tag tag : item.tags()) {
+                BitSet tagMatches = postings(KIND_TAG, tag.key() + "=" + tag.value());
+                if (itemMatches == null) {
+                    itemMatches = tagMatches;
+                } else {
+                    itemMatches.and(tagMatches);
+                }
+            }
+            if (itemMatches != null) {
+                result.or(itemMatches);
+            }
+        }
+        if (!filtered) {
+            result.set(0, eventCount);
+        }
+        return result;
+    }
+
+    private BitSet postings(byte kind, String value) {
+        BitSet ordinals = new BitSet(eventCount);
+        int entry = find(kind, value.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return ordinals;
+        }
+        long offset = data.get(LONG, postingsOffset + 8L * entry);
+        int count = data.get(INT, offset);
+        for (int i = 0; i < count; i++) {
+            ordinals.set(data.get(INT, offset + 4 + 4L * i));
+        }
+        return ordinals;
+    }
+
+    private int find(byte kind, byte[] value) {
+        long sorted = dictionaryOffset + 8L * entryCount;
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = data.get(INT, sorted + 4L * mid);
+            int cmp = compareEntry(entry, kind, value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int compareEntry(int entry, byte kind, byte[] value) {
+        long offset = data.get(LONG, dictionaryOffset + 8L * entry);
+        byte entryKind = data.get(BYTE, offset);
+        if (entryKind != kind) {
+            return Byte.compare(entryKind, kind);
+        }
+        int length = data.get(INT, offset + 1);
+        long start = offset + 5;
+        int common = Math.min(length, value.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(data.get(BYTE, start + i), value[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, value.length);
+    }
+
+    private String entry(int entry) {
+        long offset = data.get(LONG, dictionaryOffset + 8L * entry);
+        int length = data.get(INT, offset + 1);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(data, BYTE, offset + 5, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long recordOffset(int ordinal) {
+        return data.get(LONG, offsetsOffset + 8L * ordinal);
+    }
+
+    private RawEvent read(int ordinal) {
+        long offset = recordOffset(ordinal);
+        long position = data.get(LONG, offset);
+        long transactionId = data.get(LONG, offset + 8);
+        long occurredAtMicros = data.get(LONG, offset + 16);
+        byte flags = data.get(BYTE, offset + 24);
+        long cursor = offset + 25;
+
+        @Nullable UUID correlationId = null;
+        if ((flags & HAS_CORRELATION_ID) != 0) {
+            correlationId = new UUID(data.get(LONG, cursor), data.get(LONG, cursor + 8));
+            cursor += 16;
+        }
+        @Nullable Long causationId = null;
+        if ((flags & HAS_CAUSATION_ID) != 0) {
+            causationId = data.get(LONG, cursor);
+            cursor += 8;
+        }
+
+        String type = entry(data.get(INT, cursor));
+        int tagCount = data.get(INT, cursor + 4);
+        cursor += 8;
+        String[] tags = new String[tagCount];
+        for (int i = 0; i < tagCount; i++) {
+            tags[i] = entry(data.get(INT, cursor));
+            cursor += 4;
+        }
+
+        int length = data.get(INT, cursor);
+        byte[] payload = new byte[length];
+        MemorySegment.copy(data, BYTE, cursor + 4, payload, 0, length);
+
+        return new RawEvent(position, transactionId, occurredAtMicros, correlationId, causationId, type, tags, payload);
+    }
+
+    private static StoredEvent toStoredEvent(RawEvent record) {
+        List<Tag> tags = new ArrayList<>(record.tags().length);
+        for (String tagStr : record.tags()) {
+            int eqIndex = tagStr.indexOf('=');
+            if (eqIndex > 0) {
+                tags.add(new Tag(tagStr.substring(0, eqIndex), tagStr.substring(eqIndex + 1)));
+            } else {
+                tags.add(new Tag(tagStr, ""));
+            }
+        }
+        long micros = record.occurredAtMicros();
+        Instant occurredAt = Instant.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+        return new StoredEvent(record.type(), tags, record.data(), Long.toUnsignedString(record.transactionId()),
+                record.position(), occurredAt, record.correlationId(), record.causationId());
+    }
+
+    private static long crc32c(MemorySegment data, long length) {
+        CRC32C crc = new CRC32C();
+        for (long offset = 0; offset < length; offset += CHECKSUM_CHUNK) {
+            int chunk = (int) Math.min(CHECKSUM_CHUNK, length - offset);
+            crc.update(data.asSlice(offset, chunk).asByteBuffer());
+        }
+        return crc.getValue();
+    }
+
+    private record RawEvent(
+            long position,
+            long transactionId,
+            long occurredAtMicros,
+            @Nullable UUID correlationId,
+            @Nullable Long causationId,
+            String type,
+            String[] tags,
+            byte[] data) {
+    }
+
+    /**
+     * Iterates the set ordinals of a match set, skipping events at or below the start position.
+     */
+    private final class MatchIterator implements Iterator<StoredEvent> {
+
+        private final BitSet ordinals;
+        private final long afterPosition;
+        private int next;
+
+        private MatchIterator(BitSet ordinals, long afterPosition) {
+            this.ordinals = ordinals;
+            this.afterPosition = afterPosition;
+            this.next = advance(0);
+        }
+
+        private int advance(int from) {
+            int ordinal = ordinals.nextSetBit(from);
+            while (ordinal >= 0 && data.get(LONG, recordOffset(ordinal)) <= afterPosition) {
+                ordinal = ordinals.nextSetBit(ordinal + 1);
+            }
+            return ordinal;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public StoredEvent next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            StoredEvent event = toStoredEvent(read(next));
+            next = advance(next + 1);
+            return event;
+        }
+    }
+
+    /**
+     * Order-sensitive CRC32C over the decoded fields of a sequence of events.
+     */
+    static final class Digest {
+
+        private final CRC32C crc = new CRC32C();
+        private final ByteBuffer scratch = ByteBuffer.allocate(8);
+
+        void add(long position, long transactionId, long occurredAtMicros,
+                 @Nullable UUID correlationId, @Nullable Long causationId,
+                 String type, String[] tags, byte[] data) {
+            addLong(position);
+            addLong(transactionId);
+            addLong(occurredAtMicros);
+            addLong(correlationId == null ? 0 : 1);
+            if (correlationId != null) {
+                addLong(correlationId.getMostSignificantBits());
+                addLong(correlationId.getLeastSignificantBits());
+            }
+            addLong(causationId == null ? 0 : 1);
+            if (causationId != null) {
+                addLong(causationId);
+            }
+            addBytes(type.getBytes(StandardCharsets.UTF_8));
+            addLong(tags.length);
+            for (String tag : tags) {
+                addBytes(tag.getBytes(StandardCharsets.UTF_8));
+            }
+            addBytes(data);
+        }
+
+        long value() {
+            return crc.getValue();
+        }
+
+        private void addBytes(byte[] bytes) {
+            addLong(bytes.length);
+            crc.update(bytes);
+        }
+
+        private void addLong(long value) {
+            scratch.clear();
+            scratch.putLong(value);
+            crc.update(scratch.array());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.crablet.eventstore.archive;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import static com.crablet.eventstore.archive.ArchiveSegment.CHECKSUM_SIZE;
+import static com.crablet.eventstore.archive.ArchiveSegment.HAS_CAUSATION_ID;
+import static com.crablet.eventstore.archive.ArchiveSegment.HAS_CORRELATION_ID;
+import static com.crablet.eventstore.archive.ArchiveSegment.KIND_TAG;
+import static com.crablet.eventstore.archive.ArchiveSegment.KIND_TYPE;
+import static com.crablet.eventstore.archive.ArchiveSegment.MAGIC;
+import static com.crablet.eventstore.archive.ArchiveSegment.VERSION;
+
+/**
+ * Writes one archive segment file in a single sequential pass; see {@link ArchiveSegment} for the
+ * layout.
+ * <p>
+ * Events must be appended in {@code (transaction_id, position)} order. Records are streamed to
+ * disk as they arrive; only the dictionary, the posting lists and the record offsets are kept on
+ * the heap until {@link #finish()} writes them after the records.
+ */
+final class ArchiveSegmentWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final CRC32C crc = new CRC32C();
+    private final ArchiveSegment.Digest digest = new ArchiveSegment.Digest();
+    private final long fromPosition;
+    private final long toPosition;
+
+    private final Map<Entry, Integer> entryIds = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private long[] recordOffsets = new long[1024];
+    private int eventCount;
+    private long offset;
+
+    ArchiveSegmentWriter(Path file, long fromPosition, long toPosition) throws IOException {
+        this.fromPosition = fromPosition;
+        this.toPosition = toPosition;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+        writeLong(MAGIC);
+        writeInt(VERSION);
+        writeInt(0);
+    }
+
+    /**
+     * Append one event as read from {@code crablet_events}.
+     *
+     * @param tags raw {@code crablet_events.tags} strings, in stored order
+     * @param data the {@code data} column as text, UTF-8 encoded
+     */
+    void append(long position, long transactionId, long occurredAtMicros,
+                @Nullable UUID correlationId, @Nullable Long causationId,
+                String type, String[] tags, byte[] data) throws IOException {
+        if (position < fromPosition || position >= toPosition) {
+            throw new IllegalArgumentException(
+                    "position " + position + " outside [" + fromPosition + ", " + toPosition + ")");
+        }
+        int ordinal = eventCount++;
+        if (ordinal == recordOffsets.length) {
+            recordOffsets = Arrays.copyOf(recordOffsets, ordinal * 2);
+        }
+        recordOffsets[ordinal] = offset;
+
+        int typeId = entry(KIND_TYPE, type, ordinal);
+        int[] tagIds = new int[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            tagIds[i] = entry(KIND_TAG, tags[i], ordinal);
+        }
+
+        writeLong(position);
+        writeLong(transactionId);
+        writeLong(occurredAtMicros);
+        byte flags = 0;
+        if (correlationId != null) {
+            flags |= HAS_CORRELATION_ID;
+        }
+        if (causationId != null) {
+            flags |= HAS_CAUSATION_ID;
+        }
+        writeByte(flags);
+        if (correlationId != null) {
+            writeLong(correlationId.getMostSignificantBits());
+            writeLong(correlationId.getLeastSignificantBits());
+        }
+        if (causationId != null) {
+            writeLong(causationId);
+        }
+        writeInt(typeId);
+        writeInt(tagIds.length);
+        for (int tagId : tagIds) {
+            writeInt(tagId);
+        }
+        writeInt(data.length);
+        out.write(data);
+        offset += data.length;
+
+        digest.add(position, transactionId, occurredAtMicros, correlationId, causationId, type, tags, data);
+    }
+
+    int eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Digest of every appended event; see {@link ArchiveSegment#contentDigest()}.
+     */
+    long contentDigest() {
+        return digest.value();
+    }
+
+    /**
+     * Write offsets, dictionary, postings, trailer and checksum, and force the file to disk.
+     *
+     * @return the CRC32C stored as the file's last eight bytes
+     */
+    long finish() throws IOException {
+        int entryCount = entries.size();
+
+        long offsetsOffset = offset;
+        for (int i = 0; i < eventCount; i++) {
+            writeLong(recordOffsets[i]);
+        }
+
+        long dictionaryOffset = offset;
+        long entryOffset = dictionaryOffset + 12L * entryCount;
+        for (Entry entry : entries) {
+            writeLong(entryOffset);
+            entryOffset += 5 + entry.bytes().length;
+        }
+        Integer[] sorted = new Integer[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> entries.get(a).compareTo(entries.get(b)));
+        for (Integer id : sorted) {
+            writeInt(id);
+        }
+        for (Entry entry : entries) {
+            writeByte(entry.kind());
+            writeInt(entry.bytes().length);
+            out.write(entry.bytes());
+            offset += entry.bytes().length;
+        }
+
+        long postingsOffset = offset;
+        long postingOffset = postingsOffset + 8L * entryCount;
+        for (IntList posting : postings) {
+            writeLong(postingOffset);
+            postingOffset += 4 + 4L * posting.size;
+        }
+        for (IntList posting : postings) {
+            writeInt(posting.size);
+            for (int i = 0; i < posting.size; i++) {
+                writeInt(posting.values[i]);
+            }
+        }
+
+        writeInt(eventCount);
+        writeInt(entryCount);
+        writeLong(fromPosition);
+        writeLong(toPosition);
+        writeLong(offsetsOffset);
+        writeLong(dictionaryOffset);
+        writeLong(postingsOffset);
+        writeLong(MAGIC);
+
+        out.flush();
+        long checksum = crc.getValue();
+        out.writeLong(checksum);
+        offset += CHECKSUM_SIZE;
+        out.flush();
+        channel.force(true);
+        return checksum;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private int entry(byte kind, String value, int ordinal) {
+        Entry key = new Entry(kind, value.getBytes(StandardCharsets.UTF_8));
+        Integer id = entryIds.get(key);
+        if (id == null) {
+            id = entries.size();
+            entryIds.put(key, id);
+            entries.add(key);
+            postings.add(new IntList());
+        }
+        postings.get(id).addOnce(ordinal);
+        return id;
+    }
+
+    private void writeLong(long value) throws IOException {
+        out.writeLong(value);
+        offset += 8;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.writeInt(value);
+        offset += 4;
+    }
+
+    private void writeByte(byte value) throws IOException {
+        out.writeByte(value);
+        offset += 1;
+    }
+
+    /**
+     * Dictionary entry: an event type or a raw tag string. Ordered by kind, then by unsigned bytes,
+     * the order {@link ArchiveSegment} binary-searches in.
+     */
+    private record Entry(byte kind, byte[] bytes) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = Byte.compare(kind, other.kind);
+            return cmp != 0 ? cmp : Arrays.compareUnsigned(bytes, other.bytes);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            return o instanceof Entry other && kind == other.kind && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind + Arrays.hashCode(bytes);
+        }
+    }
+
+    /**
+     * Growable list of ascending ordinals that ignores repeats of the last value, so an event
+     * carrying the same tag twice is listed once.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
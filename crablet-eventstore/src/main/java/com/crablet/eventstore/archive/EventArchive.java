@@ -0,0 +1,273 @@
+package com.crablet.eventstore.archive;
+
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read side of the cold-tier event archive: the memory-mapped segments registered in
+ * {@code crablet_archive_segments} and the watermark below which events are read from them.
+ * <p>
+ * {@code EventStoreImpl} and {@code EventRepositoryImpl} consult the archive when constructed
+ * with one: events below {@link #watermark()} come from the segments, events at or above it from
+ * {@code crablet_events}, and both streams are merged in {@code (transaction_id, position)} order.
+ * Registering a segment does not remove its rows from the database, so a reader whose catalog is
+ * briefly behind still finds them there. {@link EventArchiver} detaches the rows only after a
+ * grace period, and {@link #watermark()} refuses to answer from a catalog older than twice the
+ * refresh interval, so the grace period must exceed that.
+ * <p>
+ * The catalog is read from the primary and refreshed on a single daemon thread. Segment files
+ * are looked up by name in the configured directory, which every application instance must see.
+ */
+public class EventArchive implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventArchive.class);
+
+    private static final String LOAD_SEGMENTS_SQL = """
+        SELECT from_position, to_position, event_count, file_name, checksum
+        FROM crablet_archive_segments
+        WHERE from_position >= ?
+        ORDER BY from_position
+        """;
+
+    /**
+     * {@code (transaction_id, position)} order, the order {@code EventStore.project} folds in.
+     * Transaction ids are compared numerically, as PostgreSQL compares {@code xid8}.
+     */
+    public static final Comparator<StoredEvent> ORDER = (a, b) -> {
+        int cmp = Long.compareUnsigned(
+                Long.parseUnsignedLong(a.transactionId()), Long.parseUnsignedLong(b.transactionId()));
+        return cmp != 0 ? cmp : Long.compare(a.position(), b.position());
+    };
+
+    private final DataSource writeDataSource;
+    private final Path directory;
+    private final long maxStalenessNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile List<ArchiveSegment> segments = List.of();
+    private volatile long watermark;
+    private volatile long refreshedAtNanos;
+    private volatile boolean refreshed;
+    private boolean closed;
+
+    /**
+     * @param writeDataSource data source pointing at the primary, where the catalog is written
+     * @param directory       directory holding the segment files
+     * @param refreshInterval delay between catalog refreshes
+     */
+    public EventArchive(DataSource writeDataSource, Path directory, Duration refreshInterval) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        if (refreshInterval == null || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("refreshInterval must be positive");
+        }
+        this.writeDataSource = writeDataSource;
+        this.directory = directory;
+        this.maxStalenessNanos = refreshInterval.multipliedBy(2).toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crablet-event-archive-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exclusive upper bound of the archived positions; {@code 0} while nothing is archived.
+     * Refreshes the catalog first when the last refresh is older than twice the refresh interval.
+     *
+     * @throws EventStoreException if that refresh fails, since the database may no longer hold
+     *                             events the stale catalog does not know about
+     */
+    public long watermark() {
+        if (!refreshed || System.nanoTime() - refreshedAtNanos > maxStalenessNanos) {
+            refresh();
+        }
+        return watermark;
+    }
+
+    /**
+     * Archived events matching {@code query} with {@code afterPosition < position < watermark},
+     * in {@link #ORDER}.
+     *
+     * @param watermark value of {@link #watermark()} the caller bounds its database read with
+     */
+    public Iterator<StoredEvent> events(Query query, long afterPosition, long watermark) {
+        List<Iterator<StoredEvent>> sources = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            if (segment.fromPosition() >= watermark) {
+                break;
+            }
+            if (segment.toPosition() - 1 > afterPosition) {
+                Iterator<StoredEvent> events = segment.events(query, afterPosition);
+                if (events.hasNext()) {
+                    sources.add(events);
+                }
+            }
+        }
+        if (sources.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return sources.size() == 1 ? sources.get(0) : new MergingIterator(sources);
+    }
+
+    /**
+     * @return whether any archived event below {@code watermark} matches {@code query}
+     */
+    public boolean exists(Query query, long watermark) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.fromPosition() >= watermark) {
+                break;
+            }
+            if (segment.exists(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Map every segment registered since the last refresh.
+     *
+     * @throws EventStoreException if the catalog cannot be read or a segment file is missing,
+     *                             corrupt or does not match its catalog row
+     */
+    public synchronized void refresh() {
+        if (closed) {
+            throw new EventStoreException("Event archive is closed");
+        }
+        long current = watermark;
+        List<ArchiveSegment> added = new ArrayList<>();
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(LOAD_SEGMENTS_SQL)) {
+            stmt.setLong(1, current);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long from = rs.getLong("from_position");
+                    long to = rs.getLong("to_position");
+                    if (current > 0 && from != current) {
+                        throw new EventStoreException(
+                                "Archive segments are not contiguous: expected " + current + ", found " + from);
+                    }
+                    ArchiveSegment segment = ArchiveSegment.open(directory.resolve(rs.getString("file_name")));
+                    added.add(segment);
+                    if (segment.fromPosition() != from || segment.toPosition() != to
+                            || segment.eventCount() != rs.getLong("event_count")
+                            || segment.checksum() != rs.getLong("checksum")) {
+                        throw new EventStoreException(
+                                "Archive segment " + segment.file() + " does not match its catalog row");
+                    }
+                    current = to;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            added.forEach(ArchiveSegment::close);
+            if (e instanceof EventStoreException ese) {
+                throw ese;
+            }
+            throw new EventStoreException("Failed to refresh the event archive catalog", e);
+        }
+
+        if (!added.isEmpty()) {
+            List<ArchiveSegment> all = new ArrayList<>(segments);
+            all.addAll(added);
+            segments = List.copyOf(all);
+            watermark = current;
+            log.info("Event archive mapped {} new segments; watermark is now {}", added.size(), current);
+        }
+        refreshedAtNanos = System.nanoTime();
+        refreshed = true;
+    }
+
+    /**
+     * Stop refreshing and unmap every segment.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        segments.forEach(ArchiveSegment::close);
+        segments = List.of();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Event archive catalog refresh failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * K-way merge of segment iterators, each already in {@link #ORDER}. Segments cover disjoint
+     * position ranges but not disjoint transaction ranges, so their events can interleave.
+     */
+    private static final class MergingIterator implements Iterator<StoredEvent> {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>();
+
+        private MergingIterator(List<Iterator<StoredEvent>> sources) {
+            for (Iterator<StoredEvent> source : sources) {
+                push(source);
+            }
+        }
+
+        private void push(Iterator<StoredEvent> source) {
+            if (source.hasNext()) {
+                StoredEvent event = source.next();
+                heads.add(new Head(event, Long.parseUnsignedLong(event.transactionId()), source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public StoredEvent next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            push(head.source());
+            return head.event();
+        }
+    }
+
+    private record Head(StoredEvent event, long transactionId, Iterator<StoredEvent> source)
+            implements Comparable<Head> {
+
+        @Override
+        public int compareTo(Head other) {
+            int cmp = Long.compareUnsigned(transactionId, other.transactionId);
+            return cmp != 0 ? cmp : Long.compare(event.position(), other.event.position());
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.crablet.eventstore.archive;
+
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write side of the cold-tier event archive: exports closed position ranges of
+ * {@code crablet_events} into segment files, registers them in {@code crablet_archive_segments}
+ * and, after a grace period, removes the archived rows from the database.
+ * <p>
+ * A run, at a fixed interval on a single daemon thread and only on the instance holding the
+ * archive advisory lock:
+ * <ol>
+ *   <li>Finds the closed horizon: the latest issued position once every transaction that was
+ *       appending when it was read has ended. No later transaction can write below it. Appends
+ *       are never blocked; if a writer does not finish within a minute the run is skipped.</li>
+ *   <li>Exports {@code [watermark, watermark + segmentSize)} while that range lies below the
+ *       horizon and its newest event is older than {@code minAge}. Each range is read in one
+ *       repeatable-read snapshot in {@code (transaction_id, position)} order, written to a
+ *       temporary file, forced to disk and renamed.</li>
+ *   <li>Verifies the segment by mapping it again: checksum, range, the event count of the same
+ *       snapshot and a digest of every decoded event must match what was exported. Only then is
+ *       the segment registered, which advances the watermark readers use.</li>
+ *   <li>Detaches registered segments older than {@code detachDelay} through
+ *       {@code crablet_detach_archived_events(...)}, unless a view, automation, outbox or
+ *       shared-fetch cursor is still below the end of the range: those processors read
+ *       {@code crablet_events} directly and would otherwise skip the archived events.</li>
+ * </ol>
+ * Tags of detached events are removed with them. Their idempotency claims are kept with a
+ * {@code NULL} position, and {@code EventStoreImpl} checks idempotent appends against the archive
+ * as well, so {@code appendIdempotent} still rejects duplicates of archived events.
+ */
+public class EventArchiver implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventArchiver.class);
+
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6162_6c61_7263L;
+
+    private static final Duration WRITER_WAIT = Duration.ofMinutes(1);
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+
+    private static final String LAST_POSITION_SQL =
+        "SELECT pg_sequence_last_value(pg_get_serial_sequence('crablet_events', 'position')::regclass)";
+
+    private static final String ACTIVE_WRITERS_SQL = """
+        SELECT DISTINCT virtualtransaction
+        FROM pg_locks
+        WHERE locktype = 'relation'
+          AND relation = 'crablet_events'::regclass
+          AND mode = 'RowExclusiveLock'
+          AND granted
+          AND pid <> pg_backend_pid()
+        """;
+
+    private static final String WRITERS_RUNNING_SQL =
+        "SELECT COUNT(*) FROM pg_locks WHERE locktype = 'virtualxid' AND virtualxid = ANY(?::text[])";
+
+    private static final String NEXT_FROM_SQL = """
+        SELECT COALESCE(
+            (SELECT MAX(to_position) FROM crablet_archive_segments),
+            (SELECT MIN(position) FROM crablet_events))
+        """;
+
+    private static final String NEWEST_IN_RANGE_SQL = """
+        SELECT occurred_at FROM crablet_events
+        WHERE position >= ? AND position < ?
+        ORDER BY position DESC
+        LIMIT 1
+        """;
+
+    private static final String COUNT_RANGE_SQL =
+        "SELECT COUNT(*) FROM crablet_events WHERE position >= ? AND position < ?";
+
+    private static final String EXPORT_RANGE_SQL = """
+        SELECT type, tags, data, payload_codec, transaction_id, position, occurred_at, correlation_id, causation_id
+        FROM crablet_events
+        WHERE position >= ? AND position < ?
+        ORDER BY transaction_id, position
+        """;
+
+    private static final String REGISTER_SQL = """
+        INSERT INTO crablet_archive_segments
+            (from_position, to_position, event_count, file_name, checksum, archived_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String DUE_FOR_DETACH_SQL = """
+        SELECT from_position, to_position
+        FROM crablet_archive_segments
+        WHERE detached_at IS NULL AND archived_at <= ?
+        ORDER BY from_position
+        """;
+
+    private static final String SLOWEST_PROCESSOR_SQL = """
+        SELECT LEAST(
+            (SELECT MIN(last_position) FROM crablet_view_progress),
+            (SELECT MIN(last_position) FROM crablet_automation_progress),
+            (SELECT MIN(last_position) FROM crablet_outbox_topic_progress),
+            (SELECT MIN(scanned_position) FROM crablet_processor_scan_progress))
+        """;
+
+    private static final String DETACH_SQL = "SELECT crablet_detach_archived_events(?, ?)";
+
+    private static final String MARK_DETACHED_SQL =
+        "UPDATE crablet_archive_segments SET detached_at = ? WHERE from_position = ?";
+
+    private final DataSource writeDataSource;
+    private final ClockProvider clock;
+    private final Path directory;
+    private final long segmentSize;
+    private final Duration minAge;
+    private final Duration detachDelay;
+    private final int fetchSize;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     * @param clock           clock used for the age and grace-period cutoffs
+     * @param directory       directory the segment files are written to
+     * @param segmentSize     number of positions per segment
+     * @param minAge          minimum age of the newest event of a range before it is archived
+     * @param detachDelay     time between registering a segment and removing its rows
+     * @param archiveInterval delay between archive runs
+     * @param fetchSize       JDBC fetch size used while exporting
+     */
+    public EventArchiver(
+            DataSource writeDataSource,
+            ClockProvider clock,
+            Path directory,
+            long segmentSize,
+            Duration minAge,
+            Duration detachDelay,
+            Duration archiveInterval,
+            int fetchSize) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be at least 1");
+        }
+        if (minAge == null || minAge.isNegative()) {
+            throw new IllegalArgumentException("minAge must not be negative");
+        }
+        if (detachDelay == null || detachDelay.isNegative()) {
+            throw new IllegalArgumentException("detachDelay must not be negative");
+        }
+        if (archiveInterval == null || archiveInterval.isNegative() || archiveInterval.isZero()) {
+            throw new IllegalArgumentException("archiveInterval must be positive");
+        }
+        this.writeDataSource = writeDataSource;
+        this.clock = clock;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.minAge = minAge;
+        this.detachDelay = detachDelay;
+        this.fetchSize = fetchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crablet-event-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = archiveInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Export, verify and register every closed range that is old enough.
+     *
+     * @return number of segments written; {@code 0} when another instance holds the archive lock
+     */
+    public int archive() {
+        Integer written = withArchiveLock(() -> {
+            long horizon = closedHorizon();
+            int count = 0;
+            Range range;
+            while ((range = nextRange(horizon)) != null) {
+                exportSegment(range);
+                count++;
+            }
+            return count;
+        });
+        return written != null ? written : 0;
+    }
+
+    /**
+     * Remove the rows of registered segments whose grace period has passed.
+     *
+     * @return number of ranges detached; {@code 0} when another instance holds the archive lock
+     */
+    public int detach() {
+        Integer detached = withArchiveLock(this::detachDue);
+        return detached != null ? detached : 0;
+    }
+
+    /**
+     * Stop scheduled archiving.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void runQuietly() {
+        try {
+            archive();
+            detach();
+        } catch (RuntimeException e) {
+            log.warn("Event archiving failed; retrying on the next run", e);
+        }
+    }
+
+    private <T> @Nullable T withArchiveLock(SqlWork<T> work) {
+        try (Connection connection = writeDataSource.getConnection()) {
+            if (!lockCall(connection, TRY_LOCK_SQL)) {
+                log.debug("Event archive lock held by another instance; skipping run");
+                return null;
+            }
+            try {
+                return work.run();
+            } finally {
+                lockCall(connection, UNLOCK_SQL);
+            }
+        } catch (SQLException | IOException e) {
+            throw new EventStoreException("Event archiving failed", e);
+        }
+    }
+
+    private static boolean lockCall(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Latest issued position that no running or future transaction can write below, or
+     * {@code -1} when appending writers did not finish in time.
+     * <p>
+     * Every append takes {@code ROW EXCLUSIVE} on {@code crablet_events} before drawing a
+     * position, so the writers still to commit a position up to {@code last} are exactly the
+     * holders of that lock right after {@code last} is read.
+     */
+    private long closedHorizon() throws SQLException {
+        try (Connection connection = writeDataSource.getConnection()) {
+            long last;
+            try (PreparedStatement stmt = connection.prepareStatement(LAST_POSITION_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                last = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return -1;
+                }
+            }
+
+            List<String> writers = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(ACTIVE_WRITERS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    writers.add(rs.getString(1));
+                }
+            }
+            if (writers.isEmpty()) {
+                return last;
+            }
+
+            long deadline = System.nanoTime() + WRITER_WAIT.toNanos();
+            try (PreparedStatement stmt = connection.prepareStatement(WRITERS_RUNNING_SQL)) {
+                stmt.setArray(1, connection.createArrayOf("text", writers.toArray()));
+                while (true) {
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next() && rs.getLong(1) == 0) {
+                            return last;
+                        }
+                    }
+                    if (System.nanoTime() > deadline) {
+                        log.info("Event archiving skipped: {} appending transactions still running", writers.size());
+                        return -1;
+                    }
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return -1;
+                    }
+                }
+            }
+        }
+    }
+
+    private @Nullable Range nextRange(long horizon) throws SQLException {
+        if (horizon < 0) {
+            return null;
+        }
+        try (Connection connection = writeDataSource.getConnection()) {
+            long from;
+            try (PreparedStatement stmt = connection.prepareStatement(NEXT_FROM_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                from = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return null;
+                }
+            }
+            long to = from + segmentSize;
+            if (to - 1 > horizon) {
+                return null;
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(NEWEST_IN_RANGE_SQL)) {
+                stmt.setLong(1, from);
+                stmt.setLong(2, to);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Instant cutoff = clock.now().minus(minAge);
+                    if (rs.next() && rs.getTimestamp(1).toInstant().isAfter(cutoff)) {
+                        return null;
+                    }
+                }
+            }
+            return new Range(from, to);
+        }
+    }
+
+    private void exportSegment(Range range) throws SQLException, IOException {
+        String fileName = "crablet-events-%020d-%020d.seg".formatted(range.from(), range.to());
+        Path target = directory.resolve(fileName);
+        Path temporary = directory.resolve(fileName + ".tmp");
+        Files.createDirectories(directory);
+
+        long expectedCount;
+        long checksum;
+        long digest;
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (PreparedStatement stmt = connection.prepareStatement(COUNT_RANGE_SQL)) {
+                    stmt.setLong(1, range.from());
+                    stmt.setLong(2, range.to());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        expectedCount = rs.getLong(1);
+                    }
+                }
+                try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(temporary, range.from(), range.to());
+                     PreparedStatement stmt = connection.prepareStatement(
+                             EXPORT_RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    stmt.setFetchSize(fetchSize);
+                    stmt.setLong(1, range.from());
+                    stmt.setLong(2, range.to());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            append(writer, rs);
+                        }
+                    }
+                    if (writer.eventCount() != expectedCount) {
+                        throw new EventStoreException("Exported " + writer.eventCount() + " events from ["
+                                + range.from() + ", " + range.to() + ") but the range holds " + expectedCount);
+                    }
+                    checksum = writer.finish();
+                    digest = writer.contentDigest();
+                }
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        try (ArchiveSegment segment = ArchiveSegment.open(target)) {
+            if (segment.fromPosition() != range.from() || segment.toPosition() != range.to()
+                    || segment.eventCount() != expectedCount
+                    || segment.checksum() != checksum
+                    || segment.contentDigest() != digest) {
+                throw new EventStoreException("Archive segment " + target + " failed verification");
+            }
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(REGISTER_SQL)) {
+            stmt.setLong(1, range.from());
+            stmt.setLong(2, range.to());
+            stmt.setLong(3, expectedCount);
+            stmt.setString(4, fileName);
+            stmt.setLong(5, checksum);
+            stmt.setTimestamp(6, Timestamp.from(clock.now()));
+            stmt.executeUpdate();
+        }
+        log.info("Archived {} events in [{}, {}) to {}", expectedCount, range.from(), range.to(), target);
+    }
+
+    private static void append(ArchiveSegmentWriter writer, ResultSet rs) throws SQLException, IOException {
+        Array tags = rs.getArray("tags");
+        Instant occurredAt = rs.getTimestamp("occurred_at").toInstant();
+        writer.append(
+                rs.getLong("position"),
+                Long.parseUnsignedLong(rs.getString("transaction_id")),
+                occurredAt.getEpochSecond() * 1_000_000L + occurredAt.getNano() / 1_000L,
+                rs.getObject("correlation_id", UUID.class),
+                (Long) rs.getObject("causation_id"),
+                rs.getString("type"),
+                (String[]) tags.getArray(),
+                EventPayloadCodecs.decode(rs.getShort("payload_codec"), rs.getBytes("data")));
+    }
+
+    private int detachDue() throws SQLException {
+        try (Connection connection = writeDataSource.getConnection()) {
+            List<Range> due = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(DUE_FOR_DETACH_SQL)) {
+                stmt.setTimestamp(1, Timestamp.from(clock.now().minus(detachDelay)));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        due.add(new Range(rs.getLong("from_position"), rs.getLong("to_position")));
+                    }
+                }
+            }
+            if (due.isEmpty()) {
+                return 0;
+            }
+
+            long slowest = Long.MAX_VALUE;
+            try (PreparedStatement stmt = connection.prepareStatement(SLOWEST_PROCESSOR_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long value = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        slowest = value;
+                    }
+                }
+            }
+
+            int detached = 0;
+            connection.setAutoCommit(false);
+            try {
+                for (Range range : due) {
+                    if (range.to() - 1 > slowest) {
+                        log.info("Archived range [{}, {}) kept in crablet_events: a processor is at position {}",
+                                range.from(), range.to(), slowest);
+                        break;
+                    }
+                    try (PreparedStatement stmt = connection.prepareStatement(DETACH_SQL)) {
+                        stmt.setLong(1, range.from());
+                        stmt.setLong(2, range.to());
+                        stmt.execute();
+                    }
+                    try (PreparedStatement stmt = connection.prepareStatement(MARK_DETACHED_SQL)) {
+                        stmt.setTimestamp(1, Timestamp.from(clock.now()));
+                        stmt.setLong(2, range.from());
+                        stmt.executeUpdate();
+                    }
+                    connection.commit();
+                    detached++;
+                    log.info("Detached archived range [{}, {}) from crablet_events", range.from(), range.to());
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return detached;
+        }
+    }
+
+    private record Range(long from, long to) {
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException, IOException;
+    }
+}
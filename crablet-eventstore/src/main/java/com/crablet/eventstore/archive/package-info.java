@@ -0,0 +1,10 @@
+/**
+ * Cold-tier archive of old events.
+ * <p>
+ * {@link com.crablet.eventstore.archive.EventArchiver} exports closed position ranges of
+ * {@code crablet_events} into immutable, checksummed segment files and later removes the rows from
+ * the database. {@link com.crablet.eventstore.archive.EventArchive} memory-maps the registered
+ * segments so that projections and repository queries keep seeing the full history.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.archive;
@@ -0,0 +1,84 @@
+package com.crablet.eventstore.boundary;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Shape of a decision model: the event types it reads and the tag keys it filters on.
+ * <p>
+ * A DCB conflict check whose event types equal {@link #eventTypes()} and whose tag keys are a
+ * subset of {@link #tagKeys()} is answered from the boundary rows of this shape. Declare one
+ * boundary per decision-model query shape, e.g. for
+ * {@code Query.forEventsAndTags(List.of("DepositMade", "WithdrawalMade"), List.of(new Tag("wallet_id", id)))}:
+ * <pre>{@code
+ * @Bean
+ * ConsistencyBoundary walletBalanceBoundary() {
+ *     return ConsistencyBoundary.of(List.of("DepositMade", "WithdrawalMade"), List.of("wallet_id"));
+ * }
+ * }</pre>
+ *
+ * @param eventTypes sorted, distinct event types
+ * @param tagKeys    sorted, distinct tag keys
+ */
+public record ConsistencyBoundary(List<String> eventTypes, List<String> tagKeys) {
+
+    public ConsistencyBoundary {
+        if (eventTypes == null || eventTypes.isEmpty()) {
+            throw new IllegalArgumentException("eventTypes must not be empty");
+        }
+        if (tagKeys == null || tagKeys.isEmpty()) {
+            throw new IllegalArgumentException("tagKeys must not be empty");
+        }
+        eventTypes = List.copyOf(new TreeSet<>(eventTypes));
+        tagKeys = List.copyOf(new TreeSet<>(tagKeys));
+    }
+
+    public static ConsistencyBoundary of(List<String> eventTypes, List<String> tagKeys) {
+        return new ConsistencyBoundary(eventTypes, tagKeys);
+    }
+
+    /**
+     * Derive the boundary from a decision-model query. Types and tag keys are collected across
+     * all items, the same way {@code appendNonCommutative} flattens the query for its check.
+     *
+     * @throws IllegalArgumentException if the query has no event types or no tags
+     */
+    public static ConsistencyBoundary from(Query decisionModel) {
+        if (decisionModel == null) {
+            throw new IllegalArgumentException("decisionModel must not be null");
+        }
+        TreeSet<String> types = new TreeSet<>();
+        TreeSet<String> keys = new TreeSet<>();
+        for (QueryItem item : decisionModel.items()) {
+            types.addAll(item.eventTypes());
+            for (Tag tag : item.tags()) {
+                keys.add(tag.key());
+            }
+        }
+        return new ConsistencyBoundary(List.copyOf(types), List.copyOf(keys));
+    }
+
+    /**
+     * Derive the boundary from the concurrency query of an append condition.
+     *
+     * @throws IllegalArgumentException if the concurrency query has no event types or no tags
+     */
+    public static ConsistencyBoundary from(AppendCondition condition) {
+        if (condition == null) {
+            throw new IllegalArgumentException("condition must not be null");
+        }
+        return from(condition.concurrencyQuery());
+    }
+
+    /**
+     * Stable identifier of this shape: {@code type1,type2|key1,key2}.
+     */
+    public String shapeId() {
+        return String.join(",", eventTypes) + "|" + String.join(",", tagKeys);
+    }
+}
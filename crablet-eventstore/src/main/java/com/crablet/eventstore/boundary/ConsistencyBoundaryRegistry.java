@@ -0,0 +1,121 @@
+package com.crablet.eventstore.boundary;
+
+import com.crablet.eventstore.EventStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Declares {@link ConsistencyBoundary} shapes in {@code crablet_consistency_boundary_shapes}.
+ * <p>
+ * Declaring a new shape backfills one boundary row per tag value from the existing events, in the
+ * same transaction that inserts the shape. That transaction holds a {@code SHARE ROW EXCLUSIVE}
+ * lock on {@code crablet_events}, so appends wait until the backfill commits and no event can be
+ * missed between the backfill and the first maintained append. On a large event log the backfill
+ * is a full scan: declare boundaries at deployment, before traffic. Declaring an existing shape is
+ * a cheap no-op.
+ * <p>
+ * Boundary rows are updated by every append that touches them, so appends to the same boundary
+ * serialize on its row. The maintenance uses {@code INSERT ... ON CONFLICT DO UPDATE}, which fails
+ * with serialization errors under {@code REPEATABLE_READ} or {@code SERIALIZABLE} when two
+ * transactions touch the same boundary; use the default {@code READ_COMMITTED} isolation.
+ */
+public class ConsistencyBoundaryRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsistencyBoundaryRegistry.class);
+
+    private static final String LOCK_EVENTS_SQL = "LOCK TABLE crablet_events IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String INSERT_SHAPE_SQL = """
+        INSERT INTO crablet_consistency_boundary_shapes (shape_id, event_types, tag_keys)
+        VALUES (?, ?::text[], ?::text[])
+        ON CONFLICT (shape_id) DO NOTHING
+        """;
+
+    private static final String BACKFILL_SQL = """
+        INSERT INTO crablet_consistency_boundaries (shape_id, tag, last_position, last_transaction_id)
+        SELECT DISTINCT ON (tag) ?::text, tag, e.position, e.transaction_id
+        FROM crablet_events e
+        CROSS JOIN LATERAL unnest(e.tags) AS tag
+        WHERE e.type = ANY(?::text[])
+          AND split_part(tag, '=', 1) = ANY(?::text[])
+        ORDER BY tag, e.position DESC
+        ON CONFLICT (shape_id, tag) DO NOTHING
+        """;
+
+    private final DataSource writeDataSource;
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     */
+    public ConsistencyBoundaryRegistry(DataSource writeDataSource) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        this.writeDataSource = writeDataSource;
+    }
+
+    /**
+     * Declare every boundary in {@code boundaries}.
+     */
+    public void registerAll(Collection<ConsistencyBoundary> boundaries) {
+        for (ConsistencyBoundary boundary : boundaries) {
+            register(boundary);
+        }
+    }
+
+    /**
+     * Declare {@code boundary} and backfill its rows if it is new.
+     *
+     * @return {@code true} if the shape was declared by this call, {@code false} if it already existed
+     */
+    public boolean register(ConsistencyBoundary boundary) {
+        if (boundary == null) {
+            throw new IllegalArgumentException("boundary must not be null");
+        }
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement lock = connection.createStatement()) {
+                    lock.execute(LOCK_EVENTS_SQL);
+                }
+                boolean declared;
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_SHAPE_SQL)) {
+                    stmt.setString(1, boundary.shapeId());
+                    stmt.setArray(2, connection.createArrayOf("text", boundary.eventTypes().toArray()));
+                    stmt.setArray(3, connection.createArrayOf("text", boundary.tagKeys().toArray()));
+                    declared = stmt.executeUpdate() > 0;
+                }
+                int rows = 0;
+                if (declared) {
+                    try (PreparedStatement stmt = connection.prepareStatement(BACKFILL_SQL)) {
+                        stmt.setString(1, boundary.shapeId());
+                        stmt.setArray(2, connection.createArrayOf("text", boundary.eventTypes().toArray()));
+                        stmt.setArray(3, connection.createArrayOf("text", boundary.tagKeys().toArray()));
+                        rows = stmt.executeUpdate();
+                    }
+                }
+                connection.commit();
+                if (declared) {
+                    log.info("Declared consistency boundary {} with {} backfilled rows", boundary.shapeId(), rows);
+                }
+                return declared;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    log.error("Failed to rollback consistency boundary declaration", rollbackEx);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to declare consistency boundary " + boundary.shapeId(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Declared consistency boundaries for DCB conflict checks.
+ * <p>
+ * A {@link com.crablet.eventstore.boundary.ConsistencyBoundary} names the event types and tag keys
+ * of a decision model. Once declared through
+ * {@link com.crablet.eventstore.boundary.ConsistencyBoundaryRegistry}, the database keeps the highest
+ * matching position per tag value, and {@code appendNonCommutative} conflict checks on that shape
+ * become primary-key reads instead of event scans.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.boundary;
@@ -0,0 +1,50 @@
+package com.crablet.eventstore.bulk;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.Tag;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One historical event to import, with the metadata a live append would take from
+ * the clock and {@link com.crablet.eventstore.CorrelationContext}.
+ *
+ * @param type          event type name
+ * @param tags          event tags
+ * @param eventData     payload; a {@code String} or {@code byte[]} is treated as JSON as-is,
+ *                      anything else is serialized with the importer's ObjectMapper
+ * @param occurredAt    original business timestamp
+ * @param correlationId optional correlation id
+ * @param causationId   optional position of the causing event
+ */
+public record BulkImportEvent(
+        String type,
+        List<Tag> tags,
+        Object eventData,
+        Instant occurredAt,
+        @Nullable UUID correlationId,
+        @Nullable Long causationId) {
+
+    public BulkImportEvent {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("Event type cannot be null or empty");
+        }
+        if (eventData == null) {
+            throw new IllegalArgumentException("Event data cannot be null");
+        }
+        if (occurredAt == null) {
+            throw new IllegalArgumentException("occurredAt cannot be null");
+        }
+        tags = tags == null ? List.of() : List.copyOf(tags);
+    }
+
+    /**
+     * Import an {@link AppendEvent} with its original timestamp and no correlation metadata.
+     */
+    public static BulkImportEvent of(AppendEvent event, Instant occurredAt) {
+        return new BulkImportEvent(event.type(), event.tags(), event.eventData(), occurredAt, null, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.crablet.eventstore.bulk;
+
+/**
+ * Options for {@link EventStoreBulkImporter}.
+ *
+ * @param batchSize          events per import transaction; each batch gets its own
+ *                           {@code transaction_id} and contiguous-in-order positions
+ * @param deferTagDerivation when {@code true}, {@code crablet_event_tags} rows are derived
+ *                           server-side from {@code crablet_events.tags} after each batch's COPY
+ *                           (same transaction) instead of being streamed by a second COPY
+ * @param rebuildTagsIndex   when {@code true}, the {@code crablet_events.tags} GIN index is dropped
+ *                           before the import and rebuilt afterwards. DCB checks fall back to
+ *                           sequential scans meanwhile, so only use this while writers are stopped.
+ */
+public record BulkImportOptions(int batchSize, boolean deferTagDerivation, boolean rebuildTagsIndex) {
+
+    public static final int DEFAULT_BATCH_SIZE = 50_000;
+
+    public BulkImportOptions {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+    }
+
+    public static BulkImportOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private boolean deferTagDerivation;
+        private boolean rebuildTagsIndex;
+
+        private Builder() {
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder deferTagDerivation(boolean deferTagDerivation) {
+            this.deferTagDerivation = deferTagDerivation;
+            return this;
+        }
+
+        public Builder rebuildTagsIndex(boolean rebuildTagsIndex) {
+            this.rebuildTagsIndex = rebuildTagsIndex;
+            return this;
+        }
+
+        public BulkImportOptions build() {
+            return new BulkImportOptions(batchSize, deferTagDerivation, rebuildTagsIndex);
+        }
+    }
+}
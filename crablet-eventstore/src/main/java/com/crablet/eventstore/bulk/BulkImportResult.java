@@ -0,0 +1,32 @@
+package com.crablet.eventstore.bulk;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param eventsImported rows written to {@code crablet_events}
+ * @param tagsImported   rows written to {@code crablet_event_tags}
+ * @param transactions   committed import transactions (one per batch)
+ * @param elapsed        wall time of the import, including any index rebuild
+ * @param firstPosition  position of the first imported event, or {@code null} if nothing was imported
+ * @param lastPosition   position of the last imported event, or {@code null} if nothing was imported
+ */
+public record BulkImportResult(
+        long eventsImported,
+        long tagsImported,
+        int transactions,
+        Duration elapsed,
+        @Nullable Long firstPosition,
+        @Nullable Long lastPosition) {
+
+    /**
+     * Imported events per second over the whole import.
+     */
+    public double eventsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0.0 : eventsImported * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,397 @@
+package com.crablet.eventstore.bulk;
+
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import org.jspecify.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Streams historical events into the event store with PostgreSQL binary {@code COPY}.
+ * <p>
+ * Events are imported in batches of {@link BulkImportOptions#batchSize()}. Each batch runs in its
+ * own transaction which:
+ * <ol>
+ *   <li>takes {@code ROW EXCLUSIVE} on {@code crablet_events}, as every insert does, before it
+ *       reserves one position per event from the {@code crablet_events.position} sequence, so
+ *       imported events keep the order of the source stream, never collide with live appends and
+ *       are waited for by the archiver's closed-horizon check;</li>
+ *   <li>writes every row with that transaction's {@code pg_current_xact_id()} as
+ *       {@code transaction_id}, exactly like {@code append_events_batch} does;</li>
+ *   <li>COPYs the rows into {@code crablet_events}, then fills {@code crablet_event_tags} either
+ *       with a second binary COPY or, when tag derivation is deferred, with one server-side
+ *       {@code INSERT ... SELECT} over the batch;</li>
+ *   <li>advances the rows of declared consistency boundaries the batch touches;</li>
+ *   <li>commits.</li>
+ * </ol>
+ * Because positions and {@code transaction_id} are assigned the same way as for live appends,
+ * pollers reading below {@code pg_snapshot_xmin(pg_current_snapshot())} never observe a batch
+ * partially or out of order.
+ * <p>
+ * Payloads are written like the event store writes them: as {@code jsonb}, or encoded with the
+ * configured {@link EventPayloadCodecs#writeCodec() write codec} once the data column is
+ * {@code BYTEA}.
+ * <p>
+ * The importer skips DCB and idempotency checks and does not send {@code NOTIFY}; pollers pick
+ * the events up on their next scheduled poll.
+ *
+ * <pre>{@code
+ * BulkImportResult result = importer.importEvents(
+ *         legacyEvents.map(e -> BulkImportEvent.of(toAppendEvent(e), e.createdAt())),
+ *         BulkImportOptions.builder().batchSize(100_000).deferTagDerivation(true).build());
+ * log.info("Imported {} events at {}/s", result.eventsImported(), result.eventsPerSecond());
+ * }</pre>
+ */
+public class EventStoreBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStoreBulkImporter.class);
+
+    static final String TAGS_GIN_INDEX = "idx_crablet_events_tags_gin";
+
+    private static final String LOCK_EVENTS_SQL = "LOCK TABLE crablet_events IN ROW EXCLUSIVE MODE";
+
+    private static final String RESERVE_POSITIONS_SQL = """
+        SELECT nextval(pg_get_serial_sequence('crablet_events', 'position'))
+        FROM generate_series(1, ?)
+        ORDER BY 1
+        """;
+
+    private static final String CURRENT_TRANSACTION_ID_SQL = "SELECT pg_current_xact_id()::TEXT";
+
+    private static final String COPY_EVENTS_SQL = """
+        COPY crablet_events (type, tags, data, transaction_id, position, occurred_at, correlation_id, causation_id,
+                             payload_codec)
+        FROM STDIN (FORMAT binary)
+        """;
+
+    private static final String COPY_TAGS_SQL =
+        "COPY crablet_event_tags (position, key, value) FROM STDIN (FORMAT binary)";
+
+    // Same key/value split as append_events_batch; ON CONFLICT tolerates duplicate legacy tags
+    private static final String DERIVE_TAGS_SQL = """
+        INSERT INTO crablet_event_tags (position, key, value)
+        SELECT e.position,
+               split_part(tag, '=', 1)                      AS key,
+               substring(tag FROM position('=' IN tag) + 1) AS value
+        FROM crablet_events e,
+             LATERAL unnest(e.tags) AS tag
+        WHERE e.position BETWEEN ? AND ?
+          AND e.transaction_id = pg_current_xact_id()
+          AND tag LIKE '%=%'
+        ON CONFLICT DO NOTHING
+        """;
+
+    // Same boundary maintenance as append_events_batch; a no-op when no boundary shape is declared
+    private static final String UPDATE_BOUNDARIES_SQL = """
+        INSERT INTO crablet_consistency_boundaries (shape_id, tag, last_position, last_transaction_id)
+        SELECT s.shape_id, tag, MAX(e.position), pg_current_xact_id()
+        FROM crablet_events e
+        JOIN crablet_consistency_boundary_shapes s ON e.type = ANY(s.event_types)
+        CROSS JOIN LATERAL unnest(e.tags) AS tag
+        WHERE e.position BETWEEN ? AND ?
+          AND e.transaction_id = pg_current_xact_id()
+          AND split_part(tag, '=', 1) = ANY(s.tag_keys)
+        GROUP BY s.shape_id, tag
+        ORDER BY s.shape_id, tag
+        ON CONFLICT (shape_id, tag) DO UPDATE
+        SET last_position       = EXCLUDED.last_position,
+            last_transaction_id = EXCLUDED.last_transaction_id
+        WHERE crablet_consistency_boundaries.last_position < EXCLUDED.last_position
+        """;
+
+    private static final String DROP_TAGS_INDEX_SQL = "DROP INDEX IF EXISTS " + TAGS_GIN_INDEX;
+
+    private static final String CREATE_TAGS_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS " + TAGS_GIN_INDEX + " ON crablet_events USING GIN (tags)";
+
+    private final DataSource writeDataSource;
+    private final ObjectMapper objectMapper;
+    private final EventPayloadCodecs payloadCodecs;
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     * @param objectMapper    mapper used for payloads that are not already JSON strings or bytes
+     */
+    public EventStoreBulkImporter(DataSource writeDataSource, ObjectMapper objectMapper) {
+        this(writeDataSource, objectMapper, null);
+    }
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     * @param objectMapper    mapper used for payloads that are not already JSON strings or bytes
+     * @param payloadCodecs   storage mode and write codec of the event store, or {@code null} for
+     *                        {@link EventPayloadCodecs#defaults()}
+     */
+    public EventStoreBulkImporter(DataSource writeDataSource, ObjectMapper objectMapper,
+                                  @Nullable EventPayloadCodecs payloadCodecs) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("ObjectMapper must not be null");
+        }
+        this.writeDataSource = writeDataSource;
+        this.objectMapper = objectMapper;
+        this.payloadCodecs = payloadCodecs != null ? payloadCodecs : EventPayloadCodecs.defaults();
+    }
+
+    /**
+     * Import events with default options.
+     */
+    public BulkImportResult importEvents(Stream<BulkImportEvent> events) {
+        return importEvents(events, BulkImportOptions.defaults());
+    }
+
+    /**
+     * Import events in source order. Batches committed before a failure stay committed; the
+     * failing batch is rolled back and the error is rethrown.
+     *
+     * @param events  source events, consumed once in order
+     * @param options batching, tag derivation and index handling
+     * @return counts, positions and throughput of the import
+     */
+    public BulkImportResult importEvents(Stream<BulkImportEvent> events, BulkImportOptions options) {
+        long startNanos = System.nanoTime();
+        long eventsImported = 0;
+        long tagsImported = 0;
+        int transactions = 0;
+        Long firstPosition = null;
+        Long lastPosition = null;
+
+        if (options.rebuildTagsIndex()) {
+            executeDdl(DROP_TAGS_INDEX_SQL);
+        }
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            Iterator<BulkImportEvent> iterator = events.iterator();
+            List<BulkImportEvent> batch = new ArrayList<>(Math.min(options.batchSize(), 10_000));
+
+            while (iterator.hasNext()) {
+                batch.clear();
+                while (batch.size() < options.batchSize() && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+
+                long batchStartNanos = System.nanoTime();
+                BatchOutcome outcome = importBatch(connection, copyManager, batch, options);
+                transactions++;
+                eventsImported += batch.size();
+                tagsImported += outcome.tags();
+                if (firstPosition == null) {
+                    firstPosition = outcome.firstPosition();
+                }
+                lastPosition = outcome.lastPosition();
+
+                log.info("Bulk import committed {} events ({} tags) at {} events/s, {} total",
+                        batch.size(), outcome.tags(),
+                        Math.round(ratePerSecond(batch.size(), System.nanoTime() - batchStartNanos)),
+                        eventsImported);
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException("Bulk import failed after " + eventsImported + " events", e);
+        } finally {
+            if (options.rebuildTagsIndex()) {
+                executeDdl(CREATE_TAGS_INDEX_SQL);
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        BulkImportResult result = new BulkImportResult(
+                eventsImported, tagsImported, transactions, elapsed, firstPosition, lastPosition);
+        log.info("Bulk import finished: {} events, {} tags, {} transactions in {} ms ({} events/s)",
+                eventsImported, tagsImported, transactions, elapsed.toMillis(),
+                Math.round(result.eventsPerSecond()));
+        return result;
+    }
+
+    private record BatchOutcome(long tags, long firstPosition, long lastPosition) {
+    }
+
+    private BatchOutcome importBatch(
+            Connection connection, CopyManager copyManager,
+            List<BulkImportEvent> batch, BulkImportOptions options) throws SQLException {
+        try {
+            long[] positions = reservePositions(connection, batch.size());
+            long transactionId = currentTransactionId(connection);
+
+            short payloadCodec = payloadCodecs.writeCodec().id();
+            List<List<String>> tagStrings = new ArrayList<>(batch.size());
+            PgBinaryCopyWriter events = new PgBinaryCopyWriter(copyManager.copyIn(COPY_EVENTS_SQL));
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    BulkImportEvent event = batch.get(i);
+                    List<String> tags = tagStrings(event.tags());
+                    tagStrings.add(tags);
+
+                    events.startRow(9);
+                    events.text(event.type());
+                    events.textArray(tags);
+                    byte[] json = serializeEventData(event.eventData());
+                    if (payloadCodecs.binaryStorage()) {
+                        events.bytea(payloadCodecs.encode(json));
+                    } else {
+                        events.jsonb(json);
+                    }
+                    events.int8(transactionId);
+                    events.int8(positions[i]);
+                    events.timestamptz(event.occurredAt());
+                    events.uuid(event.correlationId());
+                    events.int8(event.causationId());
+                    events.int2(payloadCodec);
+                }
+                events.finish();
+            } catch (SQLException | RuntimeException e) {
+                events.cancelQuietly();
+                throw e;
+            }
+
+            long tags = options.deferTagDerivation()
+                    ? deriveTags(connection, positions[0], positions[positions.length - 1])
+                    : copyTags(copyManager, positions, tagStrings);
+            updateBoundaries(connection, positions[0], positions[positions.length - 1]);
+
+            connection.commit();
+            return new BatchOutcome(tags, positions[0], positions[positions.length - 1]);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                log.error("Failed to rollback bulk import batch", rollbackEx);
+            }
+            throw e;
+        }
+    }
+
+    private long copyTags(CopyManager copyManager, long[] positions, List<List<String>> tagStrings)
+            throws SQLException {
+        PgBinaryCopyWriter tags = new PgBinaryCopyWriter(copyManager.copyIn(COPY_TAGS_SQL));
+        try {
+            for (int i = 0; i < positions.length; i++) {
+                // Mirror append_events_batch: only key=value entries, split on the first '='
+                Set<String> distinct = new LinkedHashSet<>(tagStrings.get(i));
+                for (String tag : distinct) {
+                    int eq = tag.indexOf('=');
+                    if (eq < 0) {
+                        continue;
+                    }
+                    tags.startRow(3);
+                    tags.int8(positions[i]);
+                    tags.text(tag.substring(0, eq));
+                    tags.text(tag.substring(eq + 1));
+                }
+            }
+            return tags.finish();
+        } catch (SQLException | RuntimeException e) {
+            tags.cancelQuietly();
+            throw e;
+        }
+    }
+
+    private long deriveTags(Connection connection, long fromPosition, long toPosition) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(DERIVE_TAGS_SQL)) {
+            stmt.setLong(1, fromPosition);
+            stmt.setLong(2, toPosition);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private void updateBoundaries(Connection connection, long fromPosition, long toPosition) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_BOUNDARIES_SQL)) {
+            stmt.setLong(1, fromPosition);
+            stmt.setLong(2, toPosition);
+            stmt.executeUpdate();
+        }
+    }
+
+    private long[] reservePositions(Connection connection, int count) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(LOCK_EVENTS_SQL);
+        }
+        long[] positions = new long[count];
+        try (PreparedStatement stmt = connection.prepareStatement(RESERVE_POSITIONS_SQL)) {
+            stmt.setInt(1, count);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int i = 0;
+                while (rs.next()) {
+                    positions[i++] = rs.getLong(1);
+                }
+                if (i != count) {
+                    throw new EventStoreException("Reserved " + i + " positions, expected " + count);
+                }
+            }
+        }
+        return positions;
+    }
+
+    private long currentTransactionId(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(CURRENT_TRANSACTION_ID_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new EventStoreException("PostgreSQL did not return transaction_id");
+            }
+            return Long.parseLong(rs.getString(1));
+        }
+    }
+
+    private void executeDdl(String sql) {
+        try (Connection connection = writeDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to execute bulk import DDL: " + sql, e);
+        }
+    }
+
+    private static List<String> tagStrings(List<Tag> tags) {
+        List<String> result = new ArrayList<>(tags.size());
+        for (Tag tag : tags) {
+            if (tag != null && tag.key() != null && tag.value() != null) {
+                result.add(tag.key() + "=" + tag.value());
+            }
+        }
+        return result;
+    }
+
+    private byte[] serializeEventData(Object eventData) {
+        if (eventData instanceof String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        if (eventData instanceof byte[] bytes) {
+            return bytes;
+        }
+        try {
+            return objectMapper.writerFor(eventData.getClass()).writeValueAsBytes(eventData);
+        } catch (JacksonException e) {
+            throw new EventStoreException(
+                "Failed to serialize event data: " + eventData.getClass().getName(),
+                e
+            );
+        }
+    }
+
+    private static double ratePerSecond(long count, long nanos) {
+        return nanos == 0 ? 0.0 : count * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,182 @@
+package com.crablet.eventstore.bulk;
+
+import org.jspecify.annotations.Nullable;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encoder for PostgreSQL's binary {@code COPY} format, limited to the column types of the
+ * Crablet event tables. Rows are encoded big-endian into a reusable buffer that is pushed to
+ * the {@link CopyIn} stream whenever it passes {@link #FLUSH_THRESHOLD_BYTES}.
+ */
+final class PgBinaryCopyWriter {
+
+    static final int FLUSH_THRESHOLD_BYTES = 1 << 16;
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final int TEXT_OID = 25;
+    private static final byte JSONB_VERSION = 1;
+    /** Seconds between the Unix epoch and the PostgreSQL epoch (2000-01-01T00:00:00Z). */
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+
+    private final CopyIn copyIn;
+    private byte[] buffer = new byte[FLUSH_THRESHOLD_BYTES * 2];
+    private int size;
+
+    PgBinaryCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+        writeBytes(SIGNATURE);
+        writeInt(0); // flags
+        writeInt(0); // header extension length
+    }
+
+    void startRow(int fieldCount) throws SQLException {
+        if (size >= FLUSH_THRESHOLD_BYTES) {
+            flush();
+        }
+        writeShort(fieldCount);
+    }
+
+    void text(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes);
+    }
+
+    void textArray(List<String> values) {
+        byte[][] elements = new byte[values.size()][];
+        int length = elements.length == 0 ? 12 : 20;
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            length += 4 + elements[i].length;
+        }
+        writeInt(length);
+        writeInt(elements.length == 0 ? 0 : 1); // dimensions
+        writeInt(0);                           // has-null flag
+        writeInt(TEXT_OID);
+        if (elements.length > 0) {
+            writeInt(elements.length);         // dimension size
+            writeInt(1);                       // lower bound
+            for (byte[] element : elements) {
+                writeInt(element.length);
+                writeBytes(element);
+            }
+        }
+    }
+
+    void jsonb(byte[] json) {
+        writeInt(json.length + 1);
+        ensureCapacity(1);
+        buffer[size++] = JSONB_VERSION;
+        writeBytes(json);
+    }
+
+    void bytea(byte[] value) {
+        writeInt(value.length);
+        writeBytes(value);
+    }
+
+    void int2(short value) {
+        writeInt(2);
+        writeShort(value);
+    }
+
+    void int8(long value) {
+        writeInt(8);
+        writeLong(value);
+    }
+
+    void int8(@Nullable Long value) {
+        if (value == null) {
+            nullField();
+        } else {
+            int8(value.longValue());
+        }
+    }
+
+    void timestamptz(Instant value) {
+        int8((value.getEpochSecond() - PG_EPOCH_SECONDS) * 1_000_000L + value.getNano() / 1_000L);
+    }
+
+    void uuid(@Nullable UUID value) {
+        if (value == null) {
+            nullField();
+            return;
+        }
+        writeInt(16);
+        writeLong(value.getMostSignificantBits());
+        writeLong(value.getLeastSignificantBits());
+    }
+
+    void nullField() {
+        writeInt(-1);
+    }
+
+    /**
+     * Write the trailer, push the remaining bytes and finish the COPY.
+     *
+     * @return rows reported by the server
+     */
+    long finish() throws SQLException {
+        writeShort(-1);
+        flush();
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Abort the COPY so the connection can roll back; used when encoding or the source fails mid-stream.
+     */
+    void cancelQuietly() {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            // The rollback that follows reports the real failure
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (size > 0) {
+            copyIn.writeToCopy(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    private void writeShort(int value) {
+        ensureCapacity(2);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Bulk import of historical events.
+ * <p>
+ * {@link com.crablet.eventstore.bulk.EventStoreBulkImporter} streams events into
+ * {@code crablet_events} and {@code crablet_event_tags} with PostgreSQL binary {@code COPY},
+ * bypassing the per-append DCB checks of {@link com.crablet.eventstore.EventStore}. It is meant
+ * for backfills and migrations from legacy stores, not for command handling.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.bulk;
@@ -0,0 +1,16 @@
+package com.crablet.eventstore.codec;
+
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * CBOR (RFC 8949). Requires {@code tools.jackson.dataformat:jackson-dataformat-cbor}.
+ */
+final class CborPayloadCodec extends JacksonBinaryPayloadCodec {
+
+    CborPayloadCodec() {
+        super(EventPayloadCodecs.CBOR, "cbor", CBORMapper.builder()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .build());
+    }
+}
@@ -0,0 +1,83 @@
+package com.crablet.eventstore.codec;
+
+import com.crablet.eventstore.EventStoreException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores the JSON text DEFLATE-compressed at the fastest level, prefixed with its length so
+ * decoding allocates the result once. Pays off for large, repetitive payloads; PostgreSQL does
+ * not TOAST-compress a value again when compression does not shrink it further.
+ */
+final class DeflateJsonPayloadCodec implements EventPayloadCodec {
+
+    static final DeflateJsonPayloadCodec INSTANCE = new DeflateJsonPayloadCodec();
+
+    private DeflateJsonPayloadCodec() {
+    }
+
+    @Override
+    public short id() {
+        return EventPayloadCodecs.JSON_DEFLATE;
+    }
+
+    @Override
+    public String name() {
+        return "json-deflate";
+    }
+
+    @Override
+    public byte[] encode(byte[] json) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 2));
+            out.write(json.length >>> 24);
+            out.write(json.length >>> 16);
+            out.write(json.length >>> 8);
+            out.write(json.length);
+            byte[] buffer = new byte[Math.min(8192, json.length + 64)];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                out.write(buffer, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decode(byte[] payload) {
+        if (payload.length < 4) {
+            throw new EventStoreException("Truncated json-deflate payload");
+        }
+        int length = (payload[0] & 0xFF) << 24 | (payload[1] & 0xFF) << 16
+                | (payload[2] & 0xFF) << 8 | payload[3] & 0xFF;
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload, 4, payload.length - 4);
+            byte[] json = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(json, read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new EventStoreException("Corrupt json-deflate payload: expected " + length + " bytes, got " + read);
+            }
+            return json;
+        } catch (DataFormatException e) {
+            throw new EventStoreException("Corrupt json-deflate payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
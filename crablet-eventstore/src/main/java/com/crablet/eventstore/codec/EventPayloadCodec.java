@@ -0,0 +1,39 @@
+package com.crablet.eventstore.codec;
+
+/**
+ * Encodes event payloads for a {@code BYTEA} {@code crablet_events.data} column.
+ * <p>
+ * Each row records the {@link #id()} of the codec that wrote it in {@code payload_codec}, so rows
+ * written with different codecs can share the table while the write codec changes. Codecs only
+ * change the stored form: {@link #decode(byte[])} must return the JSON that was passed to
+ * {@link #encode(byte[])}, and {@link com.crablet.eventstore.StoredEvent#data()} is always JSON.
+ * <p>
+ * Application codecs are registered through {@link java.util.ServiceLoader}, by listing them in
+ * {@code META-INF/services/com.crablet.eventstore.codec.EventPayloadCodec}, and must stay
+ * registered for as long as rows written with them exist. Ids {@code 0} to {@code 63} are reserved
+ * for the built-in codecs of {@link EventPayloadCodecs}. Implementations must be thread-safe.
+ */
+public interface EventPayloadCodec {
+
+    /**
+     * Value stored in {@code crablet_events.payload_codec}. Must never change once rows exist.
+     */
+    short id();
+
+    /**
+     * Name used to select the write codec, e.g. {@code crablet.eventstore.payloads.codec=smile}.
+     */
+    String name();
+
+    /**
+     * @param json UTF-8 encoded JSON payload
+     * @return the bytes stored in {@code crablet_events.data}
+     */
+    byte[] encode(byte[] json);
+
+    /**
+     * @param payload bytes read from {@code crablet_events.data}
+     * @return the UTF-8 encoded JSON payload
+     */
+    byte[] decode(byte[] payload);
+}
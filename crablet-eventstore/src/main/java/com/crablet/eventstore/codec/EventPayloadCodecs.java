@@ -0,0 +1,187 @@
+package com.crablet.eventstore.codec;
+
+import com.crablet.eventstore.EventStoreException;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * How event payloads are written: whether {@code crablet_events.data} is {@code JSONB} or
+ * {@code BYTEA}, and the codec new payloads are encoded with. Decoding needs neither, since every
+ * row names its codec, so {@link #decode(short, byte[])} is static and every reader — event store,
+ * repository, pollers, archiver — decodes rows of any registered codec.
+ * <p>
+ * Registered codecs:
+ * <ul>
+ *   <li>{@code json} ({@value #JSON}) — the JSON text unchanged; the only codec for {@code JSONB}</li>
+ *   <li>{@code json-deflate} ({@value #JSON_DEFLATE}) — DEFLATE-compressed JSON</li>
+ *   <li>{@code smile} ({@value #SMILE}) — Jackson Smile, when {@code jackson-dataformat-smile} is on
+ *       the classpath</li>
+ *   <li>{@code cbor} ({@value #CBOR}) — CBOR, when {@code jackson-dataformat-cbor} is on the
+ *       classpath</li>
+ *   <li>application codecs listed in
+ *       {@code META-INF/services/com.crablet.eventstore.codec.EventPayloadCodec}, with ids of at
+ *       least {@value #FIRST_CUSTOM_ID}</li>
+ * </ul>
+ * Every codec that ever wrote a row must stay registered, also on instances that only read.
+ */
+public final class EventPayloadCodecs {
+
+    public static final short JSON = 0;
+    public static final short JSON_DEFLATE = 1;
+    public static final short SMILE = 2;
+    public static final short CBOR = 3;
+
+    /**
+     * Codec ids below this value are reserved for built-in codecs.
+     */
+    public static final short FIRST_CUSTOM_ID = 64;
+
+    private static final EventPayloadCodecs DEFAULTS = new EventPayloadCodecs(JsonPayloadCodec.INSTANCE, false);
+
+    private final EventPayloadCodec writeCodec;
+    private final boolean binaryStorage;
+
+    private EventPayloadCodecs(EventPayloadCodec writeCodec, boolean binaryStorage) {
+        this.writeCodec = writeCodec;
+        this.binaryStorage = binaryStorage;
+    }
+
+    /**
+     * JSONB storage written as JSON — the schema every Crablet database starts with.
+     */
+    public static EventPayloadCodecs defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * BYTEA storage, after {@code crablet_use_binary_payloads()} converted the data column.
+     *
+     * @param writeCodecName name of the registered codec new payloads are written with
+     * @throws IllegalArgumentException if no codec has that name
+     */
+    public static EventPayloadCodecs binary(String writeCodecName) {
+        if (writeCodecName == null) {
+            throw new IllegalArgumentException("writeCodecName must not be null");
+        }
+        for (EventPayloadCodec codec : Registry.CODECS) {
+            if (codec.name().equals(writeCodecName)) {
+                return new EventPayloadCodecs(codec, true);
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload codec '" + writeCodecName + "'; registered: "
+                + Registry.CODECS.stream().map(EventPayloadCodec::name).toList());
+    }
+
+    /**
+     * Every registered codec, built-in ones first.
+     */
+    public static List<EventPayloadCodec> registered() {
+        return Registry.CODECS;
+    }
+
+    /**
+     * Decode a stored payload to JSON.
+     *
+     * @param codecId {@code crablet_events.payload_codec} of the row
+     * @param payload {@code crablet_events.data} of the row, as returned by
+     *                {@code ResultSet.getBytes}: for a {@code JSONB} column, the JSON text
+     * @throws EventStoreException if no codec with that id is registered
+     */
+    public static byte[] decode(short codecId, byte[] payload) {
+        if (codecId == JSON) {
+            return payload;
+        }
+        @Nullable EventPayloadCodec[] byId = Registry.BY_ID;
+        @Nullable EventPayloadCodec codec = codecId > 0 && codecId < byId.length ? byId[codecId] : null;
+        if (codec == null) {
+            throw new EventStoreException("No payload codec registered for id " + codecId);
+        }
+        return codec.decode(payload);
+    }
+
+    /**
+     * Codec new payloads are written with; always {@code json} for {@code JSONB} storage.
+     */
+    public EventPayloadCodec writeCodec() {
+        return writeCodec;
+    }
+
+    /**
+     * Whether {@code crablet_events.data} is {@code BYTEA}, so payloads are bound as
+     * {@code bytea[]} instead of {@code jsonb[]}.
+     */
+    public boolean binaryStorage() {
+        return binaryStorage;
+    }
+
+    /**
+     * Encode a JSON payload with the write codec.
+     */
+    public byte[] encode(byte[] json) {
+        return writeCodec.encode(json);
+    }
+
+    /**
+     * Codecs are discovered once, on first use.
+     */
+    private static final class Registry {
+
+        private static final List<EventPayloadCodec> CODECS = load();
+        private static final @Nullable EventPayloadCodec[] BY_ID = index(CODECS);
+
+        private static List<EventPayloadCodec> load() {
+            List<EventPayloadCodec> codecs = new ArrayList<>();
+            codecs.add(JsonPayloadCodec.INSTANCE);
+            codecs.add(DeflateJsonPayloadCodec.INSTANCE);
+            // Optional dependencies: the codec classes are only loaded when their format is present
+            if (isPresent("tools.jackson.dataformat.smile.SmileMapper")) {
+                codecs.add(new SmilePayloadCodec());
+            }
+            if (isPresent("tools.jackson.dataformat.cbor.CBORMapper")) {
+                codecs.add(new CborPayloadCodec());
+            }
+            for (EventPayloadCodec custom : ServiceLoader.load(EventPayloadCodec.class, EventPayloadCodecs.class.getClassLoader())) {
+                if (custom.id() < FIRST_CUSTOM_ID) {
+                    throw new IllegalStateException("Payload codec " + custom.name()
+                            + " must use an id of at least " + FIRST_CUSTOM_ID + ", was " + custom.id());
+                }
+                codecs.add(custom);
+            }
+            return List.copyOf(codecs);
+        }
+
+        private static @Nullable EventPayloadCodec[] index(List<EventPayloadCodec> codecs) {
+            int maxId = 0;
+            for (EventPayloadCodec codec : codecs) {
+                maxId = Math.max(maxId, codec.id());
+            }
+            @Nullable EventPayloadCodec[] byId = new EventPayloadCodec[maxId + 1];
+            List<String> names = new ArrayList<>();
+            for (EventPayloadCodec codec : codecs) {
+                @Nullable EventPayloadCodec existing = byId[codec.id()];
+                if (existing != null) {
+                    throw new IllegalStateException("Payload codecs " + existing.name() + " and " + codec.name()
+                            + " share id " + codec.id());
+                }
+                if (names.contains(codec.name())) {
+                    throw new IllegalStateException("Several payload codecs are named " + codec.name());
+                }
+                byId[codec.id()] = codec;
+                names.add(codec.name());
+            }
+            return byId;
+        }
+
+        private static boolean isPresent(String className) {
+            try {
+                Class.forName(className, false, EventPayloadCodecs.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+}
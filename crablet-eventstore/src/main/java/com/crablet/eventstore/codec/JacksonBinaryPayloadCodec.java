@@ -0,0 +1,56 @@
+package com.crablet.eventstore.codec;
+
+import com.crablet.eventstore.EventStoreException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Transcodes the JSON text to and from a binary Jackson format. Floating-point numbers are read
+ * as {@code BigDecimal}, so no precision is lost on the way.
+ */
+abstract class JacksonBinaryPayloadCodec implements EventPayloadCodec {
+
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private final short id;
+    private final String name;
+    private final ObjectMapper format;
+
+    JacksonBinaryPayloadCodec(short id, String name, ObjectMapper format) {
+        this.id = id;
+        this.name = name;
+        this.format = format;
+    }
+
+    @Override
+    public short id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(byte[] json) {
+        try {
+            return format.writeValueAsBytes(JSON.readTree(json));
+        } catch (JacksonException e) {
+            throw new EventStoreException("Failed to encode event payload as " + name, e);
+        }
+    }
+
+    @Override
+    public byte[] decode(byte[] payload) {
+        try {
+            return JSON.writeValueAsBytes(format.readTree(payload));
+        } catch (JacksonException e) {
+            throw new EventStoreException("Failed to decode " + name + " event payload", e);
+        }
+    }
+}
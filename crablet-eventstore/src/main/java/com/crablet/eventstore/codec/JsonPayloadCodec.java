@@ -0,0 +1,33 @@
+package com.crablet.eventstore.codec;
+
+/**
+ * Stores the JSON text unchanged. The only codec a {@code JSONB} data column accepts, and the
+ * codec of every row written before the column was converted to {@code BYTEA}.
+ */
+final class JsonPayloadCodec implements EventPayloadCodec {
+
+    static final JsonPayloadCodec INSTANCE = new JsonPayloadCodec();
+
+    private JsonPayloadCodec() {
+    }
+
+    @Override
+    public short id() {
+        return EventPayloadCodecs.JSON;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(byte[] json) {
+        return json;
+    }
+
+    @Override
+    public byte[] decode(byte[] payload) {
+        return payload;
+    }
+}
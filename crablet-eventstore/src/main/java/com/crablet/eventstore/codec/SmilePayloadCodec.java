@@ -0,0 +1,16 @@
+package com.crablet.eventstore.codec;
+
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Jackson Smile. Requires {@code tools.jackson.dataformat:jackson-dataformat-smile}.
+ */
+final class SmilePayloadCodec extends JacksonBinaryPayloadCodec {
+
+    SmilePayloadCodec() {
+        super(EventPayloadCodecs.SMILE, "smile", SmileMapper.builder()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .build());
+    }
+}
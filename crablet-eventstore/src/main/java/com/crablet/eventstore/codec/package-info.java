@@ -0,0 +1,12 @@
+/**
+ * Storage codecs for event payloads.
+ * <p>
+ * By default {@code crablet_events.data} is {@code JSONB} and payloads are stored as JSON. After
+ * {@code crablet_use_binary_payloads()} the column is {@code BYTEA}, and payloads are written with
+ * the configured {@link com.crablet.eventstore.codec.EventPayloadCodec} and read back with the
+ * codec recorded in each row's {@code payload_codec}.
+ * {@link com.crablet.eventstore.codec.EventPayloadCodecs} holds the storage mode and write codec,
+ * and decodes rows of every registered codec.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.codec;
@@ -6,17 +6,37 @@ import com.crablet.eventstore.EventStoreConfig;
 import com.crablet.eventstore.Internal;
 import com.crablet.eventstore.ReadDataSource;
 import com.crablet.eventstore.WriteDataSource;
+import com.crablet.eventstore.archive.EventArchive;
+import com.crablet.eventstore.archive.EventArchiver;
+import com.crablet.eventstore.boundary.ConsistencyBoundary;
+import com.crablet.eventstore.boundary.ConsistencyBoundaryRegistry;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
 import com.crablet.eventstore.internal.ClockProviderImpl;
+import com.crablet.eventstore.internal.EventArchiveProperties;
+import com.crablet.eventstore.internal.EventPartitionMaintainer;
+import com.crablet.eventstore.internal.EventPartitionProperties;
+import com.crablet.eventstore.internal.EventPayloadProperties;
 import com.crablet.eventstore.internal.EventRepositoryImpl;
 import com.crablet.eventstore.internal.EventStoreImpl;
 import com.crablet.eventstore.internal.EventStoreNotificationProperties;
+import com.crablet.eventstore.internal.EventStoreOptions;
+import com.crablet.eventstore.internal.GroupCommitProperties;
+import com.crablet.eventstore.internal.IdempotencyKeyProperties;
+import com.crablet.eventstore.internal.IdempotencyKeyPruner;
 import com.crablet.eventstore.internal.ReadReplicaProperties;
+import com.crablet.eventstore.internal.SnapshotProperties;
 import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.replica.ReplicaRoutingDataSource;
+import com.crablet.eventstore.snapshot.SnapshottingEventStore;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
@@ -28,6 +48,11 @@ import org.springframework.transaction.PlatformTransactionManager;
 import tools.jackson.databind.ObjectMapper;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Auto-configuration for the Crablet EventStore.
@@ -37,16 +62,42 @@ import javax.sql.DataSource;
  * <p>
  * Provides the following beans when not already declared by the application:
  * <ul>
+ *   <li>{@code dataSource} — HikariCP pool of {@code spring.datasource}, whose connections default
+ *       to {@code crablet.eventstore.transaction-isolation}</li>
  *   <li>{@link WriteDataSource} — wraps Spring Boot's main datasource</li>
  *   <li>{@link ReadDataSource} — same datasource by default; can target a read replica</li>
+ *   <li>{@link ReplicaRoutingDataSource} — only when {@code crablet.eventstore.read-replicas.enabled=true};
+ *       balances the {@link ReadDataSource} over the configured replicas and serves
+ *       {@code EventStore.readAtLeast} reads</li>
  *   <li>{@link ClockProvider} — system UTC clock</li>
- *   <li>{@link EventStore} — core event sourcing API</li>
+ *   <li>{@link EventPayloadCodecs} — payload storage mode and write codec from
+ *       {@code crablet.eventstore.payloads}</li>
+ *   <li>{@link EventStore} — core event sourcing API, wrapped in a {@link SnapshottingEventStore}
+ *       when {@code crablet.eventstore.snapshots.enabled=true}</li>
  *   <li>{@link EventRepository} — low-level event query API</li>
+ *   <li>{@link EventStoreBulkImporter} — binary COPY import for backfills</li>
+ *   <li>{@link ConsistencyBoundaryRegistry} — declares every {@link ConsistencyBoundary} bean once
+ *       all singletons, including Flyway, are initialized</li>
+ *   <li>{@link IdempotencyKeyPruner} — only when {@code crablet.eventstore.idempotency-keys.retention}
+ *       is set</li>
+ *   <li>{@link EventPartitionMaintainer} — only when {@code crablet.eventstore.partitioning.enabled=true}</li>
+ *   <li>{@link EventArchive} — only when {@code crablet.eventstore.archive.enabled=true}; the
+ *       {@link EventStore} and {@link EventRepository} then read archived events from it</li>
+ *   <li>{@link EventArchiver} — with the archive, unless
+ *       {@code crablet.eventstore.archive.archiver-enabled=false}</li>
  * </ul>
  */
 @Internal
 @AutoConfiguration
-@EnableConfigurationProperties({ReadReplicaProperties.class, EventStoreNotificationProperties.class})
+@EnableConfigurationProperties({
+        ReadReplicaProperties.class,
+        EventStoreNotificationProperties.class,
+        GroupCommitProperties.class,
+        SnapshotProperties.class,
+        IdempotencyKeyProperties.class,
+        EventPartitionProperties.class,
+        EventArchiveProperties.class,
+        EventPayloadProperties.class})
 public class EventStoreAutoConfiguration {
 
     @Bean
@@ -66,10 +117,17 @@ public class EventStoreAutoConfiguration {
     @Bean(name = "dataSource")
     @ConfigurationProperties("spring.datasource.hikari")
     @ConditionalOnMissingBean(name = "dataSource")
-    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
-        return dataSourceProperties.initializeDataSourceBuilder()
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, EventStoreConfig eventStoreConfig) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
                 .type(HikariDataSource.class)
                 .build();
+        // Connections start at the event store's level, so its transactions need not set it;
+        // spring.datasource.hikari.transaction-isolation still overrides this
+        String isolation = eventStoreConfig.getTransactionIsolation();
+        if (isolation != null) {
+            dataSource.setTransactionIsolation("TRANSACTION_" + isolation);
+        }
+        return dataSource;
     }
 
     @Bean
@@ -82,18 +140,53 @@ public class EventStoreAutoConfiguration {
     @ConditionalOnMissingBean
     public ReadDataSource readDataSource(
             WriteDataSource writeDataSource,
-            ReadReplicaProperties readReplicaProperties,
-            DataSourceProperties dataSourceProperties) {
-        if (!readReplicaProperties.isEnabled()) {
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        ReplicaRoutingDataSource replicas = replicaRoutingDataSource.getIfAvailable();
+        if (replicas == null) {
             return new ReadDataSource(writeDataSource.dataSource());
         }
+        return new ReadDataSource(replicas);
+    }
 
-        String replicaUrl = readReplicaProperties.getUrl();
-        if (replicaUrl == null || replicaUrl.trim().isEmpty()) {
-            throw new IllegalStateException(
-                    "crablet.eventstore.read-replicas.enabled=true but no replica URL configured");
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "crablet.eventstore.read-replicas.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            WriteDataSource writeDataSource,
+            ReadReplicaProperties readReplicaProperties,
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher) {
+        List<String> replicaUrls = readReplicaProperties.getUrls().stream()
+                .filter(url -> url != null && !url.trim().isEmpty())
+                .toList();
+        if (replicaUrls.isEmpty()) {
+            String replicaUrl = readReplicaProperties.getUrl();
+            if (replicaUrl == null || replicaUrl.trim().isEmpty()) {
+                throw new IllegalStateException(
+                        "crablet.eventstore.read-replicas.enabled=true but no replica URL configured");
+            }
+            replicaUrls = List.of(replicaUrl);
+        }
+
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            replicas.add(new ReplicaRoutingDataSource.Replica(
+                    replicaName(replicaUrl),
+                    replicaPool(replicaUrl, readReplicaProperties, dataSourceProperties)));
         }
+        return new ReplicaRoutingDataSource(
+                writeDataSource.dataSource(),
+                replicas,
+                readReplicaProperties.getConsistencyWait(),
+                readReplicaProperties.getLagCheckInterval(),
+                readReplicaProperties.getMaxLagBytes(),
+                eventPublisher);
+    }
 
+    private static HikariDataSource replicaPool(
+            String replicaUrl,
+            ReadReplicaProperties readReplicaProperties,
+            DataSourceProperties dataSourceProperties) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(replicaUrl);
 
@@ -121,7 +214,24 @@ public class EventStoreAutoConfiguration {
         config.setMaximumPoolSize(readReplicaProperties.getHikari().getMaximumPoolSize());
         config.setMinimumIdle(readReplicaProperties.getHikari().getMinimumIdle());
 
-        return new ReadDataSource(new HikariDataSource(config));
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Host and port of a JDBC URL, so metrics never carry credentials or parameters.
+     */
+    private static String replicaName(String jdbcUrl) {
+        String name = jdbcUrl.trim();
+        int scheme = name.indexOf("//");
+        if (scheme >= 0) {
+            name = name.substring(scheme + 2);
+        }
+        int end = 0;
+        while (end < name.length() && name.charAt(end) != '/' && name.charAt(end) != '?') {
+            end++;
+        }
+        String authority = name.substring(0, end);
+        return authority.substring(authority.lastIndexOf('@') + 1);
     }
 
     @Bean(name = "primaryDataSource")
@@ -154,6 +264,20 @@ public class EventStoreAutoConfiguration {
         return new ClockProviderImpl();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public EventPayloadCodecs eventPayloadCodecs(EventPayloadProperties eventPayloadProperties) {
+        if (eventPayloadProperties.getStorage() == EventPayloadProperties.Storage.BYTEA) {
+            return EventPayloadCodecs.binary(eventPayloadProperties.getCodec());
+        }
+        if (!"json".equals(eventPayloadProperties.getCodec())) {
+            throw new IllegalStateException(
+                    "crablet.eventstore.payloads.codec=" + eventPayloadProperties.getCodec()
+                            + " requires crablet.eventstore.payloads.storage=bytea");
+        }
+        return EventPayloadCodecs.defaults();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public EventStore eventStore(
@@ -163,22 +287,135 @@ public class EventStoreAutoConfiguration {
             EventStoreConfig config,
             ClockProvider clock,
             ApplicationEventPublisher eventPublisher,
-            EventStoreNotificationProperties notificationProperties) {
-        return new EventStoreImpl(
+            EventStoreNotificationProperties notificationProperties,
+            GroupCommitProperties groupCommitProperties,
+            SnapshotProperties snapshotProperties,
+            ObjectProvider<EventArchive> eventArchive,
+            EventPayloadCodecs eventPayloadCodecs) {
+        EventStoreImpl eventStore = new EventStoreImpl(
                 writeDataSource.dataSource(),
                 readDataSource.dataSource(),
                 objectMapper,
                 config,
                 clock,
                 eventPublisher,
-                notificationProperties.getChannel());
+                EventStoreOptions.builder()
+                        .notifyChannel(notificationProperties.getChannel())
+                        .groupCommit(groupCommitProperties)
+                        .archive(eventArchive.getIfAvailable())
+                        .payloadCodecs(eventPayloadCodecs)
+                        .build());
+        if (!snapshotProperties.isEnabled()) {
+            return eventStore;
+        }
+        return new SnapshottingEventStore(
+                eventStore,
+                readDataSource.dataSource(),
+                objectMapper,
+                snapshotProperties.getEventThreshold());
     }
 
     @Bean
     @ConditionalOnMissingBean
     public EventRepository eventRepository(
             WriteDataSource writeDataSource,
-            EventStoreConfig config) {
-        return new EventRepositoryImpl(writeDataSource.dataSource(), config);
+            EventStoreConfig config,
+            ObjectProvider<EventArchive> eventArchive) {
+        return new EventRepositoryImpl(writeDataSource.dataSource(), config, eventArchive.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventStoreBulkImporter eventStoreBulkImporter(
+            WriteDataSource writeDataSource,
+            ObjectMapper objectMapper,
+            EventPayloadCodecs eventPayloadCodecs) {
+        return new EventStoreBulkImporter(writeDataSource.dataSource(), objectMapper, eventPayloadCodecs);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ConsistencyBoundaryRegistry consistencyBoundaryRegistry(WriteDataSource writeDataSource) {
+        return new ConsistencyBoundaryRegistry(writeDataSource.dataSource());
+    }
+
+    @Bean
+    public SmartInitializingSingleton consistencyBoundaryDeclarations(
+            ConsistencyBoundaryRegistry consistencyBoundaryRegistry,
+            ObjectProvider<ConsistencyBoundary> boundaries) {
+        return () -> consistencyBoundaryRegistry.registerAll(boundaries.orderedStream().toList());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "crablet.eventstore.idempotency-keys.retention")
+    public IdempotencyKeyPruner idempotencyKeyPruner(
+            WriteDataSource writeDataSource,
+            ClockProvider clock,
+            IdempotencyKeyProperties idempotencyKeyProperties) {
+        return new IdempotencyKeyPruner(
+                writeDataSource.dataSource(),
+                clock,
+                Objects.requireNonNull(idempotencyKeyProperties.getRetention()),
+                idempotencyKeyProperties.getPruneInterval());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "crablet.eventstore.partitioning.enabled", havingValue = "true")
+    public EventPartitionMaintainer eventPartitionMaintainer(
+            WriteDataSource writeDataSource,
+            EventPartitionProperties eventPartitionProperties) {
+        return new EventPartitionMaintainer(
+                writeDataSource.dataSource(),
+                eventPartitionProperties.getPartitionsAhead(),
+                eventPartitionProperties.getCheckInterval());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "crablet.eventstore.archive.enabled", havingValue = "true")
+    public EventArchive eventArchive(
+            WriteDataSource writeDataSource,
+            EventArchiveProperties eventArchiveProperties) {
+        Path directory = eventArchiveProperties.getDirectory();
+        if (directory == null) {
+            throw new IllegalStateException(
+                    "crablet.eventstore.archive.enabled=true but no archive directory configured");
+        }
+        return new EventArchive(
+                writeDataSource.dataSource(),
+                directory,
+                eventArchiveProperties.getRefreshInterval());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "crablet.eventstore.archive.enabled", havingValue = "true")
+    @ConditionalOnProperty(name = "crablet.eventstore.archive.archiver-enabled", havingValue = "true", matchIfMissing = true)
+    public EventArchiver eventArchiver(
+            WriteDataSource writeDataSource,
+            ClockProvider clock,
+            EventStoreConfig config,
+            EventArchiveProperties eventArchiveProperties) {
+        Path directory = eventArchiveProperties.getDirectory();
+        if (directory == null) {
+            throw new IllegalStateException(
+                    "crablet.eventstore.archive.enabled=true but no archive directory configured");
+        }
+        Duration detachDelay = eventArchiveProperties.getDetachDelay();
+        if (detachDelay.compareTo(eventArchiveProperties.getRefreshInterval().multipliedBy(2)) <= 0) {
+            throw new IllegalStateException(
+                    "crablet.eventstore.archive.detach-delay must exceed twice the refresh-interval");
+        }
+        return new EventArchiver(
+                writeDataSource.dataSource(),
+                clock,
+                directory,
+                eventArchiveProperties.getSegmentSize(),
+                eventArchiveProperties.getMinAge(),
+                detachDelay,
+                eventArchiveProperties.getArchiveInterval(),
+                config.getFetchSize());
     }
 }
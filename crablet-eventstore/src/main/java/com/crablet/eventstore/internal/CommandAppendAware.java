@@ -0,0 +1,31 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implemented by the transaction-scoped {@code EventStore} handed to
+ * {@code executeInTransaction} callbacks.
+ * <p>
+ * Lets the command executor append a command's events and write its audit record together,
+ * in one database call when {@link com.crablet.eventstore.EventStoreConfig#isFusedCommandWrites()}
+ * is enabled.
+ */
+public interface CommandAppendAware {
+
+    /**
+     * Append {@code events} under {@code condition} and, if the append succeeds, write the
+     * command audit record in the same transaction. Same result as
+     * {@code appendConditional(events, condition)} followed by
+     * {@link com.crablet.eventstore.CommandAuditStore#storeCommand(String, String, Instant)}.
+     *
+     * @return the transaction ID of the append
+     * @throws com.crablet.eventstore.ConcurrencyException if the condition is violated; no audit
+     *         record is written
+     */
+    String appendWithCommand(List<AppendEvent> events, AppendCondition condition,
+                             String commandJson, String commandType, Instant occurredAt);
+}
@@ -0,0 +1,202 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.EventStoreException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Group-commit queue for commutative appends.
+ * <p>
+ * Callers enqueue a {@link PendingAppend} and block on its future. Flusher threads take the
+ * first pending append, keep collecting until {@code maxBatchSize} is reached or
+ * {@code maxWait} has elapsed since that first append was queued, then hand the batch to
+ * the flush callback. The callback owns the SQL and must complete every future in the batch;
+ * any future it leaves open is failed here so a caller can never hang.
+ */
+final class CommutativeAppendCoalescer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CommutativeAppendCoalescer.class);
+
+    private static final long IDLE_POLL_MS = 100L;
+
+    /**
+     * One caller's append, already serialized on the calling thread so that payload errors
+     * surface to that caller before it joins a batch. {@code data} holds the payloads in the
+     * form the append functions bind them: {@code String[]} for a JSONB data column,
+     * {@code byte[][]} for BYTEA. {@code occurredAt} is taken when the caller appends, so
+     * queueing and flushing do not shift the stored timestamp.
+     */
+    record PendingAppend(
+            String[] types,
+            String[] tags,
+            Object[] data,
+            List<String> eventTypes,
+            Set<String> tagKeys,
+            @Nullable UUID correlationId,
+            @Nullable Long causationId,
+            Instant occurredAt,
+            long enqueuedNanos,
+            CompletableFuture<String> result) {
+
+        int eventCount() {
+            return types.length;
+        }
+    }
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingAppend> queue;
+    private final Consumer<List<PendingAppend>> flusher;
+    private final List<Thread> flushThreads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    CommutativeAppendCoalescer(
+            int maxBatchSize,
+            Duration maxWait,
+            int queueCapacity,
+            int flushThreadCount,
+            Consumer<List<PendingAppend>> flusher) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be null or negative");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        if (flushThreadCount < 1) {
+            throw new IllegalArgumentException("flushThreads must be at least 1");
+        }
+        if (flusher == null) {
+            throw new IllegalArgumentException("flusher must not be null");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = flusher;
+        for (int i = 0; i < flushThreadCount; i++) {
+            Thread thread = new Thread(this::flushLoop, "crablet-group-commit-" + i);
+            thread.setDaemon(true);
+            flushThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue an append and wait for its batch to commit.
+     *
+     * @return the transaction id of the commit, or {@code null} if the append was not queued
+     *         (coalescer closed or queue full) and the caller should append directly
+     */
+    @Nullable String appendAndWait(PendingAppend pending) {
+        if (!running || !queue.offer(pending)) {
+            return null;
+        }
+        if (!running && queue.remove(pending)) {
+            // Raced with close(): the flushers may already be gone, so append directly
+            return null;
+        }
+        try {
+            return pending.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventStoreException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new EventStoreException("Group commit failed", cause);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedNanos() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingAppend next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // close() interrupts only after the queue has drained or the join timed out
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingAppend> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flusher.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Group commit flush failed for {} appends", batch.size(), e);
+            for (PendingAppend pending : batch) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+        for (PendingAppend pending : batch) {
+            if (!pending.result().isDone()) {
+                pending.result().completeExceptionally(
+                        new EventStoreException("Group commit did not complete the append"));
+            }
+        }
+    }
+
+    /**
+     * Stop accepting appends, drain what is queued, and stop the flusher threads.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread thread : flushThreads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (thread.isAlive()) {
+                thread.interrupt();
+            }
+        }
+        PendingAppend orphan;
+        while ((orphan = queue.poll()) != null) {
+            orphan.result().completeExceptionally(new EventStoreException("Group commit coalescer closed"));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.crablet.eventstore.internal;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties for the cold-tier event archive.
+ * <p>
+ * When enabled, closed position ranges of {@code crablet_events} are exported into checksummed
+ * segment files under {@link #directory}, and {@code EventStore.project}, {@code exists} and
+ * {@code EventRepository.query} read events below the archive watermark from those files instead
+ * of the database. Requires the {@code V8__crablet_event_archive_schema.sql} migration. Disabled
+ * by default.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.archive")
+public class EventArchiveProperties {
+
+    /**
+     * Whether archived segments are read and, unless {@link #archiverEnabled} is false, written.
+     * Default: false (every event is read from crablet_events)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment files. Must be set when enabled and must be the same
+     * directory, or a replica of it, on every application instance.
+     */
+    private @Nullable Path directory;
+
+    /**
+     * Whether this instance exports and detaches ranges. Instances that should only read
+     * archived segments set this to false. Only one instance archives at a time.
+     */
+    private boolean archiverEnabled = true;
+
+    /**
+     * Number of positions per segment. Aligning it with the partition size of a partitioned log
+     * lets detaching drop whole partitions instead of deleting rows.
+     */
+    private long segmentSize = 1_000_000;
+
+    /**
+     * Minimum age of the newest event of a range before the range is archived.
+     */
+    private Duration minAge = Duration.ofDays(30);
+
+    /**
+     * How often closed ranges are archived and due ranges detached.
+     */
+    private Duration archiveInterval = Duration.ofHours(1);
+
+    /**
+     * How often each instance reloads the segment catalog. Reads fail once the catalog is older
+     * than twice this interval and cannot be reloaded.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * Time between registering a segment and removing its rows from crablet_events. Must exceed
+     * twice {@link #refreshInterval}, so every instance reads the range from the segment before
+     * the rows are gone.
+     */
+    private Duration detachDelay = Duration.ofMinutes(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public @Nullable Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(@Nullable Path directory) {
+        this.directory = directory;
+    }
+
+    public boolean isArchiverEnabled() {
+        return archiverEnabled;
+    }
+
+    public void setArchiverEnabled(boolean archiverEnabled) {
+        this.archiverEnabled = archiverEnabled;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public Duration getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Duration minAge) {
+        this.minAge = minAge;
+    }
+
+    public Duration getArchiveInterval() {
+        return archiveInterval;
+    }
+
+    public void setArchiveInterval(Duration archiveInterval) {
+        this.archiveInterval = archiveInterval;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getDetachDelay() {
+        return detachDelay;
+    }
+
+    public void setDetachDelay(Duration detachDelay) {
+        this.detachDelay = detachDelay;
+    }
+}
@@ -0,0 +1,97 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.EventStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps empty {@code crablet_events} / {@code crablet_event_tags} partitions ahead of the
+ * position sequence by calling {@code crablet_create_event_partitions(...)} at a fixed interval,
+ * starting immediately.
+ * <p>
+ * The partitioned log has no default partition, so an append whose position has no partition
+ * fails. The function is a no-op on a log that is not partitioned.
+ */
+public class EventPartitionMaintainer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventPartitionMaintainer.class);
+
+    private static final String CREATE_PARTITIONS_SQL = "SELECT crablet_create_event_partitions(?)";
+
+    private final DataSource writeDataSource;
+    private final int partitionsAhead;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     * @param partitionsAhead number of empty partitions kept ahead of the latest issued position
+     * @param checkInterval   delay between coverage checks
+     */
+    public EventPartitionMaintainer(DataSource writeDataSource, int partitionsAhead, Duration checkInterval) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        if (partitionsAhead < 1) {
+            throw new IllegalArgumentException("partitionsAhead must be at least 1");
+        }
+        if (checkInterval == null || checkInterval.isNegative() || checkInterval.isZero()) {
+            throw new IllegalArgumentException("checkInterval must be positive");
+        }
+        this.writeDataSource = writeDataSource;
+        this.partitionsAhead = partitionsAhead;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crablet-event-partition-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::createPartitionsQuietly, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Attach partitions until {@code partitionsAhead} of them lie beyond the latest issued position.
+     *
+     * @return number of partitions created
+     */
+    public int createPartitions() {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(CREATE_PARTITIONS_SQL)) {
+            stmt.setInt(1, partitionsAhead);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int created = rs.next() ? rs.getInt(1) : 0;
+                if (created > 0) {
+                    log.info("Created {} crablet_events partitions ahead of the position sequence", created);
+                }
+                return created;
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to create crablet_events partitions", e);
+        }
+    }
+
+    /**
+     * Stop scheduled partition maintenance.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void createPartitionsQuietly() {
+        try {
+            createPartitions();
+        } catch (RuntimeException e) {
+            log.warn("crablet_events partition maintenance failed; retrying on the next check", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.crablet.eventstore.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for maintaining a position-partitioned event log.
+ * <p>
+ * Only relevant after {@code crablet_partition_events(...)} from the
+ * {@code V7__crablet_event_partitioning.sql} migration has converted {@code crablet_events} and
+ * {@code crablet_event_tags}. When enabled, new partitions are attached ahead of the position
+ * sequence at a fixed interval. Disabled by default.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.partitioning")
+public class EventPartitionProperties {
+
+    /**
+     * Whether partitions are created ahead of the position sequence.
+     * Default: false (partitions are managed outside the application, or the log is not partitioned)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of empty partitions kept ahead of the latest issued position. Together with the
+     * partition size this must exceed the events appended during one {@link #checkInterval}.
+     */
+    private int partitionsAhead = 2;
+
+    /**
+     * How often partition coverage is checked.
+     */
+    private Duration checkInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPartitionsAhead() {
+        return partitionsAhead;
+    }
+
+    public void setPartitionsAhead(int partitionsAhead) {
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+}
@@ -0,0 +1,53 @@
+package com.crablet.eventstore.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for how event payloads are stored.
+ * <p>
+ * By default {@code crablet_events.data} is {@code JSONB} and payloads are stored as JSON. After
+ * {@code SELECT crablet_use_binary_payloads()} converted the column to {@code BYTEA}, set
+ * {@link #storage} to {@link Storage#BYTEA} and pick a {@link #codec} to write new payloads with.
+ * Rows keep the codec they were written with, so the codec can be changed at any time as long as
+ * every codec that wrote a row stays on the classpath. Requires the
+ * {@code V9__crablet_event_payload_codecs.sql} migration.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.payloads")
+public class EventPayloadProperties {
+
+    /**
+     * Type of the {@code crablet_events.data} column.
+     */
+    public enum Storage {
+        JSONB,
+        BYTEA
+    }
+
+    /**
+     * Type of the data column. Must match the schema: BYTEA only after crablet_use_binary_payloads().
+     * Default: JSONB
+     */
+    private Storage storage = Storage.JSONB;
+
+    /**
+     * Name of the codec new payloads are written with: json, json-deflate, smile, cbor or an
+     * application codec. Only json is valid with JSONB storage.
+     */
+    private String codec = "json";
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+}
@@ -4,21 +4,28 @@ import com.crablet.eventstore.EventStoreConfig;
 import com.crablet.eventstore.EventStoreException;
 import com.crablet.eventstore.StoredEvent;
 import com.crablet.eventstore.StreamPosition;
-import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.archive.EventArchive;
 import com.crablet.eventstore.query.EventRepository;
 import com.crablet.eventstore.query.Query;
 import org.jspecify.annotations.Nullable;
-import org.springframework.jdbc.core.RowMapper;
+import org.postgresql.PGStatement;
 
 import javax.sql.DataSource;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.time.Instant;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of EventRepository.
@@ -28,6 +35,9 @@ import java.util.UUID;
  * <p>
  * Uses {@link QuerySqlBuilder} to generate SQL WHERE clauses dynamically.
  * <p>
+ * When constructed with an {@link EventArchive}, events below the archive watermark are read from
+ * its segment files and merged with the database rows in {@code (transaction_id, position)} order.
+ * <p>
  * <strong>Spring Integration:</strong>
  * Users can define as @Bean when needed:
  * <pre>{@code
@@ -42,98 +52,235 @@ public class EventRepositoryImpl implements EventRepository {
     private final DataSource dataSource;
     private final QuerySqlBuilder sqlBuilder;
     private final EventStoreConfig config;
+    private final @Nullable EventArchive archive;
 
     /**
-     * Singleton RowMapper for StoredEvent objects.
-     * Reused across all queries to avoid lambda allocation overhead.
+     * Shared StoredEvent row mapper; see {@link StoredEventRowMapper#COLUMNS}.
      */
-    private final RowMapper<StoredEvent> EVENT_ROW_MAPPER = (rs, rowNum) -> {
-        String type = rs.getString("type");
-        String[] tagArray = (String[]) rs.getArray("tags").getArray();
-        List<Tag> tags = parseTags(tagArray);
-        byte[] data = rs.getString("data").getBytes(StandardCharsets.UTF_8);
-        String transactionId = rs.getString("transaction_id");
-        long position = rs.getLong("position");
-        Instant occurredAt = rs.getTimestamp("occurred_at").toInstant();
-
-        UUID correlationId = rs.getObject("correlation_id", UUID.class);
-        Long causationId   = (Long) rs.getObject("causation_id");
-        return new StoredEvent(type, tags, data, transactionId, position, occurredAt,
-                               correlationId, causationId);
-    };
+    private static final StoredEventRowMapper EVENT_ROW_MAPPER = StoredEventRowMapper.shared();
 
     public EventRepositoryImpl(DataSource dataSource, EventStoreConfig config) {
+        this(dataSource, config, null);
+    }
+
+    /**
+     * @param archive cold-tier archive consulted for events below its watermark; {@code null}
+     *                reads every event from {@code crablet_events}
+     */
+    public EventRepositoryImpl(DataSource dataSource, EventStoreConfig config, @Nullable EventArchive archive) {
         this.dataSource = dataSource;
         this.config = config;
+        this.archive = archive;
         this.sqlBuilder = new QuerySqlBuilderImpl();
     }
 
     @Override
     public List<StoredEvent> query(Query query, @Nullable StreamPosition after) {
+        try (Stream<StoredEvent> events = stream(query, after)) {
+            return events.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The stream holds a connection with an open server-side cursor, fetching
+     * {@link EventStoreConfig#getFetchSize()} rows at a time, until it is closed. A
+     * {@link Query#withLatest(int)} query is read eagerly instead, newest first with a
+     * {@code LIMIT}, and streamed from memory in ascending order.
+     */
+    @Override
+    public Stream<StoredEvent> stream(Query query, @Nullable StreamPosition after) {
+        // Events below the archive watermark come from its segments, the rest from the database
+        long afterPosition = after != null ? after.position() : 0L;
+        long watermark = archive != null ? archive.watermark() : 0L;
+        @Nullable Iterator<StoredEvent> archived = archive != null && afterPosition < watermark - 1
+                ? archive.events(query, afterPosition, watermark)
+                : null;
+        @Nullable StreamPosition databaseAfter = archived != null
+                ? new StreamPosition(watermark - 1, null, null)
+                : after;
+
+        if (query.latest() > 0) {
+            return latest(query, databaseAfter, archived).stream();
+        }
+
+        CursorIterator cursor = openCursor(query, databaseAfter);
+        Iterator<StoredEvent> events = archived != null ? new MergingIterator(archived, cursor) : cursor;
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(events, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * The last {@code query.latest()} events, read newest first with a {@code LIMIT} and returned
+     * in ascending order.
+     */
+    private List<StoredEvent> latest(
+            Query query, @Nullable StreamPosition databaseAfter, @Nullable Iterator<StoredEvent> archived) {
+        List<StoredEvent> newestFirst = new ArrayList<>(query.latest());
+        CursorIterator cursor = openCursor(query, databaseAfter);
         try {
-            // Build SQL query directly instead of using the function
-            StringBuilder sql = new StringBuilder("SELECT type, tags, data, transaction_id, position, occurred_at, correlation_id, causation_id FROM crablet_events");
-            List<Object> params = new ArrayList<>();
-
-            // Use shared WHERE clause builder
-            String whereClause = sqlBuilder.buildWhereClause(query, after, params);
-            if (!whereClause.isEmpty()) {
-                sql.append(" WHERE ").append(whereClause);
-            }
+            cursor.forEachRemaining(newestFirst::add);
+        } finally {
+            cursor.close();
+        }
+        return LatestEvents.ascending(
+                newestFirst, archived != null ? archived : Collections.emptyIterator(), query.latest());
+    }
+
+    private CursorIterator openCursor(Query query, @Nullable StreamPosition after) {
+        StringBuilder sql = new StringBuilder("SELECT " + StoredEventRowMapper.COLUMNS + " FROM crablet_events");
+        List<Object> params = new ArrayList<>();
+
+        // Use shared WHERE clause builder
+        String whereClause = sqlBuilder.buildWhereClause(query, after, params);
+        if (!whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
 
+        if (query.latest() > 0) {
+            sql.append(" ORDER BY transaction_id DESC, position DESC LIMIT ?");
+            params.add(query.latest());
+        } else {
             sql.append(" ORDER BY transaction_id, position ASC");
+        }
 
-            // Use raw JDBC with server-side cursor
-            try (Connection connection = dataSource.getConnection()) {
-                connection.setAutoCommit(false); // Required for server-side cursor
-
-                try (PreparedStatement stmt = connection.prepareStatement(
-                        sql.toString(),
-                        ResultSet.TYPE_FORWARD_ONLY,
-                        ResultSet.CONCUR_READ_ONLY)) {
-
-                    stmt.setFetchSize(config.getFetchSize()); // Enables server-side cursor
-
-                    // Set parameters
-                    for (int i = 0; i < params.size(); i++) {
-                        Object param = params.get(i);
-                        if (param instanceof String[] strings) {
-                            stmt.setArray(i + 1, connection.createArrayOf("text", strings));
-                        } else {
-                            stmt.setObject(i + 1, param);
-                        }
-                    }
+        @Nullable Connection connection = null;
+        @Nullable PreparedStatement stmt = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false); // Required for server-side cursor
 
-                    // Execute and collect results
-                    List<StoredEvent> events = new ArrayList<>();
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        while (rs.next()) {
-                            events.add(EVENT_ROW_MAPPER.mapRow(rs, rs.getRow()));
-                        }
-                    }
+            stmt = connection.prepareStatement(
+                    sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(config.getFetchSize()); // Enables server-side cursor
+            @Nullable Integer prepareThreshold = config.getPrepareThreshold();
+            if (prepareThreshold != null && stmt.isWrapperFor(PGStatement.class)) {
+                stmt.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+            }
 
-                    connection.commit();
-                    return events;
+            // Set parameters
+            for (int i = 0; i < params.size(); i++) {
+                Object param = params.get(i);
+                if (param instanceof String[] strings) {
+                    stmt.setArray(i + 1, connection.createArrayOf("text", strings));
+                } else {
+                    stmt.setObject(i + 1, param);
                 }
             }
-        } catch (Exception e) {
+
+            return new CursorIterator(connection, stmt, stmt.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(stmt);
+            closeQuietly(connection);
             throw new EventStoreException("Failed to query events", e);
         }
     }
 
-    private List<Tag> parseTags(String[] tagArray) {
-        List<Tag> tags = new ArrayList<>(tagArray.length);  // Pre-sized to avoid resizing
-        for (String tagStr : tagArray) {
-            int eqIndex = tagStr.indexOf('=');  // Faster than split()
-            if (eqIndex > 0) {
-                tags.add(new Tag(
-                        tagStr.substring(0, eqIndex),
-                        tagStr.substring(eqIndex + 1)
-                ));
-            } else {
-                tags.add(new Tag(tagStr, ""));
+    private static void closeQuietly(@Nullable AutoCloseable resource) {
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                // The original failure is rethrown
+            }
+        }
+    }
+
+    /**
+     * Maps rows of an open server-side cursor one at a time and owns the connection it runs on.
+     */
+    private final class CursorIterator implements Iterator<StoredEvent> {
+
+        private final Connection connection;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private @Nullable StoredEvent next;
+        private boolean done;
+
+        private CursorIterator(Connection connection, PreparedStatement stmt, ResultSet rs) {
+            this.connection = connection;
+            this.stmt = stmt;
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    if (rs.next()) {
+                        next = EVENT_ROW_MAPPER.mapRow(rs, rs.getRow());
+                    } else {
+                        done = true;
+                    }
+                } catch (SQLException e) {
+                    throw new EventStoreException("Failed to query events", e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public StoredEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StoredEvent event = Objects.requireNonNull(next);
+            next = null;
+            return event;
+        }
+
+        private void close() {
+            // Read-only: rolling back ends the transaction even when the cursor failed
+            try (connection; stmt; rs) {
+                connection.rollback();
+            } catch (SQLException e) {
+                throw new EventStoreException("Failed to close event cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Merges archived events into the database cursor in {@link EventArchive#ORDER}.
+     */
+    private static final class MergingIterator implements Iterator<StoredEvent> {
+
+        private final Iterator<StoredEvent> archived;
+        private final Iterator<StoredEvent> database;
+        private @Nullable StoredEvent pendingArchived;
+        private @Nullable StoredEvent pendingDatabase;
+
+        private MergingIterator(Iterator<StoredEvent> archived, Iterator<StoredEvent> database) {
+            this.archived = archived;
+            this.database = database;
+            this.pendingArchived = archived.hasNext() ? archived.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pendingDatabase == null && database.hasNext()) {
+                pendingDatabase = database.next();
+            }
+            return pendingArchived != null || pendingDatabase != null;
+        }
+
+        @Override
+        public StoredEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            @Nullable StoredEvent a = pendingArchived;
+            @Nullable StoredEvent d = pendingDatabase;
+            if (a != null && (d == null || EventArchive.ORDER.compare(a, d) < 0)) {
+                pendingArchived = archived.hasNext() ? archived.next() : null;
+                return a;
             }
+            pendingDatabase = null;
+            return Objects.requireNonNull(d);
         }
-        return tags;
     }
 }
@@ -6,6 +6,7 @@ import com.crablet.eventstore.AppendEvent;
 import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.CommandAuditStore;
 import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.ConsistencyToken;
 import com.crablet.eventstore.CorrelationContext;
 import com.crablet.eventstore.DCBErrorCode;
 import com.crablet.eventstore.DCBViolation;
@@ -15,38 +16,62 @@ import com.crablet.eventstore.EventStoreException;
 import com.crablet.eventstore.StoredEvent;
 import com.crablet.eventstore.StreamPosition;
 import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.archive.EventArchive;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
 import com.crablet.eventstore.metrics.ConcurrencyViolationMetric;
 import com.crablet.eventstore.metrics.EventTypeMetric;
 import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.metrics.GroupCommitBatchMetric;
+import com.crablet.eventstore.metrics.GroupCommitQueueWaitMetric;
+import com.crablet.eventstore.query.CachingEventDeserializer;
 import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.MemoizingEventDeserializer;
+import com.crablet.eventstore.query.ProjectionRequest;
 import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.ProjectionResults;
 import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.SqlAggregate;
+import com.crablet.eventstore.query.SqlFoldable;
 import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
 import org.jspecify.annotations.Nullable;
+import org.postgresql.PGStatement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.jdbc.core.RowMapper;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.StreamSupport;
 
 /**
  * JDBC-based implementation of EventStore using PostgreSQL functions.
@@ -60,6 +85,21 @@ import java.util.function.Function;
  *   <li>Transactions (executeInTransaction) use write connections as they may include writes</li>
  * </ul>
  *
+ * <p><strong>Group commit:</strong>
+ * When constructed with enabled {@link GroupCommitProperties}, top-level {@code appendCommutative}
+ * calls are queued and flushed in batches that share one connection and one commit. Appends made
+ * through {@code executeInTransaction} always run on the transaction's own connection.
+ *
+ * <p><strong>Cold-tier archive:</strong>
+ * When constructed with an {@link EventArchive}, projections and existence checks read events
+ * below the archive watermark from its segment files and only the rest from {@code crablet_events}.
+ * Appends and their DCB checks always run against the database.
+ *
+ * <p><strong>Read-your-writes:</strong>
+ * When the read data source is a {@link ReplicaRoutingDataSource}, every committed append reads
+ * the primary's WAL position for {@link #lastCommitToken()}, and views from
+ * {@link #readAtLeast(ConsistencyToken)} borrow their read connections through it.
+ *
  * <p><strong>Spring Integration:</strong>
  * This class does NOT have @Component annotation to avoid Spring proxying issues with JaCoCo coverage.
  * Users must define an explicit @Bean in their configuration:
@@ -87,7 +127,7 @@ import java.util.function.Function;
  * }
  * }</pre>
  */
-public class EventStoreImpl implements EventStore, CommandAuditStore {
+public class EventStoreImpl implements EventStore, CommandAuditStore, TransactionCursorAware, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(EventStoreImpl.class);
 
@@ -96,7 +136,10 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
      * Extracted as constants for maintainability and readability.
      */
     private static final String APPEND_EVENTS_IF_CONNECTION_SQL =
-        "SELECT append_events_if(?::text[], ?::text[], ?::jsonb[], ?::text[], ?::text[], ?, ?::text[], ?::text[], ?::TIMESTAMP WITH TIME ZONE, ?::uuid, ?, ?::text, ?::text)";
+        "SELECT append_events_if(?::text[], ?::text[], ?::%s[], ?::text[], ?::text[], ?, ?::text[], ?::text[], ?::TIMESTAMP WITH TIME ZONE, ?::uuid, ?, ?::text, ?::text, ?::smallint)";
+
+    private static final String APPEND_EVENTS_WITH_COMMAND_SQL =
+        "SELECT append_events_with_command(?, ?::jsonb, ?::jsonb, ?::TIMESTAMP WITH TIME ZONE, ?::text[], ?::text[], ?::%s[], ?::text[], ?::text[], ?, ?::text[], ?::text[], ?::TIMESTAMP WITH TIME ZONE, ?::uuid, ?, ?::text, ?::text, ?::smallint)";
 
     private static final String STORE_COMMAND_SQL = """
         INSERT INTO crablet_commands (command_id, transaction_id, type, data, metadata, occurred_at)
@@ -104,55 +147,43 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         ON CONFLICT (command_id) DO NOTHING
         """;
 
+    private static final String APPEND_EVENTS_BATCH_AT_SQL =
+        "SELECT append_events_batch_at(?::text[], ?::text[], ?::%s[], ?::TIMESTAMP WITH TIME ZONE[], ?::uuid, ?, ?::smallint)";
+
+    private static final String CURRENT_TRANSACTION_ID_SQL = "SELECT pg_current_xact_id()::TEXT";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private static final String CURRENT_WAL_LSN_SQL = "SELECT (pg_current_wal_lsn() - '0/0'::pg_lsn)::bigint";
+
     private final DataSource writeDataSource;
     private final DataSource readDataSource;
+    private final @Nullable ReplicaRoutingDataSource replicas;
+    private final AtomicLong lastCommitLsn = new AtomicLong();
+
     private final ObjectMapper objectMapper;
     private final EventStoreConfig config;
     private final ClockProvider clock;
     private final QuerySqlBuilder sqlBuilder;
     private final ApplicationEventPublisher eventPublisher;
     private final @Nullable String notifyChannel;
+    private final @Nullable CommutativeAppendCoalescer coalescer;
+    private final @Nullable EventArchive archive;
+    private final EventPayloadCodecs payloadCodecs;
+    private final String appendEventsIfSql;
+    private final String appendWithCommandSql;
+    private final String appendEventsBatchSql;
 
     /**
-     * Singleton RowMapper for StoredEvent objects.
-     * Reused across all queries to avoid lambda allocation overhead.
+     * Shared StoredEvent row mapper; see {@link StoredEventRowMapper#COLUMNS}.
      */
-    private final RowMapper<StoredEvent> EVENT_ROW_MAPPER = (rs, rowNum) -> {
-        String type = rs.getString("type");
-        String[] tagArray = (String[]) rs.getArray("tags").getArray();
-        List<Tag> tags = parseTags(tagArray);
-        byte[] data = rs.getString("data").getBytes(StandardCharsets.UTF_8);
-        String transactionId = rs.getString("transaction_id");
-        long position = rs.getLong("position");
-        Instant occurredAt = rs.getTimestamp("occurred_at").toInstant();
-
-        UUID correlationId = rs.getObject("correlation_id", UUID.class);
-        Long causationId   = (Long) rs.getObject("causation_id");
-        return new StoredEvent(type, tags, data, transactionId, position, occurredAt,
-                               correlationId, causationId);
-    };
+    private static final StoredEventRowMapper EVENT_ROW_MAPPER = StoredEventRowMapper.shared();
 
     /**
-     * Singleton EventDeserializer for event deserialization.
-     * Stateless implementation reused across all projections.
+     * Shared EventDeserializer with one pre-resolved ObjectReader per event class.
+     * Projections over several projectors wrap it in a {@link MemoizingEventDeserializer}.
      */
-    private final EventDeserializer eventDeserializer = new EventDeserializerImpl();
-
-    /**
-     * Implementation of EventDeserializer.
-     * Provides deserialization utilities using the shared ObjectMapper.
-     */
-    private class EventDeserializerImpl implements EventDeserializer {
-        @Override
-        public <E> E deserialize(StoredEvent event, Class<E> eventType) {
-            try {
-                return Objects.requireNonNull(objectMapper.readValue(event.data(), eventType));
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to deserialize event type=" +
-                    event.type() + " to " + eventType.getName(), e);
-            }
-        }
-    }
+    private final EventDeserializer eventDeserializer;
 
     /**
      * Creates a new EventStoreImpl.
@@ -173,7 +204,7 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
             EventStoreConfig config,
             ClockProvider clock,
             ApplicationEventPublisher eventPublisher) {
-        this(writeDataSource, readDataSource, objectMapper, config, clock, eventPublisher, null);
+        this(writeDataSource, readDataSource, objectMapper, config, clock, eventPublisher, EventStoreOptions.defaults());
     }
 
     public EventStoreImpl(
@@ -184,6 +215,24 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
             ClockProvider clock,
             ApplicationEventPublisher eventPublisher,
             @Nullable String notifyChannel) {
+        this(writeDataSource, readDataSource, objectMapper, config, clock, eventPublisher,
+                EventStoreOptions.builder().notifyChannel(notifyChannel).build());
+    }
+
+    /**
+     * Creates a new EventStoreImpl with optional collaborators: a notify channel, group commit for
+     * commutative appends, a cold-tier archive and a payload storage codec.
+     *
+     * @param options optional collaborators; {@link EventStoreOptions#defaults()} for none
+     */
+    public EventStoreImpl(
+            DataSource writeDataSource,
+            DataSource readDataSource,
+            ObjectMapper objectMapper,
+            EventStoreConfig config,
+            ClockProvider clock,
+            ApplicationEventPublisher eventPublisher,
+            EventStoreOptions options) {
         if (writeDataSource == null) {
             throw new IllegalArgumentException("writeDataSource must not be null");
         }
@@ -202,21 +251,55 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         if (eventPublisher == null) {
             throw new IllegalArgumentException("eventPublisher must not be null");
         }
+        if (options == null) {
+            throw new IllegalArgumentException("options must not be null");
+        }
+        @Nullable EventPayloadCodecs payloadCodecs = options.payloadCodecs();
+        @Nullable GroupCommitProperties groupCommit = options.groupCommit();
         this.writeDataSource = writeDataSource;
         this.readDataSource = readDataSource;
+        this.replicas = readDataSource instanceof ReplicaRoutingDataSource routing ? routing : null;
         this.objectMapper = objectMapper;
+        this.eventDeserializer = new CachingEventDeserializer(objectMapper);
         this.config = config;
         this.clock = clock;
         this.eventPublisher = eventPublisher;
-        this.notifyChannel = notifyChannel;
+        this.notifyChannel = options.notifyChannel();
         this.sqlBuilder = new QuerySqlBuilderImpl();
+        this.archive = options.archive();
+        this.payloadCodecs = payloadCodecs != null ? payloadCodecs : EventPayloadCodecs.defaults();
+        String payloadArrayType = this.payloadCodecs.binaryStorage() ? "bytea" : "jsonb";
+        this.appendEventsIfSql = APPEND_EVENTS_IF_CONNECTION_SQL.formatted(payloadArrayType);
+        this.appendWithCommandSql = APPEND_EVENTS_WITH_COMMAND_SQL.formatted(payloadArrayType);
+        this.appendEventsBatchSql = APPEND_EVENTS_BATCH_AT_SQL.formatted(payloadArrayType);
+        this.coalescer = groupCommit != null && groupCommit.isEnabled()
+                ? new CommutativeAppendCoalescer(
+                        groupCommit.getMaxBatchSize(),
+                        groupCommit.getMaxWait(),
+                        groupCommit.getQueueCapacity(),
+                        groupCommit.getFlushThreads(),
+                        this::flushCommutativeBatch)
+                : null;
     }
 
     @Override
     public String appendCommutative(List<AppendEvent> events) {
+        if (coalescer != null) {
+            return appendCoalesced(coalescer, events);
+        }
         return appendIf(events, AppendCondition.empty());
     }
 
+    /**
+     * Stops the group-commit flushers after draining queued appends. No-op without group commit.
+     */
+    @Override
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
     @Override
     public String appendNonCommutative(
             List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
@@ -249,6 +332,7 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
 
         try (Connection connection = writeDataSource.getConnection()) {
             String transactionId = appendIfWithConnection(connection, events, condition);
+            recordCommit(connection);
             publishAppendMetrics(events);
             return transactionId;
         } catch (SQLException e) {
@@ -256,19 +340,246 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    private String appendCoalesced(CommutativeAppendCoalescer coalescer, List<AppendEvent> events) {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("Cannot append empty events list");
+        }
+
+        // Serialize, stamp and capture correlation on the caller's thread; the flusher has none of it
+        CommutativeAppendCoalescer.PendingAppend pending = new CommutativeAppendCoalescer.PendingAppend(
+                events.stream().map(AppendEvent::type).toArray(String[]::new),
+                events.stream().map(event -> convertTagsToPostgresArray(event.tags())).toArray(String[]::new),
+                encodePayloads(events),
+                events.stream().map(AppendEvent::type).toList(),
+                collectTagKeys(events),
+                CorrelationContext.correlationId(),
+                CorrelationContext.causationId(),
+                clock.now(),
+                System.nanoTime(),
+                new CompletableFuture<>());
+
+        String transactionId = coalescer.appendAndWait(pending);
+        if (transactionId == null) {
+            // Queue full or shutting down: fall back to a direct append
+            return appendIf(events, AppendCondition.empty());
+        }
+        return transactionId;
+    }
+
+    /**
+     * Write one group-commit batch on a single connection and commit once.
+     * <p>
+     * Appends sharing correlation and causation ids are merged into a single
+     * {@code append_events_batch_at} call, each event keeping the timestamp taken when its caller
+     * appended. Each merged group runs under a savepoint; if it fails, its appends are retried one
+     * by one under their own savepoints so a bad append fails only its own caller. A failed commit
+     * fails every append in the batch.
+     */
+    private void flushCommutativeBatch(List<CommutativeAppendCoalescer.PendingAppend> batch) {
+        long flushStartNanos = System.nanoTime();
+        List<CommutativeAppendCoalescer.PendingAppend> written = new ArrayList<>(batch.size());
+
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = connection.prepareStatement(appendEventsBatchSql)) {
+                    for (List<CommutativeAppendCoalescer.PendingAppend> group : groupByCorrelation(batch)) {
+                        if (appendGroupUnderSavepoint(connection, stmt, group)) {
+                            written.addAll(group);
+                        } else if (group.size() > 1) {
+                            for (CommutativeAppendCoalescer.PendingAppend pending : group) {
+                                if (appendGroupUnderSavepoint(connection, stmt, List.of(pending))) {
+                                    written.add(pending);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                if (written.isEmpty()) {
+                    connection.rollback();
+                    return;
+                }
+
+                String transactionId = currentTransactionId(connection);
+                notifyCoalesced(connection, written);
+                connection.commit();
+                recordCommit(connection);
+
+                for (CommutativeAppendCoalescer.PendingAppend pending : written) {
+                    pending.result().complete(transactionId);
+                }
+            } catch (Exception e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    log.error("Failed to rollback group commit", rollbackEx);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw handleSQLException(e);
+        }
+
+        int eventCount = 0;
+        for (CommutativeAppendCoalescer.PendingAppend pending : written) {
+            eventCount += pending.eventCount();
+            eventPublisher.publishEvent(new GroupCommitQueueWaitMetric(
+                    Duration.ofNanos(Math.max(0L, flushStartNanos - pending.enqueuedNanos()))));
+            eventPublisher.publishEvent(new EventsAppendedMetric(pending.eventCount()));
+            for (String eventType : pending.eventTypes()) {
+                eventPublisher.publishEvent(new EventTypeMetric(eventType));
+            }
+        }
+        eventPublisher.publishEvent(new GroupCommitBatchMetric(written.size(), eventCount));
+    }
+
+    /**
+     * Append a group of pending appends with one {@code append_events_batch_at} call under a savepoint.
+     * A single-append group that fails has its caller failed here.
+     *
+     * @return whether the group was written
+     */
+    private boolean appendGroupUnderSavepoint(
+            Connection connection,
+            PreparedStatement stmt,
+            List<CommutativeAppendCoalescer.PendingAppend> group) throws SQLException {
+        CommutativeAppendCoalescer.PendingAppend first = group.get(0);
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            stmt.setArray(1, connection.createArrayOf("text", concat(group, CommutativeAppendCoalescer.PendingAppend::types)));
+            stmt.setArray(2, connection.createArrayOf("text", concat(group, CommutativeAppendCoalescer.PendingAppend::tags)));
+            stmt.setArray(3, payloadArray(connection, concat(group, CommutativeAppendCoalescer.PendingAppend::data)));
+            stmt.setArray(4, connection.createArrayOf("timestamptz", occurredAts(group)));
+            stmt.setObject(5, first.correlationId());
+            stmt.setObject(6, first.causationId());
+            stmt.setShort(7, payloadCodecs.writeCodec().id());
+            stmt.execute();
+            connection.releaseSavepoint(savepoint);
+            return true;
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            if (group.size() == 1) {
+                first.result().completeExceptionally(handleSQLException(e));
+            } else {
+                log.debug("Group commit group of {} appends failed, isolating: {}", group.size(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private static List<List<CommutativeAppendCoalescer.PendingAppend>> groupByCorrelation(
+            List<CommutativeAppendCoalescer.PendingAppend> batch) {
+        Map<CorrelationKey, List<CommutativeAppendCoalescer.PendingAppend>> groups = new LinkedHashMap<>();
+        for (CommutativeAppendCoalescer.PendingAppend pending : batch) {
+            CorrelationKey key = new CorrelationKey(pending.correlationId(), pending.causationId());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(pending);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private record CorrelationKey(@Nullable UUID correlationId, @Nullable Long causationId) {
+    }
+
+    /**
+     * One ISO-8601 timestamp per event of the group. Instants render in UTC, so the values do not
+     * depend on the JVM or session time zone.
+     */
+    private static String[] occurredAts(List<CommutativeAppendCoalescer.PendingAppend> group) {
+        String[] values = new String[group.stream().mapToInt(CommutativeAppendCoalescer.PendingAppend::eventCount).sum()];
+        int offset = 0;
+        for (CommutativeAppendCoalescer.PendingAppend pending : group) {
+            Arrays.fill(values, offset, offset + pending.eventCount(), pending.occurredAt().toString());
+            offset += pending.eventCount();
+        }
+        return values;
+    }
+
+    private static <T> T[] concat(
+            List<CommutativeAppendCoalescer.PendingAppend> group,
+            Function<CommutativeAppendCoalescer.PendingAppend, T[]> column) {
+        if (group.size() == 1) {
+            return column.apply(group.get(0));
+        }
+        int total = 0;
+        for (CommutativeAppendCoalescer.PendingAppend pending : group) {
+            total += column.apply(pending).length;
+        }
+        // copyOf keeps the runtime component type, which decides how the JDBC array is encoded
+        T[] values = Arrays.copyOf(column.apply(group.get(0)), total);
+        int offset = 0;
+        for (CommutativeAppendCoalescer.PendingAppend pending : group) {
+            T[] part = column.apply(pending);
+            System.arraycopy(part, 0, values, offset, part.length);
+            offset += part.length;
+        }
+        return values;
+    }
+
+    private String currentTransactionId(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(CURRENT_TRANSACTION_ID_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new EventStoreException("PostgreSQL did not return transaction_id");
+            }
+            return rs.getString(1);
+        }
+    }
+
+    private void notifyCoalesced(Connection connection, List<CommutativeAppendCoalescer.PendingAppend> written) {
+        if (notifyChannel == null) {
+            return;
+        }
+        Set<String> eventTypes = new HashSet<>();
+        Set<String> tagKeys = new HashSet<>();
+        for (CommutativeAppendCoalescer.PendingAppend pending : written) {
+            eventTypes.addAll(pending.eventTypes());
+            tagKeys.addAll(pending.tagKeys());
+        }
+        // Same policy as append_events_if: a failed NOTIFY must not fail the append, so it runs
+        // under a savepoint that keeps the batch transaction usable
+        try {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement stmt = connection.prepareStatement(NOTIFY_SQL)) {
+                stmt.setString(1, notifyChannel);
+                stmt.setString(2, PostgresNotifyPayload.encodePayload(eventTypes, tagKeys));
+                stmt.execute();
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                log.warn("pg_notify failed on channel {}: {}", notifyChannel, e.getMessage());
+            }
+        } catch (SQLException e) {
+            log.warn("pg_notify savepoint failed on channel {}: {}", notifyChannel, e.getMessage());
+        }
+    }
+
     @Override
     public <T> ProjectionResult<T> project(
             Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+        return project(ConsistencyToken.NONE, query, after, false, projectors);
+    }
+
+    @Override
+    public <T> ProjectionResult<T> projectAfterCursor(
+            Query query, StreamPosition cursor, Class<T> stateType, List<StateProjector<T>> projectors) {
+        return project(ConsistencyToken.NONE, query, cursor, true, projectors);
+    }
+
+    private <T> ProjectionResult<T> project(
+            ConsistencyToken atLeast, Query query, StreamPosition after, boolean afterTransaction,
+            List<StateProjector<T>> projectors) {
         if (projectors.isEmpty()) {
             throw new IllegalArgumentException("Projectors must not be empty");
         }
 
-        try (Connection connection = readDataSource.getConnection()) {
+        try (Connection connection = readConnection(atLeast)) {
             connection.setReadOnly(true);  // Read-only operation
             connection.setAutoCommit(false); // Required for server-side cursor
 
             try {
-                ProjectionResult<T> result = projectWithConnection(connection, query, after, projectors);
+                ProjectionResult<T> result = projectWithConnection(
+                        connection, query, after, afterTransaction, projectors);
                 connection.commit(); // Commit read-only transaction
                 return result;
             } catch (Exception e) {
@@ -280,9 +591,40 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    @Override
+    public ProjectionResults projectAll(List<ProjectionRequest<?>> requests) {
+        return projectAll(ConsistencyToken.NONE, requests);
+    }
+
+    private ProjectionResults projectAll(ConsistencyToken atLeast, List<ProjectionRequest<?>> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("requests must not be empty");
+        }
+
+        try (Connection connection = readConnection(atLeast)) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+
+            try {
+                ProjectionResults results = projectAllWithConnection(connection, requests);
+                connection.commit();
+                return results;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to project state", e);
+        }
+    }
+
     @Override
     public boolean exists(Query query) {
-        try (Connection connection = readDataSource.getConnection()) {
+        return exists(ConsistencyToken.NONE, query);
+    }
+
+    private boolean exists(ConsistencyToken atLeast, Query query) {
+        try (Connection connection = readConnection(atLeast)) {
             connection.setReadOnly(true);
             return existsWithConnection(connection, query);
         } catch (EventStoreException e) {
@@ -292,26 +634,83 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    @Override
+    public ConsistencyToken lastCommitToken() {
+        return new ConsistencyToken(lastCommitLsn.get());
+    }
+
+    @Override
+    public EventStore readAtLeast(ConsistencyToken token) {
+        if (token == null) {
+            throw new IllegalArgumentException("token must not be null");
+        }
+        return replicas == null || token.isNone() ? this : new ConsistentReadEventStore(token);
+    }
+
+    private Connection readConnection(ConsistencyToken atLeast) throws SQLException {
+        if (replicas == null || atLeast.isNone()) {
+            return readDataSource.getConnection();
+        }
+        return replicas.getConnection(atLeast);
+    }
+
+    /**
+     * Advance {@link #lastCommitToken()} past a commit just made on {@code connection}. A
+     * failure is only logged: the append is durable, and failing it would invite a duplicate.
+     */
+    private void recordCommit(Connection connection) {
+        if (replicas == null) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(CURRENT_WAL_LSN_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                long lsn = rs.getLong(1);
+                lastCommitLsn.accumulateAndGet(lsn, Math::max);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to read the commit WAL position; lastCommitToken() may not cover this append: {}",
+                    e.getMessage());
+        }
+    }
+
     /**
      * Append events conditionally using a provided connection. The sole implementation of the
      * DCB append logic — used internally by both {@link #appendIf} (which opens its own
      * connection) and {@code ConnectionScopedEventStore} (which reuses a transaction's connection).
      */
     private String appendIfWithConnection(Connection connection, List<AppendEvent> events, AppendCondition condition) {
+        return appendIfWithConnection(connection, events, condition, null);
+    }
+
+    /**
+     * Append as {@link #appendIfWithConnection(Connection, List, AppendCondition)}; with a
+     * {@code command}, through {@code append_events_with_command}, which also writes the command
+     * audit record if the append succeeds.
+     */
+    private String appendIfWithConnection(Connection connection, List<AppendEvent> events, AppendCondition condition,
+                                          @Nullable CommandRecord command) {
         if (events.isEmpty()) {
             throw new IllegalArgumentException("Cannot append empty events list");
         }
 
-        try (PreparedStatement stmt = connection.prepareStatement(APPEND_EVENTS_IF_CONNECTION_SQL)) {
+        try (PreparedStatement stmt = connection.prepareStatement(command != null ? appendWithCommandSql : appendEventsIfSql)) {
+
+            // Detached events keep their idempotency claims, but appends idempotent on a query
+            // without a claim (several keys, history before V6, pruned claims) only find
+            // archived events in the archive itself
+            if (archive != null && condition != null && !condition.idempotencyQuery().isEmpty()
+                    && archive.exists(condition.idempotencyQuery(), archive.watermark())) {
+                throw new ConcurrencyException("AppendCondition violated: duplicate operation detected",
+                        new DCBViolation(DCBErrorCode.IDEMPOTENCY_VIOLATION, "duplicate operation detected", 1));
+            }
 
             // Prepare arrays for append_events_batch_if function
             String[] types = events.stream().map(AppendEvent::type).toArray(String[]::new);
             String[] tagArrays = events.stream()
                     .map(event -> convertTagsToPostgresArray(event.tags()))
                     .toArray(String[]::new);
-            String[] dataStrings = events.stream()
-                    .map(event -> serializeEventData(event.eventData()))
-                    .toArray(String[]::new);
+            Object[] payloads = encodePayloads(events);
             String notifyPayload = encodeNotifyPayload(events);
 
             // Extract concurrency check (with stream position)
@@ -349,19 +748,30 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
                 position = condition.afterPosition().position();
             }
 
-            stmt.setArray(1, connection.createArrayOf("text", types));
-            stmt.setArray(2, connection.createArrayOf("text", tagArrays));
-            stmt.setArray(3, connection.createArrayOf("jsonb", dataStrings));
-            stmt.setArray(4, connection.createArrayOf("text", concurrencyTypes.toArray(new String[0])));
-            stmt.setArray(5, connection.createArrayOf("text", concurrencyTags.toArray(new String[0])));
-            stmt.setObject(6, position);
-            stmt.setArray(7, idempotencyTypes != null && !idempotencyTypes.isEmpty() ? connection.createArrayOf("text", idempotencyTypes.toArray(new String[0])) : null);
-            stmt.setArray(8, idempotencyTags != null && !idempotencyTags.isEmpty() ? connection.createArrayOf("text", idempotencyTags.toArray(new String[0])) : null);
-            stmt.setTimestamp(9, Timestamp.from(clock.now()));
-            stmt.setObject(10, CorrelationContext.correlationId());
-            stmt.setObject(11, CorrelationContext.causationId());
-            stmt.setString(12, notifyChannel);
-            stmt.setString(13, notifyPayload);
+            int p = 0;
+            if (command != null) {
+                stmt.setString(1, command.commandType());
+                stmt.setString(2, command.commandJson());
+                stmt.setString(3, createCommandMetadata(command.commandType()));
+                stmt.setTimestamp(4, Timestamp.from(command.occurredAt()));
+                p = 4;
+            }
+            stmt.setArray(p + 1, connection.createArrayOf("text", types));
+            stmt.setArray(p + 2, connection.createArrayOf("text", tagArrays));
+            stmt.setArray(p + 3, payloadArray(connection, payloads));
+            // No concurrency check: pass NULLs so append_events_if skips the decision-model lock
+            boolean concurrencyCheck = !concurrencyTypes.isEmpty() || !concurrencyTags.isEmpty();
+            stmt.setArray(p + 4, concurrencyCheck ? connection.createArrayOf("text", concurrencyTypes.toArray(new String[0])) : null);
+            stmt.setArray(p + 5, concurrencyCheck ? connection.createArrayOf("text", concurrencyTags.toArray(new String[0])) : null);
+            stmt.setObject(p + 6, position);
+            stmt.setArray(p + 7, idempotencyTypes != null && !idempotencyTypes.isEmpty() ? connection.createArrayOf("text", idempotencyTypes.toArray(new String[0])) : null);
+            stmt.setArray(p + 8, idempotencyTags != null && !idempotencyTags.isEmpty() ? connection.createArrayOf("text", idempotencyTags.toArray(new String[0])) : null);
+            stmt.setTimestamp(p + 9, Timestamp.from(clock.now()));
+            stmt.setObject(p + 10, CorrelationContext.correlationId());
+            stmt.setObject(p + 11, CorrelationContext.causationId());
+            stmt.setString(p + 12, notifyChannel);
+            stmt.setString(p + 13, notifyPayload);
+            stmt.setShort(p + 14, payloadCodecs.writeCodec().id());
 
             try (ResultSet rs = stmt.executeQuery()) {
                 // Fail fast: Check if we have a result
@@ -388,8 +798,7 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
     public <T> T executeInTransaction(Function<EventStore, T> operation) {
         try (Connection connection = writeDataSource.getConnection()) {
             // Apply configured transaction isolation level
-            int isolationLevel = mapIsolationLevel(config.getTransactionIsolation());
-            connection.setTransactionIsolation(isolationLevel);
+            applyIsolation(connection, config.getTransactionIsolation());
             connection.setAutoCommit(false);
 
             ConnectionScopedEventStore txStore = new ConnectionScopedEventStore(connection);
@@ -398,6 +807,9 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
                 result = operation.apply(txStore);
                 connection.commit();
                 log.debug("Transaction committed successfully");
+                if (txStore.appended()) {
+                    recordCommit(connection);
+                }
             } catch (Exception e) {
                 try {
                     connection.rollback();
@@ -415,6 +827,20 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    /**
+     * Set the isolation level, which costs a round trip per call. Skipped when the write pool is
+     * a HikariCP pool whose {@code transactionIsolation} is the same level: HikariCP sets it on
+     * every new connection and restores it whenever a borrower changed it, so every borrowed
+     * connection is already at that level.
+     */
+    private void applyIsolation(Connection connection, String level) throws SQLException {
+        if (writeDataSource instanceof HikariDataSource hikari
+                && ("TRANSACTION_" + level).equals(hikari.getTransactionIsolation())) {
+            return;
+        }
+        connection.setTransactionIsolation(mapIsolationLevel(level));
+    }
+
     /**
      * Map transaction isolation level string to JDBC constant.
      */
@@ -450,60 +876,427 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
      * @param connection Existing connection from transaction context
      * @param query The query to filter events
      * @param after StreamPosition to project events after
+     * @param afterTransaction Whether {@code after} is a {@code (transaction_id, position)} cursor
+     *                         (see {@link TransactionCursorAware}) rather than a position
      * @param projectors List of projectors to apply
      * @return ProjectionResult with final state and stream position
      */
     private <T> ProjectionResult<T> projectWithConnection(
-            Connection connection, Query query, StreamPosition after, List<StateProjector<T>> projectors) {
+            Connection connection, Query query, StreamPosition after, boolean afterTransaction,
+            List<StateProjector<T>> projectors) {
+        @Nullable SqlFoldable<T> foldable = query.latest() == 0 ? sqlFoldable(projectors) : null;
+        if (foldable != null) {
+            return aggregateWithConnection(connection, query, after, afterTransaction, projectors.get(0), foldable);
+        }
         try {
+            // Events below the archive watermark come from its segments, the rest from the database
+            long watermark = archive != null ? archive.watermark() : 0L;
+            boolean belowWatermark = after.position() < watermark - 1;
+            Iterator<StoredEvent> archived = archive != null && belowWatermark
+                    ? archive.events(query, after.position(), watermark)
+                    : Collections.emptyIterator();
+            if (belowWatermark && afterTransaction) {
+                archived = after(archived, after);
+            }
+            // A cursor also reads the rows below its position that sort after it, so the archived
+            // range is skipped while folding instead of in the query
+            long skipBelow = belowWatermark && afterTransaction ? watermark : 0L;
+            StreamPosition databaseAfter = belowWatermark && !afterTransaction
+                    ? new StreamPosition(watermark - 1, null, null)
+                    : after;
+
             // Build SQL using existing helper
-            StringBuilder sql = new StringBuilder("SELECT type, tags, data, transaction_id, position, occurred_at, correlation_id, causation_id FROM crablet_events");
+            StringBuilder sql = new StringBuilder("SELECT " + StoredEventRowMapper.COLUMNS + " FROM crablet_events");
             List<Object> params = new ArrayList<>();
-            String whereClause = sqlBuilder.buildWhereClause(query, after, params);
+            String whereClause = sqlBuilder.buildWhereClause(query, databaseAfter, afterTransaction, params);
             if (!whereClause.isEmpty()) {
                 sql.append(" WHERE ").append(whereClause);
             }
+            if (query.latest() > 0) {
+                return projectLatest(connection, sql, params, query.latest(), archived, after, projectors);
+            }
             sql.append(" ORDER BY transaction_id, position ASC");
 
             // Stream with server-side cursor
-            try (PreparedStatement stmt = connection.prepareStatement(
-                    sql.toString(),
-                    ResultSet.TYPE_FORWARD_ONLY,
-                    ResultSet.CONCUR_READ_ONLY)) {
+            try (PreparedStatement stmt = prepareRead(connection, sql.toString())) {
 
                 stmt.setFetchSize(config.getFetchSize());
 
-                // Set parameters using existing logic
-                for (int i = 0; i < params.size(); i++) {
-                    Object param = params.get(i);
-                    if (param instanceof String[] strings) {
-                        stmt.setArray(i + 1, connection.createArrayOf("text", strings));
-                    } else {
-                        stmt.setObject(i + 1, param);
-                    }
-                }
+                bindParameters(connection, stmt, params);
 
                 // Stream and project incrementally
-                EventDeserializer deserializer = this.eventDeserializer;
+                // Projectors sharing an event class parse each event once
+                EventDeserializer deserializer = projectors.size() > 1
+                        ? new MemoizingEventDeserializer(this.eventDeserializer)
+                        : this.eventDeserializer;
                 T state = projectors.get(0).getInitialState();
                 StreamPosition lastStreamPosition = after;
+                @Nullable StoredEvent pendingArchived = archived.hasNext() ? archived.next() : null;
+                boolean done = false;
 
                 try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
+                    while (!done && rs.next()) {
                         StoredEvent event = EVENT_ROW_MAPPER.mapRow(rs, 0);
+                        if (event.position() > after.position() && event.position() < skipBelow) {
+                            continue;
+                        }
 
-                        // Apply projectors - pass deserializer
-                        for (StateProjector<T> projector : projectors) {
-                            if (handlesEventType(projector, event)) {
-                                state = projector.transition(state, event, deserializer);
-                            }
+                        // Fold archived events that sort before this one
+                        while (!done && pendingArchived != null && EventArchive.ORDER.compare(pendingArchived, event) < 0) {
+                            state = applyProjectors(projectors, state, pendingArchived, deserializer);
+                            lastStreamPosition = streamPositionOf(pendingArchived);
+                            pendingArchived = archived.hasNext() ? archived.next() : null;
+                            done = isDone(projectors, state);
                         }
+                        if (done) {
+                            break;
+                        }
+
+                        // Apply projectors - pass deserializer
+                        state = applyProjectors(projectors, state, event, deserializer);
 
                         // Track stream position
-                        lastStreamPosition = StreamPosition.of(event.position(), event.occurredAt(), event.transactionId());
+                        lastStreamPosition = streamPositionOf(event);
+                        done = isDone(projectors, state);
+                    }
+                }
+                while (!done && pendingArchived != null) {
+                    state = applyProjectors(projectors, state, pendingArchived, deserializer);
+                    lastStreamPosition = streamPositionOf(pendingArchived);
+                    pendingArchived = archived.hasNext() ? archived.next() : null;
+                    done = isDone(projectors, state);
+                }
+
+                if (done) {
+                    // The cursor was closed early; the position must still cover every matching event
+                    lastStreamPosition = lastMatchingPosition(connection, query, databaseAfter, afterTransaction,
+                            lastStreamPosition, pendingArchived, archived);
+                }
+                return ProjectionResult.of(state, lastStreamPosition);
+            }
+        } catch (Exception e) {
+            throw new EventStoreException("Failed to project state using connection", e);
+        }
+    }
+
+    /**
+     * Fold the last {@code limit} matching events: the database rows are read newest first with a
+     * {@code LIMIT}, merged with the newest archived events, and folded in ascending order. The
+     * stream position is that of the newest event, as for a full fold.
+     *
+     * @param sql    the select with its where clause, without ordering
+     * @param params the parameters of {@code sql}
+     */
+    private <T> ProjectionResult<T> projectLatest(
+            Connection connection, StringBuilder sql, List<Object> params, int limit,
+            Iterator<StoredEvent> archived, StreamPosition after, List<StateProjector<T>> projectors)
+            throws SQLException {
+        sql.append(" ORDER BY transaction_id DESC, position DESC LIMIT ?");
+        params.add(limit);
+
+        List<StoredEvent> newestFirst = new ArrayList<>(limit);
+        try (PreparedStatement stmt = prepareRead(connection, sql.toString())) {
+            bindParameters(connection, stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    newestFirst.add(EVENT_ROW_MAPPER.mapRow(rs, 0));
+                }
+            }
+        }
+        List<StoredEvent> events = LatestEvents.ascending(newestFirst, archived, limit);
+
+        EventDeserializer deserializer = projectors.size() > 1
+                ? new MemoizingEventDeserializer(this.eventDeserializer)
+                : this.eventDeserializer;
+        T state = projectors.get(0).getInitialState();
+        for (StoredEvent event : events) {
+            state = applyProjectors(projectors, state, event, deserializer);
+            if (isDone(projectors, state)) {
+                break;
+            }
+        }
+        StreamPosition lastStreamPosition = events.isEmpty() ? after : streamPositionOf(events.get(events.size() - 1));
+        return ProjectionResult.of(state, lastStreamPosition);
+    }
+
+    /**
+     * Position of the last event matching {@code query} after a fold stopped early: the newer of
+     * the newest matching row and the last archived event not yet folded, or {@code folded} if
+     * neither exists.
+     */
+    private StreamPosition lastMatchingPosition(
+            Connection connection, Query query, StreamPosition databaseAfter, boolean afterTransaction,
+            StreamPosition folded,
+            @Nullable StoredEvent pendingArchived, Iterator<StoredEvent> archived) throws SQLException {
+        @Nullable StoredEvent lastArchived = pendingArchived;
+        while (archived.hasNext()) {
+            lastArchived = archived.next();
+        }
+        StreamPosition last = lastArchived != null ? streamPositionOf(lastArchived) : folded;
+
+        StringBuilder sql = new StringBuilder("SELECT transaction_id, position, occurred_at FROM crablet_events");
+        List<Object> params = new ArrayList<>();
+        String whereClause = sqlBuilder.buildWhereClause(query, databaseAfter, afterTransaction, params);
+        if (!whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+        sql.append(" ORDER BY transaction_id DESC, position DESC LIMIT 1");
+        try (PreparedStatement stmt = prepareRead(connection, sql.toString())) {
+            bindParameters(connection, stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    StreamPosition newestRow = StreamPosition.of(rs.getLong("position"),
+                            rs.getTimestamp("occurred_at").toInstant(), rs.getString("transaction_id"));
+                    if (lastArchived == null || isAfter(newestRow, last)) {
+                        last = newestRow;
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Whether {@code a} sorts after {@code b} in {@code (transaction_id, position)} order.
+     */
+    private static boolean isAfter(StreamPosition a, StreamPosition b) {
+        @Nullable String aTransaction = a.transactionId();
+        @Nullable String bTransaction = b.transactionId();
+        if (aTransaction != null && bTransaction != null) {
+            int cmp = Long.compareUnsigned(Long.parseUnsignedLong(aTransaction), Long.parseUnsignedLong(bTransaction));
+            if (cmp != 0) {
+                return cmp > 0;
+            }
+        }
+        return a.position() > b.position();
+    }
+
+    /**
+     * The events of {@code events} that sort after {@code cursor} in {@code (transaction_id, position)} order.
+     */
+    private static Iterator<StoredEvent> after(Iterator<StoredEvent> events, StreamPosition cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(events, Spliterator.ORDERED), false)
+                .filter(event -> TransactionCursorAware.compare(streamPositionOf(event), cursor) > 0)
+                .iterator();
+    }
+
+    private static <T> boolean isDone(List<StateProjector<T>> projectors, T state) {
+        for (StateProjector<T> projector : projectors) {
+            if (!projector.isDone(state)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prepare a read statement. With {@link EventStoreConfig#getPrepareThreshold()} set, pgjdbc
+     * switches to a named server-side prepared statement after that many executions of the same
+     * text; otherwise the driver's own threshold applies. Statement texts repeat per query shape,
+     * see {@link QuerySqlBuilderImpl}.
+     */
+    private PreparedStatement prepareRead(Connection connection, String sql) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            @Nullable Integer prepareThreshold = config.getPrepareThreshold();
+            if (prepareThreshold != null && stmt.isWrapperFor(PGStatement.class)) {
+                stmt.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+            }
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    private static void bindParameters(Connection connection, PreparedStatement stmt, List<Object> params)
+            throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof String[] strings) {
+                stmt.setArray(i + 1, connection.createArrayOf("text", strings));
+            } else {
+                stmt.setObject(i + 1, param);
+            }
+        }
+    }
+
+    /**
+     * Project every request with a single {@code UNION ALL} statement. Each branch selects its
+     * request index as a constant, and rows arrive grouped by that index, so each request is
+     * folded in turn. With an archive configured, or for latest-N queries, requests are projected
+     * one by one on the connection instead, since each may need its own merge with the archived
+     * segments or its own {@code LIMIT}.
+     */
+    private ProjectionResults projectAllWithConnection(Connection connection, List<ProjectionRequest<?>> requests) {
+        List<RequestFold<?>> folds = new ArrayList<>(requests.size());
+        for (ProjectionRequest<?> request : requests) {
+            folds.add(new RequestFold<>(request));
+        }
+        if (archive != null || requests.size() == 1
+                || requests.stream().anyMatch(request -> request.query().latest() > 0)) {
+            List<ProjectionResult<?>> results = new ArrayList<>(folds.size());
+            for (RequestFold<?> fold : folds) {
+                results.add(fold.projectWithConnection(connection));
+            }
+            return new ProjectionResults(requests, results);
+        }
+
+        try {
+            StringBuilder sql = new StringBuilder();
+            List<Object> params = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                ProjectionRequest<?> request = requests.get(i);
+                if (i > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT ").append(i).append(" AS request_index, ").append(StoredEventRowMapper.COLUMNS).append(" FROM crablet_events");
+                String whereClause = sqlBuilder.buildWhereClause(request.query(), request.after(), params);
+                if (!whereClause.isEmpty()) {
+                    sql.append(" WHERE ").append(whereClause);
+                }
+            }
+            sql.append(" ORDER BY request_index, transaction_id, position ASC");
+
+            try (PreparedStatement stmt = prepareRead(connection, sql.toString())) {
+
+                stmt.setFetchSize(config.getFetchSize());
+
+                bindParameters(connection, stmt, params);
+
+                // Requests over overlapping queries read the same event once per request
+                EventDeserializer deserializer = new MemoizingEventDeserializer(this.eventDeserializer);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        folds.get(rs.getInt("request_index")).apply(EVENT_ROW_MAPPER.mapRow(rs, 0), deserializer);
                     }
                 }
+            }
+        } catch (Exception e) {
+            throw new EventStoreException("Failed to project state using connection", e);
+        }
+
+        List<ProjectionResult<?>> results = new ArrayList<>(folds.size());
+        for (RequestFold<?> fold : folds) {
+            results.add(fold.result());
+        }
+        return new ProjectionResults(requests, results);
+    }
+
+    /**
+     * Fold state of one {@link ProjectionRequest} in a {@code projectAll} batch.
+     */
+    private final class RequestFold<T> {
+
+        private final ProjectionRequest<T> request;
+        private T state;
+        private StreamPosition lastStreamPosition;
+        private boolean done;
+
+        private RequestFold(ProjectionRequest<T> request) {
+            this.request = request;
+            this.state = request.projectors().get(0).getInitialState();
+            this.lastStreamPosition = request.after();
+        }
+
+        private void apply(StoredEvent event, EventDeserializer deserializer) {
+            // Rows of a done request are still read, so only its position advances
+            if (!done) {
+                state = applyProjectors(request.projectors(), state, event, deserializer);
+                done = isDone(request.projectors(), state);
+            }
+            lastStreamPosition = streamPositionOf(event);
+        }
+
+        private ProjectionResult<T> result() {
+            return ProjectionResult.of(state, lastStreamPosition);
+        }
+
+        private ProjectionResult<T> projectWithConnection(Connection connection) {
+            return EventStoreImpl.this.projectWithConnection(
+                    connection, request.query(), request.after(), false, request.projectors());
+        }
+    }
+
+    /**
+     * The projector as a {@link SqlFoldable} if it can be folded in the database: it runs alone,
+     * its aggregates cover every event type it handles, payloads are JSONB, and no events are
+     * read from the archive.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable SqlFoldable<T> sqlFoldable(List<StateProjector<T>> projectors) {
+        if (projectors.size() != 1 || archive != null || payloadCodecs.binaryStorage()
+                || !(projectors.get(0) instanceof SqlFoldable<?> candidate)) {
+            return null;
+        }
+        SqlFoldable<T> foldable = (SqlFoldable<T>) candidate;
+        List<String> eventTypes = projectors.get(0).getEventTypes();
+        List<SqlAggregate<T>> aggregates = foldable.aggregates();
+        if (eventTypes.isEmpty() || aggregates.isEmpty()) {
+            return null;
+        }
+        for (String eventType : eventTypes) {
+            if (aggregates.stream().noneMatch(aggregate -> aggregate.eventType().equals(eventType))) {
+                return null;
+            }
+        }
+        return foldable;
+    }
+
+    /**
+     * Fold a {@link SqlFoldable} projector with one aggregate row: each aggregate filtered to its
+     * event type, and the last matching event in {@code (transaction_id, position)} order for the
+     * stream position, exactly as the row-by-row fold would report it.
+     */
+    private <T> ProjectionResult<T> aggregateWithConnection(
+            Connection connection, Query query, StreamPosition after, boolean afterTransaction,
+            StateProjector<T> projector, SqlFoldable<T> foldable) {
+        List<SqlAggregate<T>> aggregates = foldable.aggregates();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < aggregates.size(); i++) {
+            SqlAggregate<T> aggregate = aggregates.get(i);
+            if (aggregate.kind() == SqlAggregate.Kind.SUM) {
+                sql.append("SUM((data #>> ?::text[])::numeric) FILTER (WHERE type = ?)");
+                params.add(aggregate.path().toArray(new String[0]));
+            } else {
+                sql.append("COUNT(*) FILTER (WHERE type = ?)");
+            }
+            params.add(aggregate.eventType());
+            sql.append(" AS a").append(i).append(", ");
+        }
+        sql.setLength(sql.length() - 2);
+        String whereClause = sqlBuilder.buildWhereClause(query, after, afterTransaction, params);
+        String where = whereClause.isEmpty() ? "" : " WHERE " + whereClause;
+        sql.append(" FROM crablet_events").append(where);
+        // The last-event subquery repeats the filter, and so its parameters
+        sqlBuilder.buildWhereClause(query, after, afterTransaction, params);
+
+        String statement = "SELECT aggregates.*, last_event.position, last_event.occurred_at, last_event.transaction_id"
+                + " FROM (" + sql + ") aggregates"
+                + " LEFT JOIN (SELECT position, occurred_at, transaction_id FROM crablet_events" + where
+                + " ORDER BY transaction_id DESC, position DESC LIMIT 1) last_event ON true";
+
+        try (PreparedStatement stmt = prepareRead(connection, statement)) {
+            bindParameters(connection, stmt, params);
 
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                T state = projector.getInitialState();
+                for (int i = 0; i < aggregates.size(); i++) {
+                    SqlAggregate<T> aggregate = aggregates.get(i);
+                    @Nullable BigDecimal total = rs.getBigDecimal(i + 1);
+                    // Without a contributing event a sum is NULL and a count zero
+                    if (total != null && (aggregate.kind() == SqlAggregate.Kind.SUM || total.signum() != 0)) {
+                        state = aggregate.handler().apply(state, total);
+                    }
+                }
+                long position = rs.getLong(aggregates.size() + 1);
+                StreamPosition lastStreamPosition = rs.wasNull()
+                        ? after
+                        : StreamPosition.of(position,
+                                rs.getTimestamp(aggregates.size() + 2).toInstant(),
+                                rs.getString(aggregates.size() + 3));
                 return ProjectionResult.of(state, lastStreamPosition);
             }
         } catch (Exception e) {
@@ -511,6 +1304,20 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    private <T> T applyProjectors(
+            List<StateProjector<T>> projectors, T state, StoredEvent event, EventDeserializer deserializer) {
+        for (StateProjector<T> projector : projectors) {
+            if (handlesEventType(projector, event)) {
+                state = projector.transition(state, event, deserializer);
+            }
+        }
+        return state;
+    }
+
+    private static StreamPosition streamPositionOf(StoredEvent event) {
+        return StreamPosition.of(event.position(), event.occurredAt(), event.transactionId());
+    }
+
     private boolean existsWithConnection(Connection connection, Query query) {
         try {
             List<Object> params = new ArrayList<>();
@@ -521,18 +1328,14 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
             }
             sql.append(") AS result");
 
-            try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
-                for (int i = 0; i < params.size(); i++) {
-                    Object param = params.get(i);
-                    if (param instanceof String[] strings) {
-                        stmt.setArray(i + 1, connection.createArrayOf("text", strings));
-                    } else {
-                        stmt.setObject(i + 1, param);
-                    }
-                }
+            try (PreparedStatement stmt = prepareRead(connection, sql.toString())) {
+                bindParameters(connection, stmt, params);
                 try (ResultSet rs = stmt.executeQuery()) {
-                    return rs.next() && rs.getBoolean("result");
+                    if (rs.next() && rs.getBoolean("result")) {
+                        return true;
+                    }
                 }
+                return archive != null && archive.exists(query, archive.watermark());
             }
         } catch (Exception e) {
             throw new EventStoreException("Failed to check event existence", e);
@@ -575,6 +1378,48 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         return sb.append('}').toString();
     }
 
+    /**
+     * Payloads of {@code events} as the append functions bind them: a {@code String[]} of JSON
+     * for a {@code JSONB} data column, a {@code byte[][]} encoded with the write codec for
+     * {@code BYTEA}. Encoding happens on the caller's thread, so payload errors surface there.
+     */
+    private Object[] encodePayloads(List<AppendEvent> events) {
+        if (!payloadCodecs.binaryStorage()) {
+            return events.stream()
+                    .map(event -> serializeEventData(event.eventData()))
+                    .toArray(String[]::new);
+        }
+        byte[][] payloads = new byte[events.size()][];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = payloadCodecs.encode(serializeEventDataToBytes(events.get(i).eventData()));
+        }
+        return payloads;
+    }
+
+    private Array payloadArray(Connection connection, Object[] payloads) throws SQLException {
+        return connection.createArrayOf(payloadCodecs.binaryStorage() ? "bytea" : "jsonb", payloads);
+    }
+
+    /**
+     * Serialize event data to UTF-8 JSON for a binary payload codec, without a String in between.
+     */
+    private byte[] serializeEventDataToBytes(Object eventData) {
+        if (eventData instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (eventData instanceof String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.writerFor(eventData.getClass()).writeValueAsBytes(eventData);
+        } catch (JacksonException e) {
+            throw new EventStoreException(
+                "Failed to serialize event data: " + eventData.getClass().getName(),
+                e
+            );
+        }
+    }
+
     /**
      * Serialize event data object to JSON string.
      * Used internally when appending events to convert Object to String.
@@ -719,22 +1564,6 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         return new EventStoreException("Failed to append events", e);
     }
 
-    private List<Tag> parseTags(String[] tagArray) {
-        List<Tag> tags = new ArrayList<>(tagArray.length);  // Pre-sized to avoid resizing
-        for (String tagStr : tagArray) {
-            int eqIndex = tagStr.indexOf('=');  // Faster than split()
-            if (eqIndex > 0) {
-                tags.add(new Tag(
-                        tagStr.substring(0, eqIndex),
-                        tagStr.substring(eqIndex + 1)
-                ));
-            } else {
-                tags.add(new Tag(tagStr, ""));
-            }
-        }
-        return tags;
-    }
-
     private @Nullable String encodeNotifyPayload(List<AppendEvent> events) {
         if (notifyChannel == null) {
             return null;
@@ -811,8 +1640,16 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
     }
 
+    /**
+     * Command audit record written by {@code append_events_with_command}.
+     */
+    private record CommandRecord(String commandJson, String commandType, Instant occurredAt) {
+    }
+
     // Inner class for connection-scoped EventStore
-    private class ConnectionScopedEventStore implements EventStore, CommandAuditStore {
+    private class ConnectionScopedEventStore
+            implements EventStore, CommandAuditStore, CommandAppendAware, TransactionConnectionAware,
+            TransactionCursorAware {
         private final Connection connection;
         private final List<List<AppendEvent>> pendingMetricBatches = new ArrayList<>();
 
@@ -821,11 +1658,20 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         }
 
         private String appendAndTrack(List<AppendEvent> events, AppendCondition condition) {
-            String transactionId = EventStoreImpl.this.appendIfWithConnection(connection, events, condition);
+            return appendAndTrack(events, condition, null);
+        }
+
+        private String appendAndTrack(List<AppendEvent> events, AppendCondition condition,
+                                      @Nullable CommandRecord command) {
+            String transactionId = EventStoreImpl.this.appendIfWithConnection(connection, events, condition, command);
             pendingMetricBatches.add(List.copyOf(events));
             return transactionId;
         }
 
+        private boolean appended() {
+            return !pendingMetricBatches.isEmpty();
+        }
+
         private void publishCommittedAppendMetrics() {
             for (List<AppendEvent> events : pendingMetricBatches) {
                 EventStoreImpl.this.publishAppendMetrics(events);
@@ -865,7 +1711,21 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
         @Override
         public <T> ProjectionResult<T> project(
                 Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
-            return EventStoreImpl.this.projectWithConnection(connection, query, after, projectors);
+            return EventStoreImpl.this.projectWithConnection(connection, query, after, false, projectors);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> projectAfterCursor(
+                Query query, StreamPosition cursor, Class<T> stateType, List<StateProjector<T>> projectors) {
+            return EventStoreImpl.this.projectWithConnection(connection, query, cursor, true, projectors);
+        }
+
+        @Override
+        public ProjectionResults projectAll(List<ProjectionRequest<?>> requests) {
+            if (requests == null || requests.isEmpty()) {
+                throw new IllegalArgumentException("requests must not be empty");
+            }
+            return EventStoreImpl.this.projectAllWithConnection(connection, requests);
         }
 
         @Override
@@ -892,5 +1752,104 @@ public class EventStoreImpl implements EventStore, CommandAuditStore {
                     connection, commandJson, commandType, commandId, occurredAt);
         }
 
+        @Override
+        public String appendWithCommand(List<AppendEvent> events, AppendCondition condition,
+                                        String commandJson, String commandType, Instant occurredAt) {
+            if (config.isFusedCommandWrites()) {
+                return appendAndTrack(events, condition, new CommandRecord(commandJson, commandType, occurredAt));
+            }
+            String transactionId = appendAndTrack(events, condition);
+            storeCommand(commandJson, commandType, occurredAt);
+            return transactionId;
+        }
+
+        @Override
+        public <R> R withTransactionConnection(ConnectionWork<R> work) {
+            try {
+                return work.apply(connection);
+            } catch (SQLException e) {
+                throw new EventStoreException("Failed to execute on transaction connection", e);
+            }
+        }
+
+    }
+
+    /**
+     * View from {@link #readAtLeast(ConsistencyToken)}: reads borrow their connections for the
+     * token, everything else goes to the enclosing store.
+     */
+    private final class ConsistentReadEventStore implements EventStore, TransactionCursorAware {
+        private final ConsistencyToken token;
+
+        private ConsistentReadEventStore(ConsistencyToken token) {
+            this.token = token;
+        }
+
+        @Override
+        public String appendCommutative(List<AppendEvent> events) {
+            return EventStoreImpl.this.appendCommutative(events);
+        }
+
+        @Override
+        public String appendNonCommutative(
+                List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
+            return EventStoreImpl.this.appendNonCommutative(events, decisionModel, streamPosition);
+        }
+
+        @Override
+        public String appendIdempotent(
+                List<AppendEvent> events,
+                String eventType,
+                String tagKey,
+                String tagValue) {
+            return EventStoreImpl.this.appendIdempotent(events, eventType, tagKey, tagValue);
+        }
+
+        @Override
+        public String appendIdempotent(List<AppendEvent> events, Query idempotencyQuery) {
+            return EventStoreImpl.this.appendIdempotent(events, idempotencyQuery);
+        }
+
+        @Override
+        public String appendConditional(List<AppendEvent> events, AppendCondition condition) {
+            return EventStoreImpl.this.appendConditional(events, condition);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> project(
+                Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+            return EventStoreImpl.this.project(token, query, after, false, projectors);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> projectAfterCursor(
+                Query query, StreamPosition cursor, Class<T> stateType, List<StateProjector<T>> projectors) {
+            return EventStoreImpl.this.project(token, query, cursor, true, projectors);
+        }
+
+        @Override
+        public ProjectionResults projectAll(List<ProjectionRequest<?>> requests) {
+            return EventStoreImpl.this.projectAll(token, requests);
+        }
+
+        @Override
+        public boolean exists(Query query) {
+            return EventStoreImpl.this.exists(token, query);
+        }
+
+        @Override
+        public ConsistencyToken lastCommitToken() {
+            return EventStoreImpl.this.lastCommitToken();
+        }
+
+        @Override
+        public EventStore readAtLeast(ConsistencyToken other) {
+            return EventStoreImpl.this.readAtLeast(token.max(other));
+        }
+
+        @Override
+        public <T> T executeInTransaction(Function<EventStore, T> operation) {
+            return EventStoreImpl.this.executeInTransaction(operation);
+        }
     }
 }
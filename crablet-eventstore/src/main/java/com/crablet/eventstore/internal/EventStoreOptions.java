@@ -0,0 +1,72 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.archive.EventArchive;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Optional collaborators of {@link EventStoreImpl}. Everything left unset is off.
+ *
+ * <pre>{@code
+ * new EventStoreImpl(writeDataSource, readDataSource, objectMapper, config, clock, eventPublisher,
+ *         EventStoreOptions.builder()
+ *                 .notifyChannel("crablet_events")
+ *                 .archive(archive)
+ *                 .build());
+ * }</pre>
+ *
+ * @param notifyChannel LISTEN/NOTIFY channel appends notify on commit, or {@code null} for none
+ * @param groupCommit   group-commit settings; {@code null} or disabled keeps one commit per append
+ * @param archive       cold-tier archive consulted for events below its watermark; {@code null}
+ *                      reads every event from {@code crablet_events}
+ * @param payloadCodecs storage mode and write codec of {@code crablet_events.data}; {@code null}
+ *                      writes JSON into a {@code JSONB} column
+ */
+public record EventStoreOptions(
+        @Nullable String notifyChannel,
+        @Nullable GroupCommitProperties groupCommit,
+        @Nullable EventArchive archive,
+        @Nullable EventPayloadCodecs payloadCodecs
+) {
+
+    public static EventStoreOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private @Nullable String notifyChannel;
+        private @Nullable GroupCommitProperties groupCommit;
+        private @Nullable EventArchive archive;
+        private @Nullable EventPayloadCodecs payloadCodecs;
+
+        public Builder notifyChannel(@Nullable String notifyChannel) {
+            this.notifyChannel = notifyChannel;
+            return this;
+        }
+
+        public Builder groupCommit(GroupCommitProperties groupCommit) {
+            this.groupCommit = Objects.requireNonNull(groupCommit, "groupCommit must not be null");
+            return this;
+        }
+
+        public Builder archive(@Nullable EventArchive archive) {
+            this.archive = archive;
+            return this;
+        }
+
+        public Builder payloadCodecs(EventPayloadCodecs payloadCodecs) {
+            this.payloadCodecs = Objects.requireNonNull(payloadCodecs, "payloadCodecs must not be null");
+            return this;
+        }
+
+        public EventStoreOptions build() {
+            return new EventStoreOptions(notifyChannel, groupCommit, archive, payloadCodecs);
+        }
+    }
+}
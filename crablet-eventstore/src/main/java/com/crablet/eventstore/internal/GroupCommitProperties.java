@@ -0,0 +1,87 @@
+package com.crablet.eventstore.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for group-commit of commutative appends.
+ * <p>
+ * When enabled, {@code EventStore.appendCommutative(...)} calls made outside
+ * {@code executeInTransaction} are queued and flushed together: one write connection,
+ * one {@code append_events_batch} call per correlation group, and one commit for the
+ * whole batch. Each caller still blocks until its own events are durable and receives
+ * its own result or failure. Disabled by default.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * Whether commutative appends are coalesced into group commits.
+     * Default: false (every append uses its own connection and commit)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of append calls merged into one commit.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * Maximum time the first queued append waits for companions before the batch is flushed.
+     * <p>Accepts Spring {@link Duration} syntax: {@code 2ms}, {@code 500us}, {@code PT0.002S}.
+     */
+    private Duration maxWait = Duration.ofMillis(2);
+
+    /**
+     * Maximum number of queued append calls. When the queue is full, callers fall back
+     * to a direct append instead of blocking.
+     */
+    private int queueCapacity = 4096;
+
+    /**
+     * Number of flusher threads draining the queue. Each flusher holds at most one
+     * write connection at a time.
+     */
+    private int flushThreads = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getFlushThreads() {
+        return flushThreads;
+    }
+
+    public void setFlushThreads(int flushThreads) {
+        this.flushThreads = flushThreads;
+    }
+}
@@ -0,0 +1,46 @@
+package com.crablet.eventstore.internal;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the {@code crablet_idempotency_keys} table.
+ * <p>
+ * Single-key idempotent appends claim their key in that table instead of taking an advisory
+ * lock and scanning the event log. Rows are a fast path only: a key without a row is still
+ * checked against {@code crablet_event_tags}, so pruning rows older than {@link #retention}
+ * bounds the table without letting duplicates through. Requires the
+ * {@code V6__crablet_idempotency_keys_schema.sql} migration.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.idempotency-keys")
+public class IdempotencyKeyProperties {
+
+    /**
+     * Age after which claimed keys are deleted.
+     * Default: unset (keys are kept forever)
+     */
+    private @Nullable Duration retention;
+
+    /**
+     * How often expired keys are deleted when {@link #retention} is set.
+     */
+    private Duration pruneInterval = Duration.ofHours(1);
+
+    public @Nullable Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(@Nullable Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getPruneInterval() {
+        return pruneInterval;
+    }
+
+    public void setPruneInterval(Duration pruneInterval) {
+        this.pruneInterval = pruneInterval;
+    }
+}
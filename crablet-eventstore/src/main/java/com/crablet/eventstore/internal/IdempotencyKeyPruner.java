@@ -0,0 +1,120 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes {@code crablet_idempotency_keys} rows older than a retention window.
+ * <p>
+ * Rows are only a fast path for duplicate detection — a key without a row is still checked
+ * against {@code crablet_event_tags} — so pruning never lets a duplicate through. Claims of
+ * archived events, whose position was cleared when they were detached, are the only record
+ * left in the database and are never pruned. Deletes run in bounded batches on a single daemon
+ * thread so they never hold long row locks.
+ */
+public class IdempotencyKeyPruner implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyPruner.class);
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String DELETE_EXPIRED_SQL = """
+        DELETE FROM crablet_idempotency_keys
+        WHERE ctid IN (
+            SELECT ctid FROM crablet_idempotency_keys
+            WHERE claimed_at < ? AND position IS NOT NULL
+            LIMIT ?
+        )
+        """;
+
+    private final DataSource writeDataSource;
+    private final ClockProvider clock;
+    private final Duration retention;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param writeDataSource data source pointing at the primary
+     * @param clock           clock used to compute the retention cutoff
+     * @param retention       age after which claimed keys are deleted
+     * @param pruneInterval   delay between pruning runs
+     */
+    public IdempotencyKeyPruner(
+            DataSource writeDataSource, ClockProvider clock, Duration retention, Duration pruneInterval) {
+        if (writeDataSource == null) {
+            throw new IllegalArgumentException("writeDataSource must not be null");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        if (retention == null || retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException("retention must be positive");
+        }
+        if (pruneInterval == null || pruneInterval.isNegative() || pruneInterval.isZero()) {
+            throw new IllegalArgumentException("pruneInterval must be positive");
+        }
+        this.writeDataSource = writeDataSource;
+        this.clock = clock;
+        this.retention = retention;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crablet-idempotency-key-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pruneInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::pruneQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Delete every key claimed before {@code now - retention}, except those of archived events.
+     *
+     * @return number of deleted rows
+     */
+    public int prune() {
+        Timestamp cutoff = Timestamp.from(clock.now().minus(retention));
+        int total = 0;
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE_EXPIRED_SQL)) {
+            stmt.setTimestamp(1, cutoff);
+            stmt.setInt(2, BATCH_SIZE);
+            int deleted;
+            do {
+                deleted = stmt.executeUpdate();
+                total += deleted;
+            } while (deleted == BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to prune idempotency keys", e);
+        }
+        if (total > 0) {
+            log.debug("Pruned {} idempotency keys claimed before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * Stop scheduled pruning.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void pruneQuietly() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            log.warn("Idempotency key pruning failed; retrying on the next run", e);
+        }
+    }
+}
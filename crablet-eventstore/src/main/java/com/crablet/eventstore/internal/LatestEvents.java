@@ -0,0 +1,41 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.archive.EventArchive;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Result assembly for {@code Query.withLatest} reads, shared by the event store and the repository.
+ */
+final class LatestEvents {
+
+    private LatestEvents() {}
+
+    /**
+     * The last {@code limit} events of the database rows and the archived events, in
+     * {@link EventArchive#ORDER}.
+     *
+     * @param newestFirst database rows read with {@code ORDER BY transaction_id DESC, position DESC LIMIT limit}
+     * @param archived    archived events in ascending order; the newest of them can sort after
+     *                    database rows, since segments cover positions, not transactions
+     */
+    static List<StoredEvent> ascending(List<StoredEvent> newestFirst, Iterator<StoredEvent> archived, int limit) {
+        List<StoredEvent> events = new ArrayList<>(newestFirst);
+        if (archived.hasNext()) {
+            ArrayDeque<StoredEvent> tail = new ArrayDeque<>(limit);
+            while (archived.hasNext()) {
+                if (tail.size() == limit) {
+                    tail.removeFirst();
+                }
+                tail.addLast(archived.next());
+            }
+            events.addAll(tail);
+        }
+        events.sort(EventArchive.ORDER);
+        return events.size() > limit ? events.subList(events.size() - limit, events.size()) : events;
+    }
+}
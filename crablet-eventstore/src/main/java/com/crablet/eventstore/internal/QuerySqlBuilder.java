@@ -1,5 +1,6 @@
 package com.crablet.eventstore.internal;
 
+import com.crablet.eventstore.Internal;
 import com.crablet.eventstore.StreamPosition;
 import com.crablet.eventstore.query.Query;
 import org.jspecify.annotations.Nullable;
@@ -9,15 +10,34 @@ import java.util.List;
 /**
  * Builds SQL WHERE clauses from Query objects.
  * Separates SQL generation from query execution for better abstraction.
+ * Public only so the reactive event store builds the same clauses.
  */
-interface QuerySqlBuilder {
+@Internal
+public interface QuerySqlBuilder {
+
+    /**
+     * Build a WHERE clause from a Query and StreamPosition.
+     *
+     * @param query The query to filter events
+     * @param after StreamPosition to query events after (null for all events)
+     * @param params List to collect query parameters (output parameter)
+     * @return WHERE clause SQL string (without "WHERE" keyword), empty if no conditions
+     */
+    default String buildWhereClause(Query query, @Nullable StreamPosition after, List<Object> params) {
+        return buildWhereClause(query, after, false, params);
+    }
+
     /**
      * Build a WHERE clause from a Query and StreamPosition.
      *
      * @param query The query to filter events
      * @param after StreamPosition to query events after (null for all events)
+     * @param afterTransaction Whether to read the events after {@code after} in
+     *                         {@code (transaction_id, position)} order, as the pollers do, instead of
+     *                         by position; ignored when {@code after} has no transaction id
      * @param params List to collect query parameters (output parameter)
      * @return WHERE clause SQL string (without "WHERE" keyword), empty if no conditions
      */
-    String buildWhereClause(Query query, @Nullable StreamPosition after, List<Object> params);
+    String buildWhereClause(
+            Query query, @Nullable StreamPosition after, boolean afterTransaction, List<Object> params);
 }
@@ -1,5 +1,6 @@
 package com.crablet.eventstore.internal;
 
+import com.crablet.eventstore.Internal;
 import com.crablet.eventstore.StreamPosition;
 import com.crablet.eventstore.query.Query;
 import com.crablet.eventstore.query.QueryItem;
@@ -10,17 +11,28 @@ import java.util.List;
 
 /**
  * Public implementation of QuerySqlBuilder.
- * Directly instantiated by EventStoreImpl and EventRepositoryImpl.
+ * Directly instantiated by EventStoreImpl, EventRepositoryImpl and the reactive event store.
+ * <p>
+ * Values are always bound as parameters, so queries of the same shape produce the same clause
+ * text and can share a server-side prepared statement. Values are not folded into a single
+ * {@code unnest} shape, since a correlated array lookup cannot use the type and tags indexes.
  */
-class QuerySqlBuilderImpl implements QuerySqlBuilder {
+@Internal
+public class QuerySqlBuilderImpl implements QuerySqlBuilder {
 
     @Override
-    public String buildWhereClause(Query query, @Nullable StreamPosition after, List<Object> params) {
+    public String buildWhereClause(
+            Query query, @Nullable StreamPosition after, boolean afterTransaction, List<Object> params) {
         StringBuilder whereClause = new StringBuilder();
 
         // after_position parameter
         long afterPosition = after != null ? after.position() : 0L;
-        if (afterPosition > 0) {
+        @Nullable String afterTransactionId = afterTransaction && after != null ? after.transactionId() : null;
+        if (afterPosition > 0 && afterTransactionId != null) {
+            whereClause.append("(transaction_id, position) > (?::xid8, ?)");
+            params.add(afterTransactionId);
+            params.add(afterPosition);
+        } else if (afterPosition > 0) {
             whereClause.append("position > ?");
             params.add(afterPosition);
         }
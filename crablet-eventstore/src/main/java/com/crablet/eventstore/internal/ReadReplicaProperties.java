@@ -3,6 +3,9 @@ package com.crablet.eventstore.internal;
 import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration properties for read replica support.
@@ -27,9 +30,32 @@ public class ReadReplicaProperties {
      */
     private @Nullable String url;
 
+    /**
+     * JDBC URLs of individual replicas, each with its own connection pool. Reads are balanced
+     * over them by outstanding connections and replication lag. Takes precedence over {@link #url}.
+     */
+    private List<String> urls = new ArrayList<>();
 
     /**
-     * HikariCP connection pool configuration for read replicas.
+     * Replication lag, in WAL bytes, beyond which a replica only receives reads when no replica
+     * is closer. Default: 16 MiB
+     */
+    private long maxLagBytes = 16L * 1024 * 1024;
+
+    /**
+     * How long a read from {@code EventStore.readAtLeast(token)} waits for the replica to replay
+     * up to the token before it reads from the primary instead.
+     */
+    private Duration consistencyWait = Duration.ofMillis(100);
+
+    /**
+     * How often each replica's replication lag and health are checked. An ejected replica is
+     * re-admitted at the first check that succeeds.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * HikariCP connection pool configuration, applied to the pool of each read replica.
      */
     private HikariProperties hikari = new HikariProperties();
 
@@ -49,6 +75,37 @@ public class ReadReplicaProperties {
         this.url = url;
     }
 
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public long getMaxLagBytes() {
+        return maxLagBytes;
+    }
+
+    public void setMaxLagBytes(long maxLagBytes) {
+        this.maxLagBytes = maxLagBytes;
+    }
+
+    public Duration getConsistencyWait() {
+        return consistencyWait;
+    }
+
+    public void setConsistencyWait(Duration consistencyWait) {
+        this.consistencyWait = consistencyWait;
+    }
+
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    public void setLagCheckInterval(Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
 
     public HikariProperties getHikari() {
         return hikari;
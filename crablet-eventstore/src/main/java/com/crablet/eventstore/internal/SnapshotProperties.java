@@ -0,0 +1,44 @@
+package com.crablet.eventstore.internal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for decision-model snapshots.
+ * <p>
+ * When enabled, the auto-configured {@code EventStore} is wrapped in a
+ * {@code SnapshottingEventStore}: projections whose projectors implement
+ * {@code SnapshottableStateProjector} start from the latest row in {@code crablet_snapshots}
+ * and replay only newer events. Requires the {@code V4__crablet_snapshots_schema.sql}
+ * migration. Disabled by default.
+ */
+@ConfigurationProperties(prefix = "crablet.eventstore.snapshots")
+public class SnapshotProperties {
+
+    /**
+     * Whether snapshotting is enabled.
+     * Default: false (every projection replays the full history)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of events replayed after the latest snapshot that triggers writing a new one.
+     * Snapshots are written asynchronously and never delay the projecting caller.
+     */
+    private int eventThreshold = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getEventThreshold() {
+        return eventThreshold;
+    }
+
+    public void setEventThreshold(int eventThreshold) {
+        this.eventThreshold = eventThreshold;
+    }
+}
@@ -0,0 +1,200 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.Internal;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * Maps a {@code crablet_events} row selected with {@link #COLUMNS} to a {@link StoredEvent}.
+ * The one row mapper of the event store, the event repository and the event pollers.
+ * <p>
+ * Rows are decoded with few allocations, since pollers and projections map tens of thousands
+ * per second:
+ * <ul>
+ *   <li>Event types and tag keys come from a bounded dictionary, so events share one instance
+ *       of each instead of holding a copy per row.</li>
+ *   <li>Tags are read as the text of the array literal, with no driver {@code Array} or
+ *       {@code String[]} in between, and parsed on first access: a projection that never looks
+ *       at the tags allocates no {@link Tag}.</li>
+ * </ul>
+ */
+@Internal
+public final class StoredEventRowMapper implements RowMapper<StoredEvent> {
+
+    /**
+     * Select list of the columns the mapper reads, tags as their {@code text[]} literal.
+     */
+    public static final String COLUMNS =
+        "type, tags::text AS tags, data, payload_codec, transaction_id, position, occurred_at, correlation_id, causation_id";
+
+    /**
+     * Slots of the shared dictionary; a power of two. A slot holds the last string hashed to it.
+     */
+    static final int DICTIONARY_SIZE = 4096;
+
+    private static final StoredEventRowMapper SHARED = new StoredEventRowMapper(DICTIONARY_SIZE);
+
+    private final @Nullable String[] dictionary;
+    private final int mask;
+
+    StoredEventRowMapper(int dictionarySize) {
+        if (Integer.bitCount(dictionarySize) != 1) {
+            throw new IllegalArgumentException("dictionarySize must be a power of two");
+        }
+        this.dictionary = new String[dictionarySize];
+        this.mask = dictionarySize - 1;
+    }
+
+    /**
+     * @return the mapper shared by every reader, so they also share one dictionary
+     */
+    public static StoredEventRowMapper shared() {
+        return SHARED;
+    }
+
+    @Override
+    public StoredEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String type = rs.getString("type");
+        List<Tag> tags = tags(rs.getString("tags"));
+        byte[] data = EventPayloadCodecs.decode(rs.getShort("payload_codec"), rs.getBytes("data"));
+        String transactionId = rs.getString("transaction_id");
+        long position = rs.getLong("position");
+        Instant occurredAt = rs.getTimestamp("occurred_at").toInstant();
+
+        UUID correlationId = rs.getObject("correlation_id", UUID.class);
+        Long causationId   = (Long) rs.getObject("causation_id");
+        return new StoredEvent(type(type), tags, data, transactionId, position, occurredAt,
+                               correlationId, causationId);
+    }
+
+    /**
+     * @return the dictionary's instance of an event type, for readers that map rows themselves
+     */
+    public String type(String type) {
+        return intern(type, 0, type.length());
+    }
+
+    /**
+     * Tags of a {@code text[]} literal such as {@code {wallet_id=w1,"note=a b"}}, decoded on first
+     * access.
+     */
+    public List<Tag> tags(String literal) {
+        if (literal.length() < 2 || literal.charAt(0) != '{' || literal.charAt(literal.length() - 1) != '}') {
+            throw new IllegalArgumentException("Not a text[] literal: " + literal);
+        }
+        return literal.length() == 2 ? List.of() : new LazyTags(literal, this);
+    }
+
+    /**
+     * Parse the elements of a {@code text[]} literal. Unquoted elements are split in place;
+     * quoted ones, which PostgreSQL writes for elements with spaces, commas, braces, quotes or
+     * backslashes, are unescaped first.
+     */
+    Tag[] decode(String literal) {
+        int end = literal.length() - 1;
+        int elements = 1;
+        for (int i = literal.indexOf(',', 1); i >= 0; i = literal.indexOf(',', i + 1)) {
+            elements++;
+        }
+        Tag[] tags = new Tag[elements];
+        int count = 0;
+        int i = 1;
+        while (i < end) {
+            if (literal.charAt(i) == '"') {
+                StringBuilder element = new StringBuilder();
+                int j = i + 1;
+                while (j < end && literal.charAt(j) != '"') {
+                    char c = literal.charAt(j++);
+                    if (c == '\\' && j < end) {
+                        c = literal.charAt(j++);
+                    }
+                    element.append(c);
+                }
+                String unescaped = element.toString();
+                tags[count++] = tag(unescaped, 0, unescaped.length());
+                i = j + 1;
+            } else {
+                int comma = literal.indexOf(',', i);
+                int elementEnd = comma < 0 ? end : comma;
+                tags[count++] = tag(literal, i, elementEnd);
+                i = elementEnd;
+            }
+            i++;  // Skip the delimiter
+        }
+        return count == tags.length ? tags : Arrays.copyOf(tags, count);
+    }
+
+    private Tag tag(String s, int from, int to) {
+        int eqIndex = s.indexOf('=', from);
+        if (eqIndex > from && eqIndex < to) {
+            return new Tag(intern(s, from, eqIndex), s.substring(eqIndex + 1, to));
+        }
+        return new Tag(s.substring(from, to), "");
+    }
+
+    /**
+     * The dictionary's instance of {@code s[from, to)}, adding it if its slot holds another string.
+     * Races between readers at worst replace a slot's string with an equal one.
+     */
+    String intern(String s, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        int length = to - from;
+        @Nullable String cached = dictionary[slot];
+        if (cached != null && cached.length() == length && cached.regionMatches(0, s, from, length)) {
+            return cached;
+        }
+        String value = from == 0 && to == s.length() ? s : s.substring(from, to);
+        dictionary[slot] = value;
+        return value;
+    }
+
+    /**
+     * Tags kept as their literal until first read. Decoding twice on a race is harmless: both
+     * threads publish equal arrays through the volatile field.
+     */
+    private static final class LazyTags extends AbstractList<Tag> implements RandomAccess {
+        private final String literal;
+        private final StoredEventRowMapper mapper;
+        private volatile Tag @Nullable [] decoded;
+
+        private LazyTags(String literal, StoredEventRowMapper mapper) {
+            this.literal = literal;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public Tag get(int index) {
+            return decoded()[index];
+        }
+
+        @Override
+        public int size() {
+            return decoded().length;
+        }
+
+        private Tag[] decoded() {
+            Tag @Nullable [] tags = decoded;
+            if (tags == null) {
+                tags = mapper.decode(literal);
+                decoded = tags;
+            }
+            return tags;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.EventStoreException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Implemented by the transaction-scoped {@code EventStore} handed to
+ * {@code executeInTransaction} callbacks.
+ * <p>
+ * Lets framework decorators read their own tables on the caller's transaction connection
+ * instead of borrowing a second connection from the pool while the first one is held, which
+ * can exhaust the pool under load.
+ */
+public interface TransactionConnectionAware {
+
+    /**
+     * Work to run on the transaction connection.
+     */
+    @FunctionalInterface
+    interface ConnectionWork<R> {
+        R apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Run {@code work} on the connection of the current transaction. The work must not
+     * commit, roll back or close the connection.
+     *
+     * @throws com.crablet.eventstore.EventStoreException if the work fails with an {@link SQLException}
+     */
+    <R> R withTransactionConnection(ConnectionWork<R> work);
+
+    /**
+     * Read the safe horizon, {@code pg_snapshot_xmin(pg_current_snapshot())}, on the transaction
+     * connection: every transaction below it has ended, so a read issued after this call sees all
+     * of their events. Pollers and DCB checks use the same horizon.
+     *
+     * @return the horizon as {@code xid8} text
+     */
+    default String safeHorizon() {
+        return withTransactionConnection(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT pg_snapshot_xmin(pg_current_snapshot())::TEXT");
+                 ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new EventStoreException("PostgreSQL did not return the snapshot horizon");
+                }
+                return rs.getString(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Implemented by event stores that can resume a projection from a
+ * {@code (transaction_id, position)} cursor, the way event pollers resume.
+ * <p>
+ * {@code EventStore.project} reads the events with a position above {@code after}. A transaction
+ * that commits after a projection can still hold a lower position than the projection's last
+ * event, so decorators that keep a projection for later reuse — decision-model caches and
+ * snapshots — resume with this method instead. A cursor is only safe to resume from when its
+ * transaction was below {@link TransactionConnectionAware#safeHorizon()} read <em>before</em> the
+ * projection that produced it: every transaction ordered before the cursor had then ended and
+ * was folded.
+ * <p>
+ * With an event archive, archived events are read after the cursor's position. An event that
+ * sorts after the cursor but holds a lower position, committed after the cursor was taken and
+ * has since been detached from {@code crablet_events} is not folded; the archiver's minimum age
+ * and detach delay keep such events in the database far longer than any transaction runs.
+ */
+public interface TransactionCursorAware {
+
+    /**
+     * Project the events matching {@code query} that sort after {@code cursor} in
+     * {@code (transaction_id, position)} order. Same result as {@code EventStore.project}
+     * otherwise, including the returned stream position.
+     *
+     * @param cursor stream position with the transaction id of the last event already folded
+     */
+    <T> ProjectionResult<T> projectAfterCursor(
+            Query query, StreamPosition cursor, Class<T> stateType, List<StateProjector<T>> projectors);
+
+    /**
+     * Compare two cursors in {@code (transaction_id, position)} order. Transaction ids are
+     * compared numerically, as PostgreSQL compares {@code xid8}; a missing id sorts first.
+     */
+    static int compare(StreamPosition a, StreamPosition b) {
+        int cmp = Long.compareUnsigned(transactionOf(a), transactionOf(b));
+        return cmp != 0 ? cmp : Long.compare(a.position(), b.position());
+    }
+
+    /**
+     * @return whether {@code transactionId} is below {@code horizon}, both {@code xid8} values
+     *         as text
+     */
+    static boolean isBelow(String transactionId, String horizon) {
+        return Long.compareUnsigned(Long.parseUnsignedLong(transactionId), Long.parseUnsignedLong(horizon)) < 0;
+    }
+
+    private static long transactionOf(StreamPosition position) {
+        @Nullable String transactionId = position.transactionId();
+        return transactionId != null ? Long.parseUnsignedLong(transactionId) : 0L;
+    }
+}
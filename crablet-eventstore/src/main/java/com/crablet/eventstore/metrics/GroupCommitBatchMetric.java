@@ -0,0 +1,24 @@
+package com.crablet.eventstore.metrics;
+
+/**
+ * Metric event published when a group-commit batch of commutative appends commits.
+ * <p>
+ * Published by EventStoreImpl once per committed batch when
+ * {@code crablet.eventstore.group-commit.enabled=true}.
+ */
+public record GroupCommitBatchMetric(int appendCount, int eventCount) implements MetricEvent {
+    /**
+     * Create a metric event for a committed group-commit batch.
+     *
+     * @param appendCount The number of append calls that shared the commit (must be > 0)
+     * @param eventCount The number of events written by the batch (must not be negative)
+     */
+    public GroupCommitBatchMetric {
+        if (appendCount < 1) {
+            throw new IllegalArgumentException("Append count must be positive");
+        }
+        if (eventCount < 0) {
+            throw new IllegalArgumentException("Event count cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.crablet.eventstore.metrics;
+
+import java.time.Duration;
+
+/**
+ * Metric event published for each commutative append that went through group commit.
+ * <p>
+ * Published by EventStoreImpl with the time the append spent queued before its batch
+ * started flushing.
+ */
+public record GroupCommitQueueWaitMetric(Duration duration) implements MetricEvent {
+    /**
+     * Create a metric event for the queue wait of one append.
+     *
+     * @param duration Time spent in the group-commit queue (must not be null or negative)
+     */
+    public GroupCommitQueueWaitMetric {
+        if (duration == null) {
+            throw new IllegalArgumentException("Duration cannot be null");
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+    }
+}
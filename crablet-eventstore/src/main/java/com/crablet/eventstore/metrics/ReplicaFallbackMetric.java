@@ -0,0 +1,10 @@
+package com.crablet.eventstore.metrics;
+
+/**
+ * Metric event published when a read that must see a consistency token went to the primary,
+ * because no replica had replayed up to the token within the configured wait.
+ *
+ * @param replica Name of the replica the read would have preferred
+ */
+public record ReplicaFallbackMetric(String replica) implements MetricEvent {
+}
@@ -0,0 +1,11 @@
+package com.crablet.eventstore.metrics;
+
+/**
+ * Metric event published when a read replica is checked, and when it is ejected after a failed
+ * connection.
+ *
+ * @param replica Name of the replica, its host and port
+ * @param healthy Whether the replica currently receives reads
+ */
+public record ReplicaHealthMetric(String replica, boolean healthy) implements MetricEvent {
+}
@@ -0,0 +1,10 @@
+package com.crablet.eventstore.metrics;
+
+/**
+ * Metric event published each time a read replica's replication lag is sampled.
+ *
+ * @param replica  Name of the replica, its host and port
+ * @param lagBytes WAL bytes the primary has written that the replica has not replayed yet
+ */
+public record ReplicaLagMetric(String replica, long lagBytes) implements MetricEvent {
+}
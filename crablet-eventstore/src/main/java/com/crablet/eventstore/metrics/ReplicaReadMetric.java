@@ -0,0 +1,10 @@
+package com.crablet.eventstore.metrics;
+
+/**
+ * Metric event published for every connection the replica routing data source hands out, showing
+ * how reads are spread over the replicas.
+ *
+ * @param replica Name of the replica that serves the connection, or {@code primary}
+ */
+public record ReplicaReadMetric(String replica) implements MetricEvent {
+}
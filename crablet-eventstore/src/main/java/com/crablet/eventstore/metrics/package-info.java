@@ -9,6 +9,12 @@
  *   <li>{@link com.crablet.eventstore.metrics.EventsAppendedMetric} - Published when events are appended to the store</li>
  *   <li>{@link com.crablet.eventstore.metrics.EventTypeMetric} - Published for each event type appended</li>
  *   <li>{@link com.crablet.eventstore.metrics.ConcurrencyViolationMetric} - Published when a DCB concurrency violation occurs</li>
+ *   <li>{@link com.crablet.eventstore.metrics.GroupCommitBatchMetric} - Published when a group-commit batch of commutative appends commits</li>
+ *   <li>{@link com.crablet.eventstore.metrics.GroupCommitQueueWaitMetric} - Published with the queue wait of each group-committed append</li>
+ *   <li>{@link com.crablet.eventstore.metrics.ReplicaLagMetric} - Published when a read replica's replication lag is sampled</li>
+ *   <li>{@link com.crablet.eventstore.metrics.ReplicaFallbackMetric} - Published when a read needing a consistency token falls back to the primary</li>
+ *   <li>{@link com.crablet.eventstore.metrics.ReplicaReadMetric} - Published for each read connection with the replica serving it</li>
+ *   <li>{@link com.crablet.eventstore.metrics.ReplicaHealthMetric} - Published when a read replica is checked or ejected</li>
  *   <li>{@link com.crablet.eventstore.metrics.MetricEvent} - Base interface for all metric events</li>
  * </ul>
  * <p>
@@ -3,6 +3,7 @@ package com.crablet.eventstore.observability;
 import com.crablet.eventstore.metrics.ConcurrencyViolationMetric;
 import com.crablet.eventstore.metrics.EventTypeMetric;
 import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.metrics.GroupCommitBatchMetric;
 import com.crablet.observability.CrabletObservationNames;
 import com.crablet.observability.CrabletObservationTags;
 import io.micrometer.observation.Observation;
@@ -34,6 +35,14 @@ public class EventStoreObservationListener {
                 .observe(() -> { });
     }
 
+    @EventListener
+    public void onGroupCommitBatch(GroupCommitBatchMetric event) {
+        Observation.createNotStarted(CrabletObservationNames.EVENTSTORE_GROUP_COMMIT, observationRegistry)
+                .lowCardinalityKeyValue("batch.size", Integer.toString(event.appendCount()))
+                .highCardinalityKeyValue("event.count", Integer.toString(event.eventCount()))
+                .observe(() -> { });
+    }
+
     @EventListener
     public void onConcurrencyViolation(ConcurrencyViolationMetric event) {
         Observation.createNotStarted(CrabletObservationNames.EVENTSTORE_CONCURRENCY_VIOLATION, observationRegistry)
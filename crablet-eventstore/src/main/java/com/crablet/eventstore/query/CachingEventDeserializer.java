@@ -0,0 +1,41 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.StoredEvent;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link EventDeserializer} that resolves one {@link ObjectReader} per target class and reuses it,
+ * so the mapper's root deserializer lookup runs once per class instead of once per event.
+ * <p>
+ * Thread-safe; share one instance per {@link ObjectMapper}. To also parse each event only once
+ * when several projectors read it, wrap it in a {@link MemoizingEventDeserializer} per projection.
+ */
+public final class CachingEventDeserializer implements EventDeserializer {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public CachingEventDeserializer(ObjectMapper objectMapper) {
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("ObjectMapper must not be null");
+        }
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <E> E deserialize(StoredEvent event, Class<E> eventType) {
+        try {
+            ObjectReader reader = readers.computeIfAbsent(eventType, objectMapper::readerFor);
+            E value = reader.readValue(event.data());
+            return Objects.requireNonNull(value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to deserialize event type=" +
+                event.type() + " to " + eventType.getName(), e);
+        }
+    }
+}
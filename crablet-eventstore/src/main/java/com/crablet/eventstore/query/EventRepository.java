@@ -6,6 +6,8 @@ import com.crablet.eventstore.StreamPosition;
 import org.jspecify.annotations.Nullable;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Repository for querying raw events directly from the event store.
@@ -37,4 +39,35 @@ public interface EventRepository {
      * @return List of stored events matching the query
      */
     List<StoredEvent> query(Query query, @Nullable StreamPosition after);
+
+    /**
+     * Stream events matching the query with optional stream position, in the order of
+     * {@link #query(Query, StreamPosition)}, without holding the whole result in memory.
+     * <p>
+     * The stream keeps a database connection until it is closed, so always close it:
+     * <pre>{@code
+     * try (Stream<StoredEvent> events = eventRepository.stream(query, null)) {
+     *     events.forEach(report::add);
+     * }
+     * }</pre>
+     *
+     * @param query The query to filter events
+     * @param after StreamPosition to query events after (null for all events)
+     * @return Stream of stored events matching the query; must be closed
+     */
+    Stream<StoredEvent> stream(Query query, @Nullable StreamPosition after);
+
+    /**
+     * Pass every event matching the query with optional stream position to {@code action}, in
+     * the order of {@link #query(Query, StreamPosition)}, without holding the whole result in memory.
+     *
+     * @param query  The query to filter events
+     * @param after  StreamPosition to query events after (null for all events)
+     * @param action Callback invoked once per event
+     */
+    default void forEach(Query query, @Nullable StreamPosition after, Consumer<? super StoredEvent> action) {
+        try (Stream<StoredEvent> events = stream(query, after)) {
+            events.forEachOrdered(action);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.StoredEvent;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link EventDeserializer} that remembers what it deserialized for the current event, keyed by
+ * {@code (position, target class)}, so projectors folding the same event to the same class share
+ * one instance instead of each parsing the JSON again.
+ * <p>
+ * Projections visit events one at a time, so only the current event's results are kept: they are
+ * dropped as soon as an event at another position is deserialized. Projectors must therefore
+ * treat deserialized events as immutable, as records and sealed event hierarchies already are.
+ * <p>
+ * Not thread-safe; create one per projection.
+ */
+public final class MemoizingEventDeserializer implements EventDeserializer {
+
+    private final EventDeserializer delegate;
+
+    private long position = Long.MIN_VALUE;
+    private @Nullable Class<?> firstType;
+    private @Nullable Object firstValue;
+    private @Nullable Class<?> secondType;
+    private @Nullable Object secondValue;
+
+    public MemoizingEventDeserializer(EventDeserializer delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <E> E deserialize(StoredEvent event, Class<E> eventType) {
+        if (event.position() != position) {
+            position = event.position();
+            firstType = null;
+            firstValue = null;
+            secondType = null;
+            secondValue = null;
+        }
+        // Decision models fold an event to at most a couple of classes; two slots avoid a map
+        if (eventType == firstType) {
+            return eventType.cast(firstValue);
+        }
+        if (eventType == secondType) {
+            return eventType.cast(secondValue);
+        }
+        E value = delegate.deserialize(event, eventType);
+        if (firstType == null) {
+            firstType = eventType;
+            firstValue = value;
+        } else {
+            secondType = eventType;
+            secondValue = value;
+        }
+        return value;
+    }
+}
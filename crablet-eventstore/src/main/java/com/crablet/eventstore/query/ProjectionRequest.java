@@ -0,0 +1,46 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.StreamPosition;
+
+import java.util.List;
+
+/**
+ * One projection of an {@link EventStore#projectAll(List)} batch: the events matching
+ * {@code query} after {@code after}, folded by {@code projectors}.
+ * <p>
+ * Results are looked up with {@link ProjectionResults#get(ProjectionRequest)} by the request
+ * instance itself, which keeps the state type.
+ */
+public record ProjectionRequest<T>(
+        Query query,
+        StreamPosition after,
+        List<StateProjector<T>> projectors
+) {
+    public ProjectionRequest {
+        if (query == null) {
+            throw new IllegalArgumentException("query must not be null");
+        }
+        if (after == null) {
+            throw new IllegalArgumentException("after must not be null");
+        }
+        if (projectors == null || projectors.isEmpty()) {
+            throw new IllegalArgumentException("projectors must not be empty");
+        }
+        projectors = List.copyOf(projectors);
+    }
+
+    /**
+     * Request projecting the full event history with a single projector.
+     */
+    public static <T> ProjectionRequest<T> of(Query query, StateProjector<T> projector) {
+        return of(query, StreamPosition.zero(), projector);
+    }
+
+    /**
+     * Request projecting the events after {@code after} with a single projector.
+     */
+    public static <T> ProjectionRequest<T> of(Query query, StreamPosition after, StateProjector<T> projector) {
+        return new ProjectionRequest<>(query, after, List.of(projector));
+    }
+}
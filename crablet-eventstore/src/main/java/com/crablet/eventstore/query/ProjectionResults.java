@@ -0,0 +1,52 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.EventStore;
+
+import java.util.List;
+
+/**
+ * Results of an {@link EventStore#projectAll(List)} batch, in request order.
+ */
+public final class ProjectionResults {
+
+    private final List<ProjectionRequest<?>> requests;
+    private final List<ProjectionResult<?>> results;
+
+    public ProjectionResults(List<ProjectionRequest<?>> requests, List<ProjectionResult<?>> results) {
+        if (requests == null || results == null) {
+            throw new IllegalArgumentException("requests and results must not be null");
+        }
+        if (requests.size() != results.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + requests.size() + " results, got " + results.size());
+        }
+        this.requests = List.copyOf(requests);
+        this.results = List.copyOf(results);
+    }
+
+    /**
+     * Result of {@code request}, which must be an instance passed to {@code projectAll}.
+     *
+     * @throws IllegalArgumentException if the request is not part of this batch
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ProjectionResult<T> get(ProjectionRequest<T> request) {
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i) == request) {
+                return (ProjectionResult<T>) results.get(i);
+            }
+        }
+        throw new IllegalArgumentException("request is not part of this batch");
+    }
+
+    /**
+     * Result of the request at {@code index}.
+     */
+    public ProjectionResult<?> get(int index) {
+        return results.get(index);
+    }
+
+    public int size() {
+        return results.size();
+    }
+}
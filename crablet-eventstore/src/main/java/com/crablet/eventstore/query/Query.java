@@ -8,9 +8,27 @@ import java.util.List;
 /**
  * Query represents a query for events in the store.
  * This is a pure data record with no business logic.
+ *
+ * @param items  The criteria, combined with OR; no items match all events
+ * @param latest When positive, reads return only the last {@code latest} matching events, still
+ *               in ascending order; see {@link #withLatest(int)}
  */
 @Stable
-public record Query(List<QueryItem> items) {
+public record Query(List<QueryItem> items, int latest) {
+
+    public Query {
+        if (latest < 0) {
+            throw new IllegalArgumentException("latest must not be negative");
+        }
+    }
+
+    /**
+     * Create a query over every matching event.
+     */
+    public Query(List<QueryItem> items) {
+        this(items, 0);
+    }
+
     /**
      * Create a query from query items.
      */
@@ -81,6 +99,20 @@ public record Query(List<QueryItem> items) {
         return Query.of(QueryItem.of(eventTypes, tags));
     }
 
+    /**
+     * Copy of this query that reads only the last {@code count} matching events, for decision
+     * models that depend on the most recent event alone. The event store scans backwards with a
+     * {@code LIMIT} and folds the events it found in ascending order; the stream position is still
+     * that of the last matching event, so it is sound for {@code appendNonCommutative}.
+     * <p>
+     * Ignored by {@code exists} and by append conditions, which consider every matching event.
+     *
+     * @param count Number of events to read (positive), or {@code 0} for all
+     */
+    public Query withLatest(int count) {
+        return new Query(items, count);
+    }
+
     /**
      * Check if this query is empty.
      */
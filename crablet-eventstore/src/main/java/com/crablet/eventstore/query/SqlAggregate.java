@@ -0,0 +1,81 @@
+package com.crablet.eventstore.query;
+
+import org.jspecify.annotations.Nullable;
+import tools.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One aggregate of a {@link SqlFoldable} projector: the sum of a numeric payload field, or the
+ * number of events, over the events of one type.
+ *
+ * @param kind      Sum of {@code path} or count of events
+ * @param eventType The event type aggregated
+ * @param path      Field names leading to the summed payload value; empty for counts
+ * @param handler   Applies a total, or a single event's value, to the state
+ */
+public record SqlAggregate<T>(
+        Kind kind,
+        String eventType,
+        List<String> path,
+        StateProjector.EventTransition<T, BigDecimal> handler
+) {
+
+    public enum Kind { SUM, COUNT }
+
+    public SqlAggregate {
+        if (kind == null || eventType == null || path == null || handler == null) {
+            throw new IllegalArgumentException("kind, eventType, path and handler must not be null");
+        }
+        if (kind == Kind.SUM && path.isEmpty()) {
+            throw new IllegalArgumentException("A sum needs a payload path");
+        }
+        if (kind == Kind.COUNT && !path.isEmpty()) {
+            throw new IllegalArgumentException("A count takes no payload path");
+        }
+        path = List.copyOf(path);
+    }
+
+    /**
+     * Sum of the numeric field at {@code jsonPath}, a dot-separated list of field names such as
+     * {@code "amount"} or {@code "fee.amount"}. Events where the field is missing or
+     * {@code null} do not contribute.
+     */
+    public static <T> SqlAggregate<T> sum(
+            String eventType, String jsonPath, StateProjector.EventTransition<T, BigDecimal> handler) {
+        if (jsonPath == null || jsonPath.isBlank()) {
+            throw new IllegalArgumentException("jsonPath must not be blank");
+        }
+        List<String> path = List.of(jsonPath.split("\\.", -1));
+        if (path.stream().anyMatch(String::isEmpty)) {
+            throw new IllegalArgumentException("Invalid jsonPath '" + jsonPath + "'");
+        }
+        return new SqlAggregate<>(Kind.SUM, eventType, path, handler);
+    }
+
+    /**
+     * Number of events; the handler receives the count, or {@code 1} per event in memory.
+     */
+    public static <T> SqlAggregate<T> count(String eventType, StateProjector.EventTransition<T, BigDecimal> handler) {
+        return new SqlAggregate<>(Kind.COUNT, eventType, List.of(), handler);
+    }
+
+    /**
+     * This aggregate's contribution of a single event, or {@code null} if it makes none.
+     * Mirrors the SQL cast {@code (data #>> path)::numeric}.
+     */
+    @Nullable BigDecimal valueOf(JsonNode data) {
+        if (kind == Kind.COUNT) {
+            return BigDecimal.ONE;
+        }
+        JsonNode node = data;
+        for (String field : path) {
+            node = node.path(field);
+        }
+        if (node.isMissingNode() || node.isNull()) {
+            return null;
+        }
+        return node.isNumber() ? node.decimalValue() : new BigDecimal(node.asText());
+    }
+}
@@ -0,0 +1,28 @@
+package com.crablet.eventstore.query;
+
+import java.util.List;
+
+/**
+ * Optional extension of {@link StateProjector} for projectors that are pure sums and counts over
+ * event payloads, such as a balance or the number of confirmed enrollments.
+ * <p>
+ * When a projection runs such a projector alone and every type in
+ * {@link StateProjector#getEventTypes()} is covered by one of its {@link #aggregates()}, the
+ * event store computes the aggregates in the database and returns a single row instead of
+ * transferring every event. Each aggregate's handler is then applied once to the initial state
+ * with its total, in declaration order, and skipped when no event contributed to it. Otherwise —
+ * together with other projectors, with {@code BYTEA} payload storage or with the cold-tier
+ * archive — the projector's {@code transition} runs per event as usual, so it must apply the
+ * same handlers with each event's own value. Both agree as long as every handler is additive:
+ * applying it to {@code a} and then {@code b} must equal applying it to {@code a + b}.
+ * <p>
+ * {@link StateProjector#builder(String, Object)} projectors built with
+ * {@link StateProjector.Builder#sum} and {@link StateProjector.Builder#count} implement both.
+ */
+public interface SqlFoldable<T> {
+
+    /**
+     * Aggregates computed server-side, in the order their handlers are applied.
+     */
+    List<SqlAggregate<T>> aggregates();
+}
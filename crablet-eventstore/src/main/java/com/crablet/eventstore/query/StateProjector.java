@@ -3,10 +3,16 @@ package com.crablet.eventstore.query;
 import com.crablet.eventstore.EventType;
 import com.crablet.eventstore.Stable;
 import com.crablet.eventstore.StoredEvent;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.databind.JsonNode;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * StateProjector represents a projector for state reconstruction from events.
@@ -55,6 +61,19 @@ public interface StateProjector<T> {
      */
     T transition(T currentState, StoredEvent event, EventDeserializer deserializer);
 
+    /**
+     * Whether no further event can change {@code state}, so the projection may stop reading.
+     * <p>
+     * Checked after every folded event. Once every projector of a projection is done, the event
+     * store closes its cursor; the returned stream position is still that of the last matching
+     * event, so it remains sound for {@code appendNonCommutative}. Defaults to {@code false}.
+     *
+     * @param state The state after the latest folded event
+     */
+    default boolean isDone(T state) {
+        return false;
+    }
+
     /**
      * Returns a projector that yields {@code true} if any matching event exists.
      * <p>
@@ -81,6 +100,9 @@ public interface StateProjector<T> {
             public Boolean transition(Boolean state, StoredEvent event, EventDeserializer deserializer) {
                 return true;
             }
+
+            @Override
+            public boolean isDone(Boolean state) { return state; }
         };
     }
 
@@ -113,8 +135,11 @@ public interface StateProjector<T> {
 
     /**
      * Fluent builder for {@link StateProjector}.
-     * Register one handler per event class with {@link #on}; call {@link #build} once.
-     * Calling {@link #on} after {@link #build} throws {@link IllegalStateException}.
+     * Register one handler per event class with {@link #on}, or sums and counts with {@link #sum}
+     * and {@link #count}; call {@link #build} once.
+     * Registering after {@link #build} throws {@link IllegalStateException}.
+     * The built projector is a {@link SqlFoldable}, folded in the database when it only has sums
+     * and counts.
      */
     final class Builder<T> {
 
@@ -122,6 +147,8 @@ public interface StateProjector<T> {
         private final T initialState;
         private final LinkedHashMap<String, Class<?>> eventClasses = new LinkedHashMap<>();
         private final LinkedHashMap<String, EventTransition<T, ?>> transitions = new LinkedHashMap<>();
+        private final List<SqlAggregate<T>> aggregates = new ArrayList<>();
+        private @Nullable Predicate<T> done;
         private boolean built = false;
 
         private Builder(String id, T initialState) {
@@ -137,12 +164,9 @@ public interface StateProjector<T> {
          * @throws IllegalArgumentException  if the same event class is registered twice
          */
         public <E> Builder<T> on(Class<E> eventClass, EventTransition<T, E> transition) {
-            if (built) {
-                throw new IllegalStateException(
-                        "Builder has already been built; create a new builder to register more handlers");
-            }
+            checkNotBuilt();
             String type = EventType.type(eventClass);
-            if (eventClasses.containsKey(type)) {
+            if (eventClasses.containsKey(type) || aggregates.stream().anyMatch(a -> a.eventType().equals(type))) {
                 throw new IllegalArgumentException("Duplicate event type registration: " + type);
             }
             eventClasses.put(type, eventClass);
@@ -150,19 +174,78 @@ public interface StateProjector<T> {
             return this;
         }
 
+        /**
+         * Register an additive handler for the sum of the numeric payload field at
+         * {@code jsonPath} over the events of {@code eventClass}; see {@link SqlFoldable}.
+         *
+         * @throws IllegalStateException     if called after {@link #build()}
+         * @throws IllegalArgumentException  if {@code eventClass} already has an {@link #on} handler
+         */
+        public <E> Builder<T> sum(Class<E> eventClass, String jsonPath, EventTransition<T, BigDecimal> handler) {
+            return aggregate(SqlAggregate.sum(EventType.type(eventClass), jsonPath, handler));
+        }
+
+        /**
+         * Register an additive handler for the number of events of {@code eventClass}; see
+         * {@link SqlFoldable}.
+         *
+         * @throws IllegalStateException     if called after {@link #build()}
+         * @throws IllegalArgumentException  if {@code eventClass} already has an {@link #on} handler
+         */
+        public <E> Builder<T> count(Class<E> eventClass, EventTransition<T, BigDecimal> handler) {
+            return aggregate(SqlAggregate.count(EventType.type(eventClass), handler));
+        }
+
+        /**
+         * Declare when the state can no longer change, so projections stop reading; see
+         * {@link StateProjector#isDone(Object)}.
+         *
+         * @throws IllegalStateException if called after {@link #build()}
+         */
+        public Builder<T> doneWhen(Predicate<T> done) {
+            checkNotBuilt();
+            if (done == null) {
+                throw new IllegalArgumentException("done must not be null");
+            }
+            this.done = done;
+            return this;
+        }
+
+        private Builder<T> aggregate(SqlAggregate<T> aggregate) {
+            checkNotBuilt();
+            if (eventClasses.containsKey(aggregate.eventType())) {
+                throw new IllegalArgumentException("Duplicate event type registration: " + aggregate.eventType());
+            }
+            aggregates.add(aggregate);
+            return this;
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException(
+                        "Builder has already been built; create a new builder to register more handlers");
+            }
+        }
+
         /**
          * Build the {@link StateProjector}.
          * Snapshots the registered handlers; the builder must not be used after this call.
          */
         public StateProjector<T> build() {
             built = true;
-            List<String> orderedTypes = List.copyOf(eventClasses.keySet());
+            LinkedHashSet<String> types = new LinkedHashSet<>(eventClasses.keySet());
+            aggregates.forEach(aggregate -> types.add(aggregate.eventType()));
+            List<String> orderedTypes = List.copyOf(types);
             Map<String, Class<?>> classSnapshot = Map.copyOf(eventClasses);
             Map<String, EventTransition<T, ?>> transitionSnapshot = Map.copyOf(transitions);
+            List<SqlAggregate<T>> aggregateSnapshot = List.copyOf(aggregates);
             String projectorId = id;
             T projectorInitial = initialState;
+            @Nullable Predicate<T> projectorDone = done;
+            // Aggregates cannot stop early, so a projector that can be done is folded event by event
+            List<SqlAggregate<T>> pushedDown = projectorDone == null ? aggregateSnapshot : List.of();
 
-            return new StateProjector<>() {
+            final class BuiltProjector implements StateProjector<T>, SqlFoldable<T> {
                 @Override
                 public String getId() { return projectorId; }
 
@@ -172,18 +255,36 @@ public interface StateProjector<T> {
                 @Override
                 public T getInitialState() { return projectorInitial; }
 
+                @Override
+                public List<SqlAggregate<T>> aggregates() { return pushedDown; }
+
+                @Override
+                public boolean isDone(T state) { return projectorDone != null && projectorDone.test(state); }
+
                 @Override
                 @SuppressWarnings("unchecked")
                 public T transition(T currentState, StoredEvent event, EventDeserializer deserializer) {
                     Class<?> eventClass = classSnapshot.get(event.type());
                     EventTransition<T, ?> transition = transitionSnapshot.get(event.type());
-                    if (eventClass == null || transition == null) return currentState;
+                    if (eventClass == null || transition == null) return foldAggregates(currentState, event, deserializer);
                     // Safe: on() pairs eventClass and transition atomically for the same type,
                     // so deserialize(event, eventClass) returns the E that transition expects.
                     Object deserialized = deserializer.deserialize(event, eventClass);
                     return ((EventTransition<T, Object>) transition).apply(currentState, deserialized);
                 }
-            };
+
+                private T foldAggregates(T state, StoredEvent event, EventDeserializer deserializer) {
+                    @Nullable JsonNode data = null;
+                    for (SqlAggregate<T> aggregate : aggregateSnapshot) {
+                        if (!aggregate.eventType().equals(event.type())) continue;
+                        if (data == null) data = deserializer.deserialize(event, JsonNode.class);
+                        @Nullable BigDecimal value = aggregate.valueOf(data);
+                        if (value != null) state = aggregate.handler().apply(state, value);
+                    }
+                    return state;
+                }
+            }
+            return new BuiltProjector();
         }
     }
 }
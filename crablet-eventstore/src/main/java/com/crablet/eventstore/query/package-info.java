@@ -10,7 +10,10 @@
  *   <li>{@link com.crablet.eventstore.query.QueryItem} - Individual query criteria (event types and tags)</li>
  *   <li>{@link com.crablet.eventstore.query.StateProjector} - Interface for projecting state from events</li>
  *   <li>{@link com.crablet.eventstore.query.ProjectionResult} - Result of a state projection with stream position</li>
+ *   <li>{@link com.crablet.eventstore.query.SqlFoldable} - Projector of sums and counts the database can fold in one row</li>
  *   <li>{@link com.crablet.eventstore.query.EventDeserializer} - Deserializes raw events to typed event objects</li>
+ *   <li>{@link com.crablet.eventstore.query.CachingEventDeserializer} - EventDeserializer with one cached reader per event class</li>
+ *   <li>{@link com.crablet.eventstore.query.MemoizingEventDeserializer} - Parses each event once per target class within a projection</li>
  * </ul>
  * <p>
  * <strong>Query Model:</strong>
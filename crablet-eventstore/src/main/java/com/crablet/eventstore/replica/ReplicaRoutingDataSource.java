@@ -0,0 +1,369 @@
+package com.crablet.eventstore.replica;
+
+import com.crablet.eventstore.ConsistencyToken;
+import com.crablet.eventstore.metrics.ReplicaFallbackMetric;
+import com.crablet.eventstore.metrics.ReplicaHealthMetric;
+import com.crablet.eventstore.metrics.ReplicaLagMetric;
+import com.crablet.eventstore.metrics.ReplicaReadMetric;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read data source over one or more replicas, with read-your-writes reads through
+ * {@link #getConnection(ConsistencyToken)}.
+ * <p>
+ * Each connection goes to the healthy replica with the fewest connections currently borrowed
+ * from it, preferring replicas within {@code maxLagBytes} of the primary and, among equals, the
+ * one with the least lag. A replica whose pool fails to hand out a connection, or whose lag
+ * check fails, is ejected until a later lag check succeeds. With no healthy replica left, reads
+ * go to the primary. Every borrowed connection publishes {@link ReplicaReadMetric}.
+ * <p>
+ * A read that must see a token checks the replayed WAL position on the connection it borrowed,
+ * since a replica URL may point at a load balancer, and tries the replicas in turn until one has
+ * caught up or the consistency wait runs out. It then reads from the primary instead.
+ * <p>
+ * Lag and health are sampled on a daemon thread and published as {@link ReplicaLagMetric} and
+ * {@link ReplicaHealthMetric}. A replica URL that points at the primary itself is always caught
+ * up, so the same configuration works against a single database.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Name under which reads served by the primary are reported.
+     */
+    public static final String PRIMARY = "primary";
+
+    private static final String REPLAYED_LSN_SQL = """
+        SELECT (CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END
+                - '0/0'::pg_lsn)::bigint
+        """;
+
+    private static final String CURRENT_LSN_SQL = "SELECT (pg_current_wal_lsn() - '0/0'::pg_lsn)::bigint";
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * A replica and the name it is reported under.
+     */
+    public record Replica(String name, DataSource dataSource) {
+
+        public Replica {
+            if (name == null) {
+                throw new IllegalArgumentException("name must not be null");
+            }
+            if (dataSource == null) {
+                throw new IllegalArgumentException("dataSource must not be null");
+            }
+        }
+    }
+
+    private final DataSource primary;
+    private final List<ReplicaState> replicas;
+    private final long consistencyWaitNanos;
+    private final long maxLagBytes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService lagSampler;
+
+    /**
+     * Single replica with no lag limit.
+     *
+     * @see #ReplicaRoutingDataSource(DataSource, List, Duration, Duration, long, ApplicationEventPublisher)
+     */
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            String name,
+            Duration consistencyWait,
+            Duration lagCheckInterval,
+            ApplicationEventPublisher eventPublisher) {
+        this(primary, List.of(new Replica(name, replica)), consistencyWait, lagCheckInterval, Long.MAX_VALUE,
+                eventPublisher);
+    }
+
+    /**
+     * @param primary          data source pointing at the primary, for fallback reads and the
+     *                         current WAL position
+     * @param replicas         replicas to balance reads over (must not be empty)
+     * @param consistencyWait  how long a read waits for a replica to reach its token
+     * @param lagCheckInterval delay between lag and health checks
+     * @param maxLagBytes      lag beyond which a replica is only used when no other is closer
+     * @param eventPublisher   publisher for replica metrics
+     */
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            List<Replica> replicas,
+            Duration consistencyWait,
+            Duration lagCheckInterval,
+            long maxLagBytes,
+            ApplicationEventPublisher eventPublisher) {
+        if (primary == null) {
+            throw new IllegalArgumentException("primary must not be null");
+        }
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalArgumentException("replicas must not be empty");
+        }
+        if (consistencyWait == null || consistencyWait.isNegative()) {
+            throw new IllegalArgumentException("consistencyWait must not be negative");
+        }
+        if (lagCheckInterval == null || lagCheckInterval.isNegative() || lagCheckInterval.isZero()) {
+            throw new IllegalArgumentException("lagCheckInterval must be positive");
+        }
+        if (maxLagBytes < 0) {
+            throw new IllegalArgumentException("maxLagBytes must not be negative");
+        }
+        if (eventPublisher == null) {
+            throw new IllegalArgumentException("eventPublisher must not be null");
+        }
+        this.primary = primary;
+        this.replicas = replicas.stream().map(ReplicaState::new).toList();
+        this.consistencyWaitNanos = consistencyWait.toNanos();
+        this.maxLagBytes = maxLagBytes;
+        this.eventPublisher = eventPublisher;
+        this.lagSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crablet-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = lagCheckInterval.toMillis();
+        lagSampler.scheduleWithFixedDelay(this::sampleLag, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public List<String> replicaNames() {
+        return replicas.stream().map(replica -> replica.name).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        for (ReplicaState replica : candidates()) {
+            @Nullable Connection connection = borrow(replica);
+            if (connection != null) {
+                return served(replica, connection);
+            }
+        }
+        return primaryConnection();
+    }
+
+    /**
+     * Plain connections are balanced over replicas; credentials are the pools' own.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Connection that sees at least the writes covered by {@code token}: to a replica that has
+     * replayed up to the token, otherwise to the primary.
+     */
+    public Connection getConnection(ConsistencyToken token) throws SQLException {
+        if (token.isNone()) {
+            return getConnection();
+        }
+        // Replicas already seen past the token first; their replay position only moves forward
+        List<ReplicaState> candidates = new ArrayList<>();
+        List<ReplicaState> behind = new ArrayList<>();
+        for (ReplicaState replica : candidates()) {
+            (token.isReachedBy(replica.replayedLsn) ? candidates : behind).add(replica);
+        }
+        candidates.addAll(behind);
+
+        long deadline = System.nanoTime() + consistencyWaitNanos;
+        try {
+            while (true) {
+                for (ReplicaState replica : candidates) {
+                    @Nullable Connection connection = caughtUpConnection(replica, token);
+                    if (connection != null) {
+                        return served(replica, connection);
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Thread.sleep(Duration.ofNanos(Math.min(remaining, POLL_INTERVAL_NANOS)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        String preferred = candidates.isEmpty() ? PRIMARY : candidates.get(0).name;
+        log.debug("No replica reached {}; reading from the primary", token);
+        eventPublisher.publishEvent(new ReplicaFallbackMetric(preferred));
+        return primaryConnection();
+    }
+
+    /**
+     * Stop sampling lag and health. The primary and replica data sources stay open.
+     */
+    @Override
+    public void close() {
+        lagSampler.shutdownNow();
+    }
+
+    /**
+     * Healthy replicas, best first. Load and lag are read once, since other threads change them.
+     */
+    private List<ReplicaState> candidates() {
+        record Candidate(ReplicaState replica, boolean lagging, int outstanding, long lagBytes) {
+        }
+        List<Candidate> candidates = new ArrayList<>(replicas.size());
+        for (ReplicaState replica : replicas) {
+            if (replica.healthy) {
+                long lag = replica.lagBytes;
+                candidates.add(new Candidate(replica, lag > maxLagBytes, replica.outstanding.get(), lag));
+            }
+        }
+        candidates.sort(Comparator.comparing(Candidate::lagging)
+                .thenComparingInt(Candidate::outstanding)
+                .thenComparingLong(Candidate::lagBytes));
+        List<ReplicaState> ordered = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            ordered.add(candidate.replica());
+        }
+        return ordered;
+    }
+
+    private @Nullable Connection caughtUpConnection(ReplicaState replica, ConsistencyToken token) throws SQLException {
+        if (!replica.healthy) {
+            return null;
+        }
+        @Nullable Connection connection = borrow(replica);
+        if (connection == null) {
+            return null;
+        }
+        boolean caughtUp = false;
+        try {
+            long replayed = queryLsn(connection, REPLAYED_LSN_SQL);
+            replica.replayedLsn = Math.max(replica.replayedLsn, replayed);
+            caughtUp = token.isReachedBy(replayed);
+            return caughtUp ? connection : null;
+        } catch (SQLException e) {
+            eject(replica, e);
+            return null;
+        } finally {
+            if (!caughtUp) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Connection from the replica's pool that counts toward its load until closed, or
+     * {@code null} after ejecting the replica if the pool cannot hand one out.
+     */
+    private @Nullable Connection borrow(ReplicaState replica) {
+        Connection connection;
+        try {
+            connection = replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            eject(replica, e);
+            return null;
+        }
+        replica.outstanding.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                            && closed.compareAndSet(false, true)) {
+                        replica.outstanding.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private Connection served(ReplicaState replica, Connection connection) {
+        eventPublisher.publishEvent(new ReplicaReadMetric(replica.name));
+        return connection;
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        eventPublisher.publishEvent(new ReplicaReadMetric(PRIMARY));
+        return connection;
+    }
+
+    private void eject(ReplicaState replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Ejected replica {} until its next successful lag check: {}", replica.name, cause.getMessage());
+            eventPublisher.publishEvent(new ReplicaHealthMetric(replica.name, false));
+        }
+    }
+
+    private void sampleLag() {
+        long current;
+        try (Connection primaryConnection = primary.getConnection()) {
+            current = queryLsn(primaryConnection, CURRENT_LSN_SQL);
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Replication lag check failed on the primary: {}", e.getMessage());
+            return;
+        }
+        for (ReplicaState replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                long replayed = queryLsn(connection, REPLAYED_LSN_SQL);
+                replica.replayedLsn = Math.max(replica.replayedLsn, replayed);
+                // Sampled after the primary, so the lag can only be under-reported by what was
+                // written in between
+                replica.lagBytes = Math.max(0L, current - replayed);
+                eventPublisher.publishEvent(new ReplicaLagMetric(replica.name, replica.lagBytes));
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Re-admitted replica {}", replica.name);
+                }
+                eventPublisher.publishEvent(new ReplicaHealthMetric(replica.name, true));
+            } catch (SQLException | RuntimeException e) {
+                eject(replica, e);
+            }
+        }
+    }
+
+    private static long queryLsn(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            // NULL while a standby has not replayed anything yet
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private static final class ReplicaState {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile long lagBytes;
+        private volatile long replayedLsn;
+
+        private ReplicaState(Replica replica) {
+            this.name = replica.name();
+            this.dataSource = replica.dataSource();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * Read replica routing.
+ * <p>
+ * {@link com.crablet.eventstore.replica.ReplicaRoutingDataSource} serves reads from a replica and,
+ * for reads that must see a {@link com.crablet.eventstore.ConsistencyToken}, waits briefly for the
+ * replica to replay up to it before falling back to the primary.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.replica;
@@ -0,0 +1,67 @@
+package com.crablet.eventstore.snapshot;
+
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Stable identity of a {@link Query} for snapshot keys.
+ * <p>
+ * A query item matches {@code type = ANY(types) AND tags @> tags} and items are OR-ed, so the
+ * order of items, of types within an item and of tags within an item does not change which
+ * events match. The canonical form sorts all three and length-prefixes every string, then the
+ * SHA-256 of that form is used as the fingerprint.
+ */
+final class QueryFingerprint {
+
+    private QueryFingerprint() {}
+
+    static String of(Query query) {
+        TreeSet<String> items = new TreeSet<>();
+        for (QueryItem item : query.items()) {
+            items.add(canonical(item));
+        }
+        StringBuilder canonical = new StringBuilder();
+        for (String item : items) {
+            canonical.append('(').append(item).append(')');
+        }
+        return sha256(canonical.toString());
+    }
+
+    private static String canonical(QueryItem item) {
+        StringBuilder sb = new StringBuilder("types");
+        for (String type : new TreeSet<>(item.eventTypes())) {
+            appendField(sb, type);
+        }
+        sb.append("tags");
+        List<String> tags = new ArrayList<>(item.tags().size());
+        for (Tag tag : item.tags()) {
+            tags.add(tag.key() + "=" + tag.value());
+        }
+        for (String tag : new TreeSet<>(tags)) {
+            appendField(sb, tag);
+        }
+        return sb.toString();
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        sb.append(value.length()).append(':').append(value);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.crablet.eventstore.snapshot;
+
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StreamPosition;
+import org.jspecify.annotations.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * JDBC access to {@code crablet_snapshots}.
+ */
+final class SnapshotStore {
+
+    /**
+     * Identity of a snapshot row.
+     */
+    record SnapshotKey(String queryFingerprint, String projectorId, int schemaVersion) {
+    }
+
+    /**
+     * Stored state as JSON together with the {@code (transaction_id, position)} of the last event
+     * folded into it.
+     */
+    record StoredSnapshot(String stateJson, StreamPosition position) {
+    }
+
+    private static final String LOAD_SQL = """
+        SELECT position, transaction_id::TEXT AS transaction_id, occurred_at, state::TEXT AS state
+        FROM crablet_snapshots
+        WHERE query_fingerprint = ? AND projector_id = ? AND schema_version = ?
+        """;
+
+    // The snapshot row is derived from the event row at its cursor, so the write only succeeds
+    // when that event exists and its transaction is below the safe horizon read before the
+    // projection, on the same connection. A snapshot of a rolled-back or still in-flight event is
+    // never stored, and an older snapshot never replaces a newer one.
+    private static final String SAVE_SQL = """
+        INSERT INTO crablet_snapshots
+            (query_fingerprint, projector_id, schema_version, position, transaction_id, occurred_at, state)
+        SELECT ?, ?, ?, e.position, e.transaction_id, e.occurred_at, ?::jsonb
+        FROM crablet_events e
+        WHERE e.position = ?
+          AND e.transaction_id = ?::xid8
+          AND e.transaction_id < ?::xid8
+        ON CONFLICT (query_fingerprint, projector_id, schema_version) DO UPDATE
+        SET position       = EXCLUDED.position,
+            transaction_id = EXCLUDED.transaction_id,
+            occurred_at    = EXCLUDED.occurred_at,
+            state          = EXCLUDED.state,
+            created_at     = CURRENT_TIMESTAMP
+        WHERE (crablet_snapshots.transaction_id, crablet_snapshots.position)
+            < (EXCLUDED.transaction_id, EXCLUDED.position)
+        """;
+
+    private final DataSource readDataSource;
+
+    SnapshotStore(DataSource readDataSource) {
+        this.readDataSource = readDataSource;
+    }
+
+    @Nullable StoredSnapshot load(SnapshotKey key) {
+        try (Connection connection = readDataSource.getConnection()) {
+            return load(connection, key);
+        } catch (SQLException e) {
+            throw new EventStoreException("Failed to load snapshot", e);
+        }
+    }
+
+    @Nullable StoredSnapshot load(Connection connection, SnapshotKey key) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(LOAD_SQL)) {
+            stmt.setString(1, key.queryFingerprint());
+            stmt.setString(2, key.projectorId());
+            stmt.setInt(3, key.schemaVersion());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                StreamPosition position = new StreamPosition(
+                        rs.getLong("position"),
+                        rs.getTimestamp("occurred_at").toInstant(),
+                        rs.getString("transaction_id"));
+                return new StoredSnapshot(rs.getString("state"), position);
+            }
+        }
+    }
+
+    /**
+     * @param connection    connection of the primary transaction that projected the state
+     * @param transactionId transaction id of the last folded event
+     * @param horizon       safe horizon read on {@code connection} before the projection
+     * @return {@code true} if the snapshot was stored; {@code false} if its event is not below
+     *         {@code horizon} or a newer snapshot already exists
+     */
+    boolean save(Connection connection, SnapshotKey key, long position, String transactionId,
+                 String horizon, String stateJson) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SAVE_SQL)) {
+            stmt.setString(1, key.queryFingerprint());
+            stmt.setString(2, key.projectorId());
+            stmt.setInt(3, key.schemaVersion());
+            stmt.setString(4, stateJson);
+            stmt.setLong(5, position);
+            stmt.setString(6, transactionId);
+            stmt.setString(7, horizon);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.crablet.eventstore.snapshot;
+
+import com.crablet.eventstore.query.StateProjector;
+
+/**
+ * A {@link StateProjector} whose state may be stored in {@code crablet_snapshots}.
+ * <p>
+ * The state is written and read with the application's {@code ObjectMapper}, so
+ * {@link #getStateType()} must round-trip through JSON to an equal value. Bump
+ * {@link #getStateSchemaVersion()} whenever the state shape or the meaning of
+ * {@link #transition} changes; snapshots written under another version are ignored.
+ * <p>
+ * When several projectors are projected together they share one state, so all of them must
+ * implement this interface and report the same schema version for the projection to be
+ * snapshotted.
+ *
+ * @param <T> the projected state type
+ */
+public interface SnapshottableStateProjector<T> extends StateProjector<T> {
+
+    /**
+     * Concrete class used to deserialize stored state.
+     */
+    Class<T> getStateType();
+
+    /**
+     * Version of the state schema. Snapshots are only reused when this matches.
+     */
+    default int getStateSchemaVersion() {
+        return 1;
+    }
+}
@@ -0,0 +1,562 @@
+package com.crablet.eventstore.snapshot;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.CommandAuditStore;
+import com.crablet.eventstore.ConsistencyToken;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.internal.CommandAppendAware;
+import com.crablet.eventstore.internal.TransactionConnectionAware;
+import com.crablet.eventstore.internal.TransactionCursorAware;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.snapshot.SnapshotStore.SnapshotKey;
+import com.crablet.eventstore.snapshot.SnapshotStore.StoredSnapshot;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link EventStore} decorator that starts decision-model projections from a stored snapshot.
+ * <p>
+ * A projection is snapshotted when it starts from {@link StreamPosition#zero()} and every
+ * projector implements {@link SnapshottableStateProjector} with the same state type and schema
+ * version. For such a projection the decorator:
+ * <ol>
+ *   <li>loads the latest {@code crablet_snapshots} row keyed by (query fingerprint, projector ids,
+ *       state schema version);</li>
+ *   <li>projects only the events after the snapshot's {@code (transaction_id, position)}, as
+ *       the pollers read them, starting from the snapshot state;</li>
+ *   <li>when at least {@code eventThreshold} events had to be replayed, schedules an asynchronous
+ *       snapshot refresh.</li>
+ * </ol>
+ * The returned {@link ProjectionResult#streamPosition()} is the position of the last matching
+ * event, or the snapshot position when no newer event matched. Either way it is the position of
+ * the last event folded into the state, so {@code appendNonCommutative} checks exactly the events
+ * the decision did not see.
+ * <p>
+ * A position alone would not do: a transaction with a higher id can commit after the snapshot
+ * while holding a lower position. Snapshots are refreshed on a background thread, in a
+ * transaction of the delegate on the primary, and are stored only when the last folded event's
+ * transaction is below {@code pg_snapshot_xmin(pg_current_snapshot())} read in that transaction
+ * before the projection — the same safe horizon used by the DCB conflict check. Every
+ * transaction ordered before the snapshot has then ended and was folded. Delegates that cannot
+ * resume from such a cursor (see {@link TransactionCursorAware}) are projected without
+ * snapshots. Inside {@link #executeInTransaction}
+ * snapshots are read on the transaction's own connection and the projection still sees the
+ * transaction's uncommitted appends.
+ * <p>
+ * All other operations are delegated unchanged.
+ */
+public class SnapshottingEventStore implements EventStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshottingEventStore.class);
+
+    private static final int WRITER_QUEUE_CAPACITY = 1024;
+
+    private final EventStore delegate;
+    private final SnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
+    private final int eventThreshold;
+    private final ThreadPoolExecutor writer;
+    private final Set<SnapshotKey> pendingWrites = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param delegate       event store that performs the actual reads and appends; snapshots are
+     *                       refreshed and stored in its transactions
+     * @param readDataSource data source used to load snapshots outside transactions
+     * @param objectMapper   mapper used to serialize snapshot state
+     * @param eventThreshold number of events replayed after the latest snapshot that triggers a refresh
+     */
+    public SnapshottingEventStore(
+            EventStore delegate,
+            DataSource readDataSource,
+            ObjectMapper objectMapper,
+            int eventThreshold) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+        if (readDataSource == null) {
+            throw new IllegalArgumentException("DataSource must not be null");
+        }
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("ObjectMapper must not be null");
+        }
+        if (eventThreshold < 1) {
+            throw new IllegalArgumentException("eventThreshold must be at least 1");
+        }
+        this.delegate = delegate;
+        this.snapshotStore = new SnapshotStore(readDataSource);
+        this.objectMapper = objectMapper;
+        this.eventThreshold = eventThreshold;
+        this.writer = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WRITER_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "crablet-snapshot-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String appendCommutative(List<AppendEvent> events) {
+        return delegate.appendCommutative(events);
+    }
+
+    @Override
+    public String appendNonCommutative(
+            List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
+        return delegate.appendNonCommutative(events, decisionModel, streamPosition);
+    }
+
+    @Override
+    public String appendConditional(List<AppendEvent> events, AppendCondition condition) {
+        return delegate.appendConditional(events, condition);
+    }
+
+    @Override
+    public String appendIdempotent(List<AppendEvent> events, String eventType, String tagKey, String tagValue) {
+        return delegate.appendIdempotent(events, eventType, tagKey, tagValue);
+    }
+
+    @Override
+    public String appendIdempotent(List<AppendEvent> events, Query idempotencyQuery) {
+        return delegate.appendIdempotent(events, idempotencyQuery);
+    }
+
+    @Override
+    public <T> ProjectionResult<T> project(
+            Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+        return projectFromSnapshot(delegate, null, query, after, stateType, projectors);
+    }
+
+    @Override
+    public boolean exists(Query query) {
+        return delegate.exists(query);
+    }
+
+    @Override
+    public ConsistencyToken lastCommitToken() {
+        return delegate.lastCommitToken();
+    }
+
+    /**
+     * Snapshots are still loaded from the read data source; a snapshot older than the token only
+     * means more events are folded after it.
+     */
+    @Override
+    public EventStore readAtLeast(ConsistencyToken token) {
+        EventStore consistent = delegate.readAtLeast(token);
+        return consistent == delegate ? this : new TransactionView(consistent);
+    }
+
+    @Override
+    public <T> T executeInTransaction(Function<EventStore, T> operation) {
+        return delegate.executeInTransaction(tx -> operation.apply(viewOf(tx)));
+    }
+
+    private TransactionView viewOf(EventStore tx) {
+        if (tx instanceof CommandAuditStore && tx instanceof TransactionConnectionAware
+                && tx instanceof TransactionCursorAware) {
+            return new ConnectedTransactionView(tx);
+        }
+        return tx instanceof CommandAuditStore ? new AuditingTransactionView(tx) : new TransactionView(tx);
+    }
+
+    /**
+     * Stop the snapshot writer, waiting briefly for queued refreshes, and close the delegate
+     * if it is closeable.
+     */
+    @Override
+    public void close() throws Exception {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+        }
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private <T> ProjectionResult<T> projectFromSnapshot(
+            EventStore target,
+            @Nullable TransactionConnectionAware transaction,
+            Query query,
+            StreamPosition after,
+            Class<T> stateType,
+            List<StateProjector<T>> projectors) {
+        @Nullable Plan<T> plan = plan(query, after, projectors);
+        if (plan == null || !(target instanceof TransactionCursorAware cursor)) {
+            return target.project(query, after, stateType, projectors);
+        }
+
+        @Nullable LoadedSnapshot<T> snapshot = load(plan, transaction);
+        List<StateProjector<T>> effective = new ArrayList<>(
+                snapshot != null ? seed(projectors, snapshot.state()) : projectors);
+        EventCounter<T> counter = new EventCounter<>(effective.get(0));
+        effective.add(counter);
+
+        ProjectionResult<T> result = snapshot != null
+                ? cursor.projectAfterCursor(query, snapshot.position(), stateType, effective)
+                : target.project(query, after, stateType, effective);
+        if (counter.count >= eventThreshold) {
+            scheduleRefresh(plan);
+        }
+        return result;
+    }
+
+    private record Plan<T>(
+            SnapshotKey key, Query query, Class<T> stateType, List<StateProjector<T>> projectors) {
+    }
+
+    private record LoadedSnapshot<T>(T state, StreamPosition position) {
+    }
+
+    /**
+     * Decide whether a projection can use snapshots.
+     *
+     * @return the snapshot plan, or {@code null} to project without snapshots
+     */
+    private static <T> @Nullable Plan<T> plan(
+            Query query, StreamPosition after, List<StateProjector<T>> projectors) {
+        // A snapshot folds every event, not only the latest ones
+        if (after.position() != 0 || query.latest() != 0 || projectors.isEmpty()) {
+            return null;
+        }
+        @Nullable Class<T> stateType = null;
+        int schemaVersion = 0;
+        for (StateProjector<T> projector : projectors) {
+            if (!(projector instanceof SnapshottableStateProjector<T> snapshottable)) {
+                return null;
+            }
+            if (stateType == null) {
+                stateType = snapshottable.getStateType();
+                schemaVersion = snapshottable.getStateSchemaVersion();
+            } else if (!stateType.equals(snapshottable.getStateType())
+                    || schemaVersion != snapshottable.getStateSchemaVersion()) {
+                log.debug("Projectors disagree on state type or schema version; projecting without snapshot");
+                return null;
+            }
+        }
+        if (stateType == null) {
+            return null;
+        }
+        String projectorId = projectors.stream()
+                .map(StateProjector::getId)
+                .collect(Collectors.joining(","));
+        SnapshotKey key = new SnapshotKey(QueryFingerprint.of(query), projectorId, schemaVersion);
+        return new Plan<>(key, query, stateType, List.copyOf(projectors));
+    }
+
+    private <T> @Nullable LoadedSnapshot<T> load(Plan<T> plan, @Nullable TransactionConnectionAware transaction) {
+        @Nullable StoredSnapshot stored;
+        if (transaction != null) {
+            // Inside a transaction a failed read has already aborted it, so there is no fallback
+            stored = transaction.withTransactionConnection(
+                    connection -> Optional.ofNullable(snapshotStore.load(connection, plan.key())))
+                    .orElse(null);
+        } else {
+            try {
+                stored = snapshotStore.load(plan.key());
+            } catch (EventStoreException e) {
+                log.warn("Failed to load snapshot for {}, replaying full history: {}",
+                        plan.key().projectorId(), e.getMessage());
+                return null;
+            }
+        }
+        if (stored == null) {
+            return null;
+        }
+        try {
+            return new LoadedSnapshot<>(
+                    objectMapper.readValue(stored.stateJson(), plan.stateType()), stored.position());
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable snapshot for {} at position {}: {}",
+                    plan.key().projectorId(), stored.position().position(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void scheduleRefresh(Plan<?> plan) {
+        if (!pendingWrites.add(plan.key())) {
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    refresh(plan);
+                } catch (RuntimeException e) {
+                    log.warn("Snapshot refresh failed for {}: {}", plan.key().projectorId(), e.getMessage());
+                } finally {
+                    pendingWrites.remove(plan.key());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingWrites.remove(plan.key());
+            log.debug("Snapshot writer busy; skipping refresh for {}", plan.key().projectorId());
+        }
+    }
+
+    /**
+     * Re-project from the latest snapshot in a transaction of the delegate, which runs on the
+     * primary, and store the result on the same connection. The transaction appends nothing, so
+     * only committed events are folded.
+     */
+    private <T> void refresh(Plan<T> plan) {
+        delegate.executeInTransaction(tx -> {
+            if (tx instanceof TransactionConnectionAware connection && tx instanceof TransactionCursorAware cursor) {
+                return refresh(plan, tx, connection, cursor);
+            }
+            log.debug("Snapshot for {} skipped: the delegate's transactions cannot store snapshots",
+                    plan.key().projectorId());
+            return false;
+        });
+    }
+
+    /**
+     * @return whether a snapshot was stored
+     */
+    private <T> boolean refresh(
+            Plan<T> plan, EventStore tx, TransactionConnectionAware connection, TransactionCursorAware cursor) {
+        @Nullable LoadedSnapshot<T> base = load(plan, connection);
+        // Read before the projection, so every transaction below it is visible to the projection
+        String horizon = connection.safeHorizon();
+        List<StateProjector<T>> projectors = new ArrayList<>(
+                base != null ? seed(plan.projectors(), base.state()) : plan.projectors());
+        EventCounter<T> counter = new EventCounter<>(projectors.get(0));
+        projectors.add(counter);
+
+        ProjectionResult<T> result = base != null
+                ? cursor.projectAfterCursor(plan.query(), base.position(), plan.stateType(), projectors)
+                : tx.project(plan.query(), StreamPosition.zero(), plan.stateType(), projectors);
+        @Nullable StreamPosition last = result.streamPosition();
+        @Nullable String lastTransactionId = last != null ? last.transactionId() : null;
+        if (counter.count == 0 || last == null || lastTransactionId == null) {
+            return false;
+        }
+        long position = last.position();
+        String transactionId = lastTransactionId;
+        if (!TransactionCursorAware.isBelow(transactionId, horizon)) {
+            log.debug("Snapshot for {} at position {} skipped: above the safe horizon",
+                    plan.key().projectorId(), position);
+            return false;
+        }
+        String stateJson;
+        try {
+            stateJson = objectMapper.writeValueAsString(result.state());
+        } catch (JacksonException e) {
+            log.warn("Snapshot state of {} is not serializable: {}", plan.key().projectorId(), e.getMessage());
+            return false;
+        }
+        boolean stored = connection.withTransactionConnection(
+                c -> snapshotStore.save(c, plan.key(), position, transactionId, horizon, stateJson));
+        if (stored) {
+            log.debug("Stored snapshot for {} at position {}", plan.key().projectorId(), position);
+        } else {
+            log.debug("Snapshot for {} at position {} not stored (superseded)", plan.key().projectorId(), position);
+        }
+        return stored;
+    }
+
+    private static <T> List<StateProjector<T>> seed(List<StateProjector<T>> projectors, T state) {
+        List<StateProjector<T>> seeded = new ArrayList<>(projectors.size());
+        for (StateProjector<T> projector : projectors) {
+            seeded.add(new SeededProjector<>(projector, state));
+        }
+        return seeded;
+    }
+
+    /**
+     * Projector that starts from snapshot state instead of the projector's initial state.
+     */
+    private record SeededProjector<T>(StateProjector<T> projector, T snapshotState) implements StateProjector<T> {
+
+        @Override
+        public String getId() {
+            return projector.getId();
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return projector.getEventTypes();
+        }
+
+        @Override
+        public T getInitialState() {
+            return snapshotState;
+        }
+
+        @Override
+        public T transition(T currentState, StoredEvent event, EventDeserializer deserializer) {
+            return projector.transition(currentState, event, deserializer);
+        }
+    }
+
+    /**
+     * Pass-through projector that counts the events replayed by a projection. An empty
+     * {@link #getEventTypes()} means it sees every event the query returns, and since it is never
+     * done the fold reads every event up to the returned position.
+     */
+    private static final class EventCounter<T> implements StateProjector<T> {
+
+        private final StateProjector<T> first;
+        private int count;
+
+        private EventCounter(StateProjector<T> first) {
+            this.first = first;
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return List.of();
+        }
+
+        @Override
+        public T getInitialState() {
+            return first.getInitialState();
+        }
+
+        @Override
+        public T transition(T currentState, StoredEvent event, EventDeserializer deserializer) {
+            count++;
+            return currentState;
+        }
+    }
+
+    /**
+     * Transaction-scoped view that applies snapshots to projections and forwards everything
+     * else to the delegate's transaction-scoped store. Also wraps the delegate's
+     * {@code readAtLeast} views, which are not transaction-scoped.
+     */
+    private class TransactionView implements EventStore {
+
+        protected final EventStore tx;
+
+        private TransactionView(EventStore tx) {
+            this.tx = tx;
+        }
+
+        @Override
+        public String appendCommutative(List<AppendEvent> events) {
+            return tx.appendCommutative(events);
+        }
+
+        @Override
+        public String appendNonCommutative(
+                List<AppendEvent> events, Query decisionModel, StreamPosition streamPosition) {
+            return tx.appendNonCommutative(events, decisionModel, streamPosition);
+        }
+
+        @Override
+        public String appendConditional(List<AppendEvent> events, AppendCondition condition) {
+            return tx.appendConditional(events, condition);
+        }
+
+        @Override
+        public String appendIdempotent(List<AppendEvent> events, String eventType, String tagKey, String tagValue) {
+            return tx.appendIdempotent(events, eventType, tagKey, tagValue);
+        }
+
+        @Override
+        public String appendIdempotent(List<AppendEvent> events, Query idempotencyQuery) {
+            return tx.appendIdempotent(events, idempotencyQuery);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> project(
+                Query query, StreamPosition after, Class<T> stateType, List<StateProjector<T>> projectors) {
+            @Nullable TransactionConnectionAware connection =
+                    tx instanceof TransactionConnectionAware aware ? aware : null;
+            return projectFromSnapshot(tx, connection, query, after, stateType, projectors);
+        }
+
+        @Override
+        public boolean exists(Query query) {
+            return tx.exists(query);
+        }
+
+        @Override
+        public <T> T executeInTransaction(Function<EventStore, T> operation) {
+            return SnapshottingEventStore.this.executeInTransaction(operation);
+        }
+    }
+
+    /**
+     * {@link TransactionView} that keeps the delegate's {@link CommandAuditStore} capability
+     * visible to the command executor.
+     */
+    private class AuditingTransactionView extends TransactionView implements CommandAuditStore, CommandAppendAware {
+
+        private AuditingTransactionView(EventStore tx) {
+            super(tx);
+        }
+
+        @Override
+        public boolean storeCommand(String commandJson, String commandType, Instant occurredAt) {
+            return ((CommandAuditStore) tx).storeCommand(commandJson, commandType, occurredAt);
+        }
+
+        @Override
+        public boolean storeCommandIfAbsent(
+                String commandJson, String commandType, UUID commandId, Instant occurredAt) {
+            return ((CommandAuditStore) tx).storeCommandIfAbsent(commandJson, commandType, commandId, occurredAt);
+        }
+
+        @Override
+        public String appendWithCommand(List<AppendEvent> events, AppendCondition condition,
+                                        String commandJson, String commandType, Instant occurredAt) {
+            if (tx instanceof CommandAppendAware aware) {
+                return aware.appendWithCommand(events, condition, commandJson, commandType, occurredAt);
+            }
+            String transactionId = tx.appendConditional(events, condition);
+            storeCommand(commandJson, commandType, occurredAt);
+            return transactionId;
+        }
+    }
+
+    /**
+     * {@link AuditingTransactionView} that also exposes the transaction connection and cursor
+     * reads, so decorators stacked on top (such as the command decision-model cache) keep working.
+     */
+    private final class ConnectedTransactionView extends AuditingTransactionView
+            implements TransactionConnectionAware, TransactionCursorAware {
+
+        private ConnectedTransactionView(EventStore tx) {
+            super(tx);
+        }
+
+        @Override
+        public <R> R withTransactionConnection(ConnectionWork<R> work) {
+            return ((TransactionConnectionAware) tx).withTransactionConnection(work);
+        }
+
+        @Override
+        public <T> ProjectionResult<T> projectAfterCursor(
+                Query query, StreamPosition cursor, Class<T> stateType, List<StateProjector<T>> projectors) {
+            return ((TransactionCursorAware) tx).projectAfterCursor(query, cursor, stateType, projectors);
+        }
+    }
+}
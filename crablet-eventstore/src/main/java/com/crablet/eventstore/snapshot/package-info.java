@@ -0,0 +1,11 @@
+/**
+ * Decision-model snapshots.
+ * <p>
+ * {@link com.crablet.eventstore.snapshot.SnapshottingEventStore} decorates an
+ * {@link com.crablet.eventstore.EventStore} so that projections of long-lived entities start
+ * from the latest row in {@code crablet_snapshots} and replay only the events after it.
+ * Only projectors implementing {@link com.crablet.eventstore.snapshot.SnapshottableStateProjector}
+ * take part; every other projection is passed through unchanged.
+ */
+@org.jspecify.annotations.NullMarked
+package com.crablet.eventstore.snapshot;
@@ -0,0 +1,56 @@
+package com.crablet.eventstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConsistencyToken Unit Tests")
+class ConsistencyTokenTest {
+
+    @Test
+    @DisplayName("Should round-trip PostgreSQL pg_lsn notation")
+    void shouldRoundTripPgLsnNotation() {
+        ConsistencyToken token = ConsistencyToken.parse("16/B374D848");
+
+        assertThat(token.lsn()).isEqualTo((0x16L << 32) | 0xB374D848L);
+        assertThat(token).hasToString("16/B374D848");
+        assertThat(ConsistencyToken.parse(token.toString())).isEqualTo(token);
+        assertThat(ConsistencyToken.NONE).hasToString("0/0");
+    }
+
+    @Test
+    @DisplayName("Should be reached by equal or later replayed positions only")
+    void shouldBeReachedByEqualOrLaterPositions() {
+        ConsistencyToken token = new ConsistencyToken(100);
+
+        assertThat(token.isReachedBy(99)).isFalse();
+        assertThat(token.isReachedBy(100)).isTrue();
+        assertThat(token.isReachedBy(101)).isTrue();
+        assertThat(ConsistencyToken.NONE.isReachedBy(0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep the later of two tokens")
+    void shouldKeepLaterToken() {
+        ConsistencyToken earlier = new ConsistencyToken(100);
+        ConsistencyToken later = new ConsistencyToken(200);
+
+        assertThat(earlier.max(later)).isSameAs(later);
+        assertThat(later.max(earlier)).isSameAs(later);
+    }
+
+    @Test
+    @DisplayName("Should reject text that is not a pg_lsn")
+    void shouldRejectInvalidText() {
+        assertThatThrownBy(() -> ConsistencyToken.parse("16B374D848"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConsistencyToken.parse("16/"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConsistencyToken.parse("16/XYZ"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ConsistencyToken(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
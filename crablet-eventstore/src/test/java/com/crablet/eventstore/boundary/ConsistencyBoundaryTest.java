@@ -0,0 +1,60 @@
+package com.crablet.eventstore.boundary;
+
+import com.crablet.eventstore.AppendCondition;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConsistencyBoundary")
+class ConsistencyBoundaryTest {
+
+    @Test
+    @DisplayName("shape id is canonical regardless of declaration order and duplicates")
+    void shapeIdIsCanonical() {
+        ConsistencyBoundary a = ConsistencyBoundary.of(List.of("WithdrawalMade", "DepositMade"), List.of("wallet_id"));
+        ConsistencyBoundary b = ConsistencyBoundary.of(
+                List.of("DepositMade", "WithdrawalMade", "DepositMade"), List.of("wallet_id", "wallet_id"));
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a.shapeId()).isEqualTo("DepositMade,WithdrawalMade|wallet_id");
+    }
+
+    @Test
+    @DisplayName("derives types and tag keys from every item of a decision-model query")
+    void derivesFromQuery() {
+        Query query = Query.of(List.of(
+                QueryItem.of(List.of("DepositMade"), List.of(new Tag("wallet_id", "w1"))),
+                QueryItem.of(List.of("TransferMade"), List.of(new Tag("to_wallet_id", "w1")))));
+
+        ConsistencyBoundary boundary = ConsistencyBoundary.from(query);
+
+        assertThat(boundary.eventTypes()).containsExactly("DepositMade", "TransferMade");
+        assertThat(boundary.tagKeys()).containsExactly("to_wallet_id", "wallet_id");
+    }
+
+    @Test
+    @DisplayName("derives from the concurrency query of an append condition")
+    void derivesFromAppendCondition() {
+        Query decisionModel = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+        AppendCondition condition = AppendCondition.of(StreamPosition.zero(), decisionModel);
+
+        assertThat(ConsistencyBoundary.from(condition)).isEqualTo(ConsistencyBoundary.from(decisionModel));
+    }
+
+    @Test
+    @DisplayName("rejects queries without tags")
+    void rejectsQueriesWithoutTags() {
+        assertThatThrownBy(() -> ConsistencyBoundary.from(Query.forEvent("DepositMade")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConsistencyBoundary.from(Query.noCondition()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
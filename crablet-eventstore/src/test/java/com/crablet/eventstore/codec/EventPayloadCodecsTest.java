@@ -0,0 +1,77 @@
+package com.crablet.eventstore.codec;
+
+import com.crablet.eventstore.EventStoreException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventPayloadCodecsTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private static final byte[] PAYLOAD = """
+            {"walletId":"w1","amount":0.10000000000000000000001,"big":123456789012345678901234567890,"tags":["a","a","a"],"note":null}
+            """.strip().getBytes(StandardCharsets.UTF_8);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json", "json-deflate", "smile", "cbor"})
+    void roundTripsThroughEveryBuiltInCodec(String name) {
+        EventPayloadCodecs codecs = EventPayloadCodecs.binary(name);
+
+        byte[] stored = codecs.encode(PAYLOAD);
+        byte[] decoded = EventPayloadCodecs.decode(codecs.writeCodec().id(), stored);
+
+        assertThat(tree(decoded)).isEqualTo(tree(PAYLOAD));
+        // Decimals must survive exactly, not rounded to a double
+        assertThat(tree(decoded).get("amount").decimalValue())
+                .isEqualByComparingTo("0.10000000000000000000001");
+    }
+
+    @Test
+    void jsonIsStoredUnchanged() {
+        assertThat(EventPayloadCodecs.defaults().encode(PAYLOAD)).isSameAs(PAYLOAD);
+        assertThat(EventPayloadCodecs.decode(EventPayloadCodecs.JSON, PAYLOAD)).isSameAs(PAYLOAD);
+    }
+
+    @Test
+    void deflateShrinksRepetitivePayloads() {
+        byte[] large = ("{\"lines\":[" + "\"same line of text\",".repeat(1_000) + "\"end\"]}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThat(EventPayloadCodecs.binary("json-deflate").encode(large).length).isLessThan(large.length / 10);
+    }
+
+    @Test
+    void unknownCodecIdFailsToDecode() {
+        assertThatThrownBy(() -> EventPayloadCodecs.decode((short) 42, PAYLOAD))
+                .isInstanceOf(EventStoreException.class)
+                .hasMessageContaining("42");
+    }
+
+    @Test
+    void unknownCodecNameIsRejected() {
+        assertThatThrownBy(() -> EventPayloadCodecs.binary("lz4"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("lz4");
+    }
+
+    @Test
+    void corruptDeflatePayloadFailsToDecode() {
+        assertThatThrownBy(() -> EventPayloadCodecs.decode(EventPayloadCodecs.JSON_DEFLATE, new byte[] {0, 0, 0, 9, 1, 2}))
+                .isInstanceOf(EventStoreException.class);
+    }
+
+    private static JsonNode tree(byte[] json) {
+        return JSON.readTree(json);
+    }
+}
@@ -4,8 +4,17 @@ import com.crablet.eventstore.ClockProvider;
 import com.crablet.eventstore.EventStore;
 import com.crablet.eventstore.ReadDataSource;
 import com.crablet.eventstore.WriteDataSource;
+import com.crablet.eventstore.archive.EventArchive;
+import com.crablet.eventstore.archive.EventArchiver;
+import com.crablet.eventstore.boundary.ConsistencyBoundaryRegistry;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import com.crablet.eventstore.internal.EventPartitionMaintainer;
 import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.internal.IdempotencyKeyPruner;
 import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.snapshot.SnapshottingEventStore;
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
@@ -32,6 +41,8 @@ class EventStoreAutoConfigurationTest {
         runner.run(ctx -> {
             assertThat(ctx).hasSingleBean(EventStore.class);
             assertThat(ctx).hasSingleBean(EventRepository.class);
+            assertThat(ctx).hasSingleBean(EventStoreBulkImporter.class);
+            assertThat(ctx).hasSingleBean(ConsistencyBoundaryRegistry.class);
             assertThat(ctx).hasSingleBean(WriteDataSource.class);
             assertThat(ctx).hasSingleBean(ReadDataSource.class);
             assertThat(ctx).hasSingleBean(JdbcTemplate.class);
@@ -49,6 +60,18 @@ class EventStoreAutoConfigurationTest {
         });
     }
 
+    @Test
+    void autoConfiguredPoolDefaultsToEventStoreIsolation() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(EventStoreAutoConfiguration.class))
+                .withBean(tools.jackson.databind.ObjectMapper.class, () -> JsonMapper.builder().build())
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:postgresql://localhost:5432/crablet",
+                        "crablet.eventstore.transaction-isolation=REPEATABLE_READ")
+                .run(ctx -> assertThat(ctx.getBean("dataSource", HikariDataSource.class).getTransactionIsolation())
+                        .isEqualTo("TRANSACTION_REPEATABLE_READ"));
+    }
+
     @Test
     void customNotificationChannelIsPassedToEventStoreImpl() {
         runner.withPropertyValues("crablet.eventstore.notifications.channel=custom_events")
@@ -60,6 +83,89 @@ class EventStoreAutoConfigurationTest {
                 });
     }
 
+    @Test
+    void snapshotsEnabledWrapsEventStoreInSnapshottingDecorator() {
+        runner.withPropertyValues("crablet.eventstore.snapshots.enabled=true")
+                .run(ctx -> assertThat(ctx.getBean(EventStore.class)).isInstanceOf(SnapshottingEventStore.class));
+    }
+
+    @Test
+    void idempotencyKeyPrunerOnlyCreatedWhenRetentionIsSet() {
+        runner.run(ctx -> assertThat(ctx).doesNotHaveBean(IdempotencyKeyPruner.class));
+        runner.withPropertyValues("crablet.eventstore.idempotency-keys.retention=30d")
+                .run(ctx -> assertThat(ctx).hasSingleBean(IdempotencyKeyPruner.class));
+    }
+
+    @Test
+    void partitionMaintainerOnlyCreatedWhenEnabled() {
+        runner.run(ctx -> assertThat(ctx).doesNotHaveBean(EventPartitionMaintainer.class));
+        runner.withPropertyValues("crablet.eventstore.partitioning.enabled=true")
+                .run(ctx -> assertThat(ctx).hasSingleBean(EventPartitionMaintainer.class));
+    }
+
+    @Test
+    void archiveBeansOnlyCreatedWhenEnabled() {
+        runner.run(ctx -> {
+            assertThat(ctx).doesNotHaveBean(EventArchive.class);
+            assertThat(ctx).doesNotHaveBean(EventArchiver.class);
+        });
+        runner.withPropertyValues(
+                        "crablet.eventstore.archive.enabled=true",
+                        "crablet.eventstore.archive.directory=build/crablet-archive")
+                .run(ctx -> {
+                    assertThat(ctx).hasSingleBean(EventArchive.class);
+                    assertThat(ctx).hasSingleBean(EventArchiver.class);
+                });
+        runner.withPropertyValues(
+                        "crablet.eventstore.archive.enabled=true",
+                        "crablet.eventstore.archive.archiver-enabled=false",
+                        "crablet.eventstore.archive.directory=build/crablet-archive")
+                .run(ctx -> {
+                    assertThat(ctx).hasSingleBean(EventArchive.class);
+                    assertThat(ctx).doesNotHaveBean(EventArchiver.class);
+                });
+    }
+
+    @Test
+    void archiveEnabledWithoutDirectoryFailsFast() {
+        runner.withPropertyValues("crablet.eventstore.archive.enabled=true")
+                .run(ctx -> assertThat(ctx).hasFailed());
+    }
+
+    @Test
+    void payloadCodecsDefaultToJsonb() {
+        runner.run(ctx -> {
+            EventPayloadCodecs codecs = ctx.getBean(EventPayloadCodecs.class);
+            assertThat(codecs.binaryStorage()).isFalse();
+            assertThat(codecs.writeCodec().id()).isEqualTo(EventPayloadCodecs.JSON);
+        });
+    }
+
+    @Test
+    void byteaStorageUsesConfiguredCodec() {
+        runner.withPropertyValues(
+                        "crablet.eventstore.payloads.storage=bytea",
+                        "crablet.eventstore.payloads.codec=json-deflate")
+                .run(ctx -> {
+                    EventPayloadCodecs codecs = ctx.getBean(EventPayloadCodecs.class);
+                    assertThat(codecs.binaryStorage()).isTrue();
+                    assertThat(codecs.writeCodec().id()).isEqualTo(EventPayloadCodecs.JSON_DEFLATE);
+                });
+    }
+
+    @Test
+    void nonJsonCodecWithJsonbStorageFailsFast() {
+        runner.withPropertyValues("crablet.eventstore.payloads.codec=smile")
+                .run(ctx -> {
+                    assertThat(ctx).hasFailed();
+                    Throwable t = ctx.getStartupFailure();
+                    while (t.getCause() != null) t = t.getCause();
+                    assertThat(t)
+                            .isInstanceOf(IllegalStateException.class)
+                            .hasMessageContaining("requires crablet.eventstore.payloads.storage=bytea");
+                });
+    }
+
     @Test
     void replicaEnabledWithoutUrlFailsFast() {
         runner.withPropertyValues("crablet.eventstore.read-replicas.enabled=true")
@@ -0,0 +1,76 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code crablet_use_binary_payloads()} inside a transaction that is rolled back, so the
+ * shared test schema keeps its {@code JSONB} data column.
+ */
+@DisplayName("Binary payload storage integration tests")
+class BinaryPayloadStorageTest extends AbstractEventStoreIntegrationTest {
+
+    private static final String DEFLATED_JSON = "{\"note\": \"" + "compress me ".repeat(100) + "\"}";
+
+    @Test
+    @DisplayName("converts data to bytea in place and reads rows of several codecs")
+    void convertsToBinaryPayloads() throws SQLException {
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("DepositMade").tag("wallet_id", "w1").data("{\"amount\": 10}").build()));
+
+        EventPayloadCodecs deflate = EventPayloadCodecs.binary("json-deflate");
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                assertThat(queryBoolean(stmt, "SELECT crablet_use_binary_payloads()")).isTrue();
+                assertThat(queryBoolean(stmt, "SELECT crablet_use_binary_payloads()")).isFalse();
+
+                try (PreparedStatement append = connection.prepareStatement(
+                        "SELECT append_events_batch(?, ?, ?::bytea[], CURRENT_TIMESTAMP, NULL, NULL, ?::smallint)")) {
+                    append.setArray(1, connection.createArrayOf("text", new String[] {"DepositMade"}));
+                    append.setArray(2, connection.createArrayOf("text", new String[] {"{wallet_id=w2}"}));
+                    append.setArray(3, connection.createArrayOf("bytea",
+                            new Object[] {deflate.encode(DEFLATED_JSON.getBytes(StandardCharsets.UTF_8))}));
+                    append.setShort(4, deflate.writeCodec().id());
+                    append.execute();
+                }
+
+                List<String> payloads = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT payload_codec, data FROM crablet_events ORDER BY position")) {
+                    while (rs.next()) {
+                        byte[] json = EventPayloadCodecs.decode(rs.getShort("payload_codec"), rs.getBytes("data"));
+                        payloads.add(new String(json, StandardCharsets.UTF_8));
+                    }
+                }
+                assertThat(payloads).containsExactly("{\"amount\": 10}", DEFLATED_JSON);
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static boolean queryBoolean(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+}
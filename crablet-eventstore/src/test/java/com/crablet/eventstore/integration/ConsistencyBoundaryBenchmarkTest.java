@@ -0,0 +1,99 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.boundary.ConsistencyBoundary;
+import com.crablet.eventstore.boundary.ConsistencyBoundaryRegistry;
+import com.crablet.eventstore.bulk.BulkImportEvent;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: appendNonCommutative conflict check with and without a declared consistency boundary.
+ *
+ * Seeds the event log with the bulk importer (100k events by default; pass
+ * -Dcrablet.benchmark.events=10000000 for the 10M-event comparison), then times single-event
+ * appendNonCommutative calls against one wallet, first with the event scan and then after
+ * declaring the wallet boundary.
+ * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ * Output: P50 and P99 of single-event conditional append duration for both variants.
+ */
+@Tag("benchmark")
+@DisplayName("consistency boundary conflict-check benchmark")
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.profiles.active=test")
+class ConsistencyBoundaryBenchmarkTest extends AbstractEventStoreIntegrationTest {
+
+    private static final int SAMPLE_COUNT = 200;
+    private static final int WALLETS = 1_000;
+    private static final Instant OCCURRED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE crablet_consistency_boundary_shapes");
+        jdbcTemplate.execute("TRUNCATE TABLE crablet_consistency_boundaries");
+    }
+
+    @Test
+    @DisplayName("P50/P99 of appendNonCommutative with event scan vs consistency boundary")
+    void conflictCheckWithAndWithoutBoundary() {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        int eventCount = Integer.getInteger("crablet.benchmark.events", 100_000);
+        new EventStoreBulkImporter(dataSource, objectMapper).importEvents(IntStream.range(0, eventCount)
+                .mapToObj(i -> BulkImportEvent.of(deposit("wallet-" + (i % WALLETS)), OCCURRED_AT)));
+
+        long[] scan = measure("wallet-7");
+        new ConsistencyBoundaryRegistry(dataSource)
+                .register(ConsistencyBoundary.of(List.of("DepositMade"), List.of("wallet_id")));
+        long[] boundary = measure("wallet-7");
+
+        System.out.printf("[benchmark] appendNonCommutative over %d events, event scan (%d samples): P50=%dms P99=%dms%n",
+                eventCount, SAMPLE_COUNT, scan[0], scan[1]);
+        System.out.printf("[benchmark] appendNonCommutative over %d events, boundary row (%d samples): P50=%dms P99=%dms%n",
+                eventCount, SAMPLE_COUNT, boundary[0], boundary[1]);
+
+        assertThat(boundary[1]).as("P99 conditional append with a boundary should complete within 2s").isLessThan(2_000);
+    }
+
+    private long[] measure(String walletId) {
+        Query decisionModel = Query.forEventAndTag("DepositMade", "wallet_id", walletId);
+        List<Long> samples = new ArrayList<>(SAMPLE_COUNT);
+
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            StreamPosition position = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+            long start = System.nanoTime();
+            eventStore.appendNonCommutative(List.of(deposit(walletId)), decisionModel, position);
+            samples.add(System.nanoTime() - start);
+        }
+
+        Collections.sort(samples);
+        return new long[] {
+            samples.get(SAMPLE_COUNT / 2) / 1_000_000,
+            samples.get((int) (SAMPLE_COUNT * 0.99)) / 1_000_000
+        };
+    }
+
+    private static AppendEvent deposit(String walletId) {
+        return AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{}").build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.boundary.ConsistencyBoundary;
+import com.crablet.eventstore.boundary.ConsistencyBoundaryRegistry;
+import com.crablet.eventstore.bulk.BulkImportEvent;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Consistency boundary integration tests")
+class ConsistencyBoundaryRegistryTest extends AbstractEventStoreIntegrationTest {
+
+    private static final ConsistencyBoundary WALLET =
+            ConsistencyBoundary.of(List.of("DepositMade"), List.of("wallet_id"));
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConsistencyBoundaryRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ConsistencyBoundaryRegistry(dataSource());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE crablet_consistency_boundary_shapes");
+        jdbcTemplate.execute("TRUNCATE TABLE crablet_consistency_boundaries");
+    }
+
+    @Test
+    @DisplayName("backfills one row per tag value when a new shape is declared")
+    void backfillsOnDeclaration() {
+        deposit("w1");
+        deposit("w1");
+        deposit("w2");
+        long lastW1 = lastPosition("wallet_id", "w1");
+
+        assertThat(registry.register(WALLET)).isTrue();
+        assertThat(registry.register(WALLET)).isFalse();
+
+        assertThat(boundaryPosition("wallet_id=w1")).isEqualTo(lastW1);
+        assertThat(boundaryPosition("wallet_id=w2")).isEqualTo(lastPosition("wallet_id", "w2"));
+    }
+
+    @Test
+    @DisplayName("advances rows on append and rejects decisions made before a newer event")
+    void detectsConflictsFromBoundaryRows() {
+        registry.register(WALLET);
+        Query decisionModel = Query.forEventAndTag("DepositMade", "wallet_id", "w3");
+        deposit("w3");
+        StreamPosition decision = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+        deposit("w3");
+
+        assertThat(boundaryPosition("wallet_id=w3")).isEqualTo(lastPosition("wallet_id", "w3"));
+        assertThatThrownBy(() -> eventStore.appendNonCommutative(List.of(depositEvent("w3")), decisionModel, decision))
+                .isInstanceOf(ConcurrencyException.class);
+
+        StreamPosition fresh = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+        eventStore.appendNonCommutative(List.of(depositEvent("w3")), decisionModel, fresh);
+        assertThat(boundaryPosition("wallet_id=w3")).isEqualTo(lastPosition("wallet_id", "w3"));
+    }
+
+    @Test
+    @DisplayName("multi-tag conditions give the same answer as the event scan")
+    void multiTagConditionsMatchEventScan() {
+        registry.register(ConsistencyBoundary.of(List.of("DepositMade"), List.of("currency", "wallet_id")));
+        Query usdModel = Query.forEventAndTags("DepositMade", List.of(new Tag("wallet_id", "w4"), new Tag("currency", "USD")));
+        StreamPosition decision = eventStore.project(usdModel, StateProjector.exists()).streamPosition();
+
+        eventStore.appendCommutative(List.of(depositEvent("w4", "EUR")));
+        eventStore.appendNonCommutative(List.of(depositEvent("w4", "USD")), usdModel, decision);
+
+        assertThatThrownBy(() -> eventStore.appendNonCommutative(List.of(depositEvent("w4", "USD")), usdModel, decision))
+                .isInstanceOf(ConcurrencyException.class);
+    }
+
+    @Test
+    @DisplayName("the transaction's own appends are not reported as conflicts")
+    void ownAppendsAreNotConflicts() {
+        registry.register(WALLET);
+        Query decisionModel = Query.forEventAndTag("DepositMade", "wallet_id", "w5");
+        deposit("w5");
+        StreamPosition decision = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+
+        eventStore.executeInTransaction(tx -> {
+            tx.appendCommutative(List.of(depositEvent("w5")));
+            return tx.appendNonCommutative(List.of(depositEvent("w5")), decisionModel, decision);
+        });
+
+        assertThat(boundaryPosition("wallet_id=w5")).isEqualTo(lastPosition("wallet_id", "w5"));
+    }
+
+    @Test
+    @DisplayName("bulk imports advance declared boundaries")
+    void bulkImportAdvancesBoundaries() {
+        registry.register(WALLET);
+        deposit("w6");
+
+        new EventStoreBulkImporter(dataSource(), objectMapper).importEvents(Stream.of(
+                BulkImportEvent.of(depositEvent("w6"), Instant.parse("2019-03-01T10:15:30Z"))));
+
+        assertThat(boundaryPosition("wallet_id=w6")).isEqualTo(lastPosition("wallet_id", "w6"));
+    }
+
+    private DataSource dataSource() {
+        return Objects.requireNonNull(jdbcTemplate.getDataSource());
+    }
+
+    private void deposit(String walletId) {
+        eventStore.appendCommutative(List.of(depositEvent(walletId)));
+    }
+
+    private static AppendEvent depositEvent(String walletId) {
+        return AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{}").build();
+    }
+
+    private static AppendEvent depositEvent(String walletId, String currency) {
+        return AppendEvent.builder("DepositMade").tag("wallet_id", walletId).tag("currency", currency).data("{}").build();
+    }
+
+    private long lastPosition(String tagKey, String tagValue) {
+        Long position = jdbcTemplate.queryForObject(
+                "SELECT MAX(position) FROM crablet_events WHERE tags @> ARRAY[?]::text[]",
+                Long.class, tagKey + "=" + tagValue);
+        return Objects.requireNonNull(position);
+    }
+
+    private long boundaryPosition(String tag) {
+        Long position = jdbcTemplate.queryForObject(
+                "SELECT last_position FROM crablet_consistency_boundaries WHERE tag = ?", Long.class, tag);
+        return Objects.requireNonNull(position);
+    }
+}
@@ -0,0 +1,204 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.DCBErrorCode;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.archive.EventArchive;
+import com.crablet.eventstore.archive.EventArchiver;
+import com.crablet.eventstore.internal.EventRepositoryImpl;
+import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.internal.EventStoreOptions;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archives positions {@code [1, 5)} into two segments of two positions each, with no minimum age,
+ * and checks that reads and duplicate detection are unchanged before and after the rows are
+ * detached.
+ */
+@DisplayName("Cold-tier event archive integration tests")
+class EventArchiveTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Query WALLET_1 = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private EventArchive archive;
+    private EventArchiver archiver;
+    private EventStore archivedStore;
+    private EventRepository archivedRepository;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        archive = new EventArchive(dataSource, directory, Duration.ofMinutes(1));
+        archiver = new EventArchiver(dataSource, clock, directory, 2,
+                Duration.ZERO, Duration.ZERO, Duration.ofHours(1), config.getFetchSize());
+        archivedStore = new EventStoreImpl(dataSource, dataSource, objectMapper, config, clock, eventPublisher,
+                EventStoreOptions.builder().archive(archive).build());
+        archivedRepository = new EventRepositoryImpl(dataSource, config, archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiver.close();
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("reads the same events from segments before and after the rows are detached")
+    void readsArchivedEvents() {
+        appendEvents();
+        List<StoredEvent> expected = eventStore.project(Query.empty(), new CollectingProjector()).state();
+
+        assertThat(archiver.archive()).isEqualTo(2);
+        archive.refresh();
+        assertThat(archive.watermark()).isEqualTo(5);
+        assertReadsUnchanged(expected);
+
+        assertThat(archiver.detach()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Long.class)).isEqualTo(1);
+        assertReadsUnchanged(expected);
+    }
+
+    @Test
+    @DisplayName("refuses to map a segment whose file does not match its checksum")
+    void rejectsCorruptSegment() throws IOException {
+        appendEvents();
+        archiver.archive();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.sorted().findFirst().orElseThrow();
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {42}), 20);
+            }
+        }
+
+        assertThatThrownBy(() -> archive.refresh()).isInstanceOf(EventStoreException.class);
+        // The database alone cannot prove absence once a catalog entry exists
+        assertThatThrownBy(() -> archivedStore.exists(Query.forEventAndTag("DepositMade", "wallet_id", "w9")))
+                .isInstanceOf(EventStoreException.class);
+    }
+
+    @Test
+    @DisplayName("rejects replays of an archived idempotent append after the rows are detached")
+    void rejectsReplayOfArchivedIdempotentAppend() {
+        AppendEvent opened = AppendEvent.builder("WalletOpened").tag("wallet_id", "w7").data("{}").build();
+        eventStore.appendIdempotent(List.of(opened), "WalletOpened", "wallet_id", "w7");
+        for (String walletId : List.of("w7", "w8", "w9")) {
+            eventStore.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{\"amount\": 1}").build()));
+        }
+
+        assertThat(archiver.archive()).isEqualTo(2);
+        archive.refresh();
+        assertThat(archiver.detach()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT position FROM crablet_idempotency_keys WHERE key = 'wallet_id' AND value = 'w7'",
+                Long.class)).isNull();
+
+        // The kept claim rejects the replay without the archive; a query without a claim needs the archive
+        assertIdempotencyViolation(() -> eventStore.appendIdempotent(
+                List.of(opened), "WalletOpened", "wallet_id", "w7"));
+        assertIdempotencyViolation(() -> archivedStore.appendIdempotent(
+                List.of(opened), Query.forEventsAndTags(
+                        List.of("WalletOpened", "WalletClosed"), List.of(Tag.of("wallet_id", "w7")))));
+        assertThat(archivedStore.exists(Query.forEventAndTag("WalletOpened", "wallet_id", "w7"))).isTrue();
+    }
+
+    private static void assertIdempotencyViolation(ThrowingCallable append) {
+        assertThatThrownBy(append)
+                .isInstanceOf(ConcurrencyException.class)
+                .satisfies(e -> assertThat(Objects.requireNonNull(((ConcurrencyException) e).violation).errorCode())
+                        .isEqualTo(DCBErrorCode.IDEMPOTENCY_VIOLATION));
+    }
+
+    private void assertReadsUnchanged(List<StoredEvent> expected) {
+        List<StoredEvent> projected = archivedStore.project(Query.empty(), new CollectingProjector()).state();
+        assertThat(projected).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+
+        List<StoredEvent> queried = archivedRepository.query(Query.empty(), null);
+        assertThat(queried).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+
+        List<StoredEvent> afterSecond = archivedRepository.query(WALLET_1, new StreamPosition(2, null, null));
+        assertThat(afterSecond).extracting(StoredEvent::position).containsExactly(4L);
+
+        assertThat(archivedStore.exists(WALLET_1)).isTrue();
+        assertThat(archivedStore.exists(Query.forEventAndTag("DepositMade", "wallet_id", "w9"))).isFalse();
+    }
+
+    private void appendEvents() {
+        for (String walletId : List.of("w1", "w2", "w3", "w1", "w2")) {
+            eventStore.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{\"amount\": 1}").build()));
+        }
+    }
+
+    static final class CollectingProjector implements StateProjector<List<StoredEvent>> {
+
+        @Override
+        public List<String> getEventTypes() {
+            return List.of();
+        }
+
+        @Override
+        public List<StoredEvent> getInitialState() {
+            return List.of();
+        }
+
+        @Override
+        public List<StoredEvent> transition(List<StoredEvent> currentState, StoredEvent event,
+                                            EventDeserializer deserializer) {
+            List<StoredEvent> next = new ArrayList<>(currentState);
+            next.add(event);
+            return next;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code crablet_partition_events(...)} inside a transaction that is rolled back, so the
+ * shared test schema stays unpartitioned.
+ */
+@DisplayName("crablet_events partitioning integration tests")
+class EventPartitioningTest extends AbstractEventStoreIntegrationTest {
+
+    private static final long PARTITION_SIZE = 1_000;
+
+    @Test
+    @DisplayName("converts the log in place, routes new appends to new partitions and prunes by position")
+    void partitionsInPlace() throws SQLException {
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("DepositMade").tag("wallet_id", "w1").data("{}").build(),
+                AppendEvent.builder("DepositMade").tag("wallet_id", "w2").data("{}").build()));
+
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                stmt.execute("SELECT crablet_partition_events(" + PARTITION_SIZE + ", 2)");
+
+                assertThat(queryString(stmt, "SELECT relkind::text FROM pg_class WHERE relname = 'crablet_events'"))
+                        .isEqualTo("p");
+                assertThat(queryLong(stmt, "SELECT count(*) FROM pg_inherits WHERE inhparent = 'crablet_events'::regclass"))
+                        .isEqualTo(3);
+                assertThat(queryLong(stmt, "SELECT count(*) FROM pg_inherits WHERE inhparent = 'crablet_event_tags'::regclass"))
+                        .isEqualTo(3);
+                assertThat(queryLong(stmt, "SELECT count(*) FROM crablet_events_p0")).isEqualTo(2);
+                assertThat(queryLong(stmt, "SELECT crablet_create_event_partitions(2)")).isZero();
+
+                long boundary = queryLong(stmt, "SELECT next_partition_start FROM crablet_event_partitioning")
+                        - 2 * PARTITION_SIZE;
+                // Positions below the boundary still belong to p0; jump the sequence to the first new partition
+                stmt.execute("SELECT setval('crablet_events_position_seq', " + boundary + ")");
+                stmt.execute("""
+                        SELECT append_events_batch(
+                            ARRAY['DepositMade'], ARRAY['{wallet_id=w3}'], ARRAY['{}'::jsonb], CURRENT_TIMESTAMP)
+                        """);
+                assertThat(queryString(stmt, "SELECT tableoid::regclass::text FROM crablet_events WHERE tags @> ARRAY['wallet_id=w3']"))
+                        .isEqualTo("crablet_events_p" + boundary);
+                assertThat(queryLong(stmt, "SELECT count(*) FROM crablet_event_tags WHERE key = 'wallet_id'"))
+                        .isEqualTo(3);
+
+                String plan = queryString(stmt, "EXPLAIN (COSTS OFF) SELECT * FROM crablet_events WHERE position > " + boundary);
+                assertThat(plan).doesNotContain("crablet_events_p0");
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String queryString(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            StringBuilder result = new StringBuilder();
+            while (rs.next()) {
+                result.append(rs.getString(1)).append('\n');
+            }
+            return result.toString().strip();
+        }
+    }
+}
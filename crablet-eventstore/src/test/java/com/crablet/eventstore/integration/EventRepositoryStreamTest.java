@@ -0,0 +1,124 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.bulk.BulkImportEvent;
+import com.crablet.eventstore.bulk.BulkImportOptions;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.Query;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventRepository streaming integration tests")
+class EventRepositoryStreamTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2025-01-01T00:00:00Z");
+    private static final long MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("stream and forEach return the same events in the same order as query")
+    void streamMatchesQuery() {
+        for (int i = 0; i < 5; i++) {
+            eventStore.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", "w" + (i % 2)).data("{\"seq\": " + i + "}").build()));
+        }
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "w0");
+        StreamPosition after = new StreamPosition(1, null, null);
+
+        List<StoredEvent> expected = eventRepository.query(query, after);
+        List<StoredEvent> streamed;
+        try (Stream<StoredEvent> events = eventRepository.stream(query, after)) {
+            streamed = events.toList();
+        }
+        List<StoredEvent> visited = new ArrayList<>();
+        eventRepository.forEach(query, after, visited::add);
+
+        assertThat(expected).extracting(StoredEvent::position).containsExactly(3L, 5L);
+        assertThat(streamed).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+        assertThat(visited).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("closing a partially consumed stream releases its connection")
+    void closingPartiallyConsumedStreamReleasesConnection() {
+        new EventStoreBulkImporter(Objects.requireNonNull(jdbcTemplate.getDataSource()), objectMapper)
+                .importEvents(events(5_000));
+
+        // More streams than the pool has connections: each one must give its connection back
+        for (int i = 0; i < 50; i++) {
+            try (Stream<StoredEvent> events = eventRepository.stream(Query.empty(), null)) {
+                Iterator<StoredEvent> iterator = events.iterator();
+                assertThat(iterator.next().position()).isEqualTo(1L);
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("retained heap stays bounded while streaming 1M events")
+    void streamingKeepsRetainedHeapBounded() {
+        int eventCount = Integer.getInteger("crablet.benchmark.events", 1_000_000);
+        new EventStoreBulkImporter(Objects.requireNonNull(jdbcTemplate.getDataSource()), objectMapper)
+                .importEvents(events(eventCount), BulkImportOptions.builder().batchSize(100_000).build());
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        long peak = 0;
+        long count = 0;
+        long lastPosition = 0;
+        try (Stream<StoredEvent> events = eventRepository.stream(Query.empty(), null)) {
+            Iterator<StoredEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                StoredEvent event = iterator.next();
+                assertThat(event.position()).isGreaterThan(lastPosition);
+                lastPosition = event.position();
+                if (++count % 100_000 == 0) {
+                    peak = Math.max(peak, usedHeapAfterGc(memory) - baseline);
+                }
+            }
+        }
+
+        System.out.printf("[benchmark] EventRepository.stream over %d events: peak retained heap %d KB%n",
+                count, peak / 1024);
+        assertThat(count).isEqualTo(eventCount);
+        // Materializing the same events as a List retains several hundred MB
+        assertThat(peak).as("retained heap while streaming").isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Stream<BulkImportEvent> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> BulkImportEvent.of(
+                AppendEvent.builder("DepositMade")
+                        .tag("wallet_id", "w-" + i)
+                        .data("{\"seq\":" + i + "}")
+                        .build(),
+                OCCURRED_AT));
+    }
+}
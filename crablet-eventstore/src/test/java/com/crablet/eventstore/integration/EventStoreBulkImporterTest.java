@@ -0,0 +1,168 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.bulk.BulkImportEvent;
+import com.crablet.eventstore.bulk.BulkImportOptions;
+import com.crablet.eventstore.bulk.BulkImportResult;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EventStoreBulkImporter integration tests")
+class EventStoreBulkImporterTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2019-03-01T10:15:30.123456Z");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private EventStoreBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new EventStoreBulkImporter(Objects.requireNonNull(jdbcTemplate.getDataSource()), objectMapper);
+    }
+
+    @Test
+    @DisplayName("imports events in source order with one transaction_id per batch")
+    void importsInOrderWithOneTransactionPerBatch() {
+        BulkImportResult result = importer.importEvents(
+                events(25),
+                BulkImportOptions.builder().batchSize(10).build());
+
+        assertThat(result.eventsImported()).isEqualTo(25);
+        assertThat(result.transactions()).isEqualTo(3);
+        assertThat(result.tagsImported()).isEqualTo(50);
+
+        List<String> idsByPosition = jdbcTemplate.queryForList(
+                "SELECT data->>'seq' FROM crablet_events ORDER BY position", String.class);
+        assertThat(idsByPosition).containsExactlyElementsOf(
+                IntStream.range(0, 25).mapToObj(String::valueOf).toList());
+
+        Integer distinctTransactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT transaction_id) FROM crablet_events", Integer.class);
+        assertThat(distinctTransactions).isEqualTo(3);
+
+        Long minPosition = jdbcTemplate.queryForObject("SELECT MIN(position) FROM crablet_events", Long.class);
+        Long maxPosition = jdbcTemplate.queryForObject("SELECT MAX(position) FROM crablet_events", Long.class);
+        assertThat(result.firstPosition()).isEqualTo(minPosition);
+        assertThat(result.lastPosition()).isEqualTo(maxPosition);
+
+        Instant storedOccurredAt = jdbcTemplate.queryForObject(
+                "SELECT occurred_at FROM crablet_events ORDER BY position LIMIT 1",
+                (rs, rowNum) -> rs.getTimestamp(1).toInstant());
+        assertThat(storedOccurredAt).isEqualTo(OCCURRED_AT);
+    }
+
+    @Test
+    @DisplayName("imported events are visible to tag queries and live appends continue after them")
+    void importedEventsAreQueryableAndLiveAppendsFollow() {
+        importer.importEvents(events(5));
+
+        List<StoredEvent> wallet = eventRepository.query(
+                Query.forEventAndTag("DepositMade", "wallet_id", "w-3"), null);
+        assertThat(wallet).hasSize(1);
+        assertThat(wallet.getFirst().tags()).extracting(t -> t.key() + "=" + t.value())
+                .containsExactlyInAnyOrder("wallet_id=w-3", "deposit_id=d-3");
+
+        eventStore.appendCommutative(List.of(
+                AppendEvent.builder("DepositMade").tag("wallet_id", "w-live").data("{}").build()));
+
+        Long livePosition = jdbcTemplate.queryForObject(
+                "SELECT position FROM crablet_events WHERE 'wallet_id=w-live' = ANY(tags)", Long.class);
+        Long importedMax = jdbcTemplate.queryForObject(
+                "SELECT MAX(position) FROM crablet_events WHERE NOT 'wallet_id=w-live' = ANY(tags)", Long.class);
+        assertThat(livePosition).isGreaterThan(importedMax);
+    }
+
+    @Test
+    @DisplayName("deferred tag derivation produces the same crablet_event_tags rows as inline COPY")
+    void deferredTagDerivationMatchesInlineCopy() {
+        BulkImportResult result = importer.importEvents(
+                events(12),
+                BulkImportOptions.builder().batchSize(5).deferTagDerivation(true).build());
+
+        assertThat(result.tagsImported()).isEqualTo(24);
+        Integer mismatched = jdbcTemplate.queryForObject("""
+            SELECT COUNT(*)
+            FROM crablet_events e
+            LEFT JOIN (SELECT position, COUNT(*) AS tag_count FROM crablet_event_tags GROUP BY position) t
+                ON t.position = e.position
+            WHERE COALESCE(t.tag_count, 0) != cardinality(e.tags)
+            """, Integer.class);
+        assertThat(mismatched).isZero();
+    }
+
+    @Test
+    @DisplayName("rebuildTagsIndex recreates the GIN index after the import")
+    void rebuildsTagsIndex() {
+        importer.importEvents(
+                events(3),
+                BulkImportOptions.builder().rebuildTagsIndex(true).build());
+
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = 'idx_crablet_events_tags_gin'", Integer.class);
+        assertThat(indexes).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("empty source imports nothing")
+    void emptySourceImportsNothing() {
+        BulkImportResult result = importer.importEvents(Stream.empty());
+
+        assertThat(result.eventsImported()).isZero();
+        assertThat(result.transactions()).isZero();
+        assertThat(result.firstPosition()).isNull();
+    }
+
+    @Test
+    @DisplayName("a failing batch rolls back while earlier batches stay committed")
+    void failingBatchRollsBack() {
+        Stream<BulkImportEvent> source = Stream.concat(
+                events(4),
+                Stream.of(new BulkImportEvent("X".repeat(65), List.of(), "{}", OCCURRED_AT, null, null)));
+
+        assertThatThrownBy(() -> importer.importEvents(source, BulkImportOptions.builder().batchSize(4).build()))
+                .isInstanceOf(EventStoreException.class)
+                .hasMessageContaining("after 4 events");
+
+        Integer stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_events", Integer.class);
+        assertThat(stored).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive batch size")
+    void rejectsInvalidBatchSize() {
+        assertThatThrownBy(() -> BulkImportOptions.builder().batchSize(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Stream<BulkImportEvent> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> BulkImportEvent.of(
+                AppendEvent.builder("DepositMade")
+                        .tag("wallet_id", "w-" + i)
+                        .tag("deposit_id", "d-" + i)
+                        .data("{\"seq\":\"" + i + "\"}")
+                        .build(),
+                OCCURRED_AT));
+    }
+}
@@ -0,0 +1,88 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.query.EventRepository;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.examples.wallet.events.DepositMade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Early-terminating and latest-N projection integration tests")
+class EventStoreEarlyTerminationTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Query WALLET_1 = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    @DisplayName("stops folding once done but reports the position of the last matching event")
+    void stopsOnceDone() {
+        for (int i = 1; i <= 4; i++) {
+            deposit("w1", "d" + i, i);
+        }
+        deposit("w2", "d5", 5);
+
+        StateProjector<Integer> firstTwo = StateProjector.builder("first-two", 0)
+                .on(DepositMade.class, (count, deposit) -> count + 1)
+                .doneWhen(count -> count >= 2)
+                .build();
+
+        ProjectionResult<Integer> result = eventStore.project(WALLET_1, firstTwo);
+        assertThat(result.state()).isEqualTo(2);
+        assertThat(result.streamPosition().position()).isEqualTo(4);
+
+        ProjectionResult<Boolean> exists = eventStore.executeInTransaction(tx ->
+                tx.project(WALLET_1, StateProjector.exists()));
+        assertThat(exists.state()).isTrue();
+        assertThat(exists.streamPosition().position()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("folds only the latest events in ascending order, with the position of the newest")
+    void foldsLatestEvents() {
+        for (int i = 1; i <= 4; i++) {
+            deposit("w1", "d" + i, i);
+        }
+        deposit("w2", "d5", 5);
+
+        ProjectionResult<List<StoredEvent>> latest = eventStore.project(
+                WALLET_1.withLatest(2), new EventArchiveTest.CollectingProjector());
+        assertThat(latest.state()).extracting(StoredEvent::position).containsExactly(3L, 4L);
+        assertThat(latest.streamPosition().position()).isEqualTo(4);
+
+        assertThat(eventRepository.query(WALLET_1.withLatest(2), null))
+                .extracting(StoredEvent::position).containsExactly(3L, 4L);
+        assertThat(eventRepository.query(WALLET_1.withLatest(10), new StreamPosition(2, null, null)))
+                .extracting(StoredEvent::position).containsExactly(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("keeps the start position when a latest-N query matches nothing")
+    void latestWithoutEvents() {
+        StreamPosition after = StreamPosition.zero();
+
+        ProjectionResult<List<StoredEvent>> latest = eventStore.project(
+                WALLET_1.withLatest(1), after, new EventArchiveTest.CollectingProjector());
+
+        assertThat(latest.state()).isEmpty();
+        assertThat(latest.streamPosition()).isSameAs(after);
+    }
+
+    private void deposit(String walletId, String depositId, int amount) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("DepositMade")
+                .tag("wallet_id", walletId)
+                .tag("deposit_id", depositId)
+                .data(DepositMade.of(depositId, walletId, amount, amount, "deposit"))
+                .build()));
+    }
+}
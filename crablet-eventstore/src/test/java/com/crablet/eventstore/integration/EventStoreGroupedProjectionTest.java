@@ -0,0 +1,82 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.EventStoreException;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryBuilder;
+import com.crablet.examples.wallet.events.DepositMade;
+import com.crablet.examples.wallet.events.WalletOpened;
+import com.crablet.examples.wallet.projections.WalletBalanceState;
+import com.crablet.examples.wallet.projections.WalletBalanceStateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EventStore grouped projection integration tests")
+class EventStoreGroupedProjectionTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Query WALLET_EVENTS = QueryBuilder.builder().matching(new String[] {"WalletOpened", "DepositMade"}).build();
+
+    @Test
+    @DisplayName("folds every wallet in one pass with the same result as one projection per wallet")
+    void matchesPerEntityProjections() {
+        for (String walletId : List.of("w1", "w2", "w3")) {
+            openWallet(walletId);
+        }
+        deposit("w2", "d1", 50, 1_050);
+        deposit("w1", "d2", 10, 1_010);
+        deposit("w2", "d3", 5, 1_055);
+
+        Map<String, ProjectionResult<WalletBalanceState>> grouped =
+                eventStore.projectGrouped(WALLET_EVENTS, "wallet_id", new WalletBalanceStateProjector());
+
+        assertThat(grouped).containsOnlyKeys("w1", "w2", "w3");
+        assertThat(grouped.keySet()).containsExactly("w1", "w2", "w3");
+        for (String walletId : grouped.keySet()) {
+            ProjectionResult<WalletBalanceState> single = eventStore.project(
+                    Query.forEventsAndTags(List.of("WalletOpened", "DepositMade"), List.of(new Tag("wallet_id", walletId))),
+                    new WalletBalanceStateProjector());
+            assertThat(grouped.get(walletId).state()).isEqualTo(single.state());
+            assertThat(grouped.get(walletId).streamPosition().position())
+                    .isEqualTo(single.streamPosition().position());
+        }
+        assertThat(grouped.get("w2").state().balance()).isEqualTo(1_055);
+        assertThat(grouped.get("w3").state().balance()).isEqualTo(1_000);
+    }
+
+    @Test
+    @DisplayName("fails once the events name more groups than allowed")
+    void failsBeyondMaxGroups() {
+        for (String walletId : List.of("w1", "w2", "w3")) {
+            openWallet(walletId);
+        }
+
+        assertThatThrownBy(() -> eventStore.projectGrouped(
+                WALLET_EVENTS, StreamPosition.zero(), "wallet_id", new WalletBalanceStateProjector(), 2))
+                .isInstanceOf(EventStoreException.class)
+                .hasRootCauseMessage("Grouped projection by wallet_id exceeds 2 groups; narrow the query or raise maxGroups");
+    }
+
+    private void openWallet(String walletId) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("WalletOpened")
+                .tag("wallet_id", walletId)
+                .data(WalletOpened.of(walletId, "owner-" + walletId, 1_000))
+                .build()));
+    }
+
+    private void deposit(String walletId, String depositId, int amount, int newBalance) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("DepositMade")
+                .tag("wallet_id", walletId)
+                .tag("deposit_id", depositId)
+                .data(DepositMade.of(depositId, walletId, amount, newBalance, "deposit"))
+                .build()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.ProjectionRequest;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.ProjectionResults;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.examples.wallet.events.DepositMade;
+import com.crablet.examples.wallet.events.WalletOpened;
+import com.crablet.examples.wallet.projections.WalletBalanceState;
+import com.crablet.examples.wallet.projections.WalletBalanceStateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EventStore batched projection integration tests")
+class EventStoreProjectAllTest extends AbstractEventStoreIntegrationTest {
+
+    @Test
+    @DisplayName("routes each request's events to its own projectors and stream position")
+    void matchesSeparateProjections() {
+        openWallet("w1");
+        openWallet("w2");
+        deposit("w1", "d1", 10, 1_010);
+        deposit("w2", "d2", 5, 1_005);
+        deposit("w1", "d3", 20, 1_030);
+
+        ProjectionRequest<WalletBalanceState> w1 = ProjectionRequest.of(walletQuery("w1"), new WalletBalanceStateProjector());
+        ProjectionRequest<WalletBalanceState> w2 = ProjectionRequest.of(walletQuery("w2"), new WalletBalanceStateProjector());
+        ProjectionRequest<Boolean> missing = ProjectionRequest.of(walletQuery("w9"), StateProjector.exists());
+
+        ProjectionResults results = eventStore.projectAll(List.of(w1, w2, missing));
+
+        assertThat(results.size()).isEqualTo(3);
+        for (ProjectionRequest<WalletBalanceState> request : List.of(w1, w2)) {
+            ProjectionResult<WalletBalanceState> single = eventStore.project(request.query(), new WalletBalanceStateProjector());
+            assertThat(results.get(request).state()).isEqualTo(single.state());
+            assertThat(results.get(request).streamPosition().position()).isEqualTo(single.streamPosition().position());
+        }
+        assertThat(results.get(w1).state().balance()).isEqualTo(1_030);
+        assertThat(results.get(w1).streamPosition().position()).isEqualTo(5);
+        assertThat(results.get(w2).streamPosition().position()).isEqualTo(4);
+        assertThat(results.get(missing).state()).isFalse();
+        assertThat(results.get(missing).streamPosition()).isEqualTo(StreamPosition.zero());
+    }
+
+    @Test
+    @DisplayName("honours each request's own start position, also inside a transaction")
+    void honoursAfterPerRequest() {
+        openWallet("w1");
+        deposit("w1", "d1", 10, 1_010);
+        deposit("w1", "d2", 20, 1_030);
+
+        ProjectionRequest<WalletBalanceState> all = ProjectionRequest.of(walletQuery("w1"), new WalletBalanceStateProjector());
+        ProjectionRequest<Boolean> openedLater = ProjectionRequest.of(
+                walletQuery("w1"), new StreamPosition(2, null, null), StateProjector.exists("WalletOpened"));
+
+        ProjectionResults results = eventStore.executeInTransaction(tx -> tx.projectAll(List.of(all, openedLater)));
+
+        assertThat(results.get(all).state().balance()).isEqualTo(1_030);
+        assertThat(results.get(all).streamPosition().position()).isEqualTo(3);
+        // Only the last deposit follows position 2
+        assertThat(results.get(openedLater).state()).isFalse();
+        assertThat(results.get(openedLater).streamPosition().position()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("rejects an empty batch and lookups of foreign requests")
+    void rejectsInvalidUse() {
+        assertThatThrownBy(() -> eventStore.projectAll(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        ProjectionRequest<Boolean> request = ProjectionRequest.of(walletQuery("w1"), StateProjector.exists());
+        ProjectionResults results = eventStore.projectAll(List.of(request));
+        assertThatThrownBy(() -> results.get(ProjectionRequest.of(walletQuery("w1"), StateProjector.exists())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Query walletQuery(String walletId) {
+        return Query.forEventsAndTags(List.of("WalletOpened", "DepositMade"), List.of(new Tag("wallet_id", walletId)));
+    }
+
+    private void openWallet(String walletId) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("WalletOpened")
+                .tag("wallet_id", walletId)
+                .data(WalletOpened.of(walletId, "owner-" + walletId, 1_000))
+                .build()));
+    }
+
+    private void deposit(String walletId, String depositId, int amount, int newBalance) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("DepositMade")
+                .tag("wallet_id", walletId)
+                .tag("deposit_id", depositId)
+                .data(DepositMade.of(depositId, walletId, amount, newBalance, "deposit"))
+                .build()));
+    }
+}
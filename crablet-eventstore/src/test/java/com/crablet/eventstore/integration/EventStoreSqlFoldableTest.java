@@ -0,0 +1,113 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.SqlFoldable;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.examples.wallet.events.DepositMade;
+import com.crablet.examples.wallet.events.WithdrawalMade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventStore SQL aggregate pushdown integration tests")
+class EventStoreSqlFoldableTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Query WALLET_1 = Query.forEventsAndTags(
+            List.of("DepositMade", "WithdrawalMade"), List.of(new Tag("wallet_id", "w1")));
+
+    record Totals(BigDecimal balance, long deposits) {
+        static final Totals EMPTY = new Totals(BigDecimal.ZERO, 0);
+    }
+
+    private static StateProjector<Totals> totals() {
+        return StateProjector.builder("totals", Totals.EMPTY)
+                .sum(DepositMade.class, "amount", (state, amount) -> new Totals(state.balance().add(amount), state.deposits()))
+                .sum(WithdrawalMade.class, "amount", (state, amount) -> new Totals(state.balance().subtract(amount), state.deposits()))
+                .count(DepositMade.class, (state, count) -> new Totals(state.balance(), state.deposits() + count.longValueExact()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("folds sums and counts in the database with the same result and position as the event-by-event fold")
+    void matchesEventByEventFold() {
+        deposit("w1", "d1", 100);
+        deposit("w2", "d2", 7);
+        withdraw("w1", "x1", 30);
+        deposit("w1", "d3", 5);
+        deposit("w2", "d4", 9);
+
+        StateProjector<Totals> projector = totals();
+        assertThat(projector).isInstanceOf(SqlFoldable.class);
+
+        ProjectionResult<Totals> pushedDown = eventStore.project(WALLET_1, projector);
+        ProjectionResult<Totals> inMemory = eventStore.project(WALLET_1, inMemory(projector));
+
+        assertThat(pushedDown.state().balance()).isEqualByComparingTo("75");
+        assertThat(pushedDown.state().deposits()).isEqualTo(2);
+        assertThat(pushedDown.state().balance()).isEqualByComparingTo(inMemory.state().balance());
+        assertThat(pushedDown.state().deposits()).isEqualTo(inMemory.state().deposits());
+        assertThat(pushedDown.streamPosition()).isEqualTo(inMemory.streamPosition());
+        assertThat(pushedDown.streamPosition().position()).isEqualTo(4);
+
+        ProjectionResult<Totals> afterFirst = eventStore.executeInTransaction(tx ->
+                tx.project(WALLET_1, new StreamPosition(1, null, null), projector));
+        assertThat(afterFirst.state().balance()).isEqualByComparingTo("-25");
+        assertThat(afterFirst.state().deposits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("returns the initial state and the start position when no event matches")
+    void keepsInitialStateWithoutEvents() {
+        deposit("w2", "d1", 10);
+        StreamPosition after = new StreamPosition(0, null, null);
+
+        ProjectionResult<Totals> result = eventStore.project(WALLET_1, after, totals());
+
+        assertThat(result.state()).isEqualTo(Totals.EMPTY);
+        assertThat(result.streamPosition()).isSameAs(after);
+    }
+
+    /**
+     * Same projector hidden behind a plain StateProjector, so it is folded event by event.
+     */
+    private static StateProjector<Totals> inMemory(StateProjector<Totals> delegate) {
+        return new StateProjector<>() {
+            @Override
+            public List<String> getEventTypes() { return delegate.getEventTypes(); }
+
+            @Override
+            public Totals getInitialState() { return delegate.getInitialState(); }
+
+            @Override
+            public Totals transition(Totals state, StoredEvent event, EventDeserializer deserializer) {
+                return delegate.transition(state, event, deserializer);
+            }
+        };
+    }
+
+    private void deposit(String walletId, String depositId, int amount) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("DepositMade")
+                .tag("wallet_id", walletId)
+                .tag("deposit_id", depositId)
+                .data(DepositMade.of(depositId, walletId, amount, amount, "deposit"))
+                .build()));
+    }
+
+    private void withdraw(String walletId, String withdrawalId, int amount) {
+        eventStore.appendCommutative(List.of(AppendEvent.builder("WithdrawalMade")
+                .tag("wallet_id", walletId)
+                .tag("withdrawal_id", withdrawalId)
+                .data(WithdrawalMade.of(withdrawalId, walletId, amount, 0, "withdrawal"))
+                .build()));
+    }
+}
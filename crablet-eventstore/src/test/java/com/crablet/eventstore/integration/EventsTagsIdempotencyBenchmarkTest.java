@@ -2,30 +2,41 @@ package com.crablet.eventstore.integration;
 
 import com.crablet.eventstore.AppendEvent;
 import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.bulk.BulkImportEvent;
+import com.crablet.eventstore.bulk.EventStoreBulkImporter;
+import com.crablet.eventstore.query.Query;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Benchmark: idempotency check latency under concurrent load.
  *
- * Establishes a timing baseline for appendIdempotent using the crablet_events.tags GIN index.
- * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ * Establishes a timing baseline for appendIdempotent: single-key checks claim a row in
+ * crablet_idempotency_keys, multi-tag checks take an advisory lock and use the crablet_events.tags
+ * GIN index. Run with -Dgroups=benchmark to include in a benchmark-only suite.
  * Output: P50 and P99 of single-writer idempotency check duration,
- * and success/contention counts under 20 concurrent writers sharing the same tag.
+ * success/contention counts under 20 concurrent writers sharing the same tag, and P50/P99 of
+ * the key-table and GIN-scan paths against a large event log and key table
+ * (100k events by default; pass -Dcrablet.benchmark.events=10000000 for a 10M comparison).
  */
 @Tag("benchmark")
 @DisplayName("crablet_events.tags GIN idempotency benchmark")
@@ -35,6 +46,10 @@ class EventsTagsIdempotencyBenchmarkTest extends AbstractEventStoreIntegrationTe
     private static final int SEED_EVENTS    = 10_000;
     private static final int SAMPLE_COUNT   = 100;
     private static final int CONCURRENT_WRITERS = 20;
+    private static final Instant OCCURRED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Test
     @DisplayName("P50/P99 of single-writer idempotency check against 10k events")
@@ -108,6 +123,64 @@ class EventsTagsIdempotencyBenchmarkTest extends AbstractEventStoreIntegrationTe
                 .isEqualTo(CONCURRENT_WRITERS - 1);
     }
 
+    @Test
+    @DisplayName("P50/P99 of key-table vs GIN-scan idempotency checks against a large event log")
+    void keyTableVersusGinScanAtScale() {
+        int eventCount = Integer.getInteger("crablet.benchmark.events", 100_000);
+        new EventStoreBulkImporter(Objects.requireNonNull(jdbcTemplate.getDataSource()), objectMapper)
+                .importEvents(IntStream.range(0, eventCount).mapToObj(i -> BulkImportEvent.of(
+                        AppendEvent.builder("BenchEvent")
+                                .tag("bench_id", "seed-" + i)
+                                .tag("category", "cat-" + (i % 10))
+                                .data("{}")
+                                .build(),
+                        OCCURRED_AT)));
+        jdbcTemplate.update("""
+                INSERT INTO crablet_idempotency_keys (type, key, value)
+                SELECT 'BenchEvent', 'bench_id', 'seed-' || g FROM generate_series(0, ? - 1) AS g
+                """, eventCount);
+
+        List<Long> keyTable = new ArrayList<>(SAMPLE_COUNT);
+        List<Long> ginScan = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            String tag = "bench-" + UUID.randomUUID();
+            long start = System.nanoTime();
+            eventStore.appendIdempotent(
+                List.of(AppendEvent.builder("BenchEvent").tag("bench_id", tag).tag("category", "cat-1").data("{}").build()),
+                "BenchEvent", "bench_id", tag
+            );
+            keyTable.add(System.nanoTime() - start);
+
+            String scanTag = "bench-" + UUID.randomUUID();
+            Query multiTag = Query.forEventAndTags("BenchEvent", List.of(
+                    new com.crablet.eventstore.Tag("bench_id", scanTag),
+                    new com.crablet.eventstore.Tag("category", "cat-1")));
+            start = System.nanoTime();
+            eventStore.appendIdempotent(
+                List.of(AppendEvent.builder("BenchEvent").tag("bench_id", scanTag).tag("category", "cat-1").data("{}").build()),
+                multiTag
+            );
+            ginScan.add(System.nanoTime() - start);
+        }
+
+        long[] keyTablePercentiles = percentiles(keyTable);
+        long[] ginScanPercentiles = percentiles(ginScan);
+        System.out.printf("[benchmark] idempotency key table (%d events, %d keys): P50=%dms P99=%dms%n",
+                eventCount, eventCount, keyTablePercentiles[0], keyTablePercentiles[1]);
+        System.out.printf("[benchmark] idempotency advisory lock + GIN scan (%d events): P50=%dms P99=%dms%n",
+                eventCount, ginScanPercentiles[0], ginScanPercentiles[1]);
+
+        assertThat(keyTablePercentiles[1]).as("P99 key-table idempotency check should complete within 2s").isLessThan(2_000);
+    }
+
+    private static long[] percentiles(List<Long> samples) {
+        Collections.sort(samples);
+        return new long[] {
+            samples.get(samples.size() / 2) / 1_000_000,
+            samples.get((int) (samples.size() * 0.99)) / 1_000_000
+        };
+    }
+
     private void seedEvents(int count) {
         int batchSize = 500;
         for (int i = 0; i < count; i += batchSize) {
@@ -0,0 +1,136 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendConditionBuilder;
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.DCBErrorCode;
+import com.crablet.eventstore.StreamPosition;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.internal.IdempotencyKeyPruner;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("crablet_idempotency_keys integration tests")
+class IdempotencyKeysTest extends AbstractEventStoreIntegrationTest {
+
+    @Test
+    @DisplayName("claims the key on the first append and rejects the second as a duplicate")
+    void claimsKeyAndRejectsDuplicate() {
+        eventStore.appendIdempotent(List.of(deposit("dep-1")), "DepositMade", "deposit_id", "dep-1");
+
+        assertThatThrownBy(() -> eventStore.appendIdempotent(
+                List.of(deposit("dep-1")), "DepositMade", "deposit_id", "dep-1"))
+                .isInstanceOf(ConcurrencyException.class)
+                .satisfies(e -> assertThat(Objects.requireNonNull(((ConcurrencyException) e).violation).errorCode())
+                        .isEqualTo(DCBErrorCode.IDEMPOTENCY_VIOLATION));
+
+        assertThat(keyPosition("dep-1")).isEqualTo(lastPosition("dep-1"));
+        assertThat(eventCount("dep-1")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("detects events appended without a claim")
+    void detectsUnclaimedEvents() {
+        eventStore.appendCommutative(List.of(deposit("dep-2")));
+
+        assertThatThrownBy(() -> eventStore.appendIdempotent(
+                List.of(deposit("dep-2")), "DepositMade", "deposit_id", "dep-2"))
+                .isInstanceOf(ConcurrencyException.class);
+
+        assertThat(keyPosition("dep-2")).isEqualTo(lastPosition("dep-2"));
+    }
+
+    @Test
+    @DisplayName("releases the claim when the append fails its concurrency check")
+    void releasesClaimOnConcurrencyViolation() {
+        Query decisionModel = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+        StreamPosition stale = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+        eventStore.appendCommutative(List.of(deposit("dep-0")));
+
+        assertThatThrownBy(() -> eventStore.appendConditional(List.of(deposit("dep-3")),
+                AppendConditionBuilder.of(decisionModel, stale)
+                        .withIdempotencyCheck("DepositMade", "deposit_id", "dep-3")
+                        .build()))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(keyCount("dep-3")).isZero();
+
+        StreamPosition fresh = eventStore.project(decisionModel, StateProjector.exists()).streamPosition();
+        eventStore.appendConditional(List.of(deposit("dep-3")),
+                AppendConditionBuilder.of(decisionModel, fresh)
+                        .withIdempotencyCheck("DepositMade", "deposit_id", "dep-3")
+                        .build());
+        assertThat(keyPosition("dep-3")).isEqualTo(lastPosition("dep-3"));
+    }
+
+    @Test
+    @DisplayName("pruned keys are still detected as duplicates through the event log")
+    void prunedKeysStillDetected() {
+        eventStore.appendIdempotent(List.of(deposit("dep-4")), "DepositMade", "deposit_id", "dep-4");
+        jdbcTemplate.update("UPDATE crablet_idempotency_keys SET claimed_at = claimed_at - INTERVAL '2 days'");
+
+        try (IdempotencyKeyPruner pruner = new IdempotencyKeyPruner(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()),
+                ClockProvider.systemDefault(), Duration.ofDays(1), Duration.ofHours(1))) {
+            assertThat(pruner.prune()).isEqualTo(1);
+        }
+
+        assertThat(keyCount("dep-4")).isZero();
+        assertThatThrownBy(() -> eventStore.appendIdempotent(
+                List.of(deposit("dep-4")), "DepositMade", "deposit_id", "dep-4"))
+                .isInstanceOf(ConcurrencyException.class);
+    }
+
+    @Test
+    @DisplayName("multi-tag idempotency queries keep using the event scan")
+    void multiTagQueriesUseEventScan() {
+        Query idempotency = Query.forEventAndTags("DepositMade", List.of(
+                new Tag("deposit_id", "dep-5"),
+                new Tag("wallet_id", "w1")));
+        eventStore.appendIdempotent(List.of(deposit("dep-5")), idempotency);
+
+        assertThatThrownBy(() -> eventStore.appendIdempotent(List.of(deposit("dep-5")), idempotency))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(keyCount("dep-5")).isZero();
+    }
+
+    private static AppendEvent deposit(String depositId) {
+        return AppendEvent.builder("DepositMade")
+                .tag("wallet_id", "w1")
+                .tag("deposit_id", depositId)
+                .data("{}")
+                .build();
+    }
+
+    private long lastPosition(String depositId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT MAX(position) FROM crablet_events WHERE tags @> ARRAY[?]::text[]",
+                Long.class, "deposit_id=" + depositId));
+    }
+
+    private int eventCount(String depositId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM crablet_events WHERE tags @> ARRAY[?]::text[]",
+                Integer.class, "deposit_id=" + depositId));
+    }
+
+    private long keyPosition(String depositId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT position FROM crablet_idempotency_keys WHERE type = 'DepositMade' AND key = 'deposit_id' AND value = ?",
+                Long.class, depositId));
+    }
+
+    private int keyCount(String depositId) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM crablet_idempotency_keys WHERE value = ?", Integer.class, depositId));
+    }
+}
@@ -0,0 +1,109 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import com.crablet.eventstore.query.StateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: project() of a three-item decision model with and without server-side prepared
+ * statements.
+ *
+ * Times the same projection, over a different wallet each call so only the parameter values
+ * change, through one event store with {@code prepare-threshold=0} (parsed and planned on every
+ * call) and one with {@code prepare-threshold=1} (named statement reused per pooled connection).
+ * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ * Output: P50 and P99 of project() for both variants and the P50 difference per call.
+ */
+@org.junit.jupiter.api.Tag("benchmark")
+@DisplayName("prepared read statement benchmark")
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.profiles.active=test")
+class PreparedReadBenchmarkTest extends AbstractEventStoreIntegrationTest {
+
+    private static final int SAMPLE_COUNT = 2_000;
+    private static final int WARMUP_COUNT = 200;
+    private static final int WALLETS = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClockProvider clock;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("P50/P99 of project() with unprepared vs prepared reads")
+    void projectWithAndWithoutPreparedStatements() {
+        for (int i = 0; i < WALLETS * 10; i++) {
+            String walletId = "wallet-" + (i % WALLETS);
+            eventStore.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{}").build(),
+                    AppendEvent.builder("WithdrawalMade").tag("wallet_id", walletId).data("{}").build()));
+        }
+
+        long[] unprepared = measure(storeWithThreshold(0));
+        long[] prepared = measure(storeWithThreshold(1));
+
+        System.out.printf("[benchmark] project() unprepared (%d samples): P50=%dus P99=%dus%n",
+                SAMPLE_COUNT, unprepared[0], unprepared[1]);
+        System.out.printf("[benchmark] project() prepared (%d samples): P50=%dus P99=%dus%n",
+                SAMPLE_COUNT, prepared[0], prepared[1]);
+        System.out.printf("[benchmark] parse and plan time saved per project() at P50: %dus%n",
+                unprepared[0] - prepared[0]);
+
+        assertThat(prepared[1]).as("P99 prepared project() should complete within 1s").isLessThan(1_000_000);
+    }
+
+    private EventStore storeWithThreshold(int prepareThreshold) {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        EventStoreConfig config = new EventStoreConfig();
+        config.setPrepareThreshold(prepareThreshold);
+        return new EventStoreImpl(dataSource, dataSource, objectMapper, config, clock, eventPublisher);
+    }
+
+    private long[] measure(EventStore store) {
+        List<Long> samples = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < WARMUP_COUNT + SAMPLE_COUNT; i++) {
+            Query decisionModel = decisionModel("wallet-" + (i % WALLETS));
+            long start = System.nanoTime();
+            store.project(decisionModel, StateProjector.exists());
+            if (i >= WARMUP_COUNT) {
+                samples.add(System.nanoTime() - start);
+            }
+        }
+
+        Collections.sort(samples);
+        return new long[] {
+            samples.get(SAMPLE_COUNT / 2) / 1_000,
+            samples.get((int) (SAMPLE_COUNT * 0.99)) / 1_000
+        };
+    }
+
+    private static Query decisionModel(String walletId) {
+        return Query.of(List.of(
+                QueryItem.of(List.of("DepositMade"), List.of(new Tag("wallet_id", walletId))),
+                QueryItem.of(List.of("WithdrawalMade"), List.of(new Tag("wallet_id", walletId))),
+                QueryItem.of(List.of("WalletOpened"), List.of(new Tag("wallet_id", walletId)))));
+    }
+}
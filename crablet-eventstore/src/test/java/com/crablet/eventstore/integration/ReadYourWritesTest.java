@@ -0,0 +1,104 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.ClockProvider;
+import com.crablet.eventstore.ConsistencyToken;
+import com.crablet.eventstore.EventStore;
+import com.crablet.eventstore.EventStoreConfig;
+import com.crablet.eventstore.internal.EventStoreImpl;
+import com.crablet.eventstore.metrics.ReplicaFallbackMetric;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.replica.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uses the test database as its own replica: it is never in recovery, so it has always replayed
+ * up to its current WAL position, and a token beyond that position forces the primary fallback.
+ */
+@DisplayName("Read-your-writes replica routing integration tests")
+class ReadYourWritesTest extends AbstractEventStoreIntegrationTest {
+
+    private static final Query WALLET_1 = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventStoreConfig config;
+
+    @Autowired
+    private ClockProvider clock;
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private ReplicaRoutingDataSource replicas;
+    private EventStore routedStore;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        replicas = new ReplicaRoutingDataSource(dataSource, dataSource, "test-replica",
+                Duration.ofMillis(50), Duration.ofHours(1), published::add);
+        routedStore = new EventStoreImpl(dataSource, replicas, objectMapper, config, clock, published::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.close();
+    }
+
+    @Test
+    @DisplayName("tracks the commit WAL position of appends and reads them back from the replica")
+    void readsOwnWritesFromReplica() {
+        assertThat(routedStore.lastCommitToken().isNone()).isTrue();
+
+        routedStore.appendCommutative(List.of(deposit()));
+        ConsistencyToken afterFirst = routedStore.lastCommitToken();
+        routedStore.executeInTransaction(tx -> tx.appendCommutative(List.of(deposit())));
+        ConsistencyToken afterSecond = routedStore.lastCommitToken();
+
+        assertThat(afterFirst.isNone()).isFalse();
+        assertThat(afterSecond.lsn()).isGreaterThanOrEqualTo(afterFirst.lsn());
+
+        EventStore consistent = routedStore.readAtLeast(afterSecond);
+        assertThat(consistent.project(WALLET_1, new EventArchiveTest.CollectingProjector()).state()).hasSize(2);
+        assertThat(consistent.exists(WALLET_1)).isTrue();
+        assertThat(published).noneMatch(ReplicaFallbackMetric.class::isInstance);
+    }
+
+    @Test
+    @DisplayName("reads from the primary when the replica does not reach the token in time")
+    void fallsBackToPrimary() {
+        routedStore.appendCommutative(List.of(deposit()));
+
+        ConsistencyToken unreachable = new ConsistencyToken(Long.MAX_VALUE);
+        boolean found = routedStore.readAtLeast(unreachable).project(WALLET_1, StateProjector.exists()).state();
+
+        assertThat(found).isTrue();
+        assertThat(published).contains(new ReplicaFallbackMetric("test-replica"));
+    }
+
+    @Test
+    @DisplayName("returns the store itself for tokens without a requirement")
+    void noTokenNeedsNoView() {
+        assertThat(routedStore.readAtLeast(ConsistencyToken.NONE)).isSameAs(routedStore);
+        assertThat(eventStore.readAtLeast(new ConsistencyToken(1))).isSameAs(eventStore);
+    }
+
+    private static AppendEvent deposit() {
+        return AppendEvent.builder("DepositMade").tag("wallet_id", "w1").data("{\"amount\": 1}").build();
+    }
+}
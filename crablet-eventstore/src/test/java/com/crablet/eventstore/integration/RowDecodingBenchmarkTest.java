@@ -0,0 +1,118 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.codec.EventPayloadCodecs;
+import com.crablet.eventstore.internal.StoredEventRowMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: decoding {@code crablet_events} rows with the former per-reader mapper versus
+ * {@link StoredEventRowMapper}.
+ *
+ * Reads the same rows with both mappers, the former selecting {@code tags} as a driver array
+ * and splitting each element, the shared one selecting the array literal and interning types
+ * and tag keys. Every event's tags are read, so lazy decoding saves nothing here.
+ * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ * Output: rows per second and bytes allocated per row for both mappers.
+ */
+@org.junit.jupiter.api.Tag("benchmark")
+@DisplayName("row decoding benchmark")
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.profiles.active=test")
+class RowDecodingBenchmarkTest extends AbstractEventStoreIntegrationTest {
+
+    private static final int EVENT_COUNT = 10_000;
+    private static final int ROUNDS = 20;
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final String LEGACY_SQL =
+        "SELECT type, tags, data, payload_codec, transaction_id, position, occurred_at, correlation_id, causation_id FROM crablet_events ORDER BY position";
+
+    private static final String SHARED_SQL =
+        "SELECT " + StoredEventRowMapper.COLUMNS + " FROM crablet_events ORDER BY position";
+
+    private static final RowMapper<StoredEvent> LEGACY_MAPPER = (rs, rowNum) -> {
+        String[] tagArray = (String[]) rs.getArray("tags").getArray();
+        List<Tag> tags = new ArrayList<>(tagArray.length);
+        for (String tagStr : tagArray) {
+            int eqIndex = tagStr.indexOf('=');
+            tags.add(eqIndex > 0
+                    ? new Tag(tagStr.substring(0, eqIndex), tagStr.substring(eqIndex + 1))
+                    : new Tag(tagStr, ""));
+        }
+        return new StoredEvent(
+                rs.getString("type"),
+                tags,
+                EventPayloadCodecs.decode(rs.getShort("payload_codec"), rs.getBytes("data")),
+                rs.getString("transaction_id"),
+                rs.getLong("position"),
+                rs.getTimestamp("occurred_at").toInstant(),
+                rs.getObject("correlation_id", UUID.class),
+                (Long) rs.getObject("causation_id"));
+    };
+
+    @Test
+    @DisplayName("rows/s and bytes/row of the former and the shared row mapper")
+    void decodeWithLegacyAndSharedMapper() {
+        List<AppendEvent> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            batch.add(AppendEvent.builder(i % 2 == 0 ? "DepositMade" : "WithdrawalMade")
+                    .tag("wallet_id", "wallet-" + (i % 500))
+                    .tag("currency", "EUR")
+                    .tag("region", "eu-west")
+                    .data("{\"amount\":" + i + "}")
+                    .build());
+            if (batch.size() == 1_000) {
+                eventStore.appendCommutative(batch);
+                batch = new ArrayList<>(1_000);
+            }
+        }
+
+        double[] legacy = measure(LEGACY_SQL, LEGACY_MAPPER);
+        double[] shared = measure(SHARED_SQL, StoredEventRowMapper.shared());
+
+        System.out.printf("[benchmark] former mapper (%d rows x %d rounds): %.0f rows/s, %.0f bytes/row%n",
+                EVENT_COUNT, ROUNDS, legacy[0], legacy[1]);
+        System.out.printf("[benchmark] shared mapper (%d rows x %d rounds): %.0f rows/s, %.0f bytes/row%n",
+                EVENT_COUNT, ROUNDS, shared[0], shared[1]);
+
+        assertThat(jdbcTemplate.query(SHARED_SQL, StoredEventRowMapper.shared()))
+                .extracting(StoredEvent::tags)
+                .isEqualTo(jdbcTemplate.query(LEGACY_SQL, LEGACY_MAPPER).stream().map(StoredEvent::tags).toList());
+    }
+
+    private double[] measure(String sql, RowMapper<StoredEvent> mapper) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long nanos = 0;
+        long bytes = 0;
+        long tags = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            List<StoredEvent> events = jdbcTemplate.query(sql, mapper);
+            for (StoredEvent event : events) {
+                tags += event.tags().size();
+            }
+            if (round >= WARMUP_ROUNDS) {
+                nanos += System.nanoTime() - start;
+                bytes += threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+            }
+        }
+        assertThat(tags).isEqualTo(3L * EVENT_COUNT * (WARMUP_ROUNDS + ROUNDS));
+        long rows = (long) EVENT_COUNT * ROUNDS;
+        return new double[] { rows * 1_000_000_000.0 / nanos, (double) bytes / rows };
+    }
+}
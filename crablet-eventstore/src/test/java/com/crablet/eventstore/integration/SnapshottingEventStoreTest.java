@@ -0,0 +1,224 @@
+package com.crablet.eventstore.integration;
+
+import com.crablet.eventstore.AppendEvent;
+import com.crablet.eventstore.CommandAuditStore;
+import com.crablet.eventstore.ConcurrencyException;
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.ProjectionResult;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.StateProjector;
+import com.crablet.eventstore.snapshot.SnapshottableStateProjector;
+import com.crablet.eventstore.snapshot.SnapshottingEventStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SnapshottingEventStore integration tests")
+class SnapshottingEventStoreTest extends AbstractEventStoreIntegrationTest {
+
+    private static final int THRESHOLD = 5;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SnapshottingEventStore snapshotting;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+        snapshotting = new SnapshottingEventStore(eventStore, dataSource, objectMapper, THRESHOLD);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Stops the snapshot writer; closing the shared test EventStore is a no-op without group commit
+        snapshotting.close();
+    }
+
+    @Test
+    @DisplayName("writes a snapshot once the threshold is crossed and resumes from it")
+    void writesSnapshotAndResumesFromIt() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-1");
+        deposit("snap-1", 8);
+
+        ProjectionResult<Tally> first = snapshotting.project(query, new TallyProjector(1));
+        assertThat(first.state().deposits()).isEqualTo(8);
+        awaitSnapshotAt(first.streamPosition().position());
+
+        deposit("snap-1", 2);
+        ProjectionResult<Tally> resumed = snapshotting.project(query, new TallyProjector(1));
+        ProjectionResult<Tally> replayed = eventStore.project(query, new TallyProjector(1));
+
+        assertThat(resumed.state()).isEqualTo(replayed.state());
+        assertThat(resumed.streamPosition().position()).isEqualTo(replayed.streamPosition().position());
+        assertThat(resumed.state().deposits()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("folds a later transaction that commits below the snapshot position")
+    void foldsLowerPositionCommittedAfterSnapshot() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-7");
+        // A position drawn before the snapshotted events, written by a transaction after them
+        Long position = jdbcTemplate.queryForObject(
+                "SELECT nextval(pg_get_serial_sequence('crablet_events', 'position'))", Long.class);
+        deposit("snap-7", 8);
+        awaitSnapshotAt(snapshotting.project(query, new TallyProjector(1)).streamPosition().position());
+
+        jdbcTemplate.update("""
+                INSERT INTO crablet_events (type, tags, data, transaction_id, position)
+                VALUES ('DepositMade', ARRAY['wallet_id=snap-7'], '{}', pg_current_xact_id(), ?)
+                """, position);
+        ProjectionResult<Tally> resumed = snapshotting.project(query, new TallyProjector(1));
+        ProjectionResult<Tally> replayed = eventStore.project(query, new TallyProjector(1));
+
+        assertThat(resumed.state().deposits()).isEqualTo(9);
+        assertThat(resumed.state()).isEqualTo(replayed.state());
+        assertThat(resumed.streamPosition()).isEqualTo(replayed.streamPosition());
+    }
+
+    @Test
+    @DisplayName("returns the snapshot position when no newer event matches")
+    void returnsSnapshotPositionWhenNothingNew() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-2");
+        deposit("snap-2", 6);
+        ProjectionResult<Tally> first = snapshotting.project(query, new TallyProjector(1));
+        awaitSnapshotAt(first.streamPosition().position());
+
+        ProjectionResult<Tally> fromSnapshot = snapshotting.project(query, new TallyProjector(1));
+
+        assertThat(fromSnapshot.state()).isEqualTo(first.state());
+        assertThat(fromSnapshot.streamPosition().position()).isEqualTo(first.streamPosition().position());
+    }
+
+    @Test
+    @DisplayName("stream position from a snapshot-based projection keeps DCB checks sound")
+    void streamPositionKeepsDcbSound() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-3");
+        deposit("snap-3", 6);
+        awaitSnapshotAt(snapshotting.project(query, new TallyProjector(1)).streamPosition().position());
+
+        ProjectionResult<Tally> decision = snapshotting.project(query, new TallyProjector(1));
+        deposit("snap-3", 1);
+
+        assertThatThrownBy(() -> snapshotting.appendNonCommutative(
+                List.of(AppendEvent.builder("DepositMade").tag("wallet_id", "snap-3").data("{}").build()),
+                query, decision.streamPosition()))
+                .isInstanceOf(ConcurrencyException.class);
+
+        ProjectionResult<Tally> fresh = snapshotting.project(query, new TallyProjector(1));
+        snapshotting.appendNonCommutative(
+                List.of(AppendEvent.builder("DepositMade").tag("wallet_id", "snap-3").data("{}").build()),
+                query, fresh.streamPosition());
+        assertThat(eventStore.project(query, new TallyProjector(1)).state().deposits()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("ignores snapshots written under another schema version")
+    void ignoresOtherSchemaVersion() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-4");
+        deposit("snap-4", 6);
+        awaitSnapshotAt(snapshotting.project(query, new TallyProjector(1)).streamPosition().position());
+        jdbcTemplate.update("UPDATE crablet_snapshots SET state = '{\"deposits\": 999, \"lastPosition\": 0}'");
+
+        assertThat(snapshotting.project(query, new TallyProjector(1)).state().deposits()).isEqualTo(999);
+        assertThat(snapshotting.project(query, new TallyProjector(2)).state().deposits()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("applies snapshots inside executeInTransaction and sees the transaction's own appends")
+    void appliesSnapshotsInsideTransaction() throws Exception {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-5");
+        deposit("snap-5", 6);
+        awaitSnapshotAt(snapshotting.project(query, new TallyProjector(1)).streamPosition().position());
+
+        Tally inTx = snapshotting.executeInTransaction(tx -> {
+            assertThat(tx).isInstanceOf(CommandAuditStore.class);
+            tx.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", "snap-5").data("{}").build()));
+            return tx.project(query, new TallyProjector(1)).state();
+        });
+
+        assertThat(inTx.deposits()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("passes through projectors that are not snapshottable")
+    void passesThroughPlainProjectors() {
+        Query query = Query.forEventAndTag("DepositMade", "wallet_id", "snap-6");
+        deposit("snap-6", 6);
+
+        assertThat(snapshotting.exists(query)).isTrue();
+        assertThat(snapshotting.project(query, StateProjector.exists()).state()).isTrue();
+        Integer snapshots = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crablet_snapshots", Integer.class);
+        assertThat(snapshots).isZero();
+    }
+
+    private void deposit(String walletId, int count) {
+        for (int i = 0; i < count; i++) {
+            eventStore.appendCommutative(List.of(
+                    AppendEvent.builder("DepositMade").tag("wallet_id", walletId).data("{}").build()));
+        }
+    }
+
+    private void awaitSnapshotAt(long position) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM crablet_snapshots WHERE position = ?", Integer.class, position);
+            if (rows != null && rows > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No snapshot written at position " + position);
+    }
+
+    record Tally(int deposits, long lastPosition) {
+    }
+
+    static final class TallyProjector implements SnapshottableStateProjector<Tally> {
+
+        private final int schemaVersion;
+
+        TallyProjector(int schemaVersion) {
+            this.schemaVersion = schemaVersion;
+        }
+
+        @Override
+        public List<String> getEventTypes() {
+            return List.of("DepositMade");
+        }
+
+        @Override
+        public Tally getInitialState() {
+            return new Tally(0, 0L);
+        }
+
+        @Override
+        public Tally transition(Tally currentState, StoredEvent event, EventDeserializer deserializer) {
+            return new Tally(currentState.deposits() + 1, event.position());
+        }
+
+        @Override
+        public Class<Tally> getStateType() {
+            return Tally.class;
+        }
+
+        @Override
+        public int getStateSchemaVersion() {
+            return schemaVersion;
+        }
+    }
+}
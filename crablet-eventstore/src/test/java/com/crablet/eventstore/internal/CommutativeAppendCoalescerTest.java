@@ -0,0 +1,170 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.EventStoreException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommutativeAppendCoalescer")
+class CommutativeAppendCoalescerTest {
+
+    @Test
+    @DisplayName("merges concurrent appends into one flush and completes each caller")
+    void mergesConcurrentAppendsIntoOneFlush() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch allQueued = new CountDownLatch(1);
+        try (CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                16, Duration.ofMillis(200), 64, 1,
+                batch -> {
+                    batchSizes.add(batch.size());
+                    batch.forEach(p -> p.result().complete("tx-1"));
+                })) {
+            ExecutorService callers = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(callers.submit(() -> {
+                        allQueued.await();
+                        return coalescer.appendAndWait(pending("Deposit"));
+                    }));
+                }
+                allQueued.countDown();
+                for (Future<String> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("tx-1");
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(8);
+        assertThat(batchSizes).anySatisfy(size -> assertThat(size).isGreaterThan(1));
+    }
+
+    @Test
+    @DisplayName("caps a flush at maxBatchSize")
+    void capsFlushAtMaxBatchSize() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        try (CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                2, Duration.ofMillis(200), 64, 1,
+                batch -> {
+                    batchSizes.add(batch.size());
+                    batch.forEach(p -> p.result().complete("tx"));
+                })) {
+            ExecutorService callers = Executors.newFixedThreadPool(5);
+            try {
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                    results.add(callers.submit(() -> coalescer.appendAndWait(pending("Deposit"))));
+                }
+                for (Future<String> result : results) {
+                    result.get(5, TimeUnit.SECONDS);
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("rethrows the failure the flusher set for that caller only")
+    void isolatesPerCallerFailure() throws Exception {
+        try (CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                16, Duration.ofMillis(50), 64, 1,
+                batch -> batch.forEach(p -> {
+                    if (p.eventTypes().contains("Bad")) {
+                        p.result().completeExceptionally(new EventStoreException("bad append"));
+                    } else {
+                        p.result().complete("tx");
+                    }
+                }))) {
+            CompletableFuture<String> good = CompletableFuture.supplyAsync(() -> coalescer.appendAndWait(pending("Good")));
+            assertThatThrownBy(() -> coalescer.appendAndWait(pending("Bad")))
+                    .isInstanceOf(EventStoreException.class)
+                    .hasMessage("bad append");
+            assertThat(good.get(5, TimeUnit.SECONDS)).isEqualTo("tx");
+        }
+    }
+
+    @Test
+    @DisplayName("fails every caller when the flush itself throws")
+    void failsBatchWhenFlushThrows() {
+        try (CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                16, Duration.ZERO, 64, 1,
+                batch -> {
+                    throw new EventStoreException("commit failed");
+                })) {
+            assertThatThrownBy(() -> coalescer.appendAndWait(pending("Deposit")))
+                    .isInstanceOf(EventStoreException.class)
+                    .hasMessage("commit failed");
+        }
+    }
+
+    @Test
+    @DisplayName("fails callers the flusher forgot to complete instead of hanging")
+    void failsUncompletedCallers() {
+        try (CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                16, Duration.ZERO, 64, 1, batch -> { })) {
+            assertThatThrownBy(() -> coalescer.appendAndWait(pending("Deposit")))
+                    .isInstanceOf(EventStoreException.class)
+                    .hasMessageContaining("did not complete");
+        }
+    }
+
+    @Test
+    @DisplayName("returns null after close so the caller appends directly")
+    void returnsNullAfterClose() {
+        CommutativeAppendCoalescer coalescer = new CommutativeAppendCoalescer(
+                16, Duration.ZERO, 64, 1, batch -> batch.forEach(p -> p.result().complete("tx")));
+        coalescer.close();
+
+        assertThat(coalescer.appendAndWait(pending("Deposit"))).isNull();
+    }
+
+    @Test
+    @DisplayName("rejects invalid settings")
+    @SuppressWarnings("NullAway") // intentionally passing null to verify validation
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new CommutativeAppendCoalescer(0, Duration.ZERO, 1, 1, batch -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CommutativeAppendCoalescer(1, Duration.ofMillis(-1), 1, 1, batch -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CommutativeAppendCoalescer(1, Duration.ZERO, 0, 1, batch -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CommutativeAppendCoalescer(1, Duration.ZERO, 1, 0, batch -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CommutativeAppendCoalescer(1, Duration.ZERO, 1, 1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CommutativeAppendCoalescer.PendingAppend pending(String type) {
+        return new CommutativeAppendCoalescer.PendingAppend(
+                new String[]{type},
+                new String[]{"{}"},
+                new String[]{"{}"},
+                List.of(type),
+                Set.of(),
+                null,
+                null,
+                Instant.now(),
+                System.nanoTime(),
+                new CompletableFuture<>());
+    }
+}
@@ -23,6 +23,7 @@ class EventStoreConfigTest {
         assertThat(config.isPersistCommands()).isTrue();
         assertThat(config.getTransactionIsolation()).isEqualTo("READ_COMMITTED");
         assertThat(config.getFetchSize()).isEqualTo(1000);
+        assertThat(config.isFusedCommandWrites()).isFalse();
     }
 
     @Test
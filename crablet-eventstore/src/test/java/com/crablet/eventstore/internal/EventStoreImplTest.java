@@ -9,6 +9,7 @@ import com.crablet.eventstore.StoredEvent;
 import com.crablet.eventstore.StreamPosition;
 import com.crablet.eventstore.metrics.EventTypeMetric;
 import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.metrics.GroupCommitBatchMetric;
 import com.crablet.eventstore.query.EventDeserializer;
 import com.crablet.eventstore.query.EventRepository;
 import com.crablet.eventstore.query.ProjectionResult;
@@ -37,10 +38,17 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
@@ -649,6 +657,111 @@ class EventStoreImplTest {
         assertThat(readCounter.getConnectionCount()).isEqualTo(0);
     }
 
+    @Test
+    void groupCommitSharesOneCommitAcrossConcurrentCommutativeAppends() throws Exception {
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        CountingDataSource writeCounter = new CountingDataSource(dataSource);
+        int callers = 8;
+        try (EventStoreImpl grouped = new EventStoreImpl(
+                writeCounter, dataSource, objectMapper, newConfig(), clockProvider, publisher,
+                EventStoreOptions.builder().groupCommit(groupCommit(Duration.ofMillis(200))).build())) {
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<CompletableFuture<String>> results = new java.util.ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    String id = UUID.randomUUID().toString();
+                    results.add(CompletableFuture.supplyAsync(() -> {
+                        awaitQuietly(start);
+                        return grouped.appendCommutative(List.of(appendEvent(id, "grouped")));
+                    }, executor));
+                }
+                start.countDown();
+
+                Set<String> transactionIds = new java.util.HashSet<>();
+                for (CompletableFuture<String> result : results) {
+                    transactionIds.add(result.get(10, TimeUnit.SECONDS));
+                }
+                assertThat(transactionIds.size()).isLessThan(callers);
+                assertThat(writeCounter.getConnectionCount()).isLessThan(callers);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        verify(publisher, Mockito.atLeastOnce()).publishEvent(Mockito.any(GroupCommitBatchMetric.class));
+    }
+
+    @Test
+    void groupCommitIsolatesFailingAppendFromItsBatch() throws Exception {
+        try (EventStoreImpl grouped = new EventStoreImpl(
+                dataSource, dataSource, objectMapper, newConfig(), clockProvider,
+                mock(ApplicationEventPublisher.class),
+                EventStoreOptions.builder().groupCommit(groupCommit(Duration.ofMillis(200))).build())) {
+            String goodId = UUID.randomUUID().toString();
+            CompletableFuture<String> good = CompletableFuture.supplyAsync(
+                    () -> grouped.appendCommutative(List.of(appendEvent(goodId, "survives"))));
+            // Violates chk_event_type_length inside the database
+            AppendEvent tooLong = AppendEvent.builder("X".repeat(65)).tag("test_id", goodId).data("{}").build();
+
+            assertThrows(EventStoreException.class, () -> grouped.appendCommutative(List.of(tooLong)));
+            assertNotNull(good.get(10, TimeUnit.SECONDS));
+            assertTrue(grouped.exists(Query.forEventAndTag("TestEvent", "test_id", goodId)));
+        }
+    }
+
+    @Test
+    void groupCommitKeepsEachCallersTimestamp() throws Exception {
+        // Every read of the clock is one second later, so each caller gets its own timestamp
+        ClockProviderImpl ticking = new ClockProviderImpl();
+        ticking.setClock(new TickingClock(Instant.parse("2026-01-01T00:00:00Z")));
+        int callers = 4;
+        String id = UUID.randomUUID().toString();
+        try (EventStoreImpl grouped = new EventStoreImpl(
+                dataSource, dataSource, objectMapper, newConfig(), ticking,
+                mock(ApplicationEventPublisher.class),
+                EventStoreOptions.builder().groupCommit(groupCommit(Duration.ofMillis(200))).build())) {
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<CompletableFuture<String>> results = new java.util.ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    results.add(CompletableFuture.supplyAsync(() -> {
+                        awaitQuietly(start);
+                        return grouped.appendCommutative(List.of(appendEvent(id, "stamped")));
+                    }, executor));
+                }
+                start.countDown();
+                for (CompletableFuture<String> result : results) {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        List<StoredEvent> stored = new EventRepositoryImpl(dataSource, new EventStoreConfig())
+                .query(Query.forEventAndTag("TestEvent", "test_id", id), null);
+        assertThat(stored).hasSize(callers);
+        assertThat(stored.stream().map(StoredEvent::occurredAt).distinct()).hasSize(callers);
+    }
+
+    private static GroupCommitProperties groupCommit(Duration maxWait) {
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setEnabled(true);
+        properties.setMaxBatchSize(32);
+        properties.setMaxWait(maxWait);
+        return properties;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private EventStoreConfig newConfig() {
         EventStoreConfig c = new EventStoreConfig();
         c.setPersistCommands(false);
@@ -667,6 +780,30 @@ class EventStoreImplTest {
         return connection.unwrap(PGConnection.class).getNotifications(timeoutMillis);
     }
 
+    static class TickingClock extends Clock {
+        private final AtomicInteger ticks = new AtomicInteger();
+        private final Instant start;
+
+        TickingClock(Instant start) {
+            this.start = start;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return start.plusSeconds(ticks.incrementAndGet());
+        }
+    }
+
     static class CountingDataSource implements DataSource {
         private final DataSource delegate;
         private final AtomicInteger count = new AtomicInteger();
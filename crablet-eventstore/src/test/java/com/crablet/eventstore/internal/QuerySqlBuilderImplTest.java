@@ -334,5 +334,43 @@ class QuerySqlBuilderImplTest {
         assertThat(params).hasSize(1);
         assertThat(params).doesNotContain(0L);
     }
-}
 
+    @Test
+    @DisplayName("Should build the same clause text for queries of the same shape")
+    void shouldBuildSameClauseText_ForSameShape() {
+        // Given
+        Query first = Query.forEventAndTag("DepositMade", "wallet_id", "w1");
+        Query second = Query.forEventAndTag("WithdrawalMade", "wallet_id", "w2");
+        List<Object> firstParams = new ArrayList<>();
+        List<Object> secondParams = new ArrayList<>();
+
+        // When
+        String firstClause = sqlBuilder.buildWhereClause(first, null, firstParams);
+        String secondClause = sqlBuilder.buildWhereClause(second, null, secondParams);
+        String otherShape = sqlBuilder.buildWhereClause(second, StreamPosition.of(5L, Instant.now()), new ArrayList<>());
+
+        // Then
+        assertThat(secondClause).isEqualTo(firstClause);
+        assertThat(otherShape).isEqualTo("position > ? AND ((type = ANY(?) AND tags @> ?::text[]))");
+        assertThat((String[]) secondParams.get(0)).containsExactly("WithdrawalMade");
+        assertThat((String[]) secondParams.get(1)).containsExactly("wallet_id=w2");
+    }
+
+    @Test
+    @DisplayName("Should bound by transaction id and position when reading after a cursor")
+    void shouldBuildWhereClause_AfterTransactionCursor() {
+        // Given
+        Query query = Query.of(QueryItem.ofType("WalletOpened"));
+        StreamPosition cursor = StreamPosition.of(50L, Instant.now(), "812");
+        List<Object> params = new ArrayList<>();
+
+        // When
+        String whereClause = sqlBuilder.buildWhereClause(query, cursor, true, params);
+
+        // Then
+        assertThat(whereClause).isEqualTo("(transaction_id, position) > (?::xid8, ?) AND ((type = ANY(?)))");
+        assertThat(params).hasSize(3);
+        assertThat(params.get(0)).isEqualTo("812");
+        assertThat(params.get(1)).isEqualTo(50L);
+    }
+}
@@ -0,0 +1,72 @@
+package com.crablet.eventstore.internal;
+
+import com.crablet.eventstore.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoredEventRowMapperTest {
+
+    private final StoredEventRowMapper mapper = new StoredEventRowMapper(16);
+
+    @Test
+    void tagsOfEmptyLiteralAreEmpty() {
+        assertThat(mapper.tags("{}")).isEmpty();
+    }
+
+    @Test
+    void tagsOfPlainElements() {
+        assertThat(mapper.tags("{wallet_id=w1,currency=EUR}"))
+                .isEqualTo(List.of(new Tag("wallet_id", "w1"), new Tag("currency", "EUR")));
+    }
+
+    @Test
+    void tagsOfQuotedAndEscapedElements() {
+        assertThat(mapper.tags("{\"note=a b\",\"path=c:\\\\tmp\",\"quote=say \\\"hi\\\"\",\"list=x,y\",k=v}"))
+                .containsExactly(
+                        new Tag("note", "a b"),
+                        new Tag("path", "c:\\tmp"),
+                        new Tag("quote", "say \"hi\""),
+                        new Tag("list", "x,y"),
+                        new Tag("k", "v"));
+    }
+
+    @Test
+    void tagWithoutSeparatorHasEmptyValue() {
+        assertThat(mapper.tags("{flagged,=x,k=}"))
+                .containsExactly(new Tag("flagged", ""), new Tag("=x", ""), new Tag("k", ""));
+    }
+
+    @Test
+    void tagsOfMalformedLiteralAreRejected() {
+        assertThatThrownBy(() -> mapper.tags("wallet_id=w1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tagKeysAndTypesAreShared() {
+        List<Tag> first = mapper.tags("{wallet_id=w1}");
+        List<Tag> second = mapper.tags("{wallet_id=w2}");
+
+        assertThat(first.getFirst().key()).isSameAs(second.getFirst().key());
+        assertThat(mapper.type(new String("DepositMade"))).isSameAs(mapper.type(new String("DepositMade")));
+    }
+
+    @Test
+    void dictionaryKeepsLastStringPerSlot() {
+        StoredEventRowMapper single = new StoredEventRowMapper(1);
+        String deposit = single.type(new String("DepositMade"));
+        single.type("WithdrawalMade");
+
+        assertThat(single.type(new String("DepositMade"))).isNotSameAs(deposit).isEqualTo(deposit);
+    }
+
+    @Test
+    void dictionarySizeMustBePowerOfTwo() {
+        assertThatThrownBy(() -> new StoredEventRowMapper(100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,6 +3,7 @@ package com.crablet.eventstore.observability;
 import com.crablet.eventstore.metrics.ConcurrencyViolationMetric;
 import com.crablet.eventstore.metrics.EventTypeMetric;
 import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.metrics.GroupCommitBatchMetric;
 import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,12 @@ class EventStoreObservationListenerTest {
         assertThatNoException().isThrownBy(() -> listener.onEventType(new EventTypeMetric("WalletCreated")));
     }
 
+    @Test
+    @DisplayName("onGroupCommitBatch records observation without error")
+    void onGroupCommitBatch() {
+        assertThatNoException().isThrownBy(() -> listener.onGroupCommitBatch(new GroupCommitBatchMetric(8, 20)));
+    }
+
     @Test
     @DisplayName("onConcurrencyViolation records observation without error")
     void onConcurrencyViolation() {
@@ -0,0 +1,114 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.StoredEvent;
+import com.crablet.examples.wallet.events.DepositMade;
+import com.crablet.examples.wallet.events.MoneyTransferred;
+import com.crablet.examples.wallet.events.WalletEvent;
+import com.crablet.examples.wallet.events.WalletOpened;
+import com.crablet.examples.wallet.projections.TransferState;
+import com.crablet.examples.wallet.projections.TransferStateProjector;
+import com.crablet.examples.wallet.projections.WalletBalanceState;
+import com.crablet.examples.wallet.projections.WalletBalanceStateProjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: CPU time of folding a wallet decision model through three projectors that all
+ * deserialize to {@link WalletEvent}, with a plain {@code ObjectMapper.readValue} per projector
+ * versus cached readers plus per-event memoization, as {@code EventStoreImpl.project} now does.
+ * Run with -Dgroups=benchmark to include in a benchmark-only suite.
+ */
+@Tag("benchmark")
+@DisplayName("Per-event deserialization memoization benchmark")
+class EventDeserializationBenchmarkTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int ROUNDS = 10;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    @DisplayName("memoized deserialization costs less CPU than one parse per projector")
+    void memoizationSavesCpu() {
+        List<StoredEvent> events = walletEvents();
+        EventDeserializer perCall = new EventDeserializer() {
+            @Override
+            public <E> E deserialize(StoredEvent event, Class<E> eventType) {
+                return objectMapper.readValue(event.data(), eventType);
+            }
+        };
+        CachingEventDeserializer caching = new CachingEventDeserializer(objectMapper);
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            fold(events, () -> perCall);
+            fold(events, () -> new MemoizingEventDeserializer(caching));
+        }
+
+        long perCallNanos = Long.MAX_VALUE;
+        long memoizedNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            perCallNanos = Math.min(perCallNanos, cpuNanos(() -> fold(events, () -> perCall)));
+            memoizedNanos = Math.min(memoizedNanos,
+                    cpuNanos(() -> fold(events, () -> new MemoizingEventDeserializer(caching))));
+        }
+
+        System.out.printf("[benchmark] %d events x 3 projectors: per-call=%dms memoized=%dms (%.1fx)%n",
+                EVENTS, perCallNanos / 1_000_000, memoizedNanos / 1_000_000,
+                (double) perCallNanos / memoizedNanos);
+        assertThat(memoizedNanos).isLessThan(perCallNanos);
+    }
+
+    private static void fold(List<StoredEvent> events, Supplier<EventDeserializer> perProjection) {
+        WalletBalanceStateProjector balance = new WalletBalanceStateProjector();
+        TransferStateProjector transfer = new TransferStateProjector("w-from", "w-to");
+        EventDeserializer deserializer = perProjection.get();
+        WalletBalanceState from = balance.getInitialState();
+        WalletBalanceState to = balance.getInitialState();
+        TransferState both = transfer.getInitialState();
+        for (StoredEvent event : events) {
+            from = balance.transition(from, event, deserializer);
+            to = balance.transition(to, event, deserializer);
+            both = transfer.transition(both, event, deserializer);
+        }
+        assertThat(both.fromWallet().walletId()).isEqualTo("w-from");
+    }
+
+    private static long cpuNanos(Runnable task) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        task.run();
+        return threads.getCurrentThreadCpuTime() - start;
+    }
+
+    private List<StoredEvent> walletEvents() {
+        List<WalletEvent> domainEvents = new ArrayList<>(EVENTS);
+        domainEvents.add(WalletOpened.of("w-from", "Alice", 1_000));
+        domainEvents.add(WalletOpened.of("w-to", "Bob", 1_000));
+        for (int i = 2; i < EVENTS; i++) {
+            domainEvents.add(i % 2 == 0
+                    ? DepositMade.of("d-" + i, "w-from", 10, 1_000 + i, "deposit " + i)
+                    : MoneyTransferred.of("t-" + i, "w-from", "w-to", 1, 1_000_000 - i, 1_000 + i, "transfer " + i));
+        }
+        List<StoredEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < domainEvents.size(); i++) {
+            WalletEvent event = domainEvents.get(i);
+            byte[] data = objectMapper.writerFor(WalletEvent.class).writeValueAsBytes(event);
+            events.add(new StoredEvent(event.getClass().getSimpleName(), List.of(), data,
+                    "1", i + 1, Instant.EPOCH));
+        }
+        return events;
+    }
+}
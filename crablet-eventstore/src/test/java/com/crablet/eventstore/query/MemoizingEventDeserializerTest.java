@@ -0,0 +1,68 @@
+package com.crablet.eventstore.query;
+
+import com.crablet.eventstore.StoredEvent;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemoizingEventDeserializerTest {
+
+    record Amount(int amount) {
+    }
+
+    private final List<String> calls = new ArrayList<>();
+    private final CachingEventDeserializer caching = new CachingEventDeserializer(JsonMapper.builder().build());
+    private final EventDeserializer counting = new EventDeserializer() {
+        @Override
+        public <E> E deserialize(StoredEvent event, Class<E> eventType) {
+            calls.add(event.position() + ":" + eventType.getSimpleName());
+            return caching.deserialize(event, eventType);
+        }
+    };
+
+    @Test
+    void parsesEachEventOncePerTargetClass() {
+        MemoizingEventDeserializer deserializer = new MemoizingEventDeserializer(counting);
+        StoredEvent event = event(1, "{\"amount\": 5}");
+
+        Amount first = deserializer.deserialize(event, Amount.class);
+        Amount second = deserializer.deserialize(event, Amount.class);
+        Map<?, ?> asMap = deserializer.deserialize(event, Map.class);
+        deserializer.deserialize(event, Map.class);
+
+        assertThat(second).isSameAs(first);
+        assertThat(asMap).containsEntry("amount", 5);
+        assertThat(calls).containsExactly("1:Amount", "1:Map");
+    }
+
+    @Test
+    void forgetsPreviousEventWhenPositionChanges() {
+        MemoizingEventDeserializer deserializer = new MemoizingEventDeserializer(counting);
+
+        assertThat(deserializer.deserialize(event(1, "{\"amount\": 5}"), Amount.class).amount()).isEqualTo(5);
+        assertThat(deserializer.deserialize(event(2, "{\"amount\": 7}"), Amount.class).amount()).isEqualTo(7);
+        assertThat(deserializer.deserialize(event(1, "{\"amount\": 5}"), Amount.class).amount()).isEqualTo(5);
+
+        assertThat(calls).containsExactly("1:Amount", "2:Amount", "1:Amount");
+    }
+
+    @Test
+    void cachingDeserializerWrapsFailures() {
+        assertThatThrownBy(() -> caching.deserialize(event(1, "not-json"), Amount.class))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to deserialize event type=DepositMade");
+    }
+
+    private static StoredEvent event(long position, String json) {
+        return new StoredEvent("DepositMade", List.of(), json.getBytes(StandardCharsets.UTF_8),
+                "1", position, Instant.EPOCH);
+    }
+}
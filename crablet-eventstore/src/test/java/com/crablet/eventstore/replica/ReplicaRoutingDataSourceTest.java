@@ -0,0 +1,109 @@
+package com.crablet.eventstore.replica;
+
+import com.crablet.eventstore.metrics.ReplicaHealthMetric;
+import com.crablet.eventstore.metrics.ReplicaReadMetric;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        when(first.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        when(second.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        routing = new ReplicaRoutingDataSource(
+                primary,
+                List.of(new ReplicaRoutingDataSource.Replica("first", first),
+                        new ReplicaRoutingDataSource.Replica("second", second)),
+                Duration.ZERO,
+                Duration.ofHours(1),
+                Long.MAX_VALUE,
+                published::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+    }
+
+    @Test
+    @DisplayName("Should send each connection to the replica with the fewest borrowed connections")
+    void shouldBalanceByOutstandingConnections() throws SQLException {
+        Connection held = routing.getConnection();
+        Connection next = routing.getConnection();
+        held.close();
+        next.close();
+        Connection afterRelease = routing.getConnection();
+
+        assertThat(published).containsExactly(
+                new ReplicaReadMetric("first"),
+                new ReplicaReadMetric("second"),
+                new ReplicaReadMetric("first"));
+        afterRelease.close();
+    }
+
+    @Test
+    @DisplayName("Should count a connection closed twice only once")
+    void shouldReleaseOnce() throws SQLException {
+        Connection held = routing.getConnection();
+        held.close();
+        held.close();
+        Connection inUse = routing.getConnection();
+        Connection next = routing.getConnection();
+
+        assertThat(published).containsExactly(
+                new ReplicaReadMetric("first"),
+                new ReplicaReadMetric("first"),
+                new ReplicaReadMetric("second"));
+        inUse.close();
+        next.close();
+    }
+
+    @Test
+    @DisplayName("Should eject a replica whose pool fails and read from the others")
+    void shouldEjectFailingReplica() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        routing.getConnection().close();
+        routing.getConnection().close();
+
+        assertThat(published).containsExactly(
+                new ReplicaHealthMetric("first", false),
+                new ReplicaReadMetric("second"),
+                new ReplicaReadMetric("second"));
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when every replica is ejected")
+    void shouldFallBackToPrimary() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        routing.getConnection().close();
+
+        assertThat(published).endsWith(new ReplicaReadMetric(ReplicaRoutingDataSource.PRIMARY));
+        verify(primary).getConnection();
+    }
+}
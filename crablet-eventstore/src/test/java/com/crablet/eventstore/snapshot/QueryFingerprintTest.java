@@ -0,0 +1,48 @@
+package com.crablet.eventstore.snapshot;
+
+import com.crablet.eventstore.Tag;
+import com.crablet.eventstore.query.Query;
+import com.crablet.eventstore.query.QueryItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("QueryFingerprint")
+class QueryFingerprintTest {
+
+    @Test
+    @DisplayName("ignores the order of items, types and tags")
+    void ignoresOrder() {
+        Query a = Query.of(List.of(
+                QueryItem.of(List.of("DepositMade", "WithdrawalMade"),
+                        List.of(new Tag("wallet_id", "w1"), new Tag("currency", "EUR"))),
+                QueryItem.ofType("WalletOpened")));
+        Query b = Query.of(List.of(
+                QueryItem.ofType("WalletOpened"),
+                QueryItem.of(List.of("WithdrawalMade", "DepositMade"),
+                        List.of(new Tag("currency", "EUR"), new Tag("wallet_id", "w1")))));
+
+        assertThat(QueryFingerprint.of(a)).isEqualTo(QueryFingerprint.of(b));
+    }
+
+    @Test
+    @DisplayName("distinguishes queries that match different events")
+    void distinguishesDifferentQueries() {
+        assertThat(QueryFingerprint.of(Query.forEventAndTag("DepositMade", "wallet_id", "w1")))
+                .isNotEqualTo(QueryFingerprint.of(Query.forEventAndTag("DepositMade", "wallet_id", "w2")));
+        assertThat(QueryFingerprint.of(Query.forEvent("DepositMade")))
+                .isNotEqualTo(QueryFingerprint.of(Query.of(QueryItem.ofTag(new Tag("DepositMade", "")))));
+    }
+
+    @Test
+    @DisplayName("is not fooled by separator characters inside values")
+    void lengthPrefixesValues() {
+        Query joined = Query.of(QueryItem.ofTypes(List.of("A", "B")));
+        Query single = Query.of(QueryItem.ofTypes(List.of("1:A1:B")));
+
+        assertThat(QueryFingerprint.of(joined)).isNotEqualTo(QueryFingerprint.of(single));
+    }
+}
@@ -12,6 +12,12 @@ public final class CrabletMetricNames {
     public static final String EVENTSTORE_EVENTS_APPENDED = "eventstore.events.appended";
     public static final String EVENTSTORE_EVENTS_BY_TYPE = "eventstore.events.by_type";
     public static final String EVENTSTORE_CONCURRENCY_VIOLATIONS = "eventstore.concurrency.violations";
+    public static final String EVENTSTORE_GROUP_COMMIT_BATCH_SIZE = "eventstore.group_commit.batch_size";
+    public static final String EVENTSTORE_GROUP_COMMIT_QUEUE_WAIT = "eventstore.group_commit.queue_wait";
+    public static final String EVENTSTORE_REPLICA_LAG_BYTES = "eventstore.replica.lag_bytes";
+    public static final String EVENTSTORE_REPLICA_PRIMARY_FALLBACKS = "eventstore.replica.primary_fallbacks";
+    public static final String EVENTSTORE_REPLICA_READS = "eventstore.replica.reads";
+    public static final String EVENTSTORE_REPLICA_HEALTHY = "eventstore.replica.healthy";
 
     // Commands
     public static final String COMMANDS_INFLIGHT = "commands.inflight";
@@ -19,6 +25,9 @@ public final class CrabletMetricNames {
     public static final String COMMANDS_TOTAL = "eventstore.commands.total";
     public static final String COMMANDS_FAILED = "eventstore.commands.failed";
     public static final String COMMANDS_IDEMPOTENT = "eventstore.commands.idempotent";
+    public static final String COMMANDS_ATTEMPTS = "eventstore.commands.attempts";
+    public static final String COMMANDS_STRIPE_QUEUE_DEPTH = "commands.stripe.queue_depth";
+    public static final String COMMANDS_STRIPE_WAIT = "commands.stripe.wait";
 
     // Outbox
     public static final String OUTBOX_EVENTS_PUBLISHED = "outbox.events.published";
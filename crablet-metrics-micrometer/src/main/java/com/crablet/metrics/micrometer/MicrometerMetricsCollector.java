@@ -2,6 +2,7 @@ package com.crablet.metrics.micrometer;
 
 import com.crablet.eventstore.metrics.MetricEvent;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -14,18 +15,28 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.crablet.metrics.micrometer.CrabletMetricNames.AUTOMATIONS_EVENTS_PROCESSED;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.AUTOMATIONS_EXECUTION_DURATION;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.AUTOMATIONS_EXECUTION_ERRORS;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_ATTEMPTS;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_DURATION;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_FAILED;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_IDEMPOTENT;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_INFLIGHT;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_STRIPE_QUEUE_DEPTH;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_STRIPE_WAIT;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.COMMANDS_TOTAL;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_CONCURRENCY_VIOLATIONS;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_EVENTS_APPENDED;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_EVENTS_BY_TYPE;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_GROUP_COMMIT_BATCH_SIZE;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_GROUP_COMMIT_QUEUE_WAIT;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_REPLICA_HEALTHY;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_REPLICA_LAG_BYTES;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_REPLICA_PRIMARY_FALLBACKS;
+import static com.crablet.metrics.micrometer.CrabletMetricNames.EVENTSTORE_REPLICA_READS;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.OUTBOX_ERRORS;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.OUTBOX_EVENTS_PUBLISHED;
 import static com.crablet.metrics.micrometer.CrabletMetricNames.OUTBOX_PROCESSING_CYCLES;
@@ -62,6 +73,9 @@ public class MicrometerMetricsCollector {
     private final Map<String, AtomicInteger> backoffActiveState = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> backoffEmptyPollState = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> inFlightCommands = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> stripeQueueDepth = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> replicaLagBytes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replicaHealth = new ConcurrentHashMap<>();
 
     public MicrometerMetricsCollector(MeterRegistry registry) {
         this.registry = registry;
@@ -74,10 +88,18 @@ public class MicrometerMetricsCollector {
             case "EventsAppendedMetric" -> handleEventsAppended(event);
             case "EventTypeMetric" -> handleEventType(event);
             case "ConcurrencyViolationMetric" -> handleConcurrencyViolation();
+            case "GroupCommitBatchMetric" -> handleGroupCommitBatch(event);
+            case "GroupCommitQueueWaitMetric" -> handleGroupCommitQueueWait(event);
+            case "ReplicaLagMetric" -> handleReplicaLag(event);
+            case "ReplicaFallbackMetric" -> handleReplicaFallback(event);
+            case "ReplicaReadMetric" -> handleReplicaRead(event);
+            case "ReplicaHealthMetric" -> handleReplicaHealth(event);
             case "CommandStartedMetric" -> handleCommandStarted(event);
             case "CommandSuccessMetric" -> handleCommandSuccess(event);
             case "CommandFailureMetric" -> handleCommandFailure(event);
             case "IdempotentOperationMetric" -> handleIdempotentOperation(event);
+            case "CommandAttemptsMetric" -> handleCommandAttempts(event);
+            case "CommandStripeMetric" -> handleCommandStripe(event);
             case "EventsPublishedMetric" -> handleEventsPublished(event);
             case "PublishingDurationMetric" -> handlePublishingDuration(event);
             case "OutboxErrorMetric" -> handleOutboxError(event);
@@ -114,6 +136,58 @@ public class MicrometerMetricsCollector {
             .increment();
     }
 
+    private void handleGroupCommitBatch(MetricEvent event) {
+        DistributionSummary.builder(EVENTSTORE_GROUP_COMMIT_BATCH_SIZE)
+            .description("Append calls merged into one group commit")
+            .register(registry)
+            .record(intValue(event, "appendCount"));
+    }
+
+    private void handleGroupCommitQueueWait(MetricEvent event) {
+        Timer.builder(EVENTSTORE_GROUP_COMMIT_QUEUE_WAIT)
+            .description("Time a commutative append waited in the group-commit queue")
+            .register(registry)
+            .record(durationValue(event, "duration"));
+    }
+
+    private void handleReplicaLag(MetricEvent event) {
+        replicaLagBytes.computeIfAbsent(stringValue(event, "replica"), replica -> {
+            AtomicLong gauge = new AtomicLong(0);
+            Gauge.builder(EVENTSTORE_REPLICA_LAG_BYTES, gauge, AtomicLong::get)
+                .description("WAL bytes written on the primary and not yet replayed by the replica")
+                .tag("replica", replica)
+                .register(registry);
+            return gauge;
+        }).set(longValue(event, "lagBytes"));
+    }
+
+    private void handleReplicaFallback(MetricEvent event) {
+        Counter.builder(EVENTSTORE_REPLICA_PRIMARY_FALLBACKS)
+            .description("Reads needing a consistency token that went to the primary")
+            .tag("replica", stringValue(event, "replica"))
+            .register(registry)
+            .increment();
+    }
+
+    private void handleReplicaRead(MetricEvent event) {
+        Counter.builder(EVENTSTORE_REPLICA_READS)
+            .description("Read connections handed out, by the replica serving them")
+            .tag("replica", stringValue(event, "replica"))
+            .register(registry)
+            .increment();
+    }
+
+    private void handleReplicaHealth(MetricEvent event) {
+        replicaHealth.computeIfAbsent(stringValue(event, "replica"), replica -> {
+            AtomicInteger gauge = new AtomicInteger(0);
+            Gauge.builder(EVENTSTORE_REPLICA_HEALTHY, gauge, AtomicInteger::get)
+                .description("Whether the replica receives reads (1=healthy, 0=ejected)")
+                .tag("replica", replica)
+                .register(registry);
+            return gauge;
+        }).set(booleanValue(event, "healthy") ? 1 : 0);
+    }
+
     private void handleCommandStarted(MetricEvent event) {
         String commandType = stringValue(event, "commandType");
         inFlightCommands.computeIfAbsent(commandType, k -> {
@@ -165,6 +239,33 @@ public class MicrometerMetricsCollector {
             .increment();
     }
 
+    private void handleCommandAttempts(MetricEvent event) {
+        DistributionSummary.builder(COMMANDS_ATTEMPTS)
+            .description("Attempts per command under a DCB conflict retry policy")
+            .tag("command_type", stringValue(event, "commandType"))
+            .tag("outcome", stringValue(event, "outcome"))
+            .register(registry)
+            .record(intValue(event, "attempts"));
+    }
+
+    private void handleCommandStripe(MetricEvent event) {
+        String stripe = stringValue(event, "stripe");
+        stripeQueueDepth.computeIfAbsent(stripe, k -> {
+            AtomicInteger gauge = new AtomicInteger(0);
+            Gauge.builder(COMMANDS_STRIPE_QUEUE_DEPTH, gauge, AtomicInteger::get)
+                .description("Commands holding or waiting for the stripe at its last acquisition")
+                .tag("stripe", k)
+                .register(registry);
+            return gauge;
+        }).set(intValue(event, "queueDepth"));
+
+        Timer.builder(COMMANDS_STRIPE_WAIT)
+            .description("Time a command waited for its stripe")
+            .tag("stripe", stripe)
+            .register(registry)
+            .record(durationValue(event, "waitTime"));
+    }
+
     private void handleEventsPublished(MetricEvent event) {
         Counter.builder(OUTBOX_EVENTS_PUBLISHED)
             .description("Total number of events published")
@@ -321,6 +422,10 @@ public class MicrometerMetricsCollector {
         return ((Number) value(event, accessor)).intValue();
     }
 
+    private static long longValue(MetricEvent event, String accessor) {
+        return ((Number) value(event, accessor)).longValue();
+    }
+
     private static boolean booleanValue(MetricEvent event, String accessor) {
         return (Boolean) value(event, accessor);
     }
@@ -28,6 +28,9 @@
  *   <li>{@code eventstore.commands.total} - Total commands processed</li>
  *   <li>{@code eventstore.commands.failed} - Failed commands</li>
  *   <li>{@code eventstore.commands.idempotent} - Idempotent operations</li>
+ *   <li>{@code eventstore.commands.attempts} - Attempts per command under a retry policy</li>
+ *   <li>{@code commands.stripe.queue_depth} - Commands queued per stripe</li>
+ *   <li>{@code commands.stripe.wait} - Time commands waited for their stripe</li>
  *   <li>{@code outbox.events.published} - Total events published</li>
  *   <li>{@code outbox.processing.cycles} - Processing cycles</li>
  *   <li>{@code outbox.errors} - Publishing errors</li>
@@ -2,7 +2,9 @@ package com.crablet.metrics.micrometer;
 
 import com.crablet.automations.metrics.AutomationExecutionErrorMetric;
 import com.crablet.automations.metrics.AutomationExecutionMetric;
+import com.crablet.command.metrics.CommandAttemptsMetric;
 import com.crablet.command.metrics.CommandStartedMetric;
+import com.crablet.command.metrics.CommandStripeMetric;
 import com.crablet.command.metrics.CommandFailureMetric;
 import com.crablet.command.metrics.CommandSuccessMetric;
 import com.crablet.command.metrics.IdempotentOperationMetric;
@@ -12,6 +14,12 @@ import com.crablet.eventstore.metrics.ConcurrencyViolationMetric;
 import com.crablet.eventstore.metrics.MetricEvent;
 import com.crablet.eventstore.metrics.EventTypeMetric;
 import com.crablet.eventstore.metrics.EventsAppendedMetric;
+import com.crablet.eventstore.metrics.GroupCommitBatchMetric;
+import com.crablet.eventstore.metrics.GroupCommitQueueWaitMetric;
+import com.crablet.eventstore.metrics.ReplicaFallbackMetric;
+import com.crablet.eventstore.metrics.ReplicaHealthMetric;
+import com.crablet.eventstore.metrics.ReplicaLagMetric;
+import com.crablet.eventstore.metrics.ReplicaReadMetric;
 import com.crablet.outbox.metrics.EventsPublishedMetric;
 import com.crablet.outbox.metrics.OutboxErrorMetric;
 import com.crablet.outbox.metrics.ProcessingCycleMetric;
@@ -19,6 +27,7 @@ import com.crablet.outbox.metrics.PublishingDurationMetric;
 import com.crablet.views.metrics.ViewProjectionErrorMetric;
 import com.crablet.views.metrics.ViewProjectionMetric;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -29,6 +38,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -87,6 +97,62 @@ class MicrometerMetricsCollectorTest {
         assertThat(counter.count()).isEqualTo(1.0);
     }
     
+    @Test
+    @DisplayName("Should record group commit batch size and queue wait")
+    void shouldRecordGroupCommitMetrics() {
+        // When
+        collector.handleMetricEvent(new GroupCommitBatchMetric(12, 30));
+        collector.handleMetricEvent(new GroupCommitQueueWaitMetric(Duration.ofMillis(2)));
+
+        // Then
+        DistributionSummary batchSize = registry.find("eventstore.group_commit.batch_size").summary();
+        assertThat(batchSize).isNotNull();
+        assertThat(batchSize.count()).isEqualTo(1);
+        assertThat(batchSize.totalAmount()).isEqualTo(12.0);
+
+        Timer queueWait = registry.find("eventstore.group_commit.queue_wait").timer();
+        assertThat(queueWait).isNotNull();
+        assertThat(queueWait.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should track replica lag and primary fallbacks per replica")
+    void shouldTrackReplicaLagAndFallbacks() {
+        // When
+        collector.handleMetricEvent(new ReplicaLagMetric("replica-1:5432", 4096));
+        collector.handleMetricEvent(new ReplicaLagMetric("replica-1:5432", 128));
+        collector.handleMetricEvent(new ReplicaFallbackMetric("replica-1:5432"));
+
+        // Then
+        Gauge lag = registry.find("eventstore.replica.lag_bytes").tag("replica", "replica-1:5432").gauge();
+        assertThat(lag).isNotNull();
+        assertThat(lag.value()).isEqualTo(128.0);
+
+        Counter fallbacks = registry.find("eventstore.replica.primary_fallbacks").tag("replica", "replica-1:5432").counter();
+        assertThat(fallbacks).isNotNull();
+        assertThat(fallbacks.count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should count reads and track health per replica")
+    void shouldCountReadsAndTrackHealthPerReplica() {
+        // When
+        collector.handleMetricEvent(new ReplicaReadMetric("replica-1:5432"));
+        collector.handleMetricEvent(new ReplicaReadMetric("replica-2:5432"));
+        collector.handleMetricEvent(new ReplicaReadMetric("replica-2:5432"));
+        collector.handleMetricEvent(new ReplicaHealthMetric("replica-1:5432", true));
+        collector.handleMetricEvent(new ReplicaHealthMetric("replica-1:5432", false));
+
+        // Then
+        Counter reads = registry.find("eventstore.replica.reads").tag("replica", "replica-2:5432").counter();
+        assertThat(reads).isNotNull();
+        assertThat(reads.count()).isEqualTo(2.0);
+
+        Gauge healthy = registry.find("eventstore.replica.healthy").tag("replica", "replica-1:5432").gauge();
+        assertThat(healthy).isNotNull();
+        assertThat(healthy.value()).isEqualTo(0.0);
+    }
+
     @Test
     @DisplayName("Should record command success metric")
     void shouldRecordCommandSuccess() {
@@ -135,6 +201,48 @@ class MicrometerMetricsCollectorTest {
         assertThat(counter).isNotNull();
         assertThat(counter.count()).isEqualTo(1.0);
     }
+
+    @Test
+    @DisplayName("Should record command attempts per command type and outcome")
+    void shouldRecordCommandAttempts() {
+        // When
+        collector.handleMetricEvent(new CommandAttemptsMetric("withdraw", 1, "succeeded"));
+        collector.handleMetricEvent(new CommandAttemptsMetric("withdraw", 3, "succeeded"));
+        collector.handleMetricEvent(new CommandAttemptsMetric("withdraw", 4, "exhausted"));
+
+        // Then
+        DistributionSummary succeeded = registry.find("eventstore.commands.attempts")
+            .tag("command_type", "withdraw")
+            .tag("outcome", "succeeded")
+            .summary();
+        assertThat(succeeded).isNotNull();
+        assertThat(succeeded.count()).isEqualTo(2);
+        assertThat(succeeded.totalAmount()).isEqualTo(4.0);
+
+        DistributionSummary exhausted = registry.find("eventstore.commands.attempts")
+            .tag("outcome", "exhausted")
+            .summary();
+        assertThat(exhausted).isNotNull();
+        assertThat(exhausted.max()).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("Should record stripe queue depth and wait time per stripe")
+    void shouldRecordCommandStripe() {
+        // When
+        collector.handleMetricEvent(new CommandStripeMetric("7", 3, Duration.ofMillis(20)));
+        collector.handleMetricEvent(new CommandStripeMetric("7", 1, Duration.ofMillis(10)));
+
+        // Then
+        Gauge depth = registry.find("commands.stripe.queue_depth").tag("stripe", "7").gauge();
+        assertThat(depth).isNotNull();
+        assertThat(depth.value()).isEqualTo(1.0);
+
+        Timer wait = registry.find("commands.stripe.wait").tag("stripe", "7").timer();
+        assertThat(wait).isNotNull();
+        assertThat(wait.count()).isEqualTo(2);
+        assertThat(wait.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30.0);
+    }
     
     @Test
     @DisplayName("Should record events published metric")
@@ -8,6 +8,7 @@ public final class CrabletObservationNames {
     public static final String EVENTSTORE_APPEND = "crablet.eventstore.append";
     public static final String EVENTSTORE_CONCURRENCY_VIOLATION = "crablet.eventstore.concurrency.violation";
     public static final String EVENTSTORE_EVENT_TYPE = "crablet.eventstore.event.type";
+    public static final String EVENTSTORE_GROUP_COMMIT = "crablet.eventstore.group.commit";
     public static final String COMMAND_HANDLE = "crablet.command.handle";
     public static final String COMMAND_IDEMPOTENT_DUPLICATE = "crablet.command.idempotent.duplicate";
     public static final String POLLER_LEADERSHIP = "crablet.poller.leadership";
@@ -213,10 +213,14 @@ public class InMemoryEventStore implements EventStore, CommandAuditStore {
             .filter(e -> e.position() > after.position())
             .sorted(Comparator.comparing(EventRecord::position))
             .collect(Collectors.toList());
+        if (query.latest() > 0 && matchingEvents.size() > query.latest()) {
+            matchingEvents = matchingEvents.subList(matchingEvents.size() - query.latest(), matchingEvents.size());
+        }
 
         // Project state using real projectors
         T state = projectors.get(0).getInitialState();
         StreamPosition lastStreamPosition = after;
+        boolean done = false;
 
         for (EventRecord record : matchingEvents) {
             // Convert EventRecord to StoredEvent on-the-fly for projection
@@ -229,12 +233,16 @@ public class InMemoryEventStore implements EventStore, CommandAuditStore {
                 record.occurredAt()
             );
             
-            // Apply all projectors
-            for (StateProjector<T> projector : projectors) {
-                if (projector.getEventTypes().isEmpty() ||
-                    projector.getEventTypes().contains(record.type())) {
-                    state = projector.transition(state, storedEvent, deserializer);
+            // Apply all projectors until every one is done; the position still advances
+            if (!done) {
+                for (StateProjector<T> projector : projectors) {
+                    if (projector.getEventTypes().isEmpty() ||
+                        projector.getEventTypes().contains(record.type())) {
+                        state = projector.transition(state, storedEvent, deserializer);
+                    }
                 }
+                final T folded = state;
+                done = projectors.stream().allMatch(projector -> projector.isDone(folded));
             }
             
             lastStreamPosition = StreamPosition.of(record.position(), record.occurredAt(), record.transactionId());
@@ -15,8 +15,11 @@ public final class CrabletTestSchemaCleanup {
     public static void truncateEventStoreTablesAndRestartPositionSequence(JdbcTemplate jdbc) {
         jdbc.execute("TRUNCATE TABLE crablet_event_tags");
         jdbc.execute("TRUNCATE TABLE crablet_events CASCADE");
+        jdbc.execute("TRUNCATE TABLE crablet_consistency_boundaries");
         jdbc.execute("TRUNCATE TABLE crablet_commands CASCADE");
         jdbc.execute("TRUNCATE TABLE crablet_outbox_topic_progress CASCADE");
+        jdbc.execute("TRUNCATE TABLE crablet_snapshots");
+        jdbc.execute("TRUNCATE TABLE crablet_archive_segments");
         jdbc.execute("ALTER SEQUENCE events_position_seq RESTART WITH 1");
     }
 
@@ -24,6 +27,7 @@ public final class CrabletTestSchemaCleanup {
     public static void truncateEventsCommandsAndOutboxProgress(JdbcTemplate jdbc) {
         jdbc.execute("TRUNCATE TABLE crablet_event_tags");
         jdbc.execute("TRUNCATE TABLE crablet_events RESTART IDENTITY CASCADE");
+        jdbc.execute("TRUNCATE TABLE crablet_consistency_boundaries");
         jdbc.execute("TRUNCATE TABLE crablet_commands CASCADE");
         jdbc.execute("TRUNCATE TABLE crablet_outbox_topic_progress CASCADE");
     }
@@ -32,6 +36,7 @@ public final class CrabletTestSchemaCleanup {
     public static void truncateEventsAndOutboxProgressOnly(JdbcTemplate jdbc) {
         jdbc.execute("TRUNCATE TABLE crablet_event_tags");
         jdbc.execute("TRUNCATE TABLE crablet_events RESTART IDENTITY CASCADE");
+        jdbc.execute("TRUNCATE TABLE crablet_consistency_boundaries");
         jdbc.execute("TRUNCATE TABLE crablet_outbox_topic_progress CASCADE");
     }
 
@@ -43,6 +48,7 @@ public final class CrabletTestSchemaCleanup {
     public static void truncateAutomationsIntegrationTables(JdbcTemplate jdbc) {
         jdbc.execute("TRUNCATE TABLE crablet_event_tags");
         jdbc.execute("TRUNCATE TABLE crablet_events RESTART IDENTITY CASCADE");
+        jdbc.execute("TRUNCATE TABLE crablet_consistency_boundaries");
         jdbc.execute("TRUNCATE TABLE crablet_commands CASCADE");
         jdbc.execute("TRUNCATE TABLE crablet_automation_progress CASCADE");
     }
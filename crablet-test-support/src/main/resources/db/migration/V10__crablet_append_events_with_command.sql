@@ -0,0 +1,48 @@
+-- Crablet fused command writes.
+--
+-- append_events_with_command appends a command's events through append_events_if and, when the
+-- append succeeds, writes the command's crablet_commands audit row in the same call. The command
+-- executor uses it with crablet.eventstore.fused-command-writes=true, saving the separate INSERT
+-- round trip per command. A failed condition returns append_events_if's result unchanged and
+-- writes no audit row, as when the two statements ran one after the other.
+
+CREATE FUNCTION append_events_with_command(
+    p_command_type          TEXT,
+    p_command_data          JSONB,
+    p_command_metadata      JSONB,
+    p_command_occurred_at   TIMESTAMP WITH TIME ZONE,
+    p_types                 TEXT[],
+    p_tags                  TEXT[],
+    p_data                  ANYARRAY,
+    p_event_types           TEXT[]                   DEFAULT NULL,
+    p_condition_tags        TEXT[]                   DEFAULT NULL,
+    p_after_cursor_position BIGINT                   DEFAULT NULL,
+    p_idempotency_types     TEXT[]                   DEFAULT NULL,
+    p_idempotency_tags      TEXT[]                   DEFAULT NULL,
+    p_occurred_at           TIMESTAMP WITH TIME ZONE DEFAULT NULL,
+    p_correlation_id        UUID                     DEFAULT NULL,
+    p_causation_id          BIGINT                   DEFAULT NULL,
+    p_notify_channel        TEXT                     DEFAULT NULL,
+    p_notify_payload        TEXT                     DEFAULT NULL,
+    p_payload_codec         SMALLINT                 DEFAULT 0
+) RETURNS JSONB AS
+$$
+DECLARE
+    v_result JSONB;
+BEGIN
+    v_result := append_events_if(
+        p_types, p_tags, p_data,
+        p_event_types, p_condition_tags, p_after_cursor_position,
+        p_idempotency_types, p_idempotency_tags,
+        p_occurred_at, p_correlation_id, p_causation_id,
+        p_notify_channel, p_notify_payload, p_payload_codec);
+
+    IF (v_result ->> 'success')::BOOLEAN THEN
+        INSERT INTO crablet_commands (command_id, transaction_id, type, data, metadata, occurred_at)
+        VALUES (gen_random_uuid(), pg_current_xact_id(), p_command_type, p_command_data,
+                p_command_metadata, p_command_occurred_at);
+    END IF;
+
+    RETURN v_result;
+END;
+$$ LANGUAGE plpgsql;
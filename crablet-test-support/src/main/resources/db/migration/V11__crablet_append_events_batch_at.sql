@@ -0,0 +1,46 @@
+-- Crablet per-event timestamps for group commit.
+--
+-- append_events_batch_at takes one occurred_at per event instead of one for the whole call.
+-- Group commit merges the appends of several callers into one call; each caller's events keep
+-- the timestamp taken when that caller appended, not the time the batch was flushed. Each run
+-- of events sharing a timestamp is written by append_events_batch, in order, so tag and
+-- consistency boundary maintenance stays in one place.
+
+CREATE FUNCTION append_events_batch_at(
+    p_types          TEXT[],
+    p_tags           TEXT[],
+    p_data           ANYARRAY,
+    p_occurred_at    TIMESTAMP WITH TIME ZONE[],
+    p_correlation_id UUID     DEFAULT NULL,
+    p_causation_id   BIGINT   DEFAULT NULL,
+    p_payload_codec  SMALLINT DEFAULT 0
+) RETURNS VOID AS
+$$
+DECLARE
+    v_count INT := COALESCE(cardinality(p_types), 0);
+    v_start INT := 1;
+BEGIN
+    IF COALESCE(cardinality(p_occurred_at), 0) <> v_count THEN
+        RAISE EXCEPTION 'append_events_batch_at needs one occurred_at per event, got % for % events',
+            COALESCE(cardinality(p_occurred_at), 0), v_count;
+    END IF;
+
+    FOR i IN 1 .. v_count LOOP
+        IF i = v_count OR p_occurred_at[i + 1] IS DISTINCT FROM p_occurred_at[i] THEN
+            PERFORM append_events_batch(
+                p_types[v_start:i],
+                p_tags[v_start:i],
+                p_data[v_start:i],
+                p_occurred_at[i],
+                p_correlation_id,
+                p_causation_id,
+                p_payload_codec);
+            v_start := i + 1;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION append_events_batch_at(TEXT[], TEXT[], ANYARRAY, TIMESTAMP WITH TIME ZONE[], UUID, BIGINT, SMALLINT) IS
+    'Insert events with one application-controlled timestamp per event through append_events_batch. '
+    'p_data is jsonb[] or bytea[] matching the type of crablet_events.data.';
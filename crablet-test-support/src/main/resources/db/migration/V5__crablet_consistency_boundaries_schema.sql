@@ -0,0 +1,279 @@
+-- Crablet consistency-boundary schema.
+--
+-- A consistency boundary shape is declared from a decision-model query: its event types
+-- and the tag keys it filters on. For every declared shape, append_events_batch keeps one
+-- crablet_consistency_boundaries row per (shape, key=value tag) holding the highest
+-- position of a matching event. append_events_if reads those rows by primary key before
+-- falling back to the GIN-backed EXISTS scan over crablet_events:
+--
+--   * a row that is missing or at or below the caller's cursor proves there is no conflict;
+--   * for a single-tag condition, a row above the cursor whose transaction is below the safe
+--     horizon proves a conflict;
+--   * anything else (multi-tag conditions, rows last touched by an in-flight transaction,
+--     undeclared shapes) uses the scan, so results never differ from the scan.
+--
+-- With no declared shapes the maintenance join is empty and behaviour is unchanged.
+-- Every append that touches a declared boundary updates its row, so appends to the same
+-- boundary serialize on that row until commit.
+
+CREATE TABLE crablet_consistency_boundary_shapes
+(
+    shape_id    TEXT                     NOT NULL PRIMARY KEY,
+    event_types TEXT[]                   NOT NULL,
+    tag_keys    TEXT[]                   NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_crablet_boundary_shapes_types CHECK (cardinality(event_types) > 0),
+    CONSTRAINT chk_crablet_boundary_shapes_keys CHECK (cardinality(tag_keys) > 0)
+);
+
+CREATE TABLE crablet_consistency_boundaries
+(
+    shape_id            TEXT   NOT NULL,
+    tag                 TEXT   NOT NULL,
+    last_position       BIGINT NOT NULL,
+    last_transaction_id xid8   NOT NULL,
+
+    CONSTRAINT pk_crablet_consistency_boundaries PRIMARY KEY (shape_id, tag)
+);
+
+CREATE OR REPLACE FUNCTION append_events_batch(
+    p_types          TEXT[],
+    p_tags           TEXT[],
+    p_data           JSONB[],
+    p_occurred_at    TIMESTAMP WITH TIME ZONE,
+    p_correlation_id UUID   DEFAULT NULL,
+    p_causation_id   BIGINT DEFAULT NULL
+) RETURNS VOID AS
+$$
+BEGIN
+    WITH inserted AS (
+        INSERT INTO crablet_events (type, tags, data, transaction_id, occurred_at,
+                            correlation_id, causation_id)
+        SELECT t.type,
+               t.tag_string::TEXT[],
+               t.data,
+               pg_current_xact_id(),
+               p_occurred_at,
+               p_correlation_id,
+               p_causation_id
+        FROM UNNEST($1, $2, $3) AS t(type, tag_string, data)
+        RETURNING position, type, tags
+    ),
+    tag_rows AS (
+        INSERT INTO crablet_event_tags (position, key, value)
+        SELECT i.position,
+               split_part(tag, '=', 1)                      AS key,
+               substring(tag FROM position('=' IN tag) + 1) AS value
+        FROM inserted i,
+             LATERAL unnest(i.tags) AS tag
+        WHERE tag LIKE '%=%'
+    )
+    -- Rows are upserted in key order so concurrent appends touching the same boundaries
+    -- lock them in the same order
+    INSERT INTO crablet_consistency_boundaries (shape_id, tag, last_position, last_transaction_id)
+    SELECT s.shape_id, tag, MAX(i.position), pg_current_xact_id()
+    FROM inserted i
+    JOIN crablet_consistency_boundary_shapes s ON i.type = ANY(s.event_types)
+    CROSS JOIN LATERAL unnest(i.tags) AS tag
+    WHERE split_part(tag, '=', 1) = ANY(s.tag_keys)
+    GROUP BY s.shape_id, tag
+    ORDER BY s.shape_id, tag
+    ON CONFLICT (shape_id, tag) DO UPDATE
+    SET last_position       = EXCLUDED.last_position,
+        last_transaction_id = EXCLUDED.last_transaction_id
+    WHERE crablet_consistency_boundaries.last_position < EXCLUDED.last_position;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Decide a DCB condition from boundary rows.
+-- Returns FALSE (no conflict), TRUE (conflict) or NULL when only the event scan can tell.
+CREATE OR REPLACE FUNCTION consistency_boundary_conflict(
+    p_event_types           TEXT[],
+    p_condition_tags        TEXT[],
+    p_after_cursor_position BIGINT
+) RETURNS BOOLEAN AS
+$$
+DECLARE
+    v_shape_id    TEXT;
+    v_any_clear   BOOLEAN;
+    v_all_settled BOOLEAN;
+BEGIN
+    SELECT s.shape_id INTO v_shape_id
+    FROM crablet_consistency_boundary_shapes s
+    WHERE s.event_types @> p_event_types
+      AND s.event_types <@ p_event_types
+      AND s.tag_keys @> ARRAY(SELECT split_part(t, '=', 1) FROM unnest(p_condition_tags) AS t)
+    ORDER BY s.shape_id
+    LIMIT 1;
+
+    IF v_shape_id IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT bool_or(b.last_position IS NULL OR b.last_position <= p_after_cursor_position),
+           bool_and(b.last_transaction_id < pg_snapshot_xmin(pg_current_snapshot()))
+    INTO v_any_clear, v_all_settled
+    FROM unnest(p_condition_tags) AS t(tag)
+    LEFT JOIN crablet_consistency_boundaries b
+           ON b.shape_id = v_shape_id AND b.tag = t.tag;
+
+    IF v_any_clear THEN
+        RETURN FALSE;
+    END IF;
+    IF cardinality(p_condition_tags) = 1 AND v_all_settled THEN
+        RETURN TRUE;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION append_events_if(
+    p_types                 TEXT[],
+    p_tags                  TEXT[],
+    p_data                  JSONB[],
+    p_event_types           TEXT[]                   DEFAULT NULL,
+    p_condition_tags        TEXT[]                   DEFAULT NULL,
+    p_after_cursor_position BIGINT                   DEFAULT NULL,
+    p_idempotency_types     TEXT[]                   DEFAULT NULL,
+    p_idempotency_tags      TEXT[]                   DEFAULT NULL,
+    p_occurred_at           TIMESTAMP WITH TIME ZONE DEFAULT NULL,
+    p_correlation_id        UUID                     DEFAULT NULL,
+    p_causation_id          BIGINT                   DEFAULT NULL,
+    p_notify_channel        TEXT                     DEFAULT NULL,
+    p_notify_payload        TEXT                     DEFAULT NULL
+) RETURNS JSONB AS
+$$
+DECLARE
+    v_has_duplicate         BOOLEAN;
+    v_has_conflict          BOOLEAN;
+    v_boundary_conflict     BOOLEAN;
+    v_idempotency_lock_key  BIGINT;
+    v_concurrency_lock_key  BIGINT;
+BEGIN
+    IF p_idempotency_types IS NOT NULL OR p_idempotency_tags IS NOT NULL THEN
+        v_idempotency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'type:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'tag:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_idempotency_lock_key);
+    END IF;
+
+    -- See V1: serialize check-then-insert per decision model.
+    IF p_event_types IS NOT NULL OR p_condition_tags IS NOT NULL THEN
+        v_concurrency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'concurrency_type:' || item.value
+                    FROM unnest(COALESCE(p_event_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'concurrency_tag:' || item.value
+                    FROM unnest(COALESCE(p_condition_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_concurrency_lock_key);
+    END IF;
+
+    -- Declared consistency boundaries answer most conflict checks with primary-key reads
+    IF cardinality(p_event_types) > 0
+       AND cardinality(p_condition_tags) > 0
+       AND p_after_cursor_position IS NOT NULL THEN
+        v_boundary_conflict := consistency_boundary_conflict(
+            p_event_types, p_condition_tags, p_after_cursor_position);
+    END IF;
+
+    SELECT
+        CASE
+            WHEN p_idempotency_types IS NOT NULL OR p_idempotency_tags IS NOT NULL THEN
+                EXISTS (
+                    SELECT 1 FROM crablet_events e
+                    WHERE (p_idempotency_types IS NULL OR e.type = ANY(p_idempotency_types))
+                      AND (p_idempotency_tags IS NULL OR e.tags @> p_idempotency_tags)
+                    LIMIT 1
+                )
+            ELSE FALSE
+        END,
+        CASE
+            WHEN v_boundary_conflict IS NOT NULL THEN
+                v_boundary_conflict
+            WHEN p_event_types IS NULL AND p_condition_tags IS NULL AND p_after_cursor_position IS NULL THEN
+                FALSE
+            ELSE
+                EXISTS (
+                    SELECT 1 FROM crablet_events e
+                    WHERE (p_event_types IS NULL OR e.type = ANY(p_event_types))
+                      AND (p_condition_tags IS NULL OR e.tags @> p_condition_tags)
+                      AND (p_after_cursor_position IS NULL OR e.position > p_after_cursor_position)
+                      AND e.transaction_id < pg_snapshot_xmin(pg_current_snapshot())
+                    LIMIT 1
+                )
+        END
+    INTO v_has_duplicate, v_has_conflict;
+
+    IF v_has_duplicate THEN
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'duplicate operation detected',
+            'error_code', 'IDEMPOTENCY_VIOLATION'
+        );
+    END IF;
+
+    IF v_has_conflict THEN
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'append condition violated',
+            'error_code', 'DCB_VIOLATION'
+        );
+    END IF;
+
+    PERFORM append_events_batch(
+        p_types,
+        p_tags,
+        p_data,
+        COALESCE(p_occurred_at, CURRENT_TIMESTAMP),
+        p_correlation_id,
+        p_causation_id
+    );
+
+    IF p_notify_channel IS NOT NULL THEN
+        BEGIN
+            PERFORM pg_notify(p_notify_channel, COALESCE(p_notify_payload, '*'));
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'pg_notify failed on channel %: %', p_notify_channel, SQLERRM;
+        END;
+    END IF;
+
+    RETURN jsonb_build_object(
+        'success',        true,
+        'message',        'events appended successfully',
+        'events_count',   array_length(p_types, 1),
+        'transaction_id', pg_current_xact_id()::TEXT
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE crablet_consistency_boundary_shapes IS
+    'Declared consistency-boundary shapes: decision-model event types and the tag keys they filter on.';
+
+COMMENT ON TABLE crablet_consistency_boundaries IS
+    'Highest position per (declared shape, key=value tag), maintained by append_events_batch. Derived data; rebuilt by re-declaring the shape.';
+
+COMMENT ON FUNCTION append_events_batch(TEXT[], TEXT[], JSONB[], TIMESTAMP WITH TIME ZONE, UUID, BIGINT) IS
+    'Insert events with application-controlled timestamps and maintain derived crablet_event_tags and crablet_consistency_boundaries rows.';
+
+COMMENT ON FUNCTION consistency_boundary_conflict(TEXT[], TEXT[], BIGINT) IS
+    'Decide a DCB condition from declared consistency boundaries: FALSE no conflict, TRUE conflict, NULL fall back to the event scan.';
@@ -0,0 +1,235 @@
+-- Crablet idempotency-key schema.
+--
+-- Idempotent appends with a single (type, key=value) key — appendIdempotent(events, type,
+-- tagKey, tagValue), CommandDecision.Idempotent and IdempotencyKey — claim the key in
+-- crablet_idempotency_keys with INSERT ... ON CONFLICT DO NOTHING instead of taking a
+-- pg_advisory_xact_lock and scanning crablet_events.tags through the GIN index:
+--
+--   * no inserted row means an earlier append claimed the key: duplicate;
+--   * a concurrent claimer of the same key blocks on the primary key until the first
+--     transaction commits (duplicate) or rolls back (claim succeeds);
+--   * a new claim still checks crablet_event_tags by primary key, so events appended
+--     without a claim are detected exactly as before.
+--
+-- Rows reference the last event of the claiming append and disappear with it, so
+-- TRUNCATE crablet_events CASCADE also clears them. Rows are a fast path only: deleting
+-- any of them (retention) never lets a duplicate through. Idempotency queries with
+-- several types or tags keep the advisory lock and the GIN scan.
+
+CREATE TABLE crablet_idempotency_keys
+(
+    type       TEXT                     NOT NULL,
+    key        TEXT                     NOT NULL,
+    value      TEXT                     NOT NULL,
+    position   BIGINT,
+    claimed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_crablet_idempotency_keys PRIMARY KEY (type, key, value),
+    CONSTRAINT fk_crablet_idempotency_keys_position FOREIGN KEY (position) REFERENCES crablet_events(position) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_crablet_idempotency_keys_position ON crablet_idempotency_keys (position);
+CREATE INDEX idx_crablet_idempotency_keys_claimed_at ON crablet_idempotency_keys (claimed_at);
+
+CREATE OR REPLACE FUNCTION append_events_if(
+    p_types                 TEXT[],
+    p_tags                  TEXT[],
+    p_data                  JSONB[],
+    p_event_types           TEXT[]                   DEFAULT NULL,
+    p_condition_tags        TEXT[]                   DEFAULT NULL,
+    p_after_cursor_position BIGINT                   DEFAULT NULL,
+    p_idempotency_types     TEXT[]                   DEFAULT NULL,
+    p_idempotency_tags      TEXT[]                   DEFAULT NULL,
+    p_occurred_at           TIMESTAMP WITH TIME ZONE DEFAULT NULL,
+    p_correlation_id        UUID                     DEFAULT NULL,
+    p_causation_id          BIGINT                   DEFAULT NULL,
+    p_notify_channel        TEXT                     DEFAULT NULL,
+    p_notify_payload        TEXT                     DEFAULT NULL
+) RETURNS JSONB AS
+$$
+DECLARE
+    v_has_duplicate         BOOLEAN := FALSE;
+    v_has_conflict          BOOLEAN;
+    v_boundary_conflict     BOOLEAN;
+    v_idempotency_lock_key  BIGINT;
+    v_concurrency_lock_key  BIGINT;
+    v_key_type              TEXT;
+    v_key_name              TEXT;
+    v_key_value             TEXT;
+    v_claimed_rows          INT := 0;
+    v_existing_position     BIGINT;
+BEGIN
+    IF COALESCE(cardinality(p_idempotency_types), 0) = 1
+       AND COALESCE(cardinality(p_idempotency_tags), 0) = 1
+       AND position('=' IN p_idempotency_tags[1]) > 0 THEN
+        -- Single (type, key=value) idempotency key: claim it. A concurrent claimer of the
+        -- same key waits on the primary key until this transaction ends, then sees the row.
+        v_key_type  := p_idempotency_types[1];
+        v_key_name  := split_part(p_idempotency_tags[1], '=', 1);
+        v_key_value := substring(p_idempotency_tags[1] FROM position('=' IN p_idempotency_tags[1]) + 1);
+
+        INSERT INTO crablet_idempotency_keys (type, key, value)
+        VALUES (v_key_type, v_key_name, v_key_value)
+        ON CONFLICT DO NOTHING;
+        GET DIAGNOSTICS v_claimed_rows = ROW_COUNT;
+
+        IF v_claimed_rows = 0 THEN
+            v_has_duplicate := TRUE;
+        ELSE
+            -- New claim: events appended without a claim (appendCommutative, bulk import,
+            -- rows pruned by retention, history before V6) are found through the
+            -- crablet_event_tags primary key instead of a GIN scan.
+            SELECT t.position INTO v_existing_position
+            FROM crablet_event_tags t
+            JOIN crablet_events e ON e.position = t.position
+            WHERE t.key = v_key_name
+              AND t.value = v_key_value
+              AND e.type = v_key_type
+            LIMIT 1;
+
+            IF v_existing_position IS NOT NULL THEN
+                v_has_duplicate := TRUE;
+                UPDATE crablet_idempotency_keys
+                SET position = v_existing_position
+                WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+            END IF;
+        END IF;
+    ELSIF p_idempotency_types IS NOT NULL OR p_idempotency_tags IS NOT NULL THEN
+        v_idempotency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'type:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'tag:' || item.value
+                    FROM unnest(COALESCE(p_idempotency_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_idempotency_lock_key);
+
+        v_has_duplicate := EXISTS (
+            SELECT 1 FROM crablet_events e
+            WHERE (p_idempotency_types IS NULL OR e.type = ANY(p_idempotency_types))
+              AND (p_idempotency_tags IS NULL OR e.tags @> p_idempotency_tags)
+            LIMIT 1
+        );
+    END IF;
+
+    IF v_has_duplicate THEN
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'duplicate operation detected',
+            'error_code', 'IDEMPOTENCY_VIOLATION'
+        );
+    END IF;
+
+    -- See V1: serialize check-then-insert per decision model.
+    IF p_event_types IS NOT NULL OR p_condition_tags IS NOT NULL THEN
+        v_concurrency_lock_key := hashtextextended(
+            array_to_string(
+                ARRAY(
+                    SELECT 'concurrency_type:' || item.value
+                    FROM unnest(COALESCE(p_event_types, ARRAY[]::TEXT[])) AS item(value)
+                    UNION ALL
+                    SELECT 'concurrency_tag:' || item.value
+                    FROM unnest(COALESCE(p_condition_tags, ARRAY[]::TEXT[])) AS item(value)
+                    ORDER BY 1
+                ),
+                ','
+            ),
+            0
+        );
+        PERFORM pg_advisory_xact_lock(v_concurrency_lock_key);
+    END IF;
+
+    -- Declared consistency boundaries answer most conflict checks with primary-key reads
+    IF cardinality(p_event_types) > 0
+       AND cardinality(p_condition_tags) > 0
+       AND p_after_cursor_position IS NOT NULL THEN
+        v_boundary_conflict := consistency_boundary_conflict(
+            p_event_types, p_condition_tags, p_after_cursor_position);
+    END IF;
+
+    SELECT
+        CASE
+            WHEN v_boundary_conflict IS NOT NULL THEN
+                v_boundary_conflict
+            WHEN p_event_types IS NULL AND p_condition_tags IS NULL AND p_after_cursor_position IS NULL THEN
+                FALSE
+            ELSE
+                EXISTS (
+                    SELECT 1 FROM crablet_events e
+                    WHERE (p_event_types IS NULL OR e.type = ANY(p_event_types))
+                      AND (p_condition_tags IS NULL OR e.tags @> p_condition_tags)
+                      AND (p_after_cursor_position IS NULL OR e.position > p_after_cursor_position)
+                      AND e.transaction_id < pg_snapshot_xmin(pg_current_snapshot())
+                    LIMIT 1
+                )
+        END
+    INTO v_has_conflict;
+
+    IF v_has_conflict THEN
+        -- The function returns instead of raising, so release the claim explicitly
+        IF v_claimed_rows > 0 THEN
+            DELETE FROM crablet_idempotency_keys
+            WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+        END IF;
+        RETURN jsonb_build_object(
+            'success',    false,
+            'message',    'append condition violated',
+            'error_code', 'DCB_VIOLATION'
+        );
+    END IF;
+
+    PERFORM append_events_batch(
+        p_types,
+        p_tags,
+        p_data,
+        COALESCE(p_occurred_at, CURRENT_TIMESTAMP),
+        p_correlation_id,
+        p_causation_id
+    );
+
+    IF v_claimed_rows > 0 THEN
+        UPDATE crablet_idempotency_keys
+        SET position = (
+            SELECT max(e.position) FROM crablet_events e
+            WHERE e.transaction_id = pg_current_xact_id()
+        )
+        WHERE type = v_key_type AND key = v_key_name AND value = v_key_value;
+    END IF;
+
+    IF p_notify_channel IS NOT NULL THEN
+        BEGIN
+            PERFORM pg_notify(p_notify_channel, COALESCE(p_notify_payload, '*'));
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'pg_notify failed on channel %: %', p_notify_channel, SQLERRM;
+        END;
+    END IF;
+
+    RETURN jsonb_build_object(
+        'success',        true,
+        'message',        'events appended successfully',
+        'events_count',   array_length(p_types, 1),
+        'transaction_id', pg_current_xact_id()::TEXT
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE crablet_idempotency_keys IS
+    'Idempotency keys claimed by single-key idempotent appends. Fast path only; rows may be pruned after a retention window without losing duplicate detection.';
+
+COMMENT ON COLUMN crablet_idempotency_keys.position IS
+    'Position of the last event appended by the claiming call. NULL only while the claiming transaction is in flight.';
+
+COMMENT ON FUNCTION append_events_if(TEXT[], TEXT[], JSONB[], TEXT[], TEXT[], BIGINT, TEXT[], TEXT[], TIMESTAMP WITH TIME ZONE, UUID, BIGINT, TEXT, TEXT) IS
+    'Conditionally insert events using DCB conflict checks over canonical crablet_events.tags '
+    'and optionally notify append listeners on commit. Single (type, key=value) idempotency keys '
+    'are claimed in crablet_idempotency_keys, whose primary key serializes racing callers; other '
+    'idempotency queries and decision-model conditions serialize check-then-insert with '
+    'distinctly namespaced pg_advisory_xact_lock calls keyed via hashtextextended(). Declared '
+    'consistency boundaries answer conflict checks before the event scan.';
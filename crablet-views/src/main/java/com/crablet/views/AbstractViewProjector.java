@@ -5,6 +5,9 @@ import com.crablet.eventstore.CorrelationContext;
 import com.crablet.eventstore.Stable;
 import com.crablet.eventstore.StoredEvent;
 import com.crablet.eventstore.WriteDataSource;
+import com.crablet.eventstore.query.CachingEventDeserializer;
+import com.crablet.eventstore.query.EventDeserializer;
+import com.crablet.eventstore.query.MemoizingEventDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -34,11 +37,18 @@ import java.util.List;
 @Stable
 public abstract class AbstractViewProjector implements ViewProjector {
 
+    /**
+     * Deserializer for the event being handled, so repeated {@link #deserialize} calls for one
+     * event parse it once.
+     */
+    private static final ScopedValue<EventDeserializer> CURRENT_EVENT_DESERIALIZER = ScopedValue.newInstance();
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected final ObjectMapper objectMapper;
     protected final ClockProvider clockProvider;
     protected final TransactionTemplate transactionTemplate;
     private final JdbcTemplate writeJdbc;
+    private final CachingEventDeserializer eventDeserializer;
 
     /**
      * Initialises the projector with the dependencies required for deserialization,
@@ -55,6 +65,7 @@ public abstract class AbstractViewProjector implements ViewProjector {
             PlatformTransactionManager transactionManager,
             WriteDataSource writeDataSource) {
         this.objectMapper = objectMapper;
+        this.eventDeserializer = new CachingEventDeserializer(objectMapper);
         this.clockProvider = clockProvider;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
@@ -112,7 +123,8 @@ public abstract class AbstractViewProjector implements ViewProjector {
     private boolean handleEventWithCorrelationContext(StoredEvent event) throws Exception {
         // Propagate the triggering event context so events appended by projector-side
         // work can be traced back to the event being projected.
-        var scope = ScopedValue.where(CorrelationContext.CAUSATION_ID, event.position());
+        var scope = ScopedValue.where(CorrelationContext.CAUSATION_ID, event.position())
+                .where(CURRENT_EVENT_DESERIALIZER, new MemoizingEventDeserializer(eventDeserializer));
         if (event.correlationId() != null) {
             scope = scope.where(CorrelationContext.CORRELATION_ID, event.correlationId());
         }
@@ -122,6 +134,8 @@ public abstract class AbstractViewProjector implements ViewProjector {
     /**
      * Deserialize event data to the specified type.
      * Helper method for subclasses that need to deserialize events.
+     * Uses a cached reader per type; while an event is being handled, repeated calls for the
+     * same type return the instance deserialized first.
      *
      * @param event The stored event to deserialize
      * @param type The target type to deserialize to
@@ -131,7 +145,10 @@ public abstract class AbstractViewProjector implements ViewProjector {
      */
     protected <T> T deserialize(StoredEvent event, Class<T> type) {
         try {
-            return objectMapper.readValue(event.data(), type);
+            EventDeserializer deserializer = CURRENT_EVENT_DESERIALIZER.isBound()
+                    ? CURRENT_EVENT_DESERIALIZER.get()
+                    : eventDeserializer;
+            return deserializer.deserialize(event, type);
         } catch (Exception e) {
             throw new RuntimeException(
                 "Failed to deserialize event: " + event.type() + " to " + type.getSimpleName(), e);
@@ -105,6 +105,15 @@ public class SubscribeStudentToCourseCommandHandler implements NonCommutativeCom
         return CommandDecision.NonCommutative.of(event, decisionModel, projection.streamPosition());
     }
 
+    /**
+     * Subscriptions to the same course compete for its capacity, so with command striping
+     * enabled they queue per course rather than per course-and-student decision model.
+     */
+    @Override
+    public Query concurrencyScope(SubscribeStudentToCourseCommand command) {
+        return CourseQueryPatterns.courseDecisionModel(command.courseId());
+    }
+
     private static StateProjector<SubscriptionState> subscriptionStateProjector(
             String courseId, String studentId) {
         return StateProjector.<SubscriptionState>builder(
@@ -10,7 +10,7 @@ import com.crablet.examples.wallet.events.MoneyTransferred;
 import com.crablet.examples.wallet.exceptions.InsufficientFundsException;
 import com.crablet.examples.wallet.exceptions.WalletNotFoundException;
 import com.crablet.examples.wallet.period.WalletPeriodHelper;
-import com.crablet.examples.wallet.period.WalletPeriodHelper.PeriodProjectionResult;
+import com.crablet.examples.wallet.period.WalletStatementId;
 import com.crablet.examples.wallet.projections.TransferState;
 import com.crablet.examples.wallet.projections.TransferStateProjector;
 import org.slf4j.Logger;
@@ -52,13 +52,12 @@ public class TransferMoneyCommandHandler implements NonCommutativeCommandHandler
     public CommandDecision.NonCommutative decide(EventStore eventStore, TransferMoneyCommand command) {
         // Command is already validated at construction with YAVI
 
-        PeriodProjectionResult fromPeriodResult = periodHelper.projectCurrentPeriod(
-                eventStore, command.fromWalletId(), TransferMoneyCommand.class);
-        PeriodProjectionResult toPeriodResult = periodHelper.projectCurrentPeriod(
-                eventStore, command.toWalletId(), TransferMoneyCommand.class);
+        // Periods come from the clock; both balances are part of the single transfer decision model
+        WalletStatementId fromPeriodId = periodHelper.currentPeriod(command.fromWalletId(), TransferMoneyCommand.class);
+        WalletStatementId toPeriodId = periodHelper.currentPeriod(command.toWalletId(), TransferMoneyCommand.class);
 
         TransferProjectionResult transferProjection = projectTransferState(
-                eventStore, command, fromPeriodResult, toPeriodResult);
+                eventStore, command, fromPeriodId, toPeriodId);
         TransferState transferState = transferProjection.state();
 
         if (!transferState.fromWallet().isExisting()) {
@@ -91,8 +90,6 @@ public class TransferMoneyCommandHandler implements NonCommutativeCommandHandler
                 command.description()
         );
 
-        var fromPeriodId = fromPeriodResult.periodId();
-        var toPeriodId = toPeriodResult.periodId();
         int fromYear = fromPeriodId.year();
         int fromMonth = fromPeriodId.month() != null ? fromPeriodId.month() : 1;
         Integer fromDay = fromPeriodId.day();
@@ -124,11 +121,9 @@ public class TransferMoneyCommandHandler implements NonCommutativeCommandHandler
     private TransferProjectionResult projectTransferState(
             EventStore store,
             TransferMoneyCommand cmd,
-            PeriodProjectionResult fromPeriodResult,
-            PeriodProjectionResult toPeriodResult) {
+            WalletStatementId fromPeriodId,
+            WalletStatementId toPeriodId) {
 
-        var fromPeriodId = fromPeriodResult.periodId();
-        var toPeriodId = toPeriodResult.periodId();
         int fromYear = fromPeriodId.year();
         int fromMonth = fromPeriodId.month() != null ? fromPeriodId.month() : 1;
         int toYear = toPeriodId.year();
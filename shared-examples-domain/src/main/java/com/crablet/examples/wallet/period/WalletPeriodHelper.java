@@ -96,11 +96,8 @@ public class WalletPeriodHelper {
             EventStore eventStore,
             String walletId,
             Class<?> commandClass) {
-        PeriodType periodType = configProvider.getPeriodType(commandClass);
-        
         // Get current period from clock (no statement creation)
-        Instant now = clockProvider.now();
-        WalletStatementId periodId = WalletStatementId.fromInstant(walletId, now, periodType);
+        WalletStatementId periodId = currentPeriod(walletId, commandClass);
         
         // Project balance using period-aware query
         // Note: Query includes WalletOpened (no period tags) + transaction events (with period tags)
@@ -118,6 +115,22 @@ public class WalletPeriodHelper {
         return new PeriodProjectionResult(periodId, projection);
     }
 
+    /**
+     * Current period of a wallet, from the clock alone.
+     * <p>
+     * Needs no event store read, so handlers that only tag events with the period, or project
+     * their own decision model over it, use this instead of {@link #projectCurrentPeriod}.
+     *
+     * @param walletId     The wallet ID
+     * @param commandClass The command class to determine period type from @PeriodConfig annotation
+     * @return The period the clock is currently in
+     */
+    public WalletStatementId currentPeriod(String walletId, Class<?> commandClass) {
+        PeriodType periodType = configProvider.getPeriodType(commandClass);
+        Instant now = clockProvider.now();
+        return WalletStatementId.fromInstant(walletId, now, periodType);
+    }
+
     /**
      * Result of period resolution and balance projection.
      */
@@ -32,6 +32,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.crablet.eventstore.EventType.type;
 import static com.crablet.examples.wallet.WalletTags.FROM_WALLET_ID;
@@ -148,9 +149,10 @@ public class WalletStatementPeriodResolver {
         Query query = Query.forEventAndTag(type(WalletStatementClosed.class), STATEMENT_ID, periodId.toStreamId());
         try {
             // Try using EventRepository first (sees committed events)
-            List<StoredEvent> events = eventRepository.query(query, null);
-            if (!events.isEmpty()) {
-                return true;
+            try (Stream<StoredEvent> events = eventRepository.stream(query, null)) {
+                if (events.findAny().isPresent()) {
+                    return true;
+                }
             }
             // If EventRepository doesn't find it, try projecting (sees uncommitted events)
             // This is a fallback - if projection succeeds, events might exist
@@ -198,12 +200,11 @@ public class WalletStatementPeriodResolver {
         Query periodQuery = WalletQueryPatterns.singleWalletPeriodDecisionModel(
                 walletId, periodId.year(), periodId.month() != null ? periodId.month() : 1);
         
-        List<StoredEvent> events = eventRepository.query(periodQuery, null);
-        
         // Filter out WalletStatementOpened events - we only care about actual transactions
-        return events.stream()
-                .anyMatch(e -> !type(WalletStatementOpened.class).equals(e.type()) && 
-                              !type(WalletStatementClosed.class).equals(e.type()));
+        try (Stream<StoredEvent> events = eventRepository.stream(periodQuery, null)) {
+            return events.anyMatch(e -> !type(WalletStatementOpened.class).equals(e.type()) &&
+                                        !type(WalletStatementClosed.class).equals(e.type()));
+        }
     }
 
     /**
@@ -217,7 +218,8 @@ public class WalletStatementPeriodResolver {
         }
 
         // Read closing balance from previous period's WalletStatementClosed event
-        Query query = Query.forEventAndTag("WalletStatementClosed", STATEMENT_ID, previousPeriod.toStreamId());
+        Query query = Query.forEventAndTag("WalletStatementClosed", STATEMENT_ID, previousPeriod.toStreamId())
+                .withLatest(1);
         List<StoredEvent> events = eventRepository.query(query, null);
         
         if (events.isEmpty()) {